@@ -2,10 +2,12 @@ package com.assessment.monitoringmicroservice;
 
 import org.springframework.boot.SpringApplication;	
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.scheduling.annotation.EnableAsync;
 
 @SpringBootApplication
 @EnableAsync    //enables async for the application
+@ConfigurationPropertiesScan    //binds the monitoring.* properties
 public class MonitoringmicroserviceApplication {
 
 	public static void main(String[] args) {
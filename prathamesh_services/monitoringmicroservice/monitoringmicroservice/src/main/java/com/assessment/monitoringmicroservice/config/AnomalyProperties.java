@@ -0,0 +1,113 @@
+package com.assessment.monitoringmicroservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+
+/**
+ * Configuration properties for the anomaly detection of the ingest.
+ *
+ * <p>The properties are bound from the {@code monitoring.anomaly} prefix in
+ * {@code application.properties}. Every water parameter keeps an exponentially weighted
+ * mean and variance over about the last {@code window} readings. A value which is more
+ * than {@code threshold} standard deviations away from the mean is an anomaly, once the
+ * parameter has at least {@code min-samples} values.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "monitoring.anomaly")
+public class AnomalyProperties {
+
+	/**
+	 * Scores the readings while they are inserted.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Number of readings the rolling statistics cover, the weight of a new value is {@code 2 / (window + 1)}.
+	 */
+	private int window = 100;
+
+	/**
+	 * Largest absolute z-score which is not an anomaly.
+	 */
+	private double threshold = 3.0;
+
+	/**
+	 * Number of values of a parameter before its readings are scored.
+	 */
+	private int minSamples = 30;
+
+
+	/**
+	 * Checks if the readings are scored.
+	 *
+	 * @return The {@code enabled} value.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets if the readings are scored.
+	 *
+	 * @param enabled The {@code enabled} to set.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Retrieves the number of readings the rolling statistics cover.
+	 *
+	 * @return The {@code window} value.
+	 */
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * Sets the number of readings the rolling statistics cover.
+	 *
+	 * @param window The {@code window} to set.
+	 */
+	public void setWindow(int window) {
+		this.window = window;
+	}
+
+	/**
+	 * Retrieves the largest absolute z-score which is not an anomaly.
+	 *
+	 * @return The {@code threshold} value.
+	 */
+	public double getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Sets the largest absolute z-score which is not an anomaly.
+	 *
+	 * @param threshold The {@code threshold} to set.
+	 */
+	public void setThreshold(double threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Retrieves the number of values of a parameter before its readings are scored.
+	 *
+	 * @return The {@code minSamples} value.
+	 */
+	public int getMinSamples() {
+		return minSamples;
+	}
+
+	/**
+	 * Sets the number of values of a parameter before its readings are scored.
+	 *
+	 * @param minSamples The {@code minSamples} to set.
+	 */
+	public void setMinSamples(int minSamples) {
+		this.minSamples = minSamples;
+	}
+}
@@ -0,0 +1,224 @@
+package com.assessment.monitoringmicroservice.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+
+/**
+ * Configuration properties for loading water quality readings into the database.
+ *
+ * <p>The properties are bound from the {@code monitoring.ingest} prefix in
+ * {@code application.properties}. The ingest mode decides whether the CSV rows are
+ * replayed one by one like an IOT device ({@link Mode#SIMULATION}) or written
+ * in batched chunks as fast as possible ({@link Mode#BULK}). If a watch directory is set,
+ * the CSV files in it are tailed and their new lines are ingested as they are appended.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "monitoring.ingest")
+public class IngestProperties {
+
+	/**
+	 * The ways the records can be written in the database table.
+	 */
+	public enum Mode {
+
+		/**
+		 * Saves and flushes one record at a time with a delay between the records.
+		 */
+		SIMULATION,
+
+		/**
+		 * Saves the records in chunks, one transaction per chunk with batched JDBC inserts.
+		 */
+		BULK
+	}
+
+	/**
+	 * Loads the bundled CSV file when the application starts.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Ingest mode used by {@code insertRecords}.
+	 */
+	private Mode mode = Mode.SIMULATION;
+
+	/**
+	 * Number of records written per transaction in bulk mode.
+	 */
+	private int batchSize = 500;
+
+	/**
+	 * Delay between two records in simulation mode.
+	 */
+	private Duration simulationDelay = Duration.ofSeconds(30);
+
+	/**
+	 * Number of threads which parse a file in bulk mode, more than one splits the file into ranges.
+	 */
+	private int parseThreads = 1;
+
+	/**
+	 * Number of parsed chunks which can wait for the writer when a file is parsed on several threads.
+	 */
+	private int writerQueueDepth = 8;
+
+	/**
+	 * Directory whose CSV files are tailed, {@code null} to not watch any directory.
+	 */
+	private Path watchDirectory;
+
+	/**
+	 * Interval after which all files of the watch directory are checked even without a file event.
+	 */
+	private Duration watchPollInterval = Duration.ofSeconds(5);
+
+
+	/**
+	 * Retrieves if the CSV file is loaded on startup.
+	 *
+	 * @return {@code true} if the file is loaded on startup.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets if the CSV file is loaded on startup.
+	 *
+	 * @param enabled {@code true} to load the file on startup.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Retrieves the ingest mode.
+	 *
+	 * @return The {@code mode} value.
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Sets the ingest mode.
+	 *
+	 * @param mode The {@code mode} to set.
+	 */
+	public void setMode(Mode mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * Retrieves the number of records written per transaction in bulk mode.
+	 *
+	 * @return The {@code batchSize} value.
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the number of records written per transaction in bulk mode.
+	 *
+	 * @param batchSize The {@code batchSize} to set.
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Retrieves the delay between two records in simulation mode.
+	 *
+	 * @return The {@code simulationDelay} value.
+	 */
+	public Duration getSimulationDelay() {
+		return simulationDelay;
+	}
+
+	/**
+	 * Sets the delay between two records in simulation mode.
+	 *
+	 * @param simulationDelay The {@code simulationDelay} to set.
+	 */
+	public void setSimulationDelay(Duration simulationDelay) {
+		this.simulationDelay = simulationDelay;
+	}
+
+	/**
+	 * Retrieves the number of threads which parse a file in bulk mode.
+	 *
+	 * @return The {@code parseThreads} value.
+	 */
+	public int getParseThreads() {
+		return parseThreads;
+	}
+
+	/**
+	 * Sets the number of threads which parse a file in bulk mode.
+	 *
+	 * @param parseThreads The {@code parseThreads} to set.
+	 */
+	public void setParseThreads(int parseThreads) {
+		this.parseThreads = parseThreads;
+	}
+
+	/**
+	 * Retrieves the number of parsed chunks which can wait for the writer.
+	 *
+	 * @return The {@code writerQueueDepth} value.
+	 */
+	public int getWriterQueueDepth() {
+		return writerQueueDepth;
+	}
+
+	/**
+	 * Sets the number of parsed chunks which can wait for the writer.
+	 *
+	 * @param writerQueueDepth The {@code writerQueueDepth} to set.
+	 */
+	public void setWriterQueueDepth(int writerQueueDepth) {
+		this.writerQueueDepth = writerQueueDepth;
+	}
+
+	/**
+	 * Retrieves the directory whose CSV files are tailed.
+	 *
+	 * @return The {@code watchDirectory} value, {@code null} if no directory is watched.
+	 */
+	public Path getWatchDirectory() {
+		return watchDirectory;
+	}
+
+	/**
+	 * Sets the directory whose CSV files are tailed.
+	 *
+	 * @param watchDirectory The {@code watchDirectory} to set.
+	 */
+	public void setWatchDirectory(Path watchDirectory) {
+		this.watchDirectory = watchDirectory;
+	}
+
+	/**
+	 * Retrieves the interval after which all files of the watch directory are checked.
+	 *
+	 * @return The {@code watchPollInterval} value.
+	 */
+	public Duration getWatchPollInterval() {
+		return watchPollInterval;
+	}
+
+	/**
+	 * Sets the interval after which all files of the watch directory are checked.
+	 *
+	 * @param watchPollInterval The {@code watchPollInterval} to set.
+	 */
+	public void setWatchPollInterval(Duration watchPollInterval) {
+		this.watchPollInterval = watchPollInterval;
+	}
+}
@@ -0,0 +1,55 @@
+package com.assessment.monitoringmicroservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.assessment.monitoringmicroservice.service.ReadingBroadcaster;
+import com.assessment.monitoringmicroservice.service.WriteCommandQueue;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+
+/**
+ * Publishes the state of the writer queue and the streams as Micrometer meters.
+ *
+ * <p>The values are read from the components when the meters are scraped, so nothing is
+ * recorded on the write or the publish path. The meters of the rows are recorded by the
+ * {@code IngestMetrics} of the service package.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Configuration
+public class MetricsConfiguration {
+
+	/**
+	 * Binds the number of writes waiting for the writer thread.
+	 *
+	 * @param writeCommandQueue the queue of the writer thread.
+	 * @return the binder of {@code monitoring.writer.queue.depth}.
+	 */
+	@Bean
+	public MeterBinder writerQueueMetrics(WriteCommandQueue writeCommandQueue) {
+		return registry -> Gauge.builder("monitoring.writer.queue.depth", writeCommandQueue, WriteCommandQueue::size)
+				.description("Writes waiting for the writer thread").register(registry);
+	}
+
+
+	/**
+	 * Binds the number of open streams and of the readings they dropped.
+	 *
+	 * @param readingBroadcaster the broadcaster of {@code /records/stream}.
+	 * @return the binder of the {@code monitoring.stream} meters.
+	 */
+	@Bean
+	public MeterBinder streamMetrics(ReadingBroadcaster readingBroadcaster) {
+		return registry -> {
+			Gauge.builder("monitoring.stream.subscribers", readingBroadcaster, ReadingBroadcaster::getSubscriberCount)
+					.description("Open streams of new readings").register(registry);
+			FunctionCounter.builder("monitoring.stream.dropped", readingBroadcaster, ReadingBroadcaster::getDroppedCount)
+					.description("Readings dropped because the buffer of a stream was full").register(registry);
+		};
+	}
+}
@@ -0,0 +1,102 @@
+package com.assessment.monitoringmicroservice.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+
+/**
+ * Splits the connections to the SQLite database into a write pool and a read-only pool.
+ *
+ * <p>
+ * The write pool is the pool configured with {@code spring.datasource.*}; it has a single
+ * connection, which is used by the writer thread of the {@code WriteCommandQueue}. The
+ * read-only pool has {@code monitoring.storage.read-pool-size} connections opened with the
+ * SQLite read-only flag. The application datasource is a {@link LazyConnectionDataSourceProxy}
+ * which takes the connection of a read-only transaction from the read-only pool and every
+ * other connection from the write pool. In WAL journal mode the readers see the last commit
+ * and never block the writer, so the readers do not wait for the ingest and the writer never
+ * gets {@code SQLITE_BUSY}.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "monitoring.storage", name = "read-write-split", havingValue = "true")
+public class StorageConfiguration {
+
+	private static final String SQLITE_READ_ONLY = "open_mode=1"; // SQLITE_OPEN_READONLY
+
+
+	/**
+	 * Creates the pool of the writer from the {@code spring.datasource} properties.
+	 *
+	 * @param properties the datasource properties.
+	 * @return the write pool.
+	 */
+	@Bean
+	@ConfigurationProperties(prefix = "spring.datasource.hikari")
+	public HikariDataSource writeDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("sqlite-write");
+		return dataSource;
+	}
+
+
+	/**
+	 * Creates the read-only pool. Without {@code monitoring.storage.read-url} it opens the
+	 * database of the datasource URL with the read-only flag.
+	 *
+	 * @param properties the datasource properties.
+	 * @param storageProperties the size and URL of the read-only pool.
+	 * @return the read-only pool.
+	 */
+	@Bean
+	public HikariDataSource readDataSource(DataSourceProperties properties, StorageProperties storageProperties) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setPoolName("sqlite-read");
+		dataSource.setDriverClassName(properties.determineDriverClassName());
+		dataSource.setJdbcUrl(storageProperties.getReadUrl() != null ? storageProperties.getReadUrl()
+				: readOnlyUrl(properties.determineUrl()));
+		dataSource.setMaximumPoolSize(Math.max(1, storageProperties.getReadPoolSize()));
+		return dataSource;
+	}
+
+
+	/**
+	 * Creates the datasource used by JPA and JDBC, which picks the pool when a connection is first used.
+	 *
+	 * @param writeDataSource the write pool.
+	 * @param readDataSource the read-only pool.
+	 * @return the routing datasource.
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+			@Qualifier("readDataSource") DataSource readDataSource) {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+		dataSource.setReadOnlyDataSource(readDataSource);
+		return dataSource;
+	}
+
+
+	/**
+	 * Adds the SQLite read-only flag to a JDBC URL.
+	 *
+	 * @param url the URL of the database.
+	 * @return the URL which opens the database read-only.
+	 */
+	static String readOnlyUrl(String url) {
+		return url + (url.contains("?") ? "&" : "?") + SQLITE_READ_ONLY;
+	}
+}
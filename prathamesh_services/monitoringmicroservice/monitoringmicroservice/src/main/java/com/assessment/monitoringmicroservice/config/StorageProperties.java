@@ -0,0 +1,113 @@
+package com.assessment.monitoringmicroservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+
+/**
+ * Configuration properties for the connections to the SQLite database.
+ *
+ * <p>The properties are bound from the {@code monitoring.storage} prefix in
+ * {@code application.properties}. All writes are run one after another on a single writer
+ * thread, at most {@code write-queue-capacity} writes wait for it. With {@code read-write-split}
+ * the read-only transactions get their connections from a separate read-only pool, which
+ * together with the WAL journal lets the reads run next to the writer.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "monitoring.storage")
+public class StorageProperties {
+
+	/**
+	 * Serves the read-only transactions from a separate pool of read-only connections.
+	 */
+	private boolean readWriteSplit = false;
+
+	/**
+	 * JDBC URL of the read-only connections, {@code null} to open the datasource URL read-only.
+	 */
+	private String readUrl;
+
+	/**
+	 * Number of connections of the read-only pool.
+	 */
+	private int readPoolSize = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Number of writes which can wait for the writer thread.
+	 */
+	private int writeQueueCapacity = 64;
+
+
+	/**
+	 * Retrieves if the read-only transactions use a separate pool.
+	 *
+	 * @return {@code true} if reads and writes use separate pools.
+	 */
+	public boolean isReadWriteSplit() {
+		return readWriteSplit;
+	}
+
+	/**
+	 * Sets if the read-only transactions use a separate pool.
+	 *
+	 * @param readWriteSplit {@code true} to use separate pools for reads and writes.
+	 */
+	public void setReadWriteSplit(boolean readWriteSplit) {
+		this.readWriteSplit = readWriteSplit;
+	}
+
+	/**
+	 * Retrieves the JDBC URL of the read-only connections.
+	 *
+	 * @return The {@code readUrl} value, may be {@code null}.
+	 */
+	public String getReadUrl() {
+		return readUrl;
+	}
+
+	/**
+	 * Sets the JDBC URL of the read-only connections.
+	 *
+	 * @param readUrl The {@code readUrl} to set.
+	 */
+	public void setReadUrl(String readUrl) {
+		this.readUrl = readUrl;
+	}
+
+	/**
+	 * Retrieves the number of connections of the read-only pool.
+	 *
+	 * @return The {@code readPoolSize} value.
+	 */
+	public int getReadPoolSize() {
+		return readPoolSize;
+	}
+
+	/**
+	 * Sets the number of connections of the read-only pool.
+	 *
+	 * @param readPoolSize The {@code readPoolSize} to set.
+	 */
+	public void setReadPoolSize(int readPoolSize) {
+		this.readPoolSize = readPoolSize;
+	}
+
+	/**
+	 * Retrieves the number of writes which can wait for the writer thread.
+	 *
+	 * @return The {@code writeQueueCapacity} value.
+	 */
+	public int getWriteQueueCapacity() {
+		return writeQueueCapacity;
+	}
+
+	/**
+	 * Sets the number of writes which can wait for the writer thread.
+	 *
+	 * @param writeQueueCapacity The {@code writeQueueCapacity} to set.
+	 */
+	public void setWriteQueueCapacity(int writeQueueCapacity) {
+		this.writeQueueCapacity = writeQueueCapacity;
+	}
+}
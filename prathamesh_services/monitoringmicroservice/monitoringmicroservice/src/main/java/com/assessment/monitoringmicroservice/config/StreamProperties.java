@@ -0,0 +1,161 @@
+package com.assessment.monitoringmicroservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+
+/**
+ * Configuration properties for the Server-Sent Events stream of new readings.
+ *
+ * <p>The properties are bound from the {@code monitoring.stream} prefix in
+ * {@code application.properties}. Every subscriber has a buffer of {@code buffer-size}
+ * events which {@code sender-threads} threads write to the connections, so a slow client
+ * only fills its own buffer and never blocks the ingest or the other clients. A client
+ * whose connection does not take an event within {@code send-timeout} is disconnected.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "monitoring.stream")
+public class StreamProperties {
+
+	/**
+	 * Number of events which can wait for one subscriber before its overflow policy applies.
+	 */
+	private int bufferSize = 256;
+
+	/**
+	 * Number of threads which write the events to the subscribers.
+	 */
+	private int senderThreads = 4;
+
+	/**
+	 * Largest number of open streams.
+	 */
+	private int maxSubscribers = 10_000;
+
+	/**
+	 * Time after which a stream is closed, the client reconnects then.
+	 */
+	private Duration timeout = Duration.ofMinutes(30);
+
+	/**
+	 * Interval of the comments sent to idle streams, so closed connections are noticed.
+	 */
+	private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+	/**
+	 * Longest time one event may take to be written before the stream is closed as stalled.
+	 */
+	private Duration sendTimeout = Duration.ofSeconds(5);
+
+
+	/**
+	 * Retrieves the number of events which can wait for one subscriber.
+	 *
+	 * @return The {@code bufferSize} value.
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Sets the number of events which can wait for one subscriber.
+	 *
+	 * @param bufferSize The {@code bufferSize} to set.
+	 */
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Retrieves the number of threads which write the events.
+	 *
+	 * @return The {@code senderThreads} value.
+	 */
+	public int getSenderThreads() {
+		return senderThreads;
+	}
+
+	/**
+	 * Sets the number of threads which write the events.
+	 *
+	 * @param senderThreads The {@code senderThreads} to set.
+	 */
+	public void setSenderThreads(int senderThreads) {
+		this.senderThreads = senderThreads;
+	}
+
+	/**
+	 * Retrieves the largest number of open streams.
+	 *
+	 * @return The {@code maxSubscribers} value.
+	 */
+	public int getMaxSubscribers() {
+		return maxSubscribers;
+	}
+
+	/**
+	 * Sets the largest number of open streams.
+	 *
+	 * @param maxSubscribers The {@code maxSubscribers} to set.
+	 */
+	public void setMaxSubscribers(int maxSubscribers) {
+		this.maxSubscribers = maxSubscribers;
+	}
+
+	/**
+	 * Retrieves the time after which a stream is closed.
+	 *
+	 * @return The {@code timeout} value.
+	 */
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Sets the time after which a stream is closed.
+	 *
+	 * @param timeout The {@code timeout} to set.
+	 */
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Retrieves the interval of the heartbeat comments.
+	 *
+	 * @return The {@code heartbeatInterval} value.
+	 */
+	public Duration getHeartbeatInterval() {
+		return heartbeatInterval;
+	}
+
+	/**
+	 * Sets the interval of the heartbeat comments.
+	 *
+	 * @param heartbeatInterval The {@code heartbeatInterval} to set.
+	 */
+	public void setHeartbeatInterval(Duration heartbeatInterval) {
+		this.heartbeatInterval = heartbeatInterval;
+	}
+
+	/**
+	 * Retrieves the longest time one event may take to be written.
+	 *
+	 * @return The {@code sendTimeout} value.
+	 */
+	public Duration getSendTimeout() {
+		return sendTimeout;
+	}
+
+	/**
+	 * Sets the longest time one event may take to be written.
+	 *
+	 * @param sendTimeout The {@code sendTimeout} to set.
+	 */
+	public void setSendTimeout(Duration sendTimeout) {
+		this.sendTimeout = sendTimeout;
+	}
+}
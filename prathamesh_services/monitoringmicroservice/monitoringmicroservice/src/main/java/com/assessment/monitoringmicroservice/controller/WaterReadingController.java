@@ -1,27 +1,51 @@
 package com.assessment.monitoringmicroservice.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+import com.assessment.monitoringmicroservice.model.AggregateBucket;
+import com.assessment.monitoringmicroservice.model.ReadingAnomaly;
+import com.assessment.monitoringmicroservice.model.RecordPage;
+import com.assessment.monitoringmicroservice.model.RecordQuery;
+import com.assessment.monitoringmicroservice.model.UploadReport;
 import com.assessment.monitoringmicroservice.model.WaterReading;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 
+import com.assessment.monitoringmicroservice.service.AnomalyDetectionService;
+import com.assessment.monitoringmicroservice.service.ReadingBroadcaster;
+import com.assessment.monitoringmicroservice.service.ReadingUploadService;
+import com.assessment.monitoringmicroservice.service.WaterReadingAggregationService;
+import com.assessment.monitoringmicroservice.service.WaterReadingExportService;
 import com.assessment.monitoringmicroservice.service.WaterReadingService;
 
 
@@ -39,10 +63,22 @@ import com.assessment.monitoringmicroservice.service.WaterReadingService;
 public class WaterReadingController {
 
 	private final WaterReadingService waterReadingService;
+	private final WaterReadingExportService waterReadingExportService;
+	private final WaterReadingAggregationService waterReadingAggregationService;
+	private final ReadingBroadcaster readingBroadcaster;
+	private final ReadingUploadService readingUploadService;
+	private final AnomalyDetectionService anomalyDetectionService;
 	private static final Logger logger = LoggerFactory.getLogger(WaterReadingController.class);
 
-	public WaterReadingController(WaterReadingService waterReadingService) {
+	public WaterReadingController(WaterReadingService waterReadingService, WaterReadingExportService waterReadingExportService,
+			WaterReadingAggregationService waterReadingAggregationService, ReadingBroadcaster readingBroadcaster,
+			ReadingUploadService readingUploadService, AnomalyDetectionService anomalyDetectionService) {
 		this.waterReadingService = waterReadingService;
+		this.waterReadingExportService = waterReadingExportService;
+		this.waterReadingAggregationService = waterReadingAggregationService;
+		this.readingBroadcaster = readingBroadcaster;
+		this.readingUploadService = readingUploadService;
+		this.anomalyDetectionService = anomalyDetectionService;
 	}
 
 
@@ -50,6 +86,11 @@ public class WaterReadingController {
 	 * Retrieves the latest water reading record from the database based on timestamp.
 	 * If no records are found it returns 204 no content response
 	 * 
+	 * <p>The response has a strong ETag made of the id and timestamp of the record. If the
+	 * client sends it back in {@code If-None-Match} and the record did not change, 304 Not
+	 * Modified is returned without a body.</p>
+	 * 
+	 * @param request the request with the conditional headers.
 	 * @return {@link ResponseEntity} which has the latest {@link WaterReading} record if its available and
 	 * if no records exists 204 No Content is returned.
 	 * 
@@ -61,16 +102,23 @@ public class WaterReadingController {
 					content = @Content(mediaType = "application/json",
 					schema = @Schema(implementation = WaterReading.class))),
 			@ApiResponse(responseCode = "204", description = "No records found, response body will be empty"),
+			@ApiResponse(responseCode = "304", description = "The record did not change since the ETag in If-None-Match."),
 			@ApiResponse(responseCode = "500", description = "Internal server error.",
 			content = @Content(mediaType = "application/json"))
 	})	    
 	@GetMapping("records/latest")
-	public ResponseEntity<?> getLatestRecord() {
+	public ResponseEntity<?> getLatestRecord(WebRequest request) {
 		try {
 
 			WaterReading latestReading = waterReadingService.getLatestRecord();
-			return latestReading != null ? ResponseEntity.ok().body(latestReading) 
-					: ResponseEntity.noContent().build();
+			if (latestReading == null) {
+				return ResponseEntity.noContent().build();
+			}
+			// Answers 304 from the snapshot, the record is not serialized
+			if (request.checkNotModified(WaterReadingService.eTagOf(latestReading))) {
+				return null;
+			}
+			return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(latestReading);
 
 		} catch (DataAccessException de) {
 			logger.error("Database error occurred while fetching the latest record.", de.getMessage());
@@ -83,40 +131,85 @@ public class WaterReadingController {
 
 
 	/**
-	 * Retrieves all water quality records from the database.
+	 * Retrieves a page of water quality records from the database.
 	 *
-	 * <p> This method fetches all the water quality records stored in the database.
+	 * <p> This method fetches the records ordered by timestamp one page at a time, optionally only
+	 * the records between {@code from} and {@code to}. The response has a {@code next} cursor which
+	 * is passed as {@code after} to fetch the following page. With {@code fields} only the id, the
+	 * timestamp and the selected fields are read from the database and returned. With {@code breaching}
+	 * only the records which breach one of the named safety thresholds are returned, they are found
+	 * on the index of the breach mask computed when each record was saved. The ETag of
+	 * the response is the data version, which changes with every insert, so a client which
+	 * polls the same page gets 304 Not Modified without a database query while nothing was written,
 	 * also handles case where no records were found and manages error which may occur 
 	 * due to server or database issue.</p>
 	 *
 	 * 200 OK - Successfully retrieved the records.
 	 * 204 No Content - No records are available in the database.
+	 * 304 Not Modified - Nothing was written since the ETag in If-None-Match.
+	 * 400 Bad Request - The cursor, the time range, a field or a threshold is not valid.
 	 * 500 Internal Server Error - An error occurred while retrieving the records.
 	 *
-	 * @return A {@link ResponseEntity} containing a list of {@link WaterReading} records if available, 
+	 * @param after cursor of the last record of the previous page, empty for the first page.
+	 * @param from first timestamp of the time range (inclusive), empty for no lower bound.
+	 * @param to end of the time range (exclusive), empty for no upper bound.
+	 * @param limit maximum number of records in the page.
+	 * @param fields comma separated fields to return, empty for all fields.
+	 * @param breaching comma separated thresholds, only records breaching one of them are returned, empty for all records.
+	 * @param request the request with the conditional headers.
+	 * @return A {@link ResponseEntity} containing a {@link RecordPage} of {@link WaterReading} records if available, 
 	 *         or HTTP status codes if no records exist or any errors from server.
 	 */
 	@Operation(
-			summary = "Get all water quality records",
-			description = "Fetches all the water quality records from the database table."
+			summary = "Get a page of water quality records",
+			description = "Fetches the water quality records ordered by timestamp, one page at a time, optionally within a time range."
 			)
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Successfully retrieved the records.",
 					content = @Content(mediaType = "application/json",
-					array = @ArraySchema(schema = @Schema(implementation = WaterReading.class)))),
+					schema = @Schema(implementation = RecordPage.class))),
 			@ApiResponse(responseCode = "204", description = "No records available, response body will be empty"),
+			@ApiResponse(responseCode = "304", description = "No records were written since the ETag in If-None-Match."),
+			@ApiResponse(responseCode = "400", description = "Invalid cursor, time range, field or threshold.",
+			content = @Content(mediaType = "application/json")),
 			@ApiResponse(responseCode = "500", description = "Internal server error.",
 			content = @Content(mediaType = "application/json"))
 	})
 	@GetMapping("/records")
-	public ResponseEntity<?> getAllRecords() {
+	public ResponseEntity<?> getAllRecords(
+			@Parameter(description = "Cursor returned as next by the previous page", example = "2025-03-16T12:30:00.123,3ebb9a40-b706-4792-aefb-48fa9ec4fa40")
+			@RequestParam(required = false) String after,
+			@Parameter(description = "Start of the time range (inclusive)", example = "2025-03-16T00:00:00")
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@Parameter(description = "End of the time range (exclusive)", example = "2025-03-17T00:00:00")
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@Parameter(description = "Maximum number of records in the page (1-" + WaterReadingService.MAX_PAGE_SIZE + ")")
+			@RequestParam(defaultValue = "100") int limit,
+			@Parameter(description = "Comma separated fields to return next to id and timestamp, empty for all fields", example = "phph,no2nmgl")
+			@RequestParam(required = false) String fields,
+			@Parameter(description = "Comma separated thresholds (tds, ph, alkalinity, conductivity, nitrite), only records breaching one of them are returned", example = "nitrite,ph")
+			@RequestParam(required = false) String breaching,
+			WebRequest request) {
 		try {
 
-			List<WaterReading> records = waterReadingService.getAllRecords();
+			// An invalid request is rejected even if its ETag matches
+			RecordQuery query = new RecordQuery(after, from, to, limit, breaching);
+			waterReadingService.checkRecordsQuery(query, fields);
+
+			// The version is read before the query, so the page is never older than its ETag
+			if (request.checkNotModified(waterReadingService.getRecordsETag())) {
+				return null;
+			}
+			RecordPage<?> page = fields == null || fields.isBlank() ? waterReadingService.getRecordsPage(query)
+					: waterReadingService.getRecordsPage(query, fields);
 
 			// Returns 200 OK if data is retrieved
 			// Returns 204 No Content if no records are found
-			return records.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(records);
+			return page.records().isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(page);
+
+		} catch (IllegalArgumentException ie) {
+			logger.warn("Invalid request for records: {}", ie.getMessage());
+			return ResponseEntity.badRequest().body(Map.of("message", ie.getMessage()));
 
 		} catch (DataAccessException de) {
 			logger.error("Database error occurred while fetching records.", de.getMessage());
@@ -127,10 +220,267 @@ public class WaterReadingController {
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Internal server error:" + e.getMessage()));
 		}
 	}
-}
 
 
+	/**
+	 * Retrieves the most recent anomalies found while the records were inserted.
+	 *
+	 * <p>Every value is compared to the rolling mean and standard deviation of its parameter
+	 * when the record is inserted; a value more than {@code monitoring.anomaly.threshold}
+	 * standard deviations away is stored as an anomaly. The anomalies are read from their own
+	 * table, newest first, so the records are not scanned.</p>
+	 *
+	 * 200 OK - Successfully retrieved the anomalies.
+	 * 204 No Content - No anomalies in the time range.
+	 * 400 Bad Request - The parameter or the time range is not valid.
+	 * 500 Internal Server Error - An error occurred while retrieving the anomalies.
+	 *
+	 * @param parameter field name of a parameter, for example {@code phph}, empty for all parameters.
+	 * @param from start of the time range (inclusive), empty for no lower bound.
+	 * @param to end of the time range (exclusive), empty for no upper bound.
+	 * @param limit maximum number of anomalies.
+	 * @return A {@link ResponseEntity} containing the list of {@link ReadingAnomaly} newest first.
+	 */
+	@Operation(summary = "Get the anomalies of the water quality records",
+			description = "Retrieves the values which deviated from the rolling statistics of their parameter, newest first.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully retrieved the anomalies.",
+					content = @Content(mediaType = "application/json",
+					array = @ArraySchema(schema = @Schema(implementation = ReadingAnomaly.class)))),
+			@ApiResponse(responseCode = "204", description = "No anomalies found, response body will be empty"),
+			@ApiResponse(responseCode = "400", description = "Invalid parameter or time range.",
+			content = @Content(mediaType = "application/json")),
+			@ApiResponse(responseCode = "500", description = "Internal server error.",
+			content = @Content(mediaType = "application/json"))
+	})
+	@GetMapping("/records/anomalies")
+	public ResponseEntity<?> getAnomalies(
+			@Parameter(description = "Field name of the parameter, empty for all parameters", example = "phph")
+			@RequestParam(required = false) String parameter,
+			@Parameter(description = "Start of the time range (inclusive)", example = "2025-03-16T00:00:00")
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@Parameter(description = "End of the time range (exclusive)", example = "2025-03-17T00:00:00")
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@Parameter(description = "Maximum number of anomalies (1-" + WaterReadingService.MAX_PAGE_SIZE + ")")
+			@RequestParam(defaultValue = "100") int limit) {
+		try {
+
+			List<ReadingAnomaly> anomalies = anomalyDetectionService.getAnomalies(parameter, from, to, limit);
+			return anomalies.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(anomalies);
+
+		} catch (IllegalArgumentException ie) {
+			logger.warn("Invalid request for anomalies: {}", ie.getMessage());
+			return ResponseEntity.badRequest().body(Map.of("message", ie.getMessage()));
+
+		} catch (DataAccessException de) {
+			logger.error("Database error occurred while fetching anomalies.", de.getMessage());
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Database error:" + de.getMessage()));
+
+		} catch (Exception e) {
+			logger.error("Server error occurred while fetching anomalies.", e.getMessage());
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Internal server error:" + e.getMessage()));
+		}
+	}
+
+
+	/**
+	 * Exports all water quality records as newline-delimited JSON.
+	 *
+	 * <p>The records are streamed from the database while the response is written, so the whole
+	 * history can be downloaded in one request without loading it in memory. Errors which occur
+	 * after the first record was sent can only be logged as the status is already committed.</p>
+	 *
+	 * @return A {@link ResponseEntity} with a body which writes one {@link WaterReading} JSON object per line.
+	 */
+	@Operation(summary = "Export all water quality records",
+			description = "Streams every water quality record ordered by timestamp as newline-delimited JSON.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Records are streamed, one JSON object per line.",
+					content = @Content(mediaType = "application/x-ndjson",
+					schema = @Schema(implementation = WaterReading.class)))
+	})
+	@GetMapping(value = "/records/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportRecords() {
+		StreamingResponseBody body = out -> {
+			try {
+				waterReadingExportService.exportRecords(out);
+			} catch (Exception e) {
+				logger.error("Error occurred while exporting records: {}", e.getMessage(), e);
+				throw e;
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
 
+	/**
+	 * Streams every new water quality record as a Server-Sent Event as soon as it is committed.
+	 *
+	 * <p>The records are pushed from memory, an open stream does not query the database. Each
+	 * event is named {@code reading}, has the record as JSON data and the {@code /records}
+	 * cursor of the record as id, so missed records can be paged with {@code after}.
+	 * Idle streams get a heartbeat comment.</p>
+	 *
+	 * 200 OK - The stream is open.
+	 * 400 Bad Request - The overflow policy is not valid.
+	 * 503 Service Unavailable - Too many streams are open.
+	 *
+	 * @param policy what happens when the client reads slower than records arrive:
+	 *        {@code drop-oldest}, {@code drop-newest} or {@code disconnect}.
+	 * @return A {@link ResponseEntity} with the {@link SseEmitter} of the stream.
+	 */
+	@Operation(summary = "Stream new water quality records",
+			description = "Pushes every committed water quality record as a Server-Sent Event named reading.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "The stream is open.",
+					content = @Content(mediaType = "text/event-stream",
+					schema = @Schema(implementation = WaterReading.class))),
+			@ApiResponse(responseCode = "400", description = "Invalid overflow policy, response body will be empty"),
+			@ApiResponse(responseCode = "503", description = "Too many open streams, response body will be empty")
+	})
+	@GetMapping("/records/stream")
+	public ResponseEntity<SseEmitter> streamRecords(
+			@Parameter(description = "Overflow policy of a slow client: drop-oldest, drop-newest or disconnect", example = "drop-oldest")
+			@RequestParam(defaultValue = "drop-oldest") String policy) {
+		// The body type has to be SseEmitter for the stream to be opened, so errors have no message body
+		try {
 
+			SseEmitter emitter = readingBroadcaster.subscribe(ReadingBroadcaster.OverflowPolicy.parse(policy));
+			return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
 
+		} catch (IllegalArgumentException ie) {
+			logger.warn("Invalid request for the stream: {}", ie.getMessage());
+			return ResponseEntity.badRequest().build();
 
+		} catch (IllegalStateException se) {
+			logger.warn("Stream refused: {}", se.getMessage());
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+		}
+	}
+
+
+	/**
+	 * Uploads many water quality records in one request as CSV or newline-delimited JSON.
+	 *
+	 * <p>The body is parsed while it arrives and written in batches, each batch in its own
+	 * transaction. The response acknowledges every committed batch with its lines and lists
+	 * the rows which could not be parsed, the other rows are written. When the writer is busy
+	 * the upload stops with 429 Too Many Requests; the batches acknowledged until then are
+	 * committed and {@code resumeAtLine} is the first line to send again. When a batch can not
+	 * be written the upload stops with 500 and the same report, with the lines of the failed
+	 * batch in {@code failedBatch}. With {@code source} a row is stored once per object ID, so
+	 * sending it again is safe.</p>
+	 *
+	 * 200 OK - The whole body was read.
+	 * 400 Bad Request - The body could not be read.
+	 * 415 Unsupported Media Type - The body is not text/csv or application/x-ndjson.
+	 * 429 Too Many Requests - The write queue is full, the rest of the body was not written.
+	 * 500 Internal Server Error - A batch could not be written, the rest of the body was not written.
+	 *
+	 * @param source name of the sender, rows with an object ID already stored for it are skipped.
+	 * @param contentType the format of the body.
+	 * @param body the rows, one per line.
+	 * @return A {@link ResponseEntity} with the {@link UploadReport} of the upload.
+	 */
+	@Operation(summary = "Upload water quality records",
+			description = "Streams CSV or newline-delimited JSON records into the database in batched transactions.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "The whole body was read.",
+					content = @Content(mediaType = "application/json",
+					schema = @Schema(implementation = UploadReport.class))),
+			@ApiResponse(responseCode = "400", description = "The body could not be read.",
+			content = @Content(mediaType = "application/json")),
+			@ApiResponse(responseCode = "429", description = "The write queue is full, send the body again from resumeAtLine.",
+					content = @Content(mediaType = "application/json",
+					schema = @Schema(implementation = UploadReport.class))),
+			@ApiResponse(responseCode = "500", description = "A batch could not be written, send the body again from resumeAtLine.",
+					content = @Content(mediaType = "application/json",
+					schema = @Schema(implementation = UploadReport.class)))
+	})
+	@PostMapping(value = "/records/batch", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+	public ResponseEntity<?> uploadRecords(
+			@Parameter(description = "Name of the sender which makes the upload idempotent by object ID", example = "station-7")
+			@RequestParam(required = false) String source,
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+			InputStream body) {
+		try {
+
+			UploadReport report = readingUploadService.upload(body, ReadingUploadService.Format.of(contentType), source);
+			if (report.failedBatch() != null) {
+				return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(report);
+			}
+			if (report.resumeAtLine() != null) {
+				return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(report);
+			}
+			return ResponseEntity.ok(report);
+
+		} catch (IllegalArgumentException | IOException ie) {
+			logger.warn("Invalid upload: {}", ie.getMessage());
+			return ResponseEntity.badRequest().body(Map.of("message", String.valueOf(ie.getMessage())));
+
+		} catch (DataAccessException de) {
+			logger.error("Database error occurred while uploading records.", de.getMessage());
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Database error:" + de.getMessage()));
+
+		} catch (Exception e) {
+			logger.error("Server error occurred while uploading records.", e.getMessage());
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Internal server error:" + e.getMessage()));
+		}
+	}
+
+
+	/**
+	 * Retrieves the min, max, mean and count of every water parameter per time bucket.
+	 *
+	 * <p>The aggregation is computed by the database so only one row per bucket is returned
+	 * instead of all the readings.</p>
+	 *
+	 * 200 OK - Successfully aggregated the records.
+	 * 204 No Content - No records are available in the time range.
+	 * 400 Bad Request - The bucket or the time range is not valid.
+	 * 500 Internal Server Error - An error occurred while aggregating the records.
+	 *
+	 * @param bucket size of the buckets, for example {@code 15m}, {@code 1h} or {@code 1d}.
+	 * @param from start of the time range (inclusive), empty for no lower bound.
+	 * @param to end of the time range (exclusive), empty for no upper bound.
+	 * @return A {@link ResponseEntity} containing the list of {@link AggregateBucket} ordered by time.
+	 */
+	@Operation(summary = "Aggregate water quality records per time bucket",
+			description = "Computes min, max, mean and count of every water parameter per time bucket in the database.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully aggregated the records.",
+					content = @Content(mediaType = "application/json",
+					array = @ArraySchema(schema = @Schema(implementation = AggregateBucket.class)))),
+			@ApiResponse(responseCode = "204", description = "No records in the time range, response body will be empty"),
+			@ApiResponse(responseCode = "400", description = "Invalid bucket or time range.",
+			content = @Content(mediaType = "application/json")),
+			@ApiResponse(responseCode = "500", description = "Internal server error.",
+			content = @Content(mediaType = "application/json"))
+	})
+	@GetMapping("/records/aggregate")
+	public ResponseEntity<?> getAggregates(
+			@Parameter(description = "Bucket size: number followed by m, h or d", example = "1h")
+			@RequestParam(defaultValue = "1h") String bucket,
+			@Parameter(description = "Start of the time range (inclusive)", example = "2025-03-16T00:00:00")
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@Parameter(description = "End of the time range (exclusive)", example = "2025-03-17T00:00:00")
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+		try {
+
+			List<AggregateBucket> buckets = waterReadingAggregationService.getAggregates(bucket, from, to);
+			return buckets.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(buckets);
+
+		} catch (IllegalArgumentException ie) {
+			logger.warn("Invalid request for aggregates: {}", ie.getMessage());
+			return ResponseEntity.badRequest().body(Map.of("message", ie.getMessage()));
+
+		} catch (DataAccessException de) {
+			logger.error("Database error occurred while aggregating records.", de.getMessage());
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Database error:" + de.getMessage()));
+
+		} catch (Exception e) {
+			logger.error("Server error occurred while aggregating records.", e.getMessage());
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Internal server error:" + e.getMessage()));
+		}
+	}
+}
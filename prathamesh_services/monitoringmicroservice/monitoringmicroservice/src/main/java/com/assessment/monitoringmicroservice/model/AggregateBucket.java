@@ -0,0 +1,29 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+
+/**
+ * Aggregated water quality readings of one time bucket.
+ *
+ * @param bucketStart start of the bucket (inclusive).
+ * @param count number of readings in the bucket.
+ * @param parameters statistics of each water parameter, keyed by its field name.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Schema(description = "Min, max, mean and count of every water parameter in one time bucket.")
+public record AggregateBucket(
+		@Schema(description = "Start of the bucket.", example = "2025-03-16T12:00:00")
+		LocalDateTime bucketStart,
+
+		@Schema(description = "Number of readings in the bucket.", example = "120")
+		long count,
+
+		@Schema(description = "Statistics keyed by parameter, for example phph or no2nmgl.")
+		Map<String, ParameterStats> parameters) {
+}
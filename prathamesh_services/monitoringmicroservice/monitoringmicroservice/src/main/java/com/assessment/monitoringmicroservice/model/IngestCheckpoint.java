@@ -0,0 +1,65 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+
+/**
+ * Position up to which a CSV file in the watched directory has been ingested.
+ *
+ * <p>The offset points right after the last complete line whose records were committed,
+ * it is saved in the same transaction as the records so a restart continues reading the
+ * file exactly there.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Entity
+@Table(name = "ingest_checkpoints")
+public class IngestCheckpoint {
+
+	@Id
+	@Column(name = "file_path", length = 1024)
+	private String filePath;
+
+	@Column(name = "byte_offset", nullable = false)
+	private long byteOffset;
+
+	@Column(name = "updated_at")
+	private LocalDateTime updatedAt;
+
+
+	/**
+	 * Constructs an empty checkpoint, used by JPA.
+	 */
+	protected IngestCheckpoint() {
+	}
+
+	/**
+	 * Constructs the checkpoint of a file.
+	 *
+	 * @param filePath the absolute path of the file.
+	 * @param byteOffset the number of bytes of the file which have been ingested.
+	 */
+	public IngestCheckpoint(String filePath, long byteOffset) {
+		this.filePath = filePath;
+		this.byteOffset = byteOffset;
+		this.updatedAt = LocalDateTime.now();
+	}
+
+	public String getFilePath() {
+		return filePath;
+	}
+
+	public long getByteOffset() {
+		return byteOffset;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+}
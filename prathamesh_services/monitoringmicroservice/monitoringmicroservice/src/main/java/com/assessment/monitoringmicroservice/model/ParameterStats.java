@@ -0,0 +1,23 @@
+package com.assessment.monitoringmicroservice.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+
+/**
+ * Statistics of one water parameter within one time bucket.
+ *
+ * @param count number of readings in the bucket which have a value for the parameter.
+ * @param min smallest value, {@code null} if the count is 0.
+ * @param max largest value, {@code null} if the count is 0.
+ * @param mean average value, {@code null} if the count is 0.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Schema(description = "Statistics of one water parameter in a time bucket.")
+public record ParameterStats(
+		@Schema(example = "60") long count,
+		@Schema(example = "7.1") Double min,
+		@Schema(example = "7.9") Double max,
+		@Schema(example = "7.52") Double mean) {
+}
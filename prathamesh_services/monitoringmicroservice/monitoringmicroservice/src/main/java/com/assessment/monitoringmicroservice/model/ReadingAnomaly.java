@@ -0,0 +1,175 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+
+/**
+ * A value of a water quality reading which was far away from the recent values of its parameter.
+ *
+ * <p>The row is written in the transaction of the reading, with the rolling mean and
+ * standard deviation the value was compared to. A reading with several unusual parameters
+ * has one row per parameter.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Schema(description = "A water parameter value which deviated from the rolling statistics of the parameter.")
+@Entity
+@Table(name = "reading_anomalies",
+		indexes = @Index(name = "idx_anomalies_recorded_at", columnList = "recorded_at"))
+@JsonPropertyOrder({"readingId", "objectId", "timestamp", "parameter", "value", "mean", "stdDev", "zScore"})
+public class ReadingAnomaly {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.UUID)
+	private String id;
+
+	@Schema(description = "Id of the water reading", example = "3ebb9a40-b706-4792-aefb-48fa9ec4fa40")
+	@Column(name = "reading_id", nullable = false)
+	private String readingId;
+
+	@Schema(description = "Object ID of the water reading", example = "1115")
+	@Column(name = "object_id")
+	private Integer objectId;
+
+	@Column(name = "recorded_at", nullable = false)
+	private long timestamp;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "parameter", length = 16, nullable = false)
+	private WaterParameter parameter;
+
+	@Schema(description = "Value of the parameter", example = "9.4")
+	@Column(name = "reading_value", nullable = false)
+	private double value;
+
+	@Schema(description = "Rolling mean of the parameter before the reading", example = "7.6")
+	@Column(name = "rolling_mean", nullable = false)
+	private double mean;
+
+	@Schema(description = "Rolling standard deviation of the parameter before the reading", example = "0.3")
+	@Column(name = "rolling_std_dev", nullable = false)
+	private double stdDev;
+
+	@Schema(description = "Number of standard deviations the value is away from the mean", example = "6.0")
+	@Column(name = "z_score", nullable = false)
+	private double zScore;
+
+
+	/**
+	 * Constructs an empty anomaly, used by JPA.
+	 */
+	protected ReadingAnomaly() {
+	}
+
+	/**
+	 * Constructs the anomaly of one parameter of a saved reading.
+	 *
+	 * @param reading the saved reading, with id and timestamp.
+	 * @param parameter the unusual parameter.
+	 * @param value the value of the parameter.
+	 * @param mean the rolling mean the value was compared to.
+	 * @param stdDev the rolling standard deviation the value was compared to.
+	 */
+	public ReadingAnomaly(WaterReading reading, WaterParameter parameter, double value, double mean, double stdDev) {
+		this.readingId = reading.getId();
+		this.objectId = reading.getObjectId();
+		this.timestamp = reading.getTimestampMillis();
+		this.parameter = parameter;
+		this.value = value;
+		this.mean = mean;
+		this.stdDev = stdDev;
+		this.zScore = (value - mean) / stdDev;
+	}
+
+	/**
+	 * Retrieves the id of the water reading.
+	 *
+	 * @return The {@code readingId} value.
+	 */
+	public String getReadingId() {
+		return readingId;
+	}
+
+	/**
+	 * Retrieves the object ID of the water reading.
+	 *
+	 * @return The {@code objectId} value.
+	 */
+	public Integer getObjectId() {
+		return objectId;
+	}
+
+	/**
+	 * Retrieves the timestamp of the water reading.
+	 *
+	 * @return The {@code timestamp} as a {@link LocalDateTime}.
+	 */
+	@Schema(description = "Timestamp of the water reading.", example = "2025-03-16T12:30:00", type = "string")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+	public LocalDateTime getTimestamp() {
+		return WaterReading.fromEpochMillis(timestamp);
+	}
+
+	/**
+	 * Retrieves the name of the unusual parameter, as in {@link WaterReading}.
+	 *
+	 * @return the field name of the parameter, for example {@code phph}.
+	 */
+	@Schema(description = "Name of the parameter", example = "phph")
+	public String getParameter() {
+		return parameter.field();
+	}
+
+	/**
+	 * Retrieves the value of the parameter.
+	 *
+	 * @return The {@code value} value.
+	 */
+	public double getValue() {
+		return value;
+	}
+
+	/**
+	 * Retrieves the rolling mean the value was compared to.
+	 *
+	 * @return The {@code mean} value.
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Retrieves the rolling standard deviation the value was compared to.
+	 *
+	 * @return The {@code stdDev} value.
+	 */
+	public double getStdDev() {
+		return stdDev;
+	}
+
+	/**
+	 * Retrieves the number of standard deviations the value is away from the mean.
+	 *
+	 * @return The {@code zScore} value, negative if the value is below the mean.
+	 */
+	@JsonProperty("zScore")
+	public double getZScore() {
+		return zScore;
+	}
+}
@@ -0,0 +1,49 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+
+/**
+ * Fields of the water readings a client selected with {@code ?fields=}.
+ *
+ * <p>The {@code id} and the {@code timestamp} are always returned because the cursor of the
+ * next page is built from them. Only the names of {@link WaterParameter} and {@code objectId}
+ * can be selected, so the names can be written into a query.</p>
+ *
+ * @param objectId {@code true} if the object ID is selected.
+ * @param parameters the selected water parameters, in the order of {@link WaterParameter}.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public record ReadingFields(boolean objectId, Set<WaterParameter> parameters) {
+
+	public static final String OBJECT_ID = "objectId";
+
+	/**
+	 * Parses a comma separated list of field names, for example {@code phph,no2nmgl}.
+	 *
+	 * @param fields the field names, the case is ignored.
+	 * @return the selected fields.
+	 * @throws IllegalArgumentException if a name is not a field or no field is given.
+	 */
+	public static ReadingFields parse(String fields) {
+		boolean objectId = false;
+		Set<WaterParameter> parameters = EnumSet.noneOf(WaterParameter.class);
+		for (String field : fields.split(",")) {
+			if (field.isBlank()) {
+				continue;
+			}
+			if (OBJECT_ID.equalsIgnoreCase(field.trim())) {
+				objectId = true;
+			} else {
+				parameters.add(WaterParameter.fromField(field));
+			}
+		}
+		if (!objectId && parameters.isEmpty()) {
+			throw new IllegalArgumentException("No fields selected: " + fields);
+		}
+		return new ReadingFields(objectId, parameters);
+	}
+}
@@ -0,0 +1,77 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+
+/**
+ * A water quality reading with only the fields a client selected.
+ *
+ * <p>It is created from the columns of a query and is not an entity, so it is not tracked
+ * by the persistence context. The selected fields are written to JSON next to {@code id}
+ * and {@code timestamp} with the same names as in {@link WaterReading}.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Schema(description = "A water quality reading with the id, the timestamp and the selected fields.")
+@JsonPropertyOrder({"id", "timestamp"})
+public class ReadingProjection {
+
+	@Schema(description = "Auto-generated UUID for the record", example = "3ebb9a40-b706-4792-aefb-48fa9ec4fa40")
+	private final String id;
+
+	@Schema(description = "Timestamp of the water quality reading.", example = "2025-03-16T12:30:00", type = "string")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+	private final LocalDateTime timestamp;
+
+	private final Map<String, Object> fields;
+
+
+	/**
+	 * Constructor for ReadingProjection.
+	 *
+	 * @param id the id of the record.
+	 * @param timestamp the timestamp of the record.
+	 * @param fields the selected fields by name.
+	 */
+	public ReadingProjection(String id, LocalDateTime timestamp, Map<String, Object> fields) {
+		this.id = id;
+		this.timestamp = timestamp;
+		this.fields = fields;
+	}
+
+	/**
+	 * Retrieves the id of the record.
+	 *
+	 * @return The {@code id} value.
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Retrieves the timestamp of the record.
+	 *
+	 * @return The {@code timestamp} value.
+	 */
+	public LocalDateTime getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Retrieves the selected fields, they are written to JSON as properties of the reading.
+	 *
+	 * @return the selected fields by name.
+	 */
+	@JsonAnyGetter
+	public Map<String, Object> getFields() {
+		return fields;
+	}
+}
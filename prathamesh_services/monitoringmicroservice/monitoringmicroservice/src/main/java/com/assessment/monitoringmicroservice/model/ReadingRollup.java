@@ -0,0 +1,135 @@
+package com.assessment.monitoringmicroservice.model;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+
+/**
+ * Pre-aggregated statistics of one water parameter in one minute, hour or day bucket.
+ *
+ * <p>The row keeps running totals which can be updated for each new reading and merged
+ * into larger buckets: the number of readings, the number of values, the sum and the
+ * sum of squares of the values and their min and max. The mean and the variance are
+ * derived from these when the rollups are read.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Entity
+@Table(name = "reading_rollups")
+public class ReadingRollup implements Persistable<ReadingRollupId> {
+
+	@EmbeddedId
+	private ReadingRollupId id;
+
+	/**
+	 * Number of readings in the bucket, with or without a value for the parameter.
+	 */
+	@Column(name = "reading_count", nullable = false)
+	private long readingCount;
+
+	/**
+	 * Number of readings in the bucket which have a value for the parameter.
+	 */
+	@Column(name = "value_count", nullable = false)
+	private long valueCount;
+
+	@Column(name = "sum_value", nullable = false)
+	private double sumValue;
+
+	@Column(name = "sum_squares", nullable = false)
+	private double sumSquares;
+
+	@Column(name = "min_value")
+	private Double minValue;
+
+	@Column(name = "max_value")
+	private Double maxValue;
+
+	@Transient
+	private boolean isNew = true;
+
+
+	/**
+	 * Constructs an empty rollup, used by JPA.
+	 */
+	protected ReadingRollup() {
+	}
+
+	/**
+	 * Constructs a new rollup row without any readings.
+	 *
+	 * @param id the granularity, bucket and parameter of the row.
+	 */
+	public ReadingRollup(ReadingRollupId id) {
+		this.id = id;
+	}
+
+
+	/**
+	 * Adds the value of one reading to the running totals.
+	 *
+	 * @param value the value of the parameter, {@code null} if the reading has no value for it.
+	 */
+	public void add(Double value) {
+		readingCount++;
+		if (value == null) {
+			return;
+		}
+		valueCount++;
+		sumValue += value;
+		sumSquares += value * value;
+		minValue = minValue == null ? value : Math.min(minValue, value);
+		maxValue = maxValue == null ? value : Math.max(maxValue, value);
+	}
+
+	@Override
+	public ReadingRollupId getId() {
+		return id;
+	}
+
+	/**
+	 * New rows are inserted without checking the database first, rows loaded by JPA are updated.
+	 */
+	@Override
+	public boolean isNew() {
+		return isNew;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		this.isNew = false;
+	}
+
+	public long getReadingCount() {
+		return readingCount;
+	}
+
+	public long getValueCount() {
+		return valueCount;
+	}
+
+	public double getSumValue() {
+		return sumValue;
+	}
+
+	public double getSumSquares() {
+		return sumSquares;
+	}
+
+	public Double getMinValue() {
+		return minValue;
+	}
+
+	public Double getMaxValue() {
+		return maxValue;
+	}
+}
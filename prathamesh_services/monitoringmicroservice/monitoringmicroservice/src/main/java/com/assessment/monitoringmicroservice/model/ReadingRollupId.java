@@ -0,0 +1,81 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+
+/**
+ * Key of a {@link ReadingRollup}: one row per granularity, bucket and water parameter.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Embeddable
+public class ReadingRollupId implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "granularity", length = 8)
+	private RollupGranularity granularity;
+
+	@Column(name = "bucket_start")
+	private long bucketStart;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "parameter", length = 16)
+	private WaterParameter parameter;
+
+
+	/**
+	 * Constructs an empty key, used by JPA.
+	 */
+	protected ReadingRollupId() {
+	}
+
+	/**
+	 * Constructs the key of a rollup row.
+	 *
+	 * @param granularity the bucket size.
+	 * @param bucketStart start of the bucket in epoch milliseconds.
+	 * @param parameter the water parameter.
+	 */
+	public ReadingRollupId(RollupGranularity granularity, long bucketStart, WaterParameter parameter) {
+		this.granularity = granularity;
+		this.bucketStart = bucketStart;
+		this.parameter = parameter;
+	}
+
+	public RollupGranularity getGranularity() {
+		return granularity;
+	}
+
+	public long getBucketStart() {
+		return bucketStart;
+	}
+
+	public WaterParameter getParameter() {
+		return parameter;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof ReadingRollupId other)) {
+			return false;
+		}
+		return bucketStart == other.bucketStart && granularity == other.granularity && parameter == other.parameter;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(granularity, bucketStart, parameter);
+	}
+}
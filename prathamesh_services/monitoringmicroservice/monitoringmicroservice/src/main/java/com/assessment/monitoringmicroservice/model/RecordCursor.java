@@ -0,0 +1,67 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+
+/**
+ * Position of a water reading in the {@code (timestamp, id)} order used for paging.
+ *
+ * <p>The cursor is sent to the clients as {@code <timestamp>,<id>}, for example
+ * {@code 2025-03-16T12:30:00.123,3ebb9a40-b706-4792-aefb-48fa9ec4fa40}. The next page
+ * starts at the first record after this position so every page is read from the
+ * index in the same time, no matter how deep the client pages.</p>
+ *
+ * @param timestamp timestamp of the last record of the page.
+ * @param id id of the last record of the page, breaks ties between equal timestamps.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public record RecordCursor(LocalDateTime timestamp, String id) {
+
+	/**
+	 * Creates the cursor pointing at the given record.
+	 *
+	 * @param reading the last record of a page.
+	 * @return the cursor of the record.
+	 */
+	public static RecordCursor of(WaterReading reading) {
+		return new RecordCursor(reading.getTimestamp(), reading.getId());
+	}
+
+	/**
+	 * Parses a cursor in the {@code <timestamp>,<id>} format.
+	 *
+	 * @param value the cursor sent by the client.
+	 * @return the parsed cursor.
+	 * @throws IllegalArgumentException if the value is not a valid cursor.
+	 */
+	public static RecordCursor parse(String value) {
+		int comma = value.indexOf(',');
+		if (comma <= 0 || comma == value.length() - 1) {
+			throw new IllegalArgumentException("Invalid cursor: " + value);
+		}
+		try {
+			LocalDateTime timestamp = LocalDateTime.parse(value.substring(0, comma), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+			return new RecordCursor(timestamp, value.substring(comma + 1));
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + value, e);
+		}
+	}
+
+	/**
+	 * Converts the timestamp the same way as it is stored in the database table.
+	 *
+	 * @return the timestamp of the cursor in epoch milliseconds.
+	 */
+	public long timestampMillis() {
+		return WaterReading.toEpochMillis(timestamp);
+	}
+
+	@Override
+	public String toString() {
+		return timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "," + id;
+	}
+}
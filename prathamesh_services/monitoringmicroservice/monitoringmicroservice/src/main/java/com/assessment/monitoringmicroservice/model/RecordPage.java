@@ -0,0 +1,26 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+
+/**
+ * One page of water quality records returned by {@code /watermonitoring/records}.
+ *
+ * @param <T> the type of the records, {@link WaterReading} or {@link ReadingProjection} if fields were selected.
+ * @param records the records of the page ordered by timestamp.
+ * @param next cursor to pass as {@code after} to get the next page, or {@code null} on the last page.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Schema(description = "A page of water quality records with the cursor of the next page.")
+public record RecordPage<T>(
+		@Schema(description = "Records of the page ordered by timestamp.")
+		List<T> records,
+
+		@Schema(description = "Cursor of the next page, null if this is the last page.",
+				example = "2025-03-16T12:30:00.123,3ebb9a40-b706-4792-aefb-48fa9ec4fa40")
+		String next) {
+}
@@ -0,0 +1,42 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.time.LocalDateTime;
+
+
+/**
+ * Parameters of a {@code /watermonitoring/records} request.
+ *
+ * @param after cursor of the last record of the previous page, {@code null} or blank for the first page.
+ * @param from first timestamp of the time range (inclusive), {@code null} for no lower bound.
+ * @param to end of the time range (exclusive), {@code null} for no upper bound.
+ * @param limit maximum number of records in the page.
+ * @param breaching comma separated {@link ThresholdBreach} names, only records breaching one of
+ *        them are returned, {@code null} or blank for all records.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public record RecordQuery(String after, LocalDateTime from, LocalDateTime to, int limit, String breaching) {
+
+	/**
+	 * Creates a query for all records, whether they breach a threshold or not.
+	 *
+	 * @param after cursor of the last record of the previous page, {@code null} or blank for the first page.
+	 * @param from first timestamp of the time range (inclusive), {@code null} for no lower bound.
+	 * @param to end of the time range (exclusive), {@code null} for no upper bound.
+	 * @param limit maximum number of records in the page.
+	 */
+	public RecordQuery(String after, LocalDateTime from, LocalDateTime to, int limit) {
+		this(after, from, to, limit, null);
+	}
+
+	/**
+	 * Creates a query for the first page without a time range.
+	 *
+	 * @param limit maximum number of records in the page.
+	 * @return the query.
+	 */
+	public static RecordQuery firstPage(int limit) {
+		return new RecordQuery(null, null, null, limit);
+	}
+}
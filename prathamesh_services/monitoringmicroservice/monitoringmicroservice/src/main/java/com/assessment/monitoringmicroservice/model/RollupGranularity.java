@@ -0,0 +1,63 @@
+package com.assessment.monitoringmicroservice.model;
+
+
+/**
+ * Bucket sizes for which pre-aggregated rollups of the readings are kept.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public enum RollupGranularity {
+
+	MINUTE(60_000L),
+	HOUR(3_600_000L),
+	DAY(86_400_000L);
+
+	private final long millis;
+
+	RollupGranularity(long millis) {
+		this.millis = millis;
+	}
+
+	/**
+	 * Retrieves the size of the buckets.
+	 *
+	 * @return the bucket size in milliseconds.
+	 */
+	public long millis() {
+		return millis;
+	}
+
+	/**
+	 * Calculates the start of the bucket a timestamp belongs to.
+	 *
+	 * @param epochMillis the timestamp in epoch milliseconds.
+	 * @return the start of the bucket in epoch milliseconds.
+	 */
+	public long bucketStart(long epochMillis) {
+		return epochMillis - Math.floorMod(epochMillis, millis);
+	}
+
+	/**
+	 * Finds the largest granularity whose rollups can answer an aggregation, which is the
+	 * case if the requested bucket is a multiple of it and the time range starts and ends
+	 * on its bucket boundaries.
+	 *
+	 * @param bucketMillis the requested bucket size in milliseconds.
+	 * @param from start of the time range, {@link Long#MIN_VALUE} for no lower bound.
+	 * @param to end of the time range, {@link Long#MAX_VALUE} for no upper bound.
+	 * @return the granularity, or {@code null} if no rollup fits.
+	 */
+	public static RollupGranularity coarsestFitting(long bucketMillis, long from, long to) {
+		RollupGranularity[] granularities = values();
+		for (int i = granularities.length - 1; i >= 0; i--) {
+			RollupGranularity granularity = granularities[i];
+			if (bucketMillis % granularity.millis == 0
+					&& (from == Long.MIN_VALUE || Math.floorMod(from, granularity.millis) == 0)
+					&& (to == Long.MAX_VALUE || Math.floorMod(to, granularity.millis) == 0)) {
+				return granularity;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,167 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+
+/**
+ * The safety thresholds a {@link WaterReading} can breach.
+ *
+ * <p>The thresholds are the rules of the safety flag of the water quality service: total
+ * dissolved solids above 1000 mg/L, pH outside 6.5 to 8.5, alkalinity above 500 mg/L,
+ * conductivity above 2000 and nitrite of 1 mg/L or more. A value which was not measured
+ * never breaches its threshold.</p>
+ *
+ * <p>Each threshold is one bit of the {@code breach_mask} column, which is computed when the
+ * reading is saved. Each rule is also written as a SQL condition, so readings saved before the
+ * column existed are filled in by the database with the same rule.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public enum ThresholdBreach {
+
+	TDS("tds", reading -> totalDissolvedSolids(reading) > 1000,
+			"COALESCE(cusol1mgl, 0) + (COALESCE(cusol2ugl, 0) + COALESCE(fesol1ugl, 0) + COALESCE(znsolugl, 0)) / 1000.0 > 1000"),
+	PH("ph", reading -> reading.getPhph() != null && (reading.getPhph() < 6.5 || reading.getPhph() > 8.5),
+			"phph < 6.5 OR phph > 8.5"),
+	ALKALINITY("alkalinity", reading -> reading.getAlkmgl() != null && reading.getAlkmgl() > 500,
+			"alkmgl > 500"),
+	CONDUCTIVITY("conductivity", reading -> reading.getConduscm() != null && reading.getConduscm() > 2000,
+			"conduscm > 2000"),
+	NITRITE("nitrite", reading -> reading.getNo2nmgl() != null && reading.getNo2nmgl() >= 1,
+			"no2nmgl >= 1");
+
+	// Number of different masks, every combination of the thresholds.
+	private static final int MASKS = 1 << values().length;
+
+	private final String key;
+	private final Predicate<WaterReading> rule;
+	private final String sql;
+
+	ThresholdBreach(String key, Predicate<WaterReading> rule, String sql) {
+		this.key = key;
+		this.rule = rule;
+		this.sql = sql;
+	}
+
+	/**
+	 * Retrieves the name used in the {@code breaching} request parameter.
+	 *
+	 * @return the name, for example {@code nitrite}.
+	 */
+	public String key() {
+		return key;
+	}
+
+	/**
+	 * Retrieves the bit of the threshold in the breach mask.
+	 *
+	 * @return the bit, a power of two.
+	 */
+	public int bit() {
+		return 1 << ordinal();
+	}
+
+	/**
+	 * Computes the breach mask of a reading.
+	 *
+	 * @param reading the reading to check.
+	 * @return the bits of all thresholds the reading breaches, 0 if it breaches none.
+	 */
+	public static int maskOf(WaterReading reading) {
+		int mask = 0;
+		for (ThresholdBreach breach : values()) {
+			if (breach.rule.test(reading)) {
+				mask |= breach.bit();
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Builds a SQL expression which computes the breach mask from the columns of the records table.
+	 *
+	 * @return the expression, a sum of one {@code CASE} per threshold.
+	 */
+	public static String maskSql() {
+		StringBuilder sql = new StringBuilder();
+		for (ThresholdBreach breach : values()) {
+			if (sql.length() > 0) {
+				sql.append(" + ");
+			}
+			sql.append("(CASE WHEN ").append(breach.sql).append(" THEN ").append(breach.bit()).append(" ELSE 0 END)");
+		}
+		return sql.toString();
+	}
+
+	/**
+	 * Parses a comma separated list of threshold names, for example {@code nitrite,ph}.
+	 *
+	 * @param breaching the names, the case is ignored.
+	 * @return the bits of the named thresholds.
+	 * @throws IllegalArgumentException if a name is not a threshold or no name is given.
+	 */
+	public static int parse(String breaching) {
+		int selected = 0;
+		for (String name : breaching.split(",")) {
+			if (name.isBlank()) {
+				continue;
+			}
+			selected |= fromKey(name).bit();
+		}
+		if (selected == 0) {
+			throw new IllegalArgumentException("No thresholds selected: " + breaching);
+		}
+		return selected;
+	}
+
+	/**
+	 * Lists every breach mask which has at least one of the selected bits.
+	 *
+	 * <p>A reading breaches one of the selected thresholds exactly when its mask is in this
+	 * list, so the filter is an {@code IN} on the indexed column instead of a bitwise
+	 * expression, which can not use the index.</p>
+	 *
+	 * @param selected the bits of the selected thresholds.
+	 * @return the matching masks in ascending order.
+	 */
+	public static List<Integer> masksMatching(int selected) {
+		List<Integer> masks = new ArrayList<>();
+		for (int mask = 1; mask < MASKS; mask++) {
+			if ((mask & selected) != 0) {
+				masks.add(mask);
+			}
+		}
+		return masks;
+	}
+
+	/**
+	 * Finds the threshold with the given name.
+	 *
+	 * @param key the name, for example {@code ph}.
+	 * @return the threshold.
+	 * @throws IllegalArgumentException if there is no threshold with this name.
+	 */
+	public static ThresholdBreach fromKey(String key) {
+		for (ThresholdBreach breach : values()) {
+			if (breach.key.equalsIgnoreCase(key.trim())) {
+				return breach;
+			}
+		}
+		throw new IllegalArgumentException("Unknown threshold: " + key);
+	}
+
+	/**
+	 * Sums the dissolved copper, iron and zinc in mg/L, the values in µg/L are converted.
+	 */
+	private static double totalDissolvedSolids(WaterReading reading) {
+		return valueOf(reading.getCusol1mgl())
+				+ (valueOf(reading.getCusol2ugl()) + valueOf(reading.getFesol1ugl()) + valueOf(reading.getZnsolugl())) / 1000.0;
+	}
+
+	private static double valueOf(Double value) {
+		return value == null ? 0.0 : value;
+	}
+}
@@ -0,0 +1,82 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+
+/**
+ * Result of an upload to {@code /watermonitoring/records/batch}.
+ *
+ * <p>Every committed batch is acknowledged with the lines it covered. Rows which could not be
+ * parsed are reported with their line number and are not written, the other rows of their
+ * batch are. If the write queue was full or a batch could not be written the upload stopped,
+ * {@code resumeAtLine} is then the first line which was not committed and the client sends the
+ * body again from that line. A batch which could not be written is reported in {@code failedBatch}.</p>
+ *
+ * @param lines number of lines read from the body, the CSV header included.
+ * @param inserted number of records which were inserted.
+ * @param batches the acknowledgements of the committed batches in order.
+ * @param errorCount number of rows which could not be parsed.
+ * @param errors the first rows which could not be parsed, at most {@value #MAX_ERRORS}.
+ * @param resumeAtLine the first line which was not committed, or {@code null} if the whole body was read.
+ * @param failedBatch the batch which could not be written, or {@code null} if every batch was written.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Schema(description = "Acknowledgements of the committed batches and the rows which could not be parsed.")
+public record UploadReport(
+		@Schema(description = "Number of lines read from the body.", example = "1001")
+		long lines,
+
+		@Schema(description = "Number of records which were inserted.", example = "998")
+		int inserted,
+
+		@Schema(description = "Acknowledgements of the committed batches in order.")
+		List<BatchAck> batches,
+
+		@Schema(description = "Number of rows which could not be parsed.", example = "2")
+		int errorCount,
+
+		@Schema(description = "The first rows which could not be parsed.")
+		List<RowError> errors,
+
+		@Schema(description = "First line which was not committed because the write queue was full or a batch failed, null if the whole body was read.")
+		Long resumeAtLine,
+
+		@Schema(description = "The batch which could not be written, null if every batch was written.")
+		BatchFailure failedBatch) {
+
+	public static final int MAX_ERRORS = 100;
+
+	/**
+	 * Acknowledgement of one batch which was committed in its own transaction.
+	 *
+	 * @param batch the number of the batch, starting at 1.
+	 * @param firstLine the first line of the batch.
+	 * @param lastLine the last line of the batch.
+	 * @param inserted the number of records inserted, rows already stored for the source are not counted.
+	 */
+	public record BatchAck(int batch, long firstLine, long lastLine, int inserted) {
+	}
+
+	/**
+	 * A batch which could not be written, none of its rows were committed.
+	 *
+	 * @param firstLine the first line of the batch.
+	 * @param lastLine the last line of the batch.
+	 * @param message why the batch could not be written.
+	 */
+	public record BatchFailure(long firstLine, long lastLine, String message) {
+	}
+
+	/**
+	 * A row which could not be parsed.
+	 *
+	 * @param line the line number of the row, starting at 1.
+	 * @param message why the row was rejected.
+	 */
+	public record RowError(long line, String message) {
+	}
+}
@@ -0,0 +1,83 @@
+package com.assessment.monitoringmicroservice.model;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+
+/**
+ * The measured water quality parameters of a {@link WaterReading}.
+ *
+ * <p>Each parameter knows the name of its field, which is also its JSON property and
+ * the name used in request parameters, and how to read and write it on a reading.
+ * The order is the column order of the CSV file after the object id.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public enum WaterParameter {
+
+	PHPH("phph", WaterReading::getPhph, WaterReading::setPhph),
+	ALKMGL("alkmgl", WaterReading::getAlkmgl, WaterReading::setAlkmgl),
+	CONDUSCM("conduscm", WaterReading::getConduscm, WaterReading::setConduscm),
+	BODMGL("bodmgl", WaterReading::getBodmgl, WaterReading::setBodmgl),
+	NO2NMGL("no2nmgl", WaterReading::getNo2nmgl, WaterReading::setNo2nmgl),
+	CUSOL1MGL("cusol1mgl", WaterReading::getCusol1mgl, WaterReading::setCusol1mgl),
+	CUSOL2UGL("cusol2ugl", WaterReading::getCusol2ugl, WaterReading::setCusol2ugl),
+	FESOL1UGL("fesol1ugl", WaterReading::getFesol1ugl, WaterReading::setFesol1ugl),
+	ZNSOLUGL("znsolugl", WaterReading::getZnsolugl, WaterReading::setZnsolugl);
+
+	private final String field;
+	private final Function<WaterReading, Double> getter;
+	private final BiConsumer<WaterReading, Double> setter;
+
+	WaterParameter(String field, Function<WaterReading, Double> getter, BiConsumer<WaterReading, Double> setter) {
+		this.field = field;
+		this.getter = getter;
+		this.setter = setter;
+	}
+
+	/**
+	 * Retrieves the field name of the parameter.
+	 *
+	 * @return the field name, for example {@code phph}.
+	 */
+	public String field() {
+		return field;
+	}
+
+	/**
+	 * Reads the value of the parameter from a reading.
+	 *
+	 * @param reading the reading to read from.
+	 * @return the value or {@code null} if it was not measured.
+	 */
+	public Double get(WaterReading reading) {
+		return getter.apply(reading);
+	}
+
+	/**
+	 * Sets the value of the parameter on a reading.
+	 *
+	 * @param reading the reading to change.
+	 * @param value the value to set, {@code null} if it was not measured.
+	 */
+	public void set(WaterReading reading, Double value) {
+		setter.accept(reading, value);
+	}
+
+	/**
+	 * Finds the parameter with the given field name.
+	 *
+	 * @param field the field name, for example {@code no2nmgl}.
+	 * @return the parameter.
+	 * @throws IllegalArgumentException if there is no parameter with this name.
+	 */
+	public static WaterParameter fromField(String field) {
+		for (WaterParameter parameter : values()) {
+			if (parameter.field.equalsIgnoreCase(field.trim())) {
+				return parameter;
+			}
+		}
+		throw new IllegalArgumentException("Unknown water parameter: " + field);
+	}
+}
@@ -5,12 +5,17 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -22,12 +27,24 @@ import io.swagger.v3.oas.annotations.media.Schema;
  * the database. Each record has a unique identifier, timestamp, and values 
  * for multiple chemical properties.</p>
  * 
+ * <p>The timestamp is stored as epoch milliseconds (UTC) in the indexed {@code recorded_at}
+ * column, so ordering and time range queries are numeric index scans.</p>
+ * 
+ * <p>The safety thresholds the reading breaches are stored as a bitmask of {@link ThresholdBreach}
+ * in the indexed {@code breach_mask} column. The mask is computed whenever the reading is saved,
+ * so queries for breaching readings do not have to check the values of every row.</p>
+ * 
  * @author Prathamesh Belnekar
  * @version 1.0
  */
 @Schema(description = "Represents a water quality reading related to river water quality.")
 @Entity
-@Table(name= "river_water_quality_records")
+@Table(name= "river_water_quality_records",
+		indexes = {
+			@Index(name = "idx_records_recorded_at_id", columnList = "recorded_at, id"), // used for the latest record, paging and time ranges
+			@Index(name = "uk_records_source_object_id", columnList = "source_file, object_id", unique = true), // a CSV row is stored once
+			@Index(name = "idx_records_breach_mask", columnList = "breach_mask, recorded_at, id") // used for the readings breaching a threshold
+		})
 public class WaterReading {
 
 	/**
@@ -42,6 +59,7 @@ public class WaterReading {
 	 * Object ID of the water record.
 	 */
 	@Schema(description = "ObjectId is an id for the respective water record", example = "1115")
+	@Column(name = "object_id")
 	private Integer objectId;
 
 	/**
@@ -101,10 +119,24 @@ public class WaterReading {
 	/**
 	 * Timestamp indicating when the water quality reading was recorded.
 	 */
-	@Schema(description = "Timestamp of the water quality reading.", example = "2025-03-16T12:30:00")
-	@Column(name = "timestamp", columnDefinition = "TEXT")
+	@Schema(description = "Timestamp of the water quality reading.", example = "2025-03-16T12:30:00", type = "string")
+	@Column(name = "recorded_at")
 	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
-	private String timestamp;
+	private Long timestamp;
+
+	/**
+	 * File the reading was ingested from, {@code null} if it was not read from a file.
+	 */
+	@JsonIgnore
+	@Column(name = "source_file", length = 1024)
+	private String sourceFile;
+
+	/**
+	 * Bits of the {@link ThresholdBreach} thresholds the reading breaches, computed when it is saved.
+	 */
+	@JsonIgnore
+	@Column(name = "breach_mask")
+	private Integer breachMask;
 
 
 	/**
@@ -113,6 +145,29 @@ public class WaterReading {
 	public WaterReading() {
 	}
 
+	/**
+	 * Constructs a copy of another {@code WaterReading} with the same id and values.
+	 * The copy is not managed by the persistence context.
+	 *
+	 * @param other The reading to copy.
+	 */
+	public WaterReading(WaterReading other) {
+		this.id = other.id;
+		this.objectId = other.objectId;
+		this.phph = other.phph;
+		this.alkmgl = other.alkmgl;
+		this.conduscm = other.conduscm;
+		this.bodmgl = other.bodmgl;
+		this.no2nmgl = other.no2nmgl;
+		this.cusol1mgl = other.cusol1mgl;
+		this.cusol2ugl = other.cusol2ugl;
+		this.fesol1ugl = other.fesol1ugl;
+		this.znsolugl = other.znsolugl;
+		this.timestamp = other.timestamp;
+		this.sourceFile = other.sourceFile;
+		this.breachMask = other.breachMask;
+	}
+
 
 	// Getters and setters
 
@@ -314,20 +369,84 @@ public class WaterReading {
 	 * @param timestamp The {@link LocalDateTime} timestamp.
 	 */
 	public void setTimestamp(LocalDateTime timestamp) {
-		this.timestamp = timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+		this.timestamp = timestamp == null ? null : toEpochMillis(timestamp);
 	}
 
 	/**
 	 * Retrieves the timestamp of the water quality reading.
 	 * 
-	 * @return The {@code timestamp} as a {@link LocalDateTime}.
+	 * @return The {@code timestamp} as a {@link LocalDateTime}, or {@code null} if it is not set.
 	 */
 	public LocalDateTime getTimestamp() {
-		return LocalDateTime.parse(this.timestamp, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+		return this.timestamp == null ? null : fromEpochMillis(this.timestamp);
 	}
-}
 
+	/**
+	 * Retrieves the timestamp as it is stored in the database table.
+	 * 
+	 * @return The {@code timestamp} in epoch milliseconds, or {@code null} if it is not set.
+	 */
+	@JsonIgnore
+	public Long getTimestampMillis() {
+		return timestamp;
+	}
 
+	/**
+	 * Retrieves the file the reading was ingested from.
+	 * 
+	 * @return The {@code sourceFile} value, {@code null} if the reading was not read from a file.
+	 */
+	@JsonIgnore
+	public String getSourceFile() {
+		return sourceFile;
+	}
 
+	/**
+	 * Sets the file the reading was ingested from. Together with the object ID it identifies
+	 * the CSV row, so the same row is not stored twice.
+	 * 
+	 * @param sourceFile The {@code sourceFile} to set.
+	 */
+	public void setSourceFile(String sourceFile) {
+		this.sourceFile = sourceFile;
+	}
 
+	/**
+	 * Retrieves the bits of the thresholds the reading breaches, as stored in the database table.
+	 * 
+	 * @return The {@code breachMask} value, {@code null} if the reading was not saved yet.
+	 */
+	@JsonIgnore
+	public Integer getBreachMask() {
+		return breachMask;
+	}
+
+	/**
+	 * Computes the breach mask from the current values before the reading is inserted or updated.
+	 */
+	@PrePersist
+	@PreUpdate
+	void updateBreachMask() {
+		this.breachMask = ThresholdBreach.maskOf(this);
+	}
 
+	/**
+	 * Converts a timestamp to the epoch milliseconds stored in the database table.
+	 * 
+	 * @param timestamp The {@link LocalDateTime} in UTC.
+	 * @return the epoch milliseconds.
+	 */
+	public static long toEpochMillis(LocalDateTime timestamp) {
+		return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+	}
+
+	/**
+	 * Converts the epoch milliseconds stored in the database table to a timestamp.
+	 * 
+	 * @param epochMillis The epoch milliseconds.
+	 * @return the {@link LocalDateTime} in UTC.
+	 */
+	public static LocalDateTime fromEpochMillis(long epochMillis) {
+		return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+	}
+}
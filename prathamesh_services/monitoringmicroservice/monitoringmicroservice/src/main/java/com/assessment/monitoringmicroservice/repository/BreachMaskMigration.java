@@ -0,0 +1,58 @@
+package com.assessment.monitoringmicroservice.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.assessment.monitoringmicroservice.model.ThresholdBreach;
+
+import jakarta.annotation.PostConstruct;
+
+
+/**
+ * Fills the breach mask of the records saved before the {@code breach_mask} column existed.
+ *
+ * <p>
+ * New records get their mask when they are saved. Hibernate adds the column to an existing
+ * table on startup with {@code NULL} in every row; this class then computes the mask of these
+ * rows with one {@code UPDATE}, using the SQL form of the {@link ThresholdBreach} rules.
+ * When every row has a mask the update changes nothing, so the migration runs only once.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+@DependsOn("entityManagerFactory") // the schema update must have added breach_mask first
+public class BreachMaskMigration {
+
+	private static final Logger logger = LoggerFactory.getLogger(BreachMaskMigration.class); //logger
+	private static final String TABLE = "river_water_quality_records";
+
+	private final JdbcTemplate jdbcTemplate;
+
+
+	/**
+	 * Constructor for BreachMaskMigration.
+	 *
+	 * @param jdbcTemplate used to run the migration statement.
+	 */
+	public BreachMaskMigration(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+
+	/**
+	 * Computes the breach mask of every record which has none.
+	 */
+	@PostConstruct
+	public void migrate() {
+		int migrated = jdbcTemplate.update("UPDATE " + TABLE + " SET breach_mask = " + ThresholdBreach.maskSql()
+				+ " WHERE breach_mask IS NULL");
+		if (migrated > 0) {
+			logger.info("Computed the breach mask of {} records.", migrated);
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.assessment.monitoringmicroservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.assessment.monitoringmicroservice.model.IngestCheckpoint;
+
+
+/**
+ * Repository interface for the byte offsets of the ingested CSV files.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Repository
+public interface IngestCheckpointRepository extends JpaRepository<IngestCheckpoint, String> {
+}
@@ -0,0 +1,31 @@
+package com.assessment.monitoringmicroservice.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.assessment.monitoringmicroservice.model.ReadingAnomaly;
+import com.assessment.monitoringmicroservice.model.WaterParameter;
+
+
+/**
+ * Repository interface for the anomalies found while the water quality readings were inserted.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Repository
+public interface ReadingAnomalyRepository extends JpaRepository<ReadingAnomaly, String> {
+
+	// Most recent anomalies in [from, to), of one parameter or of all if it is null, read backwards on the recorded_at index.
+	@Transactional(readOnly = true)
+	@Query("SELECT a FROM ReadingAnomaly a WHERE a.timestamp >= :from AND a.timestamp < :to"
+			+ " AND (:parameter IS NULL OR a.parameter = :parameter) ORDER BY a.timestamp DESC, a.id DESC")
+	List<ReadingAnomaly> findRecent(@Param("from") long from, @Param("to") long to,
+			@Param("parameter") WaterParameter parameter, Pageable pageable);
+}
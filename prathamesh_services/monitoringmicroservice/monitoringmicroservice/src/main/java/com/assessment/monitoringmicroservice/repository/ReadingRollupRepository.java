@@ -0,0 +1,18 @@
+package com.assessment.monitoringmicroservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.assessment.monitoringmicroservice.model.ReadingRollup;
+import com.assessment.monitoringmicroservice.model.ReadingRollupId;
+
+
+/**
+ * Repository interface for the minute, hour and day rollups of the water quality readings.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Repository
+public interface ReadingRollupRepository extends JpaRepository<ReadingRollup, ReadingRollupId>, ReadingRollupRepositoryCustom {
+}
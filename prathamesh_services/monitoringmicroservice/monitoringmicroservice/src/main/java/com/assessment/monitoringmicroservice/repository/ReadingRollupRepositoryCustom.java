@@ -0,0 +1,38 @@
+package com.assessment.monitoringmicroservice.repository;
+
+import java.util.List;
+
+import com.assessment.monitoringmicroservice.model.AggregateBucket;
+import com.assessment.monitoringmicroservice.model.RollupGranularity;
+
+
+/**
+ * Queries of {@link ReadingRollupRepository} which are built at runtime and can not be
+ * declared with {@code @Query}.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public interface ReadingRollupRepositoryCustom {
+
+	/**
+	 * Merges the rollups of one granularity in {@code [from, to)} into buckets of
+	 * {@code bucketMillis}, which must be a multiple of the granularity.
+	 *
+	 * @param granularity the rollups to read.
+	 * @param bucketMillis size of a bucket in milliseconds.
+	 * @param from start of the time range in epoch milliseconds (inclusive).
+	 * @param to end of the time range in epoch milliseconds (exclusive).
+	 * @return one {@link AggregateBucket} per bucket which has readings, ordered by time.
+	 */
+	List<AggregateBucket> aggregate(RollupGranularity granularity, long bucketMillis, long from, long to);
+
+	/**
+	 * Computes the rollups of one granularity from the raw readings and inserts them.
+	 * The existing rollups of the granularity have to be deleted first.
+	 *
+	 * @param granularity the rollups to compute.
+	 * @return the number of rollup rows inserted.
+	 */
+	int insertFromReadings(RollupGranularity granularity);
+}
@@ -0,0 +1,97 @@
+package com.assessment.monitoringmicroservice.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.assessment.monitoringmicroservice.model.AggregateBucket;
+import com.assessment.monitoringmicroservice.model.ParameterStats;
+import com.assessment.monitoringmicroservice.model.RollupGranularity;
+import com.assessment.monitoringmicroservice.model.WaterParameter;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+
+/**
+ * Implementation of the runtime built queries of {@link ReadingRollupRepository}.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public class ReadingRollupRepositoryCustomImpl implements ReadingRollupRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+
+	@Override
+	public List<AggregateBucket> aggregate(RollupGranularity granularity, long bucketMillis, long from, long to) {
+		// Same bucket expression as the aggregation of the raw readings, applied to the rollup buckets.
+		String bucket = "(r.id.bucketStart / " + bucketMillis + "L) * " + bucketMillis + "L";
+		String jpql = "SELECT " + bucket + ", r.id.parameter, SUM(r.readingCount), SUM(r.valueCount),"
+				+ " SUM(r.sumValue), MIN(r.minValue), MAX(r.maxValue)"
+				+ " FROM ReadingRollup r"
+				+ " WHERE r.id.granularity = :granularity AND r.id.bucketStart >= :from AND r.id.bucketStart < :to"
+				+ " GROUP BY " + bucket + ", r.id.parameter"
+				+ " ORDER BY " + bucket;
+
+		List<Object[]> rows = entityManager.createQuery(jpql, Object[].class)
+				.setParameter("granularity", granularity)
+				.setParameter("from", from)
+				.setParameter("to", to)
+				.getResultList();
+
+		// Every reading adds to the rows of all parameters, so any parameter row has the reading count of the bucket.
+		Map<Long, Long> readingCounts = new LinkedHashMap<>();
+		Map<Long, Map<String, ParameterStats>> parameters = new LinkedHashMap<>();
+		for (Object[] row : rows) {
+			long bucketStart = ((Number) row[0]).longValue();
+			WaterParameter parameter = (WaterParameter) row[1];
+			long valueCount = ((Number) row[3]).longValue();
+			double sum = ((Number) row[4]).doubleValue();
+			readingCounts.putIfAbsent(bucketStart, ((Number) row[2]).longValue());
+			parameters.computeIfAbsent(bucketStart, start -> new LinkedHashMap<>())
+				.put(parameter.field(), new ParameterStats(
+						valueCount,
+						toDouble(row[5]),
+						toDouble(row[6]),
+						valueCount == 0 ? null : sum / valueCount));
+		}
+
+		List<AggregateBucket> buckets = new ArrayList<>(parameters.size());
+		parameters.forEach((bucketStart, stats) -> {
+			Map<String, ParameterStats> ordered = new LinkedHashMap<>();
+			for (WaterParameter parameter : WaterParameter.values()) {
+				ordered.put(parameter.field(), stats.getOrDefault(parameter.field(), new ParameterStats(0, null, null, null)));
+			}
+			buckets.add(new AggregateBucket(WaterReading.fromEpochMillis(bucketStart), readingCounts.get(bucketStart), ordered));
+		});
+		return buckets;
+	}
+
+	@Override
+	public int insertFromReadings(RollupGranularity granularity) {
+		String bucket = "(recorded_at / " + granularity.millis() + ") * " + granularity.millis();
+		int inserted = 0;
+		// One INSERT ... SELECT per parameter keeps the whole rebuild inside the database.
+		for (WaterParameter parameter : WaterParameter.values()) {
+			String column = parameter.field();
+			String sql = "INSERT INTO reading_rollups (granularity, bucket_start, parameter, reading_count,"
+					+ " value_count, sum_value, sum_squares, min_value, max_value)"
+					+ " SELECT '" + granularity.name() + "', " + bucket + ", '" + parameter.name() + "', COUNT(*),"
+					+ " COUNT(" + column + "), COALESCE(SUM(" + column + "), 0),"
+					+ " COALESCE(SUM(" + column + " * " + column + "), 0), MIN(" + column + "), MAX(" + column + ")"
+					+ " FROM river_water_quality_records WHERE recorded_at IS NOT NULL"
+					+ " GROUP BY " + bucket;
+			inserted += entityManager.createNativeQuery(sql).executeUpdate();
+		}
+		return inserted;
+	}
+
+	private static Double toDouble(Object value) {
+		return value == null ? null : ((Number) value).doubleValue();
+	}
+}
@@ -0,0 +1,88 @@
+package com.assessment.monitoringmicroservice.repository;
+
+import java.sql.ResultSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+
+/**
+ * Migrates the timestamps of databases created before the timestamp was stored as epoch milliseconds.
+ *
+ * <p>
+ * Older versions stored the timestamp as ISO text in the {@code timestamp} column. Hibernate adds the
+ * new {@code recorded_at} column on startup, this class then fills it from the text column with one
+ * {@code UPDATE} and drops the text column and its index. Databases without the text column are
+ * left unchanged, so the migration runs only once.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+@DependsOn("entityManagerFactory") // the schema update must have added recorded_at first
+public class TimestampColumnMigration {
+
+	private static final Logger logger = LoggerFactory.getLogger(TimestampColumnMigration.class); //logger
+	private static final String TABLE = "river_water_quality_records";
+	private static final String LEGACY_COLUMN = "timestamp";
+
+	private final JdbcTemplate jdbcTemplate;
+
+
+	/**
+	 * Constructor for TimestampColumnMigration.
+	 *
+	 * @param jdbcTemplate used to run the migration statements.
+	 */
+	public TimestampColumnMigration(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+
+	/**
+	 * Converts the ISO text timestamps to epoch milliseconds (UTC) and removes the text column.
+	 */
+	@PostConstruct
+	public void migrate() {
+		if (!hasLegacyColumn()) {
+			return;
+		}
+
+		// julianday() parses the ISO text, 2440587.5 is the julian day of 1970-01-01T00:00:00
+		int migrated = jdbcTemplate.update("UPDATE " + TABLE
+				+ " SET recorded_at = CAST(ROUND((julianday(" + LEGACY_COLUMN + ") - 2440587.5) * 86400000.0) AS INTEGER)"
+				+ " WHERE recorded_at IS NULL AND " + LEGACY_COLUMN + " IS NOT NULL");
+		logger.info("Migrated {} timestamps to epoch milliseconds.", migrated);
+
+		try {
+			jdbcTemplate.execute("DROP INDEX IF EXISTS idx_records_timestamp_id");
+			jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP COLUMN " + LEGACY_COLUMN);
+			logger.info("Dropped the legacy {} column.", LEGACY_COLUMN);
+		} catch (DataAccessException e) {
+			logger.warn("Could not drop the legacy {} column, it is no longer used: {}", LEGACY_COLUMN, e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Checks if the records table still has the text timestamp column.
+	 *
+	 * @return {@code true} if the column exists.
+	 */
+	private boolean hasLegacyColumn() {
+		Boolean found = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+			try (ResultSet columns = connection.getMetaData().getColumns(null, null, TABLE, LEGACY_COLUMN)) {
+				return columns.next();
+			}
+		});
+		return Boolean.TRUE.equals(found);
+	}
+}
@@ -1,10 +1,23 @@
 package com.assessment.monitoringmicroservice.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;	
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.assessment.monitoringmicroservice.model.WaterReading;
 
+import jakarta.persistence.QueryHint;
+
 
 /**
  * Repository interface manages the water quality readings in the database.
@@ -16,6 +29,14 @@ import com.assessment.monitoringmicroservice.model.WaterReading;
  * </p>
  * 
  * <p>
+ * The paging query uses keyset pagination on the {@code (recorded_at, id)} index, the next page
+ * continues after the last record of the previous page instead of skipping an offset.
+ * The time bucket aggregation is implemented in {@link WaterReadingRepositoryCustomImpl}.
+ * The read queries run in read-only transactions, so they use the read-only pool when the
+ * reads and writes are split.
+ * </p>
+ * 
+ * <p>
  * The repository interacts with the database and helps the controller
  * to fetch and save water quality readings in the database table.
  * </p>
@@ -24,10 +45,41 @@ import com.assessment.monitoringmicroservice.model.WaterReading;
  * @version 1.0
  */
 @Repository
-public interface WaterReadingRepository extends JpaRepository<WaterReading, String> {
+public interface WaterReadingRepository extends JpaRepository<WaterReading, String>, WaterReadingRepositoryCustom {
 
 	// Custom method for finding the latest record based on timestamp.
+	@Transactional(readOnly = true)
 	WaterReading findTopByOrderByTimestampDesc();
 
+	// The most recent records, newest first, used to warm up the rolling statistics of the anomaly detection.
+	@Transactional(readOnly = true)
+	List<WaterReading> findByOrderByTimestampDesc(Pageable pageable);
+
+	// Page of the records in [from, to) ordered by timestamp and id, starting after the (afterTimestamp, afterId) position.
+	// The lower bound is max(from, afterTimestamp) so the database reads the page from the recorded_at index range.
+	@Transactional(readOnly = true)
+	@Query("SELECT r FROM WaterReading r WHERE r.timestamp >= :lower AND r.timestamp < :to"
+			+ " AND (r.timestamp > :afterTimestamp OR r.id > :afterId) ORDER BY r.timestamp ASC, r.id ASC")
+	List<WaterReading> findPage(@Param("lower") long lower, @Param("to") long to,
+			@Param("afterTimestamp") long afterTimestamp, @Param("afterId") String afterId, Pageable pageable);
+
+	// Page like findPage of the records whose breach mask is one of the given masks, filtered on the breach_mask index.
+	@Transactional(readOnly = true)
+	@Query("SELECT r FROM WaterReading r WHERE r.breachMask IN :masks AND r.timestamp >= :lower AND r.timestamp < :to"
+			+ " AND (r.timestamp > :afterTimestamp OR r.id > :afterId) ORDER BY r.timestamp ASC, r.id ASC")
+	List<WaterReading> findBreachingPage(@Param("masks") Collection<Integer> masks, @Param("lower") long lower, @Param("to") long to,
+			@Param("afterTimestamp") long afterTimestamp, @Param("afterId") String afterId, Pageable pageable);
+
+	// Streams every record in timestamp order from a database cursor, must be called inside a transaction.
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("SELECT r FROM WaterReading r ORDER BY r.timestamp ASC, r.id ASC")
+	Stream<WaterReading> streamAllOrderedByTimestamp();
+
+	// Object IDs of a source file which are already stored, looked up on the unique (source_file, object_id) index.
+	@Query("SELECT r.objectId FROM WaterReading r WHERE r.sourceFile = :sourceFile AND r.objectId IN :objectIds")
+	List<Integer> findStoredObjectIds(@Param("sourceFile") String sourceFile, @Param("objectIds") Collection<Integer> objectIds);
 
 }
@@ -0,0 +1,46 @@
+package com.assessment.monitoringmicroservice.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.assessment.monitoringmicroservice.model.AggregateBucket;
+import com.assessment.monitoringmicroservice.model.ReadingFields;
+import com.assessment.monitoringmicroservice.model.ReadingProjection;
+
+
+/**
+ * Queries of {@link WaterReadingRepository} which are built at runtime and can not be
+ * declared with {@code @Query}.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public interface WaterReadingRepositoryCustom {
+
+	/**
+	 * Groups the readings in {@code [from, to)} into buckets of {@code bucketMillis} and
+	 * computes count, min, max and mean of every water parameter in the database.
+	 *
+	 * @param bucketMillis size of a bucket in milliseconds.
+	 * @param from start of the time range in epoch milliseconds (inclusive).
+	 * @param to end of the time range in epoch milliseconds (exclusive).
+	 * @return one {@link AggregateBucket} per bucket which has readings, ordered by time.
+	 */
+	List<AggregateBucket> aggregate(long bucketMillis, long from, long to);
+
+
+	/**
+	 * Reads a page like {@link WaterReadingRepository#findPage} but selects only the id, the
+	 * timestamp and the selected fields, in a read-only transaction and without loading entities.
+	 *
+	 * @param fields the selected fields.
+	 * @param masks the breach masks of the records to read, {@code null} for all records.
+	 * @param lower first timestamp of the page in epoch milliseconds (inclusive).
+	 * @param to end of the time range in epoch milliseconds (exclusive).
+	 * @param afterTimestamp timestamp of the cursor in epoch milliseconds.
+	 * @param afterId id of the cursor.
+	 * @param limit maximum number of records.
+	 * @return the projections ordered by timestamp and id.
+	 */
+	List<ReadingProjection> findPageFields(ReadingFields fields, Collection<Integer> masks, long lower, long to, long afterTimestamp, String afterId, int limit);
+}
@@ -0,0 +1,124 @@
+package com.assessment.monitoringmicroservice.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.assessment.monitoringmicroservice.model.AggregateBucket;
+import com.assessment.monitoringmicroservice.model.ParameterStats;
+import com.assessment.monitoringmicroservice.model.ReadingFields;
+import com.assessment.monitoringmicroservice.model.ReadingProjection;
+import com.assessment.monitoringmicroservice.model.WaterParameter;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+
+/**
+ * Implementation of the runtime built queries of {@link WaterReadingRepository}.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public class WaterReadingRepositoryCustomImpl implements WaterReadingRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+
+	@Override
+	public List<AggregateBucket> aggregate(long bucketMillis, long from, long to) {
+		// The bucket size is a number so it is written into the query, the same expression
+		// has to be used in SELECT and GROUP BY. Integer division rounds down to the bucket start.
+		String bucket = "(r.timestamp / " + bucketMillis + "L) * " + bucketMillis + "L";
+
+		StringBuilder jpql = new StringBuilder("SELECT ").append(bucket).append(", COUNT(r)");
+		for (WaterParameter parameter : WaterParameter.values()) {
+			String field = "r." + parameter.field();
+			jpql.append(", COUNT(").append(field).append("), MIN(").append(field)
+				.append("), MAX(").append(field).append("), AVG(").append(field).append(")");
+		}
+		jpql.append(" FROM WaterReading r WHERE r.timestamp >= :from AND r.timestamp < :to")
+			.append(" GROUP BY ").append(bucket)
+			.append(" ORDER BY ").append(bucket);
+
+		List<Object[]> rows = entityManager.createQuery(jpql.toString(), Object[].class)
+				.setParameter("from", from)
+				.setParameter("to", to)
+				.getResultList();
+
+		List<AggregateBucket> buckets = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			Map<String, ParameterStats> parameters = new LinkedHashMap<>();
+			int column = 2;
+			for (WaterParameter parameter : WaterParameter.values()) {
+				parameters.put(parameter.field(), new ParameterStats(
+						((Number) row[column]).longValue(),
+						toDouble(row[column + 1]),
+						toDouble(row[column + 2]),
+						toDouble(row[column + 3])));
+				column += 4;
+			}
+			buckets.add(new AggregateBucket(
+					WaterReading.fromEpochMillis(((Number) row[0]).longValue()),
+					((Number) row[1]).longValue(),
+					parameters));
+		}
+		return buckets;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ReadingProjection> findPageFields(ReadingFields fields, Collection<Integer> masks, long lower, long to,
+			long afterTimestamp, String afterId, int limit) {
+		// Only whitelisted field names of ReadingFields are written into the query.
+		StringBuilder jpql = new StringBuilder("SELECT r.id, r.timestamp");
+		if (fields.objectId()) {
+			jpql.append(", r.objectId");
+		}
+		for (WaterParameter parameter : fields.parameters()) {
+			jpql.append(", r.").append(parameter.field());
+		}
+		jpql.append(" FROM WaterReading r WHERE r.timestamp >= :lower AND r.timestamp < :to");
+		if (masks != null) {
+			jpql.append(" AND r.breachMask IN :masks");
+		}
+		jpql.append(" AND (r.timestamp > :afterTimestamp OR r.id > :afterId) ORDER BY r.timestamp ASC, r.id ASC");
+
+		TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+				.setParameter("lower", lower)
+				.setParameter("to", to)
+				.setParameter("afterTimestamp", afterTimestamp)
+				.setParameter("afterId", afterId)
+				.setMaxResults(limit);
+		if (masks != null) {
+			query.setParameter("masks", masks);
+		}
+		List<Object[]> rows = query.getResultList();
+
+		List<ReadingProjection> projections = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			Map<String, Object> values = new LinkedHashMap<>();
+			int column = 2;
+			if (fields.objectId()) {
+				values.put(ReadingFields.OBJECT_ID, row[column++]);
+			}
+			for (WaterParameter parameter : fields.parameters()) {
+				values.put(parameter.field(), row[column++]);
+			}
+			projections.add(new ReadingProjection((String) row[0],
+					WaterReading.fromEpochMillis(((Number) row[1]).longValue()), values));
+		}
+		return projections;
+	}
+
+	private static Double toDouble(Object value) {
+		return value == null ? null : ((Number) value).doubleValue();
+	}
+}
@@ -0,0 +1,178 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.assessment.monitoringmicroservice.config.AnomalyProperties;
+import com.assessment.monitoringmicroservice.model.ReadingAnomaly;
+import com.assessment.monitoringmicroservice.model.WaterParameter;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.ReadingAnomalyRepository;
+import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+
+import jakarta.annotation.PostConstruct;
+
+
+/**
+ * Service class for scoring the water quality readings against the recent values of each parameter.
+ *
+ * <p>
+ * Every parameter keeps an exponentially weighted mean and variance, updated with the
+ * incremental form of Welford's algorithm. A new value is compared to the statistics before
+ * it is added, so scoring a reading takes constant time and memory and never reads the
+ * history from the database. A value whose z-score is above {@code monitoring.anomaly.threshold}
+ * is saved as a {@link ReadingAnomaly} in the transaction which saves the reading.
+ * </p>
+ *
+ * <p>
+ * The statistics are kept in memory. When the application starts they are warmed up from
+ * the last {@code window} readings, so the scoring continues where it stopped.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Service
+@DependsOn("timestampColumnMigration") // the warm up reads the readings by timestamp
+public class AnomalyDetectionService {
+
+	private static final Logger logger = LoggerFactory.getLogger(AnomalyDetectionService.class); //logger
+	private static final WaterParameter[] PARAMETERS = WaterParameter.values();
+
+	private final ReadingAnomalyRepository readingAnomalyRepository;
+	private final WaterReadingRepository waterReadingRepository;
+	private final AnomalyProperties anomalyProperties;
+	private final double alpha;
+
+	// Rolling statistics by parameter ordinal, only changed on the writer thread.
+	private final long[] counts = new long[PARAMETERS.length];
+	private final double[] means = new double[PARAMETERS.length];
+	private final double[] variances = new double[PARAMETERS.length];
+
+
+	/**
+	 * Constructor for AnomalyDetectionService.
+	 *
+	 * @param readingAnomalyRepository Repository to save and read the anomalies.
+	 * @param waterReadingRepository Repository to read the last readings when the application starts.
+	 * @param anomalyProperties Settings with the window and the threshold.
+	 */
+	public AnomalyDetectionService(ReadingAnomalyRepository readingAnomalyRepository,
+			WaterReadingRepository waterReadingRepository, AnomalyProperties anomalyProperties) {
+		this.readingAnomalyRepository = readingAnomalyRepository;
+		this.waterReadingRepository = waterReadingRepository;
+		this.anomalyProperties = anomalyProperties;
+		this.alpha = 2.0 / (Math.max(1, anomalyProperties.getWindow()) + 1);
+	}
+
+
+	/**
+	 * Warms up the statistics from the last readings, oldest first.
+	 */
+	@PostConstruct
+	public void init() {
+		if (!anomalyProperties.isEnabled()) {
+			return;
+		}
+		try {
+			List<WaterReading> recent = waterReadingRepository.findByOrderByTimestampDesc(
+					PageRequest.of(0, Math.max(1, anomalyProperties.getWindow())));
+			for (int i = recent.size() - 1; i >= 0; i--) {
+				score(recent.get(i));
+			}
+		} catch (Exception e) {
+			logger.error("Could not warm up the anomaly detection, it starts without history.", e);
+		}
+	}
+
+
+	/**
+	 * Scores saved readings in the order they were saved and saves their anomalies.
+	 *
+	 * @param readings the readings saved in the current transaction.
+	 * @return the anomalies which were found.
+	 */
+	@Transactional
+	public List<ReadingAnomaly> apply(List<WaterReading> readings) {
+		if (!anomalyProperties.isEnabled() || readings.isEmpty()) {
+			return List.of();
+		}
+		List<ReadingAnomaly> anomalies = new ArrayList<>();
+		for (WaterReading reading : readings) {
+			anomalies.addAll(score(reading));
+		}
+		return anomalies.isEmpty() ? anomalies : readingAnomalyRepository.saveAll(anomalies);
+	}
+
+
+	/**
+	 * Compares every value of a reading to the statistics of its parameter and then adds it to them.
+	 *
+	 * @param reading the reading, values which are null are skipped.
+	 * @return the anomalies of the reading, empty if all values are usual.
+	 */
+	synchronized List<ReadingAnomaly> score(WaterReading reading) {
+		List<ReadingAnomaly> anomalies = List.of();
+		for (WaterParameter parameter : PARAMETERS) {
+			Double value = parameter.get(reading);
+			if (value == null || !Double.isFinite(value)) {
+				continue;
+			}
+			int i = parameter.ordinal();
+			if (counts[i] == 0) {
+				means[i] = value;
+				variances[i] = 0;
+				counts[i] = 1;
+				continue;
+			}
+
+			double stdDev = Math.sqrt(variances[i]);
+			if (counts[i] >= anomalyProperties.getMinSamples() && stdDev > 0
+					&& Math.abs(value - means[i]) > anomalyProperties.getThreshold() * stdDev
+					&& reading.getTimestampMillis() != null) {
+				if (anomalies.isEmpty()) {
+					anomalies = new ArrayList<>(2);
+				}
+				anomalies.add(new ReadingAnomaly(reading, parameter, value, means[i], stdDev));
+			}
+
+			// Weighted Welford update: the variance uses the distance to the old and the new mean.
+			double diff = value - means[i];
+			double increment = alpha * diff;
+			means[i] += increment;
+			variances[i] = (1 - alpha) * (variances[i] + diff * increment);
+			counts[i]++;
+		}
+		return anomalies;
+	}
+
+
+	/**
+	 * Retrieves the most recent anomalies, optionally of one parameter and within a time range.
+	 *
+	 * @param parameter the field name of the parameter, {@code null} for all parameters.
+	 * @param from start of the time range (inclusive), {@code null} for no lower bound.
+	 * @param to end of the time range (exclusive), {@code null} for no upper bound.
+	 * @param limit the largest number of anomalies, capped at {@value WaterReadingService#MAX_PAGE_SIZE}.
+	 * @return the anomalies, newest first.
+	 * @throws IllegalArgumentException if the parameter or the time range is not valid.
+	 */
+	public List<ReadingAnomaly> getAnomalies(String parameter, LocalDateTime from, LocalDateTime to, int limit) {
+		WaterParameter selected = parameter == null || parameter.isBlank() ? null : WaterParameter.fromField(parameter);
+		long lower = from == null ? Long.MIN_VALUE : WaterReading.toEpochMillis(from);
+		long upper = to == null ? Long.MAX_VALUE : WaterReading.toEpochMillis(to);
+		if (lower > upper) {
+			throw new IllegalArgumentException("from must not be after to");
+		}
+		int pageSize = Math.min(Math.max(limit, 1), WaterReadingService.MAX_PAGE_SIZE);
+		return readingAnomalyRepository.findRecent(lower, upper, selected, PageRequest.of(0, pageSize));
+	}
+}
@@ -0,0 +1,219 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.assessment.monitoringmicroservice.config.IngestProperties;
+import com.assessment.monitoringmicroservice.model.IngestCheckpoint;
+import com.assessment.monitoringmicroservice.repository.IngestCheckpointRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+
+/**
+ * Service class for ingesting the CSV files which sensors export into a directory.
+ *
+ * <p>
+ * The directory set in {@code monitoring.ingest.watch-directory} is watched with a
+ * {@link WatchService}. When a CSV file is created or grows, only the bytes after its saved
+ * offset are parsed and the records of every complete line are inserted. A line which is still
+ * being written is left for the next change of the file. The offset is saved in the
+ * transaction of the records, so after a restart each file continues exactly after the
+ * last committed line. All files are also checked every {@code watch-poll-interval} in case
+ * a file event was lost.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Service
+public class DirectoryIngestService {
+
+	private static final Logger logger = LoggerFactory.getLogger(DirectoryIngestService.class); //logger
+
+	private final WaterReadingService waterReadingService;
+	private final IngestCheckpointRepository ingestCheckpointRepository;
+	private final IngestProperties ingestProperties;
+	private final IngestMetrics ingestMetrics;
+	private ExecutorService watcher;
+
+
+	/**
+	 * Constructor for DirectoryIngestService.
+	 *
+	 * @param waterReadingService Service which parses and inserts the records.
+	 * @param ingestCheckpointRepository Repository to read the saved offsets of the files.
+	 * @param ingestProperties Settings with the watched directory and the chunk size.
+	 * @param ingestMetrics Meters of the parsed rows.
+	 */
+	public DirectoryIngestService(WaterReadingService waterReadingService,
+			IngestCheckpointRepository ingestCheckpointRepository, IngestProperties ingestProperties,
+			IngestMetrics ingestMetrics) {
+		this.waterReadingService = waterReadingService;
+		this.ingestCheckpointRepository = ingestCheckpointRepository;
+		this.ingestProperties = ingestProperties;
+		this.ingestMetrics = ingestMetrics;
+	}
+
+
+	/**
+	 * Starts watching the directory once the application starts, if a directory is set.
+	 */
+	@PostConstruct
+	public void start() {
+		Path directory = ingestProperties.getWatchDirectory();
+		if (directory == null) {
+			return;
+		}
+		watcher = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "csv-directory-watch");
+			thread.setDaemon(true);
+			return thread;
+		});
+		watcher.submit(() -> watch(directory));
+	}
+
+
+	/**
+	 * Stops watching the directory when the application shuts down.
+	 */
+	@PreDestroy
+	public void stop() {
+		if (watcher != null) {
+			watcher.shutdownNow();
+		}
+	}
+
+
+	/**
+	 * Ingests the files which changed while the application was stopped and then every
+	 * file which is created or modified until the thread is interrupted.
+	 *
+	 * @param directory the directory to watch.
+	 */
+	void watch(Path directory) {
+		try {
+			Files.createDirectories(directory);
+		} catch (IOException e) {
+			logger.error("Could not create the watch directory: {}", directory, e);
+			return;
+		}
+		try (WatchService watchService = directory.getFileSystem().newWatchService()) {
+			directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			logger.info("Watching {} for CSV files.", directory);
+			tailAll(directory);
+
+			long pollMillis = Math.max(1, ingestProperties.getWatchPollInterval().toMillis());
+			while (!Thread.currentThread().isInterrupted()) {
+				WatchKey key = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+				if (key == null) {
+					tailAll(directory);
+					continue;
+				}
+				Set<Path> changed = new LinkedHashSet<>();
+				boolean overflow = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						overflow = true;
+					} else {
+						changed.add(directory.resolve((Path) event.context()));
+					}
+				}
+				key.reset();
+				if (overflow) {
+					tailAll(directory);
+				} else {
+					changed.stream().filter(DirectoryIngestService::isCsvFile).forEach(this::tailQuietly);
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			logger.error("Could not watch the directory: {}", directory, e);
+		}
+	}
+
+
+	/**
+	 * Ingests the new lines of every CSV file in the directory.
+	 *
+	 * @param directory the watched directory.
+	 */
+	void tailAll(Path directory) {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, DirectoryIngestService::isCsvFile)) {
+			for (Path file : files) {
+				tailQuietly(file);
+			}
+		} catch (IOException e) {
+			logger.error("Could not list the watch directory: {}", directory, e);
+		}
+	}
+
+
+	/**
+	 * Ingests the new lines of a file and logs the error instead of stopping the watcher.
+	 * The lines after the last committed chunk are read again on the next change.
+	 */
+	private void tailQuietly(Path file) {
+		try {
+			tail(file);
+		} catch (Exception e) {
+			logger.error("Error while ingesting {}: {}", file, e.getMessage(), e);
+		}
+	}
+
+
+	/**
+	 * Parses the bytes of a file after its saved offset with the {@link MappedCsvParser} and
+	 * inserts the records of all complete lines in chunks of {@code monitoring.ingest.batch-size}.
+	 * The first line of a file is the header.
+	 *
+	 * @param file the CSV file.
+	 * @return the number of records inserted.
+	 * @throws IOException if the file could not be read.
+	 */
+	public int tail(Path file) throws IOException {
+		String key = file.toAbsolutePath().normalize().toString();
+		long offset = ingestCheckpointRepository.findById(key).map(IngestCheckpoint::getByteOffset).orElse(0L);
+		long size = Files.size(file);
+		if (size < offset) {
+			logger.warn("{} is shorter than its offset {}, it was replaced and is read again from the start.", file, offset);
+			offset = 0;
+		}
+		if (size == offset) {
+			return 0;
+		}
+
+		int[] inserted = {0};
+		new MappedCsvParser(ingestProperties.getBatchSize()).parseAppended(file, offset, ingestMetrics.timeParsing(
+				(batch, endOffset) -> inserted[0] += waterReadingService.insertCheckpointed(batch, new IngestCheckpoint(key, endOffset))));
+
+		if (inserted[0] > 0) {
+			logger.info("Ingested {} records from {}.", inserted[0], file);
+		}
+		return inserted[0];
+	}
+
+
+	private static boolean isCsvFile(Path file) {
+		return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") && Files.isRegularFile(file);
+	}
+}
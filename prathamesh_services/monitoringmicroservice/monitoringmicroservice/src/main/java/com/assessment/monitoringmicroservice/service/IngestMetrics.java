@@ -0,0 +1,142 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.assessment.monitoringmicroservice.model.WaterReading;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+
+/**
+ * Micrometer meters of the ingest pipeline, published on {@code /actuator/metrics} and
+ * {@code /actuator/prometheus}.
+ *
+ * <p>
+ * The rows are counted instead of logged: the rates of {@code monitoring.ingest.rows.parsed}
+ * and {@code monitoring.ingest.rows.inserted} are the rows per second, and
+ * {@code monitoring.ingest.rows.rejected} has a {@code reason} tag. The parse time of a batch
+ * and the time of a chunk transaction are timers with a histogram, and
+ * {@code monitoring.ingest.last.insert.age} is the time since the last chunk was committed.
+ * Every meter is a counter or a timer, so recording a batch costs a few atomic updates.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+public class IngestMetrics {
+
+	public static final String REASON_MISSING_OBJECT_ID = "missing-object-id";
+	public static final String REASON_INVALID_ROW = "invalid-row";
+	public static final String REASON_DUPLICATE = "duplicate";
+	public static final String REASON_QUEUE_FULL = "queue-full";
+	public static final String REASON_WRITE_FAILED = "write-failed";
+
+	private static final String REJECTED = "monitoring.ingest.rows.rejected";
+
+	private final MeterRegistry registry;
+	private final Counter parsed;
+	private final Counter inserted;
+	private final Timer parseTimer;
+	private final Timer insertTimer;
+	private final AtomicLong lastInsertNanos = new AtomicLong(-1);
+
+
+	/**
+	 * Constructor for IngestMetrics.
+	 *
+	 * @param registry Registry the meters are added to.
+	 */
+	public IngestMetrics(MeterRegistry registry) {
+		this.registry = registry;
+		this.parsed = Counter.builder("monitoring.ingest.rows.parsed")
+				.description("Rows parsed from files and uploads").baseUnit("rows").register(registry);
+		this.inserted = Counter.builder("monitoring.ingest.rows.inserted")
+				.description("Rows committed to the database").baseUnit("rows").register(registry);
+		this.parseTimer = Timer.builder("monitoring.ingest.parse")
+				.description("Time to parse one batch of rows")
+				.publishPercentiles(0.5, 0.95, 0.99).publishPercentileHistogram().register(registry);
+		this.insertTimer = Timer.builder("monitoring.ingest.insert")
+				.description("Time of one chunk transaction on the writer thread")
+				.publishPercentiles(0.5, 0.95, 0.99).publishPercentileHistogram().register(registry);
+		TimeGauge.builder("monitoring.ingest.last.insert.age", lastInsertNanos, TimeUnit.NANOSECONDS,
+				last -> last.get() < 0 ? Double.NaN : System.nanoTime() - last.get())
+				.description("Time since the last chunk was committed, NaN before the first").register(registry);
+	}
+
+
+	/**
+	 * Wraps the sink of a {@link MappedCsvParser} to count the parsed rows and time every batch.
+	 * The time of a batch is the time since the sink returned the previous batch, so the time
+	 * the sink takes to write a batch is not counted as parse time. Lines the parser skipped
+	 * are rejected with {@value #REASON_MISSING_OBJECT_ID}. The returned sink must be used by
+	 * one parser only.
+	 *
+	 * @param sink the sink which writes the batches.
+	 * @return the sink which records the batches and calls {@code sink}.
+	 */
+	public MappedCsvParser.BatchSink timeParsing(MappedCsvParser.BatchSink sink) {
+		return new MappedCsvParser.BatchSink() {
+
+			private long parseStart = System.nanoTime();
+
+			@Override
+			public void accept(List<WaterReading> batch, long endOffset) {
+				parsed(batch.size(), System.nanoTime() - parseStart);
+				sink.accept(batch, endOffset);
+				parseStart = System.nanoTime();
+			}
+
+			@Override
+			public void skipped(int lines) {
+				rejected(REASON_MISSING_OBJECT_ID, lines);
+				sink.skipped(lines);
+			}
+		};
+	}
+
+
+	/**
+	 * Records a parsed batch.
+	 *
+	 * @param rows the number of rows in the batch.
+	 * @param nanos the time it took to parse the batch.
+	 */
+	public void parsed(int rows, long nanos) {
+		parsed.increment(rows);
+		parseTimer.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+
+	/**
+	 * Records a committed chunk.
+	 *
+	 * @param rows the number of rows inserted.
+	 * @param nanos the time of the transaction.
+	 */
+	public void inserted(int rows, long nanos) {
+		inserted.increment(rows);
+		insertTimer.record(nanos, TimeUnit.NANOSECONDS);
+		lastInsertNanos.set(System.nanoTime());
+	}
+
+
+	/**
+	 * Counts rows which were not inserted.
+	 *
+	 * @param reason why the rows were rejected, one of the {@code REASON_} constants.
+	 * @param rows the number of rows.
+	 */
+	public void rejected(String reason, int rows) {
+		if (rows > 0) {
+			registry.counter(REJECTED, "reason", reason).increment(rows);
+		}
+	}
+}
@@ -0,0 +1,369 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.assessment.monitoringmicroservice.model.WaterParameter;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+
+
+/**
+ * Parses the water quality CSV files straight from memory-mapped bytes.
+ *
+ * <p>
+ * The file is mapped with {@link FileChannel#map} in windows of {@value #WINDOW_SIZE} bytes
+ * and scanned byte by byte for the delimiters. The object id and the nine parameters are
+ * parsed from the bytes of their field, so no line, field or number {@code String} is created
+ * unless a value is not a plain decimal number. The rows are handed to a {@link BatchSink}
+ * in batches of the configured size, the same list is reused for every batch.
+ * </p>
+ *
+ * <p>
+ * The columns are the object id followed by the parameters in the order of
+ * {@link WaterParameter}, the same layout {@link WaterReadingService#parseRow} reads.
+ * Empty and invalid values are set to null, rows without a valid object id are skipped and
+ * counted with {@link BatchSink#skipped(int)}, empty lines are skipped without counting them.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public class MappedCsvParser {
+
+	/**
+	 * Receives the parsed rows of a file.
+	 */
+	@FunctionalInterface
+	public interface BatchSink {
+
+		/**
+		 * Handles one batch of parsed rows. The list is cleared and reused after the call,
+		 * so it must not be kept; the readings in it can be kept.
+		 *
+		 * @param batch the parsed readings, may be empty if only skipped lines were read.
+		 * @param endOffset the offset of the file right after the last line of the batch.
+		 */
+		void accept(List<WaterReading> batch, long endOffset);
+
+		/**
+		 * Counts lines which were skipped because they have no valid object id, called before
+		 * the batch which contains their offset is accepted.
+		 *
+		 * @param lines the number of skipped lines, at least 1.
+		 */
+		default void skipped(int lines) {
+		}
+	}
+
+	private static final Logger logger = LoggerFactory.getLogger(MappedCsvParser.class); //logger
+	private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+	private static final int COLUMNS = 10;
+	private static final WaterParameter[] PARAMETERS = WaterParameter.values();
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+	};
+
+	private final int batchSize;
+
+
+	/**
+	 * Constructor for MappedCsvParser.
+	 *
+	 * @param batchSize the number of rows per batch.
+	 */
+	public MappedCsvParser(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+
+	/**
+	 * Parses a whole file. The first line is the header, the last line does not need a line separator.
+	 *
+	 * @param file the CSV file.
+	 * @param sink receives the batches of readings.
+	 * @return the number of readings parsed.
+	 * @throws IOException if the file could not be read.
+	 */
+	public long parseAll(Path file, BatchSink sink) throws IOException {
+		return parse(file, 0, true, sink);
+	}
+
+
+	/**
+	 * Parses a whole file from an offset, for example the ingest cursor of the file. If the
+	 * offset is 0 the first line is the header, the last line does not need a line separator.
+	 *
+	 * @param file the CSV file.
+	 * @param offset the offset to start at, right after a line separator.
+	 * @param sink receives the batches of readings.
+	 * @return the number of readings parsed.
+	 * @throws IOException if the file could not be read.
+	 */
+	public long parseAll(Path file, long offset, BatchSink sink) throws IOException {
+		return parse(file, offset, true, sink);
+	}
+
+
+	/**
+	 * Parses the complete lines after an offset of a file which may still be written. A last
+	 * line without line separator is not parsed, the offset of the last batch points before it.
+	 * If the offset is 0 the first line is the header.
+	 *
+	 * @param file the CSV file.
+	 * @param offset the offset to start at, right after a line separator.
+	 * @param sink receives the batches of readings.
+	 * @return the number of readings parsed.
+	 * @throws IOException if the file could not be read.
+	 */
+	public long parseAppended(Path file, long offset, BatchSink sink) throws IOException {
+		return parse(file, offset, false, sink);
+	}
+
+
+	private long parse(Path file, long offset, boolean lastLineComplete, BatchSink sink) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return parseRange(channel, offset, channel.size(), offset == 0, lastLineComplete, sink);
+		}
+	}
+
+
+	/**
+	 * Parses the lines in a byte range of a file. The channel is only read with absolute
+	 * positions, so several ranges of the same channel can be parsed at the same time.
+	 *
+	 * @param channel the open file.
+	 * @param start the offset to start at, 0 or right after a line separator.
+	 * @param end the offset to stop at, right after a line separator or the end of the file.
+	 * @param header {@code true} if the first line of the range is the header.
+	 * @param lastLineComplete {@code true} if a last line without line separator is parsed.
+	 * @param sink receives the batches of readings.
+	 * @return the number of readings parsed.
+	 * @throws IOException if the file could not be read.
+	 */
+	long parseRange(FileChannel channel, long start, long end, boolean header, boolean lastLineComplete, BatchSink sink)
+			throws IOException {
+		List<WaterReading> batch = new ArrayList<>(batchSize);
+		long parsed = 0;
+		int skipped = 0;  // lines without object id since the last batch
+		long emitted = start;  // offset passed with the last batch
+		long lineStart = start;
+
+		while (lineStart < end) {
+			long windowStart = lineStart;
+			int windowLength = (int) Math.min(WINDOW_SIZE, end - windowStart);
+			boolean lastWindow = windowStart + windowLength == end;
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+
+			int lineOffset = 0;
+			for (int i = 0; i <= windowLength; i++) {
+				boolean endOfLine = i < windowLength ? window.get(i) == '\n' : lastWindow && lastLineComplete && lineOffset < i;
+				if (!endOfLine) {
+					continue;
+				}
+				if (header) {
+					header = false;
+				} else {
+					WaterReading reading = parseLine(window, lineOffset, i);
+					if (reading != null) {
+						batch.add(reading);
+						parsed++;
+					} else if (!isEmpty(window, lineOffset, i)) {
+						skipped++;
+					}
+				}
+				lineOffset = i + 1;
+				lineStart = windowStart + Math.min(lineOffset, windowLength);
+				if (batch.size() == batchSize) {
+					if (skipped > 0) {
+						sink.skipped(skipped);
+						skipped = 0;
+					}
+					sink.accept(batch, lineStart);
+					emitted = lineStart;
+					batch.clear();
+				}
+			}
+
+			if (lastWindow) {
+				break;
+			}
+			if (lineStart == windowStart) {
+				throw new IOException("Line longer than " + WINDOW_SIZE + " bytes at offset " + windowStart);
+			}
+		}
+
+		if (lineStart > emitted) {
+			if (skipped > 0) {
+				sink.skipped(skipped);
+			}
+			sink.accept(batch, lineStart);
+			batch.clear();
+		}
+		return parsed;
+	}
+
+
+	/**
+	 * Parses the fields of one line.
+	 *
+	 * @return the reading or {@code null} if the line is empty or has no valid object id.
+	 */
+	private static WaterReading parseLine(MappedByteBuffer buffer, int start, int end) {
+		if (end > start && buffer.get(end - 1) == '\r') {
+			end--;
+		}
+		if (end == start) {
+			return null;
+		}
+		WaterReading reading = new WaterReading();
+		int column = 0;
+		int fieldStart = start;
+		for (int i = start; i <= end && column < COLUMNS; i++) {
+			if (i < end && buffer.get(i) != ',') {
+				continue;
+			}
+			if (column == 0) {
+				Integer objectId = parseInteger(buffer, fieldStart, i);
+				if (objectId == null) {
+					return null;
+				}
+				reading.setObjectId(objectId);
+			} else {
+				PARAMETERS[column - 1].set(reading, parseDouble(buffer, fieldStart, i));
+			}
+			column++;
+			fieldStart = i + 1;
+		}
+		return reading;
+	}
+
+
+	/**
+	 * Checks if a line is empty, apart from a carriage return.
+	 */
+	private static boolean isEmpty(MappedByteBuffer buffer, int start, int end) {
+		return end == start || end == start + 1 && buffer.get(start) == '\r';
+	}
+
+
+	/**
+	 * Parses an integer from the bytes of a field.
+	 *
+	 * @return the value, or {@code null} if the field is empty or not an integer.
+	 */
+	static Integer parseInteger(MappedByteBuffer buffer, int start, int end) {
+		while (start < end && isBlank(buffer.get(start))) {
+			start++;
+		}
+		while (end > start && isBlank(buffer.get(end - 1))) {
+			end--;
+		}
+		if (start == end) {
+			return null;
+		}
+		boolean negative = buffer.get(start) == '-';
+		int i = negative || buffer.get(start) == '+' ? start + 1 : start;
+		if (i == end) {
+			return invalid(buffer, start, end);
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return invalid(buffer, start, end);
+			}
+			value = value * 10 + digit;
+			if (value > Integer.MAX_VALUE + 1L) {
+				return invalid(buffer, start, end);
+			}
+		}
+		value = negative ? -value : value;
+		return value > Integer.MAX_VALUE ? invalid(buffer, start, end) : Integer.valueOf((int) value);
+	}
+
+
+	/**
+	 * Parses a decimal number from the bytes of a field. Numbers with at most 15 significant
+	 * digits are computed as {@code mantissa / 10^n}, which gives the same double as
+	 * {@link Double#parseDouble} because both values are exact doubles and the division is
+	 * correctly rounded. Anything else, like exponents, is passed to {@link Double#parseDouble}.
+	 *
+	 * @return the value, or {@code null} if the field is empty or not a number.
+	 */
+	static Double parseDouble(MappedByteBuffer buffer, int start, int end) {
+		while (start < end && isBlank(buffer.get(start))) {
+			start++;
+		}
+		while (end > start && isBlank(buffer.get(end - 1))) {
+			end--;
+		}
+		if (start == end) {
+			return null;
+		}
+		boolean negative = buffer.get(start) == '-';
+		int i = negative || buffer.get(start) == '+' ? start + 1 : start;
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = -1;
+		for (; i < end; i++) {
+			byte b = buffer.get(i);
+			if (b == '.' && fractionDigits < 0) {
+				fractionDigits = 0;
+				continue;
+			}
+			int digit = b - '0';
+			if (digit < 0 || digit > 9 || digits == 15) {
+				return parseSlow(buffer, start, end);
+			}
+			mantissa = mantissa * 10 + digit;
+			digits++;
+			if (fractionDigits >= 0) {
+				fractionDigits++;
+			}
+		}
+		if (digits == 0) {
+			return parseSlow(buffer, start, end);
+		}
+		// 15 digits stay below 2^53, so the mantissa and the power of ten are both exact doubles.
+		double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+		return negative ? -value : value;
+	}
+
+
+	private static Double parseSlow(MappedByteBuffer buffer, int start, int end) {
+		String value = text(buffer, start, end);
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			logger.debug("Invalid value: {}", value);
+			return null;
+		}
+	}
+
+
+	private static Integer invalid(MappedByteBuffer buffer, int start, int end) {
+		logger.debug("Invalid value: {}", text(buffer, start, end));
+		return null;
+	}
+
+
+	private static String text(MappedByteBuffer buffer, int start, int end) {
+		byte[] bytes = new byte[end - start];
+		buffer.get(start, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+
+	private static boolean isBlank(byte b) {
+		return b == ' ' || b == '\t';
+	}
+}
@@ -0,0 +1,213 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import com.assessment.monitoringmicroservice.model.WaterReading;
+
+
+/**
+ * Parses a CSV file on several cores and hands the records to a single writer.
+ *
+ * <p>
+ * The file is split into byte ranges which start right after a line separator, and the
+ * ranges are parsed by a {@link ForkJoinPool} with the {@link MappedCsvParser}. A range is
+ * split in two halves until it is smaller than {@code file size / (4 * parallelism)}, so idle
+ * workers can steal the remaining halves. The parsed batches are put in a bounded queue which
+ * one writer thread drains; when the queue is full the parsers wait, so memory is bounded by
+ * the queue depth and not by the file size. The records are written in the order the ranges
+ * finish, not in the order of the file.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public class ParallelCsvParser {
+
+	private static final long MIN_RANGE_SIZE = 1024 * 1024;
+	private static final int ALIGN_BUFFER_SIZE = 4096;
+	private static final List<WaterReading> END_OF_FILE = new ArrayList<>();
+
+	private final int parallelism;
+	private final int batchSize;
+	private final int queueDepth;
+	private final UnaryOperator<MappedCsvParser.BatchSink> instrumentation;
+
+
+	/**
+	 * Constructor for ParallelCsvParser.
+	 *
+	 * @param parallelism the number of parser threads.
+	 * @param batchSize the number of records per batch.
+	 * @param queueDepth the number of batches which can wait for the writer.
+	 */
+	public ParallelCsvParser(int parallelism, int batchSize, int queueDepth) {
+		this(parallelism, batchSize, queueDepth, UnaryOperator.identity());
+	}
+
+
+	/**
+	 * Constructor for ParallelCsvParser which wraps the sink of every range, for example with
+	 * {@link IngestMetrics#timeParsing} to time the batches on the parser threads.
+	 *
+	 * @param parallelism the number of parser threads.
+	 * @param batchSize the number of records per batch.
+	 * @param queueDepth the number of batches which can wait for the writer.
+	 * @param instrumentation wraps the sink which queues the batches of one range.
+	 */
+	public ParallelCsvParser(int parallelism, int batchSize, int queueDepth, UnaryOperator<MappedCsvParser.BatchSink> instrumentation) {
+		this.parallelism = Math.max(1, parallelism);
+		this.batchSize = Math.max(1, batchSize);
+		this.queueDepth = Math.max(1, queueDepth);
+		this.instrumentation = instrumentation;
+	}
+
+
+	/**
+	 * Parses a whole file and passes every batch to the writer on one writer thread.
+	 * The first line of the file is the header.
+	 *
+	 * @param file the CSV file.
+	 * @param writer writes one batch, it is only called from the writer thread.
+	 * @return the number of records parsed.
+	 * @throws IOException if the file could not be read.
+	 * @throws InterruptedException if the thread was interrupted while waiting for the writer.
+	 */
+	public long parse(Path file, Consumer<List<WaterReading>> writer) throws IOException, InterruptedException {
+		BlockingQueue<List<WaterReading>> queue = new ArrayBlockingQueue<>(queueDepth);
+		AtomicReference<RuntimeException> writerError = new AtomicReference<>();
+		Thread writerThread = new Thread(() -> drain(queue, writer, writerError), "csv-writer");
+		writerThread.start();
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		long parsed;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long rangeSize = Math.max(MIN_RANGE_SIZE, size / (4L * parallelism));
+			parsed = pool.invoke(new RangeTask(channel, queue, 0, size, size, rangeSize));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			pool.shutdownNow();
+			queue.put(END_OF_FILE);
+			writerThread.join();
+		}
+		if (writerError.get() != null) {
+			throw writerError.get();
+		}
+		return parsed;
+	}
+
+
+	/**
+	 * Writes the batches of the queue until the end of the file. After a failed write the
+	 * queue is still drained, so the parsers are not blocked forever.
+	 */
+	private static void drain(BlockingQueue<List<WaterReading>> queue, Consumer<List<WaterReading>> writer,
+			AtomicReference<RuntimeException> writerError) {
+		try {
+			for (List<WaterReading> batch = queue.take(); batch != END_OF_FILE; batch = queue.take()) {
+				if (writerError.get() == null) {
+					try {
+						writer.accept(batch);
+					} catch (RuntimeException e) {
+						writerError.set(e);
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	/**
+	 * Parses the byte range {@code [start, end)}, or splits it at a line separator near its middle.
+	 */
+	private final class RangeTask extends RecursiveTask<Long> {
+
+		private final FileChannel channel;
+		private final BlockingQueue<List<WaterReading>> queue;
+		private final long start;
+		private final long end;
+		private final long size;
+		private final long rangeSize;
+
+		RangeTask(FileChannel channel, BlockingQueue<List<WaterReading>> queue, long start, long end, long size, long rangeSize) {
+			this.channel = channel;
+			this.queue = queue;
+			this.start = start;
+			this.end = end;
+			this.size = size;
+			this.rangeSize = rangeSize;
+		}
+
+		@Override
+		protected Long compute() {
+			try {
+				if (end - start > rangeSize) {
+					long middle = nextLineStart(channel, start + (end - start) / 2, end);
+					if (middle > start && middle < end) {
+						RangeTask second = new RangeTask(channel, queue, middle, end, size, rangeSize);
+						second.fork();
+						long first = new RangeTask(channel, queue, start, middle, size, rangeSize).compute();
+						return first + second.join();
+					}
+				}
+				return new MappedCsvParser(batchSize).parseRange(channel, start, end, start == 0, end == size,
+						instrumentation.apply((batch, endOffset) -> enqueue(batch)));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void enqueue(List<WaterReading> batch) {
+			if (batch.isEmpty()) {
+				return;
+			}
+			try {
+				queue.put(new ArrayList<>(batch)); // the parser reuses its list
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the writer", e);
+			}
+		}
+	}
+
+
+	/**
+	 * Finds the offset right after the first line separator at or after a position.
+	 *
+	 * @return the offset after the line separator, or {@code end} if there is none before it.
+	 */
+	private static long nextLineStart(FileChannel channel, long position, long end) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(ALIGN_BUFFER_SIZE);
+		while (position < end) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				return end;
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return Math.min(end, position + i + 1);
+				}
+			}
+			position += read;
+		}
+		return end;
+	}
+}
@@ -0,0 +1,457 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.assessment.monitoringmicroservice.config.StreamProperties;
+import com.assessment.monitoringmicroservice.model.RecordCursor;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+
+/**
+ * Pushes every committed water reading to the subscribers of {@code /records/stream}.
+ *
+ * <p>
+ * A reading is serialized to JSON once and then offered to the bounded buffer of every
+ * subscriber, which never blocks the thread which committed the reading. A small pool of
+ * sender threads writes the buffers to the connections, at most one thread per subscriber
+ * at a time so the events keep their order. When a client reads slower than the readings
+ * arrive, its buffer fills up and its {@link OverflowPolicy} decides what happens; the
+ * other clients and the ingest are not slowed down. No reading is ever read from the database.
+ * </p>
+ *
+ * <p>
+ * Writing to a connection blocks while the send buffer of the socket is full. A send which
+ * takes longer than {@code monitoring.stream.send-timeout} closes the stream, interrupts the
+ * write and adds a sender thread until the stalled write returns, so clients which stopped
+ * reading can not take all sender threads from the other streams. A stream is only completed
+ * by its sender thread, never by the thread which publishes a reading, because completing it
+ * waits for the write in progress.
+ * </p>
+ *
+ * <p>
+ * The id of every event is the {@code /records} cursor of the reading, so a client which
+ * was disconnected can page the readings it missed from {@code /records?after=<id>}.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+public class ReadingBroadcaster {
+
+	/**
+	 * What happens when the buffer of a subscriber is full.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Drops the oldest buffered reading, the client always gets the most recent readings.
+		 */
+		DROP_OLDEST,
+
+		/**
+		 * Drops the new reading, the client gets the buffered readings first.
+		 */
+		DROP_NEWEST,
+
+		/**
+		 * Closes the stream, the client reconnects and pages the missed readings from {@code /records}.
+		 */
+		DISCONNECT;
+
+		/**
+		 * Parses a policy name like {@code drop-oldest}.
+		 *
+		 * @param name the name of the policy, the case is ignored.
+		 * @return the policy.
+		 * @throws IllegalArgumentException if the name is not a policy.
+		 */
+		public static OverflowPolicy parse(String name) {
+			try {
+				return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Unknown overflow policy: " + name, e);
+			}
+		}
+	}
+
+	static final String EVENT_NAME = "reading";
+
+	private static final Logger logger = LoggerFactory.getLogger(ReadingBroadcaster.class); //logger
+	private static final Event HEARTBEAT = new Event(null, null);
+
+	private final StreamProperties streamProperties;
+	private final ObjectMapper objectMapper;
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+	private final Set<Subscriber> disconnected = ConcurrentHashMap.newKeySet(); // closed, completed by their sender thread
+	private final AtomicInteger open = new AtomicInteger(); // reserved before a subscriber is added
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong stalledStreams = new AtomicLong();
+	private ThreadPoolExecutor senders;
+	private int stalledSenders; // sender threads blocked in the write of a closed stream
+	private ScheduledExecutorService heartbeat;
+
+
+	/**
+	 * Constructor for ReadingBroadcaster.
+	 *
+	 * @param streamProperties Settings with the buffer size and the number of sender threads.
+	 * @param objectMapper Mapper which writes the readings as JSON.
+	 */
+	public ReadingBroadcaster(StreamProperties streamProperties, ObjectMapper objectMapper) {
+		this.streamProperties = streamProperties;
+		this.objectMapper = objectMapper;
+	}
+
+
+	/**
+	 * Starts the sender threads and the heartbeat.
+	 */
+	@PostConstruct
+	public void start() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		int threads = Math.max(1, streamProperties.getSenderThreads());
+		senders = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, "sse-sender-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "sse-heartbeat");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = Math.max(1, streamProperties.getHeartbeatInterval().toMillis());
+		heartbeat.scheduleAtFixedRate(() -> subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)),
+				interval, interval, TimeUnit.MILLISECONDS);
+		long sendTimeout = Math.max(1, streamProperties.getSendTimeout().toNanos());
+		long checkInterval = Math.max(1, streamProperties.getSendTimeout().toMillis() / 2);
+		heartbeat.scheduleAtFixedRate(() -> {
+			subscribers.forEach(subscriber -> subscriber.closeIfStalled(sendTimeout));
+			disconnected.forEach(subscriber -> subscriber.closeIfStalled(sendTimeout));
+		}, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+	}
+
+
+	/**
+	 * Closes all streams and stops the threads when the application shuts down.
+	 */
+	@PreDestroy
+	public void stop() {
+		subscribers.forEach(Subscriber::close);
+		if (heartbeat != null) {
+			heartbeat.shutdownNow();
+		}
+		if (senders != null) {
+			senders.shutdownNow();
+		}
+	}
+
+
+	/**
+	 * Opens a new stream.
+	 *
+	 * @param policy what happens when the client can not keep up.
+	 * @return the emitter of the stream.
+	 * @throws IllegalStateException if the largest number of streams is open.
+	 */
+	public SseEmitter subscribe(OverflowPolicy policy) {
+		return register(new SseEmitter(streamProperties.getTimeout().toMillis()), policy);
+	}
+
+
+	/**
+	 * Adds an emitter as a subscriber.
+	 *
+	 * @param emitter the emitter of the stream.
+	 * @param policy what happens when the client can not keep up.
+	 * @return the emitter.
+	 * @throws IllegalStateException if the largest number of streams is open.
+	 */
+	SseEmitter register(SseEmitter emitter, OverflowPolicy policy) {
+		if (open.incrementAndGet() > streamProperties.getMaxSubscribers()) {
+			open.decrementAndGet();
+			throw new IllegalStateException("Too many open streams");
+		}
+		Subscriber subscriber = new Subscriber(emitter, policy, Math.max(1, streamProperties.getBufferSize()));
+		emitter.onCompletion(subscriber::closed);
+		emitter.onTimeout(subscriber::close);
+		emitter.onError(error -> subscriber.closed());
+		subscribers.add(subscriber);
+		return emitter;
+	}
+
+
+	/**
+	 * Offers committed readings to every subscriber without waiting for any of them.
+	 *
+	 * @param readings the readings in the order they were committed.
+	 */
+	public void publish(List<WaterReading> readings) {
+		if (subscribers.isEmpty()) {
+			return;
+		}
+		for (WaterReading reading : readings) {
+			Event event;
+			try {
+				event = new Event(RecordCursor.of(reading).toString(), objectMapper.writeValueAsString(reading));
+			} catch (JsonProcessingException e) {
+				logger.error("Could not write the reading {} as JSON.", reading.getId(), e);
+				continue;
+			}
+			subscribers.forEach(subscriber -> subscriber.offer(event));
+		}
+	}
+
+
+	/**
+	 * Retrieves the number of open streams.
+	 *
+	 * @return the number of subscribers.
+	 */
+	public int getSubscriberCount() {
+		return open.get();
+	}
+
+
+	/**
+	 * Retrieves the number of readings which were dropped because a buffer was full.
+	 *
+	 * @return the number of dropped readings since the start.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+
+	/**
+	 * Retrieves the number of streams which were closed because a send did not finish in time.
+	 *
+	 * @return the number of stalled streams since the start.
+	 */
+	public long getStalledCount() {
+		return stalledStreams.get();
+	}
+
+
+	/**
+	 * Changes the number of sender threads blocked by stalled streams and resizes the pool, so
+	 * the configured number of threads is always free for the other streams.
+	 */
+	private synchronized void resizeSenders(int delta) {
+		stalledSenders += delta;
+		int size = Math.max(1, streamProperties.getSenderThreads()) + stalledSenders;
+		if (delta > 0) {
+			senders.setMaximumPoolSize(size);
+			senders.setCorePoolSize(size);
+		} else {
+			senders.setCorePoolSize(size);
+			senders.setMaximumPoolSize(size);
+		}
+	}
+
+
+	/**
+	 * A reading written as JSON once for all subscribers, a heartbeat has no data.
+	 */
+	private record Event(String id, String json) {
+	}
+
+
+	/**
+	 * The buffer of one stream, drained by at most one sender thread at a time.
+	 */
+	private final class Subscriber implements Runnable {
+
+		private final SseEmitter emitter;
+		private final OverflowPolicy policy;
+		private final BlockingQueue<Event> buffer;
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+		private final AtomicBoolean completed = new AtomicBoolean();
+		private volatile boolean closed;
+		private volatile boolean completing; // the sender thread completes the emitter
+		private boolean stalled; // guarded by this
+		private Thread sender; // guarded by this, set while an event is written
+		private long sendStarted; // guarded by this
+
+		Subscriber(SseEmitter emitter, OverflowPolicy policy, int bufferSize) {
+			this.emitter = emitter;
+			this.policy = policy;
+			this.buffer = new ArrayBlockingQueue<>(bufferSize);
+		}
+
+		void offer(Event event) {
+			if (closed) {
+				return;
+			}
+			while (!buffer.offer(event)) {
+				if (event == HEARTBEAT) {
+					return; // a full buffer has data to send anyway
+				}
+				switch (policy) {
+					case DROP_OLDEST -> {
+						if (buffer.poll() != null) {
+							dropped.incrementAndGet();
+						}
+					}
+					case DROP_NEWEST -> {
+						dropped.incrementAndGet();
+						return;
+					}
+					case DISCONNECT -> {
+						logger.debug("Closing a stream which could not keep up.");
+						disconnect();
+						return;
+					}
+				}
+			}
+			schedule();
+		}
+
+		private void schedule() {
+			if (!closed && scheduled.compareAndSet(false, true)) {
+				senders.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				for (Event event = buffer.poll(); event != null && !closed; event = buffer.poll()) {
+					sending(Thread.currentThread());
+					if (event == HEARTBEAT) {
+						emitter.send(SseEmitter.event().comment("heartbeat"));
+					} else {
+						emitter.send(SseEmitter.event().id(event.id()).name(EVENT_NAME).data(event.json(), MediaType.APPLICATION_JSON));
+					}
+					if (!sending(null)) {
+						break;
+					}
+				}
+			} catch (IOException | IllegalStateException e) {
+				if (sending(null)) {
+					logger.debug("Stream closed by the client: {}", e.getMessage());
+					close();
+				}
+			} finally {
+				sending(null); // a stalled send which failed with another exception
+				scheduled.set(false);
+			}
+			if (completing) {
+				complete();
+			} else if (!buffer.isEmpty()) {
+				schedule(); // an event was offered after the last poll
+			}
+		}
+
+		/**
+		 * Closes the stream without waiting for the send in progress. The emitter is completed
+		 * by the sender thread once its write returns, a write which stalls is still interrupted
+		 * by {@link #closeIfStalled(long)}.
+		 */
+		private void disconnect() {
+			disconnected.add(this);
+			completing = true;
+			closed();
+			if (scheduled.compareAndSet(false, true)) {
+				senders.execute(this); // no sender is running, a new one completes the emitter
+			}
+		}
+
+		/**
+		 * Completes the emitter once, on the sender thread which wrote the last event.
+		 */
+		private void complete() {
+			if (completed.compareAndSet(false, true)) {
+				disconnected.remove(this);
+				try {
+					emitter.complete();
+				} catch (RuntimeException e) {
+					logger.debug("Could not complete a stream: {}", e.getMessage());
+				}
+			}
+		}
+
+		/**
+		 * Marks the start or the end of a send. At the end of a stalled send the interrupt of
+		 * {@link #closeIfStalled(long)} is cleared, the stream is completed and the extra sender
+		 * thread is removed again.
+		 *
+		 * @return {@code false} if the send stalled and the stream was closed.
+		 */
+		private boolean sending(Thread thread) {
+			synchronized (this) {
+				if (!stalled) {
+					sender = thread;
+					sendStarted = System.nanoTime();
+					return true;
+				}
+				if (sender == null) {
+					return false; // already handled
+				}
+				sender = null;
+			}
+			Thread.interrupted();
+			resizeSenders(-1);
+			complete();
+			return false;
+		}
+
+		/**
+		 * Closes the stream if an event has been written for longer than the send timeout. The
+		 * emitter is completed by the sender thread once the write returns, completing it here
+		 * would wait for the write.
+		 */
+		void closeIfStalled(long sendTimeout) {
+			synchronized (this) {
+				if (stalled || sender == null || System.nanoTime() - sendStarted < sendTimeout) {
+					return;
+				}
+				stalled = true;
+				stalledStreams.incrementAndGet();
+				closed();
+				resizeSenders(1); // before the sender thread can remove it again
+				sender.interrupt();
+			}
+			logger.debug("Closed a stream whose send did not finish in time.");
+		}
+
+		void close() {
+			closed();
+			emitter.complete();
+		}
+
+		void closed() {
+			closed = true;
+			if (subscribers.remove(this)) {
+				open.decrementAndGet();
+			}
+			buffer.clear();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.assessment.monitoringmicroservice.model.ReadingRollup;
+import com.assessment.monitoringmicroservice.model.ReadingRollupId;
+import com.assessment.monitoringmicroservice.model.RollupGranularity;
+import com.assessment.monitoringmicroservice.model.WaterParameter;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.ReadingRollupRepository;
+
+
+/**
+ * Service class for maintaining the minute, hour and day rollups of the water quality readings.
+ *
+ * <p>
+ * The rollups are updated in the transaction which saves the readings, so the rollups
+ * and the raw readings are always committed together. {@link #rebuild()} recomputes them
+ * from the raw readings, for example after the schema of the readings changed.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Service
+public class ReadingRollupService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReadingRollupService.class); //logger
+
+	private final ReadingRollupRepository readingRollupRepository;
+
+
+	/**
+	 * Constructor for ReadingRollupService.
+	 *
+	 * @param readingRollupRepository Repository to read and save the rollups.
+	 */
+	public ReadingRollupService(ReadingRollupRepository readingRollupRepository) {
+		this.readingRollupRepository = readingRollupRepository;
+	}
+
+
+	/**
+	 * Adds saved readings to the rollups of every granularity.
+	 *
+	 * <p>The readings of a chunk are first added up in memory, so each touched rollup row is
+	 * read and written once per chunk no matter how many readings fall into its bucket.</p>
+	 *
+	 * @param readings the readings saved in the current transaction.
+	 */
+	@Transactional
+	public void apply(List<WaterReading> readings) {
+		Map<ReadingRollupId, ReadingRollup> touched = new HashMap<>();
+		for (WaterReading reading : readings) {
+			Long timestamp = reading.getTimestampMillis();
+			if (timestamp == null) {
+				continue;
+			}
+			for (RollupGranularity granularity : RollupGranularity.values()) {
+				long bucketStart = granularity.bucketStart(timestamp);
+				for (WaterParameter parameter : WaterParameter.values()) {
+					touched.computeIfAbsent(new ReadingRollupId(granularity, bucketStart, parameter),
+							id -> readingRollupRepository.findById(id).orElseGet(() -> new ReadingRollup(id)))
+						.add(parameter.get(reading));
+				}
+			}
+		}
+		readingRollupRepository.saveAll(touched.values());
+	}
+
+
+	/**
+	 * Deletes all rollups and computes them again from the raw readings.
+	 *
+	 * @return the number of rollup rows written.
+	 */
+	@Transactional
+	public int rebuild() {
+		readingRollupRepository.deleteAllInBatch();
+		int rows = 0;
+		for (RollupGranularity granularity : RollupGranularity.values()) {
+			rows += readingRollupRepository.insertFromReadings(granularity);
+		}
+		logger.info("Rebuilt {} rollup rows from the readings.", rows);
+		return rows;
+	}
+
+
+	/**
+	 * Checks if there are any rollups, an empty table next to existing readings means the
+	 * rollups were never built.
+	 *
+	 * @return {@code true} if no rollup rows exist.
+	 */
+	@Transactional(readOnly = true)
+	public boolean isEmpty() {
+		return readingRollupRepository.count() == 0;
+	}
+}
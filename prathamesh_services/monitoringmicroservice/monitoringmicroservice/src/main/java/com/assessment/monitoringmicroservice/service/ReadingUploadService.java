@@ -0,0 +1,372 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import com.assessment.monitoringmicroservice.config.IngestProperties;
+import com.assessment.monitoringmicroservice.model.UploadReport;
+import com.assessment.monitoringmicroservice.model.WaterParameter;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+
+/**
+ * Ingests water quality readings which are uploaded to {@code /records/batch}.
+ *
+ * <p>
+ * The body is read line by line while it arrives, as CSV in the layout of the bundled file or as
+ * one JSON object per line. The parsed rows are collected into chunks of
+ * {@code monitoring.ingest.batch-size} records, every chunk is committed in its own transaction by
+ * the {@link WaterReadingBatchWriter}. The next chunk is parsed while the previous one is written,
+ * so at most one chunk per upload waits for the writer thread and the body is never held in memory.
+ * </p>
+ *
+ * <p>
+ * A chunk is queued with {@link WaterReadingBatchWriter#trySubmitChunk}. When the write queue is
+ * full or a chunk can not be written the upload stops instead of waiting, the report then has the
+ * acknowledged chunks and the first line which was not committed so the client can send the rest
+ * again later. With a {@code source} the rows are
+ * stored like the rows of a file, so a row which is sent twice is inserted once.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Service
+public class ReadingUploadService {
+
+	/**
+	 * Formats of an upload body.
+	 */
+	public enum Format {
+
+		/**
+		 * The object id, the nine parameters and an optional ISO timestamp per line, the header is optional.
+		 */
+		CSV,
+
+		/**
+		 * One JSON object per line with the fields of {@link WaterReading}.
+		 */
+		NDJSON;
+
+		/**
+		 * Picks the format of a content type.
+		 *
+		 * @param contentType the content type of the request, for example {@code text/csv}.
+		 * @return the format.
+		 * @throws IllegalArgumentException if the content type is not CSV or NDJSON.
+		 */
+		public static Format of(String contentType) {
+			MediaType mediaType = MediaType.parseMediaType(contentType);
+			if (TEXT_CSV.isCompatibleWith(mediaType)) {
+				return CSV;
+			}
+			if (MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType)) {
+				return NDJSON;
+			}
+			throw new IllegalArgumentException("Unsupported content type: " + contentType);
+		}
+	}
+
+	public static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+	public static final String SOURCE_PREFIX = "upload:";
+
+	private static final Logger logger = LoggerFactory.getLogger(ReadingUploadService.class); //logger
+	private static final WaterParameter[] PARAMETERS = WaterParameter.values();
+	private static final int COLUMNS = 1 + PARAMETERS.length;
+
+	private final WaterReadingBatchWriter batchWriter;
+	private final WaterReadingService waterReadingService;
+	private final IngestProperties ingestProperties;
+	private final ObjectMapper objectMapper;
+	private final IngestMetrics ingestMetrics;
+
+
+	/**
+	 * Constructor for ReadingUploadService.
+	 *
+	 * @param batchWriter Writes the chunks on the writer thread.
+	 * @param waterReadingService Publishes the committed records as the latest record and to the streams.
+	 * @param ingestProperties Settings with the number of records per chunk.
+	 * @param objectMapper Mapper which reads the NDJSON lines.
+	 * @param ingestMetrics Meters of the parsed and rejected rows.
+	 */
+	public ReadingUploadService(WaterReadingBatchWriter batchWriter, WaterReadingService waterReadingService,
+			IngestProperties ingestProperties, ObjectMapper objectMapper, IngestMetrics ingestMetrics) {
+		this.batchWriter = batchWriter;
+		this.waterReadingService = waterReadingService;
+		this.ingestProperties = ingestProperties;
+		this.objectMapper = objectMapper;
+		this.ingestMetrics = ingestMetrics;
+	}
+
+
+	/**
+	 * Reads an upload body and writes its rows in chunks.
+	 *
+	 * @param body the body of the request, read while it arrives.
+	 * @param format the format of the body.
+	 * @param source name of the sender which makes the rows idempotent by object id, {@code null} to insert every row.
+	 * @return the acknowledgements of the committed chunks, the rows which could not be parsed and
+	 *         the chunk which could not be written, if any.
+	 * @throws IOException if the body could not be read.
+	 */
+	public UploadReport upload(InputStream body, Format format, String source) throws IOException {
+		int batchSize = Math.max(1, ingestProperties.getBatchSize());
+		String sourceFile = source == null || source.isBlank() ? null : SOURCE_PREFIX + source.trim();
+		Upload upload = new Upload();
+		List<WaterReading> chunk = new ArrayList<>(batchSize);
+		long firstLine = 0;
+		long lineNumber = 0;
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+		for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+			lineNumber++;
+			if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && isHeader(line))) {
+				continue;
+			}
+			WaterReading reading;
+			long parseStart = System.nanoTime();
+			try {
+				reading = format == Format.CSV ? parseCsv(line) : parseJson(line);
+			} catch (IllegalArgumentException e) {
+				upload.error(lineNumber, e.getMessage());
+				continue;
+			} finally {
+				upload.parseNanos += System.nanoTime() - parseStart; // the time spent waiting for the body is not parse time
+			}
+			if (reading.getTimestamp() == null) {
+				reading.setTimestamp(LocalDateTime.now()); // Set current timestamp before saving the record
+			}
+			reading.setSourceFile(sourceFile);
+			if (chunk.isEmpty()) {
+				firstLine = lineNumber;
+			}
+			chunk.add(reading);
+
+			if (chunk.size() == batchSize) {
+				if (!upload.submit(chunk, firstLine, lineNumber)) {
+					return upload.report(lineNumber, firstLine);
+				}
+				chunk = new ArrayList<>(batchSize);
+			}
+		}
+		if (!chunk.isEmpty() && !upload.submit(chunk, firstLine, lineNumber)) {
+			return upload.report(lineNumber, firstLine);
+		}
+		upload.awaitPending(); // a failed chunk is reported with its lines
+		return upload.report(lineNumber, null);
+	}
+
+
+	/**
+	 * Parses a CSV row strictly, unlike the file ingest an invalid value rejects the row.
+	 *
+	 * @param line the row without the line separator.
+	 * @return the parsed reading, without timestamp if the row has none.
+	 * @throws IllegalArgumentException if the row has the wrong number of columns or an invalid value.
+	 */
+	static WaterReading parseCsv(String line) {
+		String[] columns = line.split(",", -1);
+		if (columns.length != COLUMNS && columns.length != COLUMNS + 1) {
+			throw new IllegalArgumentException("Expected " + COLUMNS + " or " + (COLUMNS + 1) + " columns but got " + columns.length);
+		}
+		WaterReading reading = new WaterReading();
+		reading.setObjectId(objectId(columns[0].trim()));
+		for (int i = 0; i < PARAMETERS.length; i++) {
+			String value = columns[i + 1].trim();
+			try {
+				PARAMETERS[i].set(reading, value.isEmpty() ? null : Double.valueOf(value));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid value for " + PARAMETERS[i].field() + ": " + value);
+			}
+		}
+		if (columns.length > COLUMNS && !columns[COLUMNS].isBlank()) {
+			reading.setTimestamp(timestamp(columns[COLUMNS].trim()));
+		}
+		return reading;
+	}
+
+
+	/**
+	 * Parses a JSON object with the fields of {@link WaterReading}, other fields are ignored.
+	 *
+	 * @param line the JSON object without the line separator.
+	 * @return the parsed reading, without timestamp if the object has none.
+	 * @throws IllegalArgumentException if the line is not a JSON object or has an invalid value.
+	 */
+	WaterReading parseJson(String line) {
+		JsonNode node;
+		try {
+			node = objectMapper.readTree(line);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+		}
+		if (!node.isObject()) {
+			throw new IllegalArgumentException("Expected a JSON object");
+		}
+		WaterReading reading = new WaterReading();
+		JsonNode objectId = node.path("objectId");
+		if (!objectId.isIntegralNumber() || !objectId.canConvertToInt()) {
+			throw new IllegalArgumentException(objectId.isMissingNode() || objectId.isNull() ? "objectId is required"
+					: "Invalid value for objectId: " + objectId);
+		}
+		reading.setObjectId(objectId.intValue());
+		for (WaterParameter parameter : PARAMETERS) {
+			JsonNode value = node.path(parameter.field());
+			if (value.isNumber()) {
+				parameter.set(reading, value.doubleValue());
+			} else if (!value.isMissingNode() && !value.isNull()) {
+				throw new IllegalArgumentException("Invalid value for " + parameter.field() + ": " + value);
+			}
+		}
+		JsonNode timestamp = node.path("timestamp");
+		if (timestamp.isTextual()) {
+			reading.setTimestamp(timestamp(timestamp.textValue()));
+		} else if (!timestamp.isMissingNode() && !timestamp.isNull()) {
+			throw new IllegalArgumentException("Invalid value for timestamp: " + timestamp);
+		}
+		return reading;
+	}
+
+
+	private static Integer objectId(String value) {
+		if (value.isEmpty()) {
+			throw new IllegalArgumentException("objectId is required");
+		}
+		try {
+			return Integer.valueOf(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid value for objectId: " + value);
+		}
+	}
+
+
+	private static LocalDateTime timestamp(String value) {
+		try {
+			return LocalDateTime.parse(value);
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid value for timestamp: " + value);
+		}
+	}
+
+
+	/**
+	 * A first line which does not start with a number is the header.
+	 */
+	private static boolean isHeader(String line) {
+		String first = line.split(",", 2)[0].replace('\uFEFF', ' ').trim();
+		return !first.isEmpty() && !Character.isDigit(first.charAt(0)) && first.charAt(0) != '-';
+	}
+
+
+	/**
+	 * State of one upload: the chunk which is being written and the acknowledgements so far.
+	 */
+	private final class Upload {
+
+		private final List<UploadReport.BatchAck> batches = new ArrayList<>();
+		private final List<UploadReport.RowError> errors = new ArrayList<>();
+		private int errorCount;
+		private int inserted;
+		private long parseNanos;
+		private Future<List<WaterReading>> pending;
+		private long pendingFirstLine;
+		private long pendingLastLine;
+		private UploadReport.BatchFailure failure;
+
+		void error(long line, String message) {
+			errorCount++;
+			ingestMetrics.rejected(IngestMetrics.REASON_INVALID_ROW, 1);
+			if (errors.size() < UploadReport.MAX_ERRORS) {
+				errors.add(new UploadReport.RowError(line, message));
+			}
+		}
+
+		/**
+		 * Queues a chunk and then waits for the chunk before it, so one chunk is written while the next is parsed.
+		 *
+		 * @return {@code false} if the write queue is full, the chunk was not queued, or the chunk
+		 *         before could not be written.
+		 */
+		boolean submit(List<WaterReading> chunk, long firstLine, long lastLine) {
+			ingestMetrics.parsed(chunk.size(), parseNanos);
+			parseNanos = 0;
+			Future<List<WaterReading>> submitted;
+			try {
+				submitted = batchWriter.trySubmitChunk(chunk);
+			} catch (RejectedExecutionException e) {
+				ingestMetrics.rejected(IngestMetrics.REASON_QUEUE_FULL, chunk.size());
+				awaitPending();
+				logger.warn("Upload stopped at line {}, the write queue is full.", firstLine);
+				return false;
+			}
+			boolean written = awaitPending();
+			pending = submitted;
+			pendingFirstLine = firstLine;
+			pendingLastLine = lastLine;
+			if (!written) {
+				submitted.cancel(false); // not written if the writer has not started it yet
+				awaitPending(); // acknowledged if it was already written
+			}
+			return written;
+		}
+
+		/**
+		 * Waits for the chunk which is being written and acknowledges it.
+		 *
+		 * @return {@code false} if the chunk could not be written or was cancelled.
+		 */
+		boolean awaitPending() {
+			if (pending == null) {
+				return true;
+			}
+			List<WaterReading> saved;
+			try {
+				saved = pending.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				pending.cancel(false);
+				throw new IllegalStateException("Interrupted while waiting for the writer", e);
+			} catch (CancellationException e) {
+				return false;
+			} catch (ExecutionException e) {
+				logger.error("Upload stopped at line {}, the batch could not be written: {}", pendingFirstLine, e.getCause().getMessage());
+				if (failure == null) {
+					failure = new UploadReport.BatchFailure(pendingFirstLine, pendingLastLine, String.valueOf(e.getCause().getMessage()));
+				}
+				return false;
+			} finally {
+				pending = null;
+			}
+			waterReadingService.publish(saved);
+			inserted += saved.size();
+			batches.add(new UploadReport.BatchAck(batches.size() + 1, pendingFirstLine, pendingLastLine, saved.size()));
+			return true;
+		}
+
+		UploadReport report(long lines, Long resumeAtLine) {
+			Long resume = failure == null ? resumeAtLine : Long.valueOf(failure.firstLine());
+			return new UploadReport(lines, inserted, batches, errorCount, errors, resume, failure);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.assessment.monitoringmicroservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+
+
+/**
+ * Rebuilds the rollups on startup.
+ *
+ * <p>The rollups are rebuilt when the application is started with {@code --rebuild-rollups},
+ * for example after the schema of the readings changed, or when the database has readings
+ * but no rollups because it was created before the rollups existed.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+public class RollupRebuildRunner implements ApplicationRunner {
+
+	static final String REBUILD_OPTION = "rebuild-rollups";
+
+	private static final Logger logger = LoggerFactory.getLogger(RollupRebuildRunner.class); //logger
+
+	private final ReadingRollupService readingRollupService;
+	private final WaterReadingRepository waterReadingRepository;
+	private final WriteCommandQueue writeCommandQueue;
+
+
+	/**
+	 * Constructor for RollupRebuildRunner.
+	 *
+	 * @param readingRollupService Service which rebuilds the rollups.
+	 * @param waterReadingRepository Repository to check if there are readings.
+	 * @param writeCommandQueue Queue of the writer thread which runs the rebuild.
+	 */
+	public RollupRebuildRunner(ReadingRollupService readingRollupService, WaterReadingRepository waterReadingRepository,
+			WriteCommandQueue writeCommandQueue) {
+		this.readingRollupService = readingRollupService;
+		this.waterReadingRepository = waterReadingRepository;
+		this.writeCommandQueue = writeCommandQueue;
+	}
+
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (args.containsOption(REBUILD_OPTION)) {
+			logger.info("Rebuilding the rollups as requested by --{}.", REBUILD_OPTION);
+			writeCommandQueue.execute(readingRollupService::rebuild);
+		} else if (readingRollupService.isEmpty() && waterReadingRepository.count() > 0) {
+			logger.info("Readings without rollups found, rebuilding the rollups.");
+			writeCommandQueue.execute(readingRollupService::rebuild);
+		}
+	}
+}
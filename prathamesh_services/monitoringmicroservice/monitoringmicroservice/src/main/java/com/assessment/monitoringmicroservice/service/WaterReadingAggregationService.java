@@ -0,0 +1,125 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.assessment.monitoringmicroservice.model.AggregateBucket;
+import com.assessment.monitoringmicroservice.model.RollupGranularity;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.ReadingRollupRepository;
+import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+
+
+/**
+ * Service class for aggregating water quality readings into time buckets.
+ *
+ * <p>
+ * The aggregation runs in the database as a {@code GROUP BY}, so only one row per bucket is
+ * sent to the clients instead of every reading. If the bucket size and the time range line up
+ * with the minute, hour or day rollups, the rollups are merged and the query reads one row per
+ * rollup bucket and parameter. Otherwise the raw readings are grouped over the timestamp index.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Service
+public class WaterReadingAggregationService {
+
+	private static final Pattern BUCKET_PATTERN = Pattern.compile("(\\d+)([mhd])");
+	private static final Duration MIN_BUCKET = Duration.ofMinutes(1);
+	private static final Duration MAX_BUCKET = Duration.ofDays(366);
+
+	private final WaterReadingRepository waterReadingRepository;
+	private final ReadingRollupRepository readingRollupRepository;
+
+
+	/**
+	 * Constructor for WaterReadingAggregationService.
+	 *
+	 * @param waterReadingRepository Repository which aggregates the raw readings.
+	 * @param readingRollupRepository Repository which merges the rollups.
+	 */
+	public WaterReadingAggregationService(WaterReadingRepository waterReadingRepository,
+			ReadingRollupRepository readingRollupRepository) {
+		this.waterReadingRepository = waterReadingRepository;
+		this.readingRollupRepository = readingRollupRepository;
+	}
+
+
+	/**
+	 * Computes count, min, max and mean of every water parameter per time bucket.
+	 *
+	 * @param bucket size of the buckets, for example {@code 15m}, {@code 1h} or {@code 1d}.
+	 * @param from start of the time range (inclusive), {@code null} for no lower bound.
+	 * @param to end of the time range (exclusive), {@code null} for no upper bound.
+	 * @return the buckets which have readings ordered by time.
+	 * @throws IllegalArgumentException if the bucket or the time range is not valid, or the
+	 *         bucket is longer than the time range.
+	 */
+	@Transactional(readOnly = true)
+	public List<AggregateBucket> getAggregates(String bucket, LocalDateTime from, LocalDateTime to) {
+		Duration bucketSize = parseBucket(bucket);
+		long fromMillis = from == null ? Long.MIN_VALUE : epochMillis(from);
+		long toMillis = to == null ? Long.MAX_VALUE : epochMillis(to);
+		if (fromMillis > toMillis) {
+			throw new IllegalArgumentException("from must not be after to");
+		}
+		long bucketMillis = bucketSize.toMillis();
+		if (from != null && to != null && toMillis - fromMillis < bucketMillis) {
+			throw new IllegalArgumentException("Invalid bucket: " + bucket + ", the bucket is longer than the time range");
+		}
+		RollupGranularity granularity = RollupGranularity.coarsestFitting(bucketMillis, fromMillis, toMillis);
+		if (granularity != null) {
+			return readingRollupRepository.aggregate(granularity, bucketMillis, fromMillis, toMillis);
+		}
+		return waterReadingRepository.aggregate(bucketMillis, fromMillis, toMillis);
+	}
+
+
+	/**
+	 * Parses a bucket size made of a number and a unit, {@code m} for minutes,
+	 * {@code h} for hours or {@code d} for days.
+	 *
+	 * @param bucket the bucket size, for example {@code 1h}.
+	 * @return the bucket size as a {@link Duration}.
+	 * @throws IllegalArgumentException if the bucket size is not valid, shorter than a minute
+	 *         or longer than 366 days.
+	 */
+	public static Duration parseBucket(String bucket) {
+		Matcher matcher = BUCKET_PATTERN.matcher(bucket == null ? "" : bucket.trim());
+		if (!matcher.matches()) {
+			throw new IllegalArgumentException("Invalid bucket: " + bucket + ", expected for example 15m, 1h or 1d");
+		}
+		Duration unit = switch (matcher.group(2)) {
+			case "m" -> Duration.ofMinutes(1);
+			case "h" -> Duration.ofHours(1);
+			default -> Duration.ofDays(1);
+		};
+		// Checked before multiplying, a long number of days would overflow the milliseconds
+		String digits = matcher.group(1).replaceFirst("^0+(?=\\d)", "");
+		long maxAmount = MAX_BUCKET.dividedBy(unit);
+		if (digits.length() > String.valueOf(maxAmount).length() || Long.parseLong(digits) > maxAmount) {
+			throw new IllegalArgumentException("Invalid bucket: " + bucket + ", the largest bucket is 366d");
+		}
+		Duration size = unit.multipliedBy(Long.parseLong(digits));
+		if (size.compareTo(MIN_BUCKET) < 0) {
+			throw new IllegalArgumentException("Invalid bucket: " + bucket + ", the smallest bucket is 1m");
+		}
+		return size;
+	}
+
+	private static long epochMillis(LocalDateTime timestamp) {
+		try {
+			return WaterReading.toEpochMillis(timestamp);
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException("Timestamp out of range: " + timestamp);
+		}
+	}
+}
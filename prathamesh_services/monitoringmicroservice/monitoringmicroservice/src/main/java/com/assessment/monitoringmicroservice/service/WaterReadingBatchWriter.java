@@ -0,0 +1,192 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.assessment.monitoringmicroservice.model.IngestCheckpoint;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.IngestCheckpointRepository;
+import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+
+
+/**
+ * Writes a chunk of water quality readings to the database in a single transaction.
+ *
+ * <p>
+ * Every call opens its own transaction, which is the unit of the batch. Together with
+ * {@code hibernate.jdbc.batch_size} the inserts of one chunk are sent as JDBC batches
+ * and committed once, instead of one commit per record. The rollups of the readings are
+ * updated and the readings are scored for anomalies in the same transaction.
+ * </p>
+ *
+ * <p>
+ * The transactions are run on the writer thread of the {@link WriteCommandQueue}, so chunks
+ * from the file ingest, the watched directory and the parallel parser are committed one
+ * after another on the single write connection.
+ * </p>
+ *
+ * <p>
+ * The time of every chunk transaction, the inserted rows and the rows skipped as duplicates
+ * are recorded in the {@link IngestMetrics}.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+public class WaterReadingBatchWriter {
+
+	private static final int MAX_IN_PARAMETERS = 500; // stays below the SQLite limit of bound parameters
+
+	private final WaterReadingRepository waterReadingRepository;
+	private final ReadingRollupService readingRollupService;
+	private final AnomalyDetectionService anomalyDetectionService;
+	private final IngestCheckpointRepository ingestCheckpointRepository;
+	private final WriteCommandQueue writeCommandQueue;
+	private final TransactionTemplate transactionTemplate;
+	private final IngestMetrics ingestMetrics;
+
+
+	/**
+	 * Constructor for WaterReadingBatchWriter.
+	 *
+	 * @param waterReadingRepository Repository to save the readings.
+	 * @param readingRollupService Service which adds the readings to the rollups.
+	 * @param anomalyDetectionService Service which scores the readings and saves their anomalies.
+	 * @param ingestCheckpointRepository Repository to save the file offsets with the readings.
+	 * @param writeCommandQueue Queue of the writer thread which runs the transactions.
+	 * @param transactionManager Transaction manager of the chunk transactions.
+	 * @param ingestMetrics Meters of the inserted and skipped rows.
+	 */
+	public WaterReadingBatchWriter(WaterReadingRepository waterReadingRepository, ReadingRollupService readingRollupService,
+			AnomalyDetectionService anomalyDetectionService, IngestCheckpointRepository ingestCheckpointRepository, WriteCommandQueue writeCommandQueue,
+			PlatformTransactionManager transactionManager, IngestMetrics ingestMetrics) {
+		this.waterReadingRepository = waterReadingRepository;
+		this.readingRollupService = readingRollupService;
+		this.anomalyDetectionService = anomalyDetectionService;
+		this.ingestCheckpointRepository = ingestCheckpointRepository;
+		this.writeCommandQueue = writeCommandQueue;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.ingestMetrics = ingestMetrics;
+	}
+
+
+	/**
+	 * Saves all new records of the chunk, adds them to the rollups and commits both together.
+	 * The persistence context is discarded on commit so memory does not grow between chunks.
+	 *
+	 * <p>Records read from a file are inserted unless a record with the same source file and
+	 * object ID is already stored or comes earlier in the chunk, like an
+	 * {@code INSERT ... ON CONFLICT DO NOTHING}. Replaying a file therefore writes nothing and the
+	 * rollups count every row once.</p>
+	 *
+	 * @param chunk the records to be saved.
+	 * @return the saved records, without the records which were already stored.
+	 */
+	public List<WaterReading> writeChunk(List<WaterReading> chunk) {
+		return writeCommandQueue.execute(() -> inTransaction(chunk, status -> save(chunk)));
+	}
+
+
+	/**
+	 * Saves all records of the chunk together with the offset of the file they were read from,
+	 * so the offset never points past records which were not committed or before records which were.
+	 *
+	 * @param chunk the records to be saved, may be empty if only the offset moved.
+	 * @param checkpoint the offset of the file after the last line of the chunk.
+	 * @return the saved records.
+	 */
+	public List<WaterReading> writeChunk(List<WaterReading> chunk, IngestCheckpoint checkpoint) {
+		return writeCommandQueue.execute(() -> inTransaction(chunk, status -> {
+			List<WaterReading> saved = save(chunk);
+			ingestCheckpointRepository.save(checkpoint);
+			return saved;
+		}));
+	}
+
+
+	/**
+	 * Queues a chunk for the writer thread without waiting, like {@link #writeChunk(List)}.
+	 *
+	 * @param chunk the records to be saved.
+	 * @return the saved records once the chunk is committed.
+	 * @throws java.util.concurrent.RejectedExecutionException if the write queue is full.
+	 */
+	public Future<List<WaterReading>> trySubmitChunk(List<WaterReading> chunk) {
+		return writeCommandQueue.trySubmit(() -> inTransaction(chunk, status -> save(chunk)));
+	}
+
+
+	/**
+	 * Runs the transaction of a chunk and records its time and rows, or the rows of the chunk as failed.
+	 */
+	private List<WaterReading> inTransaction(List<WaterReading> chunk, TransactionCallback<List<WaterReading>> transaction) {
+		long start = System.nanoTime();
+		try {
+			List<WaterReading> saved = transactionTemplate.execute(transaction);
+			ingestMetrics.inserted(saved.size(), System.nanoTime() - start);
+			ingestMetrics.rejected(IngestMetrics.REASON_DUPLICATE, chunk.size() - saved.size());
+			return saved;
+		} catch (RuntimeException e) {
+			ingestMetrics.rejected(IngestMetrics.REASON_WRITE_FAILED, chunk.size());
+			throw e;
+		}
+	}
+
+
+	/**
+	 * Saves the new records of a chunk, their rollups and their anomalies in the current transaction.
+	 */
+	private List<WaterReading> save(List<WaterReading> chunk) {
+		List<WaterReading> saved = waterReadingRepository.saveAll(withoutStoredRows(chunk));
+		readingRollupService.apply(saved);
+		anomalyDetectionService.apply(saved);
+		waterReadingRepository.flush();
+		return saved;
+	}
+
+
+	/**
+	 * Removes the records whose source file and object ID are already stored or repeated in the chunk.
+	 */
+	private List<WaterReading> withoutStoredRows(List<WaterReading> chunk) {
+		Map<String, List<Integer>> objectIdsBySource = new HashMap<>();
+		for (WaterReading reading : chunk) {
+			if (reading.getSourceFile() != null && reading.getObjectId() != null) {
+				objectIdsBySource.computeIfAbsent(reading.getSourceFile(), source -> new ArrayList<>()).add(reading.getObjectId());
+			}
+		}
+		if (objectIdsBySource.isEmpty()) {
+			return chunk;
+		}
+
+		Map<String, Set<Integer>> seen = new HashMap<>();
+		objectIdsBySource.forEach((source, objectIds) -> {
+			Set<Integer> stored = new HashSet<>();
+			for (int i = 0; i < objectIds.size(); i += MAX_IN_PARAMETERS) {
+				stored.addAll(waterReadingRepository.findStoredObjectIds(source,
+						objectIds.subList(i, Math.min(objectIds.size(), i + MAX_IN_PARAMETERS))));
+			}
+			seen.put(source, stored);
+		});
+
+		List<WaterReading> fresh = new ArrayList<>(chunk.size());
+		for (WaterReading reading : chunk) {
+			if (reading.getSourceFile() == null || reading.getObjectId() == null
+					|| seen.get(reading.getSourceFile()).add(reading.getObjectId())) {
+				fresh.add(reading);
+			}
+		}
+		return fresh;
+	}
+}
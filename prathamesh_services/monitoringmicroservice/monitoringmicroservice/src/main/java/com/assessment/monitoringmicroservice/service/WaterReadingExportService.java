@@ -0,0 +1,92 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+
+/**
+ * Service class for exporting all water quality readings as newline-delimited JSON.
+ *
+ * <p>
+ * The records are read from a database cursor and written one line per record, each
+ * record is detached from the persistence context once it is written. Only the records
+ * of the current fetch are in memory, so the export uses the same memory for a
+ * thousand or for tens of millions of records.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Service
+public class WaterReadingExportService {
+
+	private static final Logger logger = LoggerFactory.getLogger(WaterReadingExportService.class); //logger
+
+	private final WaterReadingRepository waterReadingRepository;
+	private final ObjectWriter readingWriter;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+
+	/**
+	 * Constructor for WaterReadingExportService.
+	 *
+	 * @param waterReadingRepository Repository to stream the readings from.
+	 * @param objectMapper the application object mapper used for the JSON of each record.
+	 */
+	public WaterReadingExportService(WaterReadingRepository waterReadingRepository, ObjectMapper objectMapper) {
+		this.waterReadingRepository = waterReadingRepository;
+		this.readingWriter = objectMapper.writerFor(WaterReading.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+
+	/**
+	 * Writes every water quality record to the output stream, one JSON object per line,
+	 * ordered by timestamp. The output stream is flushed but not closed.
+	 *
+	 * @param out the stream the records are written to.
+	 * @return the number of records written.
+	 * @throws IOException if the records could not be written to the stream.
+	 */
+	@Transactional(readOnly = true)
+	public long exportRecords(OutputStream out) throws IOException {
+		long count = 0;
+		try (Stream<WaterReading> records = waterReadingRepository.streamAllOrderedByTimestamp();
+				JsonGenerator generator = readingWriter.createGenerator(out)) {
+
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.setRootValueSeparator(null); // lines are separated by '\n' below
+
+			Iterator<WaterReading> iterator = records.iterator();
+			while (iterator.hasNext()) {
+				WaterReading reading = iterator.next();
+				readingWriter.writeValue(generator, reading);
+				generator.writeRaw('\n');
+				entityManager.detach(reading); // keeps the persistence context empty
+				count++;
+			}
+			generator.flush();
+		}
+		logger.info("Exported {} records.", count);
+		return count;
+	}
+}
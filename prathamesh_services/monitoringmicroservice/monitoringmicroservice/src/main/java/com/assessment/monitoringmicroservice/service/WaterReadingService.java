@@ -1,21 +1,36 @@
 package com.assessment.monitoringmicroservice.service;
 
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import com.assessment.monitoringmicroservice.config.IngestProperties;
+import com.assessment.monitoringmicroservice.model.IngestCheckpoint;
+import com.assessment.monitoringmicroservice.model.ReadingFields;
+import com.assessment.monitoringmicroservice.model.ReadingProjection;
+import com.assessment.monitoringmicroservice.model.RecordCursor;
+import com.assessment.monitoringmicroservice.model.RecordPage;
+import com.assessment.monitoringmicroservice.model.RecordQuery;
+import com.assessment.monitoringmicroservice.model.ThresholdBreach;
 import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.IngestCheckpointRepository;
 import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
@@ -32,26 +47,54 @@ import org.slf4j.LoggerFactory;
  * 
  * <p>
  * It interacts with {@link WaterReadingRepository} to fetch data from the database.
+ * The latest record is kept in memory as a snapshot which is replaced after every insert,
+ * so reading it does not need a database connection.
  * </p>
  * 
  * @author Prathamesh Belnekar
  * @version 1.0
  */
 @Service
+@DependsOn("timestampColumnMigration") // old text timestamps are converted before the latest record is loaded
 public class WaterReadingService {
 
 	private final WaterReadingRepository waterReadingRepository;
+	private final IngestProperties ingestProperties;
+	private final WaterReadingBatchWriter batchWriter;
+	private final IngestCheckpointRepository ingestCheckpointRepository;
+	private final ReadingBroadcaster readingBroadcaster;
+	private final IngestMetrics ingestMetrics;
 	private static final String FILE_NAME = "data/River_Water_Quality_Monitoring.csv";  // CSV file stored in the resource folder of the microservice
 	private static final Logger logger = LoggerFactory.getLogger(WaterReadingService.class); //logger
+	public static final int MAX_PAGE_SIZE = 1000;  // Largest page a client can request from /records
+
+	// Copy of the latest record, null until it is loaded and an empty Optional if there are no records.
+	private final AtomicReference<Optional<WaterReading>> latestReading = new AtomicReference<>();
+
+	// Counts the committed writes, the start time keeps the versions of two runs apart.
+	private final AtomicLong dataVersion = new AtomicLong();
+	private final String dataVersionPrefix = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
 
 
 	/**
 	 * Constructor for WaterReadingController.
 	 *
 	 * @param waterReadingRepository Repository to save and retrieve the readings.
+	 * @param ingestProperties Settings which decide how the records are inserted.
+	 * @param batchWriter Writes the records together with their rollups.
+	 * @param ingestCheckpointRepository Repository to read the ingest cursor of the CSV file.
+	 * @param readingBroadcaster Pushes the committed records to the open streams.
+	 * @param ingestMetrics Meters of the parsed and rejected rows.
 	 */
-	public WaterReadingService(WaterReadingRepository waterReadingRepository) {
+	public WaterReadingService(WaterReadingRepository waterReadingRepository, IngestProperties ingestProperties,
+			WaterReadingBatchWriter batchWriter, IngestCheckpointRepository ingestCheckpointRepository,
+			ReadingBroadcaster readingBroadcaster, IngestMetrics ingestMetrics) {
 		this.waterReadingRepository = waterReadingRepository;
+		this.ingestProperties = ingestProperties;
+		this.batchWriter = batchWriter;
+		this.ingestCheckpointRepository = ingestCheckpointRepository;
+		this.readingBroadcaster = readingBroadcaster;
+		this.ingestMetrics = ingestMetrics;
 	}
 
 
@@ -61,6 +104,15 @@ public class WaterReadingService {
 	 */
 	@PostConstruct
 	public void init() {
+		try {
+			refreshLatestRecord();
+		} catch (Exception e) {
+			logger.error("Could not load the latest record, it is loaded on the first request.", e);
+		}
+		if (!ingestProperties.isEnabled()) {
+			logger.info("CSV file processing is disabled.");
+			return;
+		}
 		logger.info("Starting CSV file processing...");
 		CompletableFuture.runAsync(this::readFile);
 	}
@@ -76,8 +128,11 @@ public class WaterReadingService {
 			ClassPathResource csvFile = new ClassPathResource(FILE_NAME);
 			logger.info("Processing file: {}", FILE_NAME);
 			processFile(csvFile);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.error("Process stopped reading the file: {}", FILE_NAME, e);
 		} catch (Exception e) {
-			logger.error("CSV file not found: {}", FILE_NAME, e);
+			logger.error("Error processing the file: {}", FILE_NAME, e);
 		}
 	}
 
@@ -85,67 +140,145 @@ public class WaterReadingService {
 	/**
 	 * Processes the CSV file, extracts water quality data, and stores the records in the database.
 	 *
+	 * <p>The file continues at its saved ingest cursor, the offset after the last row which was
+	 * committed. A file which was read completely is not parsed again. A file packed in the jar
+	 * can not be mapped, so it is copied to a temporary file first.</p>
+	 *
 	 * @param csvFile is the CSV file which contains the water quality data
-	 */  
-	public void processFile(ClassPathResource csvFile) {
-		List<WaterReading> allParsedRecords = new ArrayList<>();
-		try (BufferedReader reader = new BufferedReader(new InputStreamReader(csvFile.getInputStream(), StandardCharsets.UTF_8))) {
-
-			String row;
-			reader.readLine(); // Skip the header 
-
-			while ((row = reader.readLine()) != null) { // while the row is not null
-				try {
-					String[] rowData = row.split(",");
-					while (rowData.length < 10) {
-						rowData = Arrays.copyOf(rowData, 10); // Ensures there are 10 columns the row.
-					}
-					WaterReading readingRow = new WaterReading();
-					readingRow.setObjectId(parseInteger(rowData[0]));
-					readingRow.setPhph(parseDouble(rowData[1]));
-					readingRow.setAlkmgl(parseDouble(rowData[2]));
-					readingRow.setConduscm(parseDouble(rowData[3]));
-					readingRow.setBodmgl(parseDouble(rowData[4]));
-					readingRow.setNo2nmgl(parseDouble(rowData[5]));
-					readingRow.setCusol1mgl(parseDouble(rowData[6]));
-					readingRow.setCusol2ugl(parseDouble(rowData[7]));
-					readingRow.setFesol1ugl(parseDouble(rowData[8]));
-					readingRow.setZnsolugl(parseDouble(rowData[9]));
-
-					allParsedRecords.add(readingRow); // Adds each record to the arrayList
-
-				} catch (Exception e) { 
-					logger.warn("invalid row: {}.Error: {}", row, e.getMessage());
+	 * @throws IOException if the file could not be read.
+	 * @throws InterruptedException if the thread was interrupted while the file was processed.
+	 */
+	public void processFile(ClassPathResource csvFile) throws IOException, InterruptedException {
+		String source = "classpath:" + csvFile.getPath();
+		long offset = ingestCheckpointRepository.findById(source).map(IngestCheckpoint::getByteOffset).orElse(0L);
+		long length = csvFile.contentLength();
+		if (offset >= length) {
+			logger.info("{} was already ingested.", source);
+			return;
+		}
+		if (offset > 0) {
+			logger.info("Continuing {} at byte {} of {}.", source, offset, length);
+		}
+
+		if (csvFile.isFile()) {
+			ingestFile(csvFile.getFile().toPath(), source, offset);
+			return;
+		}
+		Path copy = Files.createTempFile("monitoring-ingest-", ".csv");
+		try (InputStream input = csvFile.getInputStream()) {
+			Files.copy(input, copy, StandardCopyOption.REPLACE_EXISTING);
+			ingestFile(copy, source, offset);
+		} finally {
+			Files.deleteIfExists(copy);
+		}
+	}
+
+
+	/**
+	 * Ingests a CSV file from an offset with the configured ingest mode. The rows are parsed
+	 * with the {@link MappedCsvParser} and every chunk is committed with the ingest cursor of
+	 * the file, so only one chunk of records is held in memory.
+	 *
+	 * <p>In simulation mode every record is committed on its own followed by the delay. In bulk
+	 * mode with more than one {@code monitoring.ingest.parse-threads} the file is parsed by the
+	 * {@link ParallelCsvParser}; the ranges finish out of order, so the cursor is only saved once
+	 * the whole file is written and the rows written before a restart are skipped as duplicates.
+	 * If a batch can not be committed the parser stops and the exception is thrown before the
+	 * cursor is saved, so the file is read again from the old cursor on the next start.</p>
+	 *
+	 * @param file the CSV file which contains the water quality data.
+	 * @param source the name of the file stored with the records and the cursor.
+	 * @param offset the offset to continue at, 0 to read the file from the start.
+	 * @return the number of records which were inserted.
+	 * @throws IOException if the file could not be read.
+	 * @throws InterruptedException if the thread was interrupted while the file was parsed.
+	 */
+	public int ingestFile(Path file, String source, long offset) throws IOException, InterruptedException {
+		boolean bulk = ingestProperties.getMode() == IngestProperties.Mode.BULK;
+		int[] inserted = {0};
+
+		if (bulk && ingestProperties.getParseThreads() > 1) {
+			new ParallelCsvParser(ingestProperties.getParseThreads(), ingestProperties.getBatchSize(),
+					ingestProperties.getWriterQueueDepth(), ingestMetrics::timeParsing)
+					.parse(file, batch -> inserted[0] += writeParsed(batch, source));
+			insertCheckpointed(List.of(), new IngestCheckpoint(source, Files.size(file)));
+		} else {
+			long delayMillis = ingestProperties.getSimulationDelay().toMillis();
+			new MappedCsvParser(bulk ? ingestProperties.getBatchSize() : 1).parseAll(file, offset, ingestMetrics.timeParsing((batch, endOffset) -> {
+				inserted[0] += insertCheckpointed(batch, new IngestCheckpoint(source, endOffset));
+				if (!bulk && !batch.isEmpty()) {
+					sleep(delayMillis); // Delay between records
 				}
-			}
-		} catch (Exception e) {
-			logger.error("Error processing the file: {}", FILE_NAME, e);
-		} 
-		insertRecords(allParsedRecords);  // Insert the parsed records in the database
+			}));
+		}
+		logger.info("Inserted {} records from {}.", inserted[0], source);
+		return inserted[0];
 	}
 
 
 	/**
-	 * Inserts records into the database table with a delay of 30 seconds between each record.
-	 * also sets the current timestamp for each record before inserting 
+	 * Parses one CSV row with the object id followed by the nine water parameters.
+	 * Missing or invalid values are set to null.
+	 *
+	 * @param row the CSV row without the line separator.
+	 * @return the parsed {@link WaterReading}, without id and timestamp.
+	 */
+	public WaterReading parseRow(String row) {
+		String[] rowData = row.split(",");
+		while (rowData.length < 10) {
+			rowData = Arrays.copyOf(rowData, 10); // Ensures there are 10 columns the row.
+		}
+		WaterReading readingRow = new WaterReading();
+		readingRow.setObjectId(parseInteger(rowData[0]));
+		readingRow.setPhph(parseDouble(rowData[1]));
+		readingRow.setAlkmgl(parseDouble(rowData[2]));
+		readingRow.setConduscm(parseDouble(rowData[3]));
+		readingRow.setBodmgl(parseDouble(rowData[4]));
+		readingRow.setNo2nmgl(parseDouble(rowData[5]));
+		readingRow.setCusol1mgl(parseDouble(rowData[6]));
+		readingRow.setCusol2ugl(parseDouble(rowData[7]));
+		readingRow.setFesol1ugl(parseDouble(rowData[8]));
+		readingRow.setZnsolugl(parseDouble(rowData[9]));
+		return readingRow;
+	}
+
+
+	/**
+	 * Inserts records into the database table using the configured ingest mode.
+	 * In simulation mode the records are inserted one by one with a delay, in bulk mode
+	 * they are inserted in chunks as fast as possible.
 	 *
 	 * @param records ArrayList of WaterReading records to be saved.
 	 */
 	@Async
 	public void insertRecords(List<WaterReading> records) {
+		if (ingestProperties.getMode() == IngestProperties.Mode.BULK) {
+			bulkInsertRecords(records);
+		} else {
+			simulateInsertRecords(records);
+		}
+	}
+
+
+	/**
+	 * Inserts records into the database table with a delay (30 seconds by default) between each record.
+	 * also sets the current timestamp for each record before inserting 
+	 *
+	 * @param records ArrayList of WaterReading records to be saved.
+	 */
+	public void simulateInsertRecords(List<WaterReading> records) {
+		long delayMillis = ingestProperties.getSimulationDelay().toMillis();
 		for (WaterReading reading : records) {
 			try {
 				if (reading == null || reading.getObjectId() == null) {
-					logger.warn("Skipping null or invalid record.");
+					skipInvalid();
 					continue;
 				}
 				reading.setTimestamp(LocalDateTime.now()); // Set current timestamp before saving the record
 
-				logger.info("Inserting record: {}", reading.getObjectId());
+				writeChunk(List.of(reading)); // Save the record immediately in its own transaction.
 
-				waterReadingRepository.saveAndFlush(reading); // Save the record immediately.
-
-				TimeUnit.SECONDS.sleep(30);   // Delay of 30 seconds between records
+				TimeUnit.MILLISECONDS.sleep(delayMillis);   // Delay between records
 
 			} catch (InterruptedException ie) {
 				Thread.currentThread().interrupt();
@@ -157,6 +290,137 @@ public class WaterReadingService {
 	}
 
 
+	/**
+	 * Inserts records into the database table in chunks of {@code monitoring.ingest.batch-size} records.
+	 * Every chunk is written in its own transaction so a failing chunk does not roll back the others.
+	 *
+	 * @param records ArrayList of WaterReading records to be saved.
+	 * @return the number of records which were inserted.
+	 */
+	public int bulkInsertRecords(List<WaterReading> records) {
+		int batchSize = Math.max(1, ingestProperties.getBatchSize());
+		List<WaterReading> chunk = new ArrayList<>(batchSize);
+		int inserted = 0;
+
+		for (WaterReading reading : records) {
+			if (reading == null || reading.getObjectId() == null) {
+				skipInvalid();
+				continue;
+			}
+			reading.setTimestamp(LocalDateTime.now()); // Set current timestamp before saving the record
+			chunk.add(reading);
+
+			if (chunk.size() == batchSize) {
+				inserted += writeChunk(chunk);
+				chunk = new ArrayList<>(batchSize);
+			}
+		}
+		if (!chunk.isEmpty()) {
+			inserted += writeChunk(chunk);
+		}
+
+		logger.debug("Bulk inserted {} records.", inserted);
+		return inserted;
+	}
+
+
+	/**
+	 * Inserts the records read from a part of a file in one transaction together with the
+	 * offset of the file, so the part is either committed with its offset or not at all.
+	 * The records are stored with the file as their source, rows of the file which are
+	 * already stored are skipped.
+	 *
+	 * @param records the records parsed from the part of the file, invalid records are skipped.
+	 * @param checkpoint the offset of the file after the part.
+	 * @return the number of records which were inserted.
+	 * @throws RuntimeException if the transaction failed, the offset was not moved then.
+	 */
+	public int insertCheckpointed(List<WaterReading> records, IngestCheckpoint checkpoint) {
+		List<WaterReading> chunk = new ArrayList<>(records.size());
+		for (WaterReading reading : records) {
+			if (reading == null || reading.getObjectId() == null) {
+				skipInvalid();
+				continue;
+			}
+			reading.setTimestamp(LocalDateTime.now()); // Set current timestamp before saving the record
+			reading.setSourceFile(checkpoint.getFilePath());
+			chunk.add(reading);
+		}
+		List<WaterReading> saved = batchWriter.writeChunk(chunk, checkpoint);
+		publish(saved);
+		return saved.size();
+	}
+
+
+	/**
+	 * Writes one batch of the {@link ParallelCsvParser} in one transaction. Unlike
+	 * {@link #bulkInsertRecords(List)} a failed write is not logged and skipped but thrown,
+	 * so the parser stops and the cursor of the file is not moved past the batch.
+	 *
+	 * @param batch the records parsed from a range of the file.
+	 * @param source the name of the file stored with the records.
+	 * @return the number of records which were inserted.
+	 * @throws RuntimeException if the transaction failed.
+	 */
+	private int writeParsed(List<WaterReading> batch, String source) {
+		List<WaterReading> chunk = new ArrayList<>(batch.size());
+		for (WaterReading reading : batch) {
+			if (reading == null || reading.getObjectId() == null) {
+				skipInvalid();
+				continue;
+			}
+			reading.setTimestamp(LocalDateTime.now()); // Set current timestamp before saving the record
+			reading.setSourceFile(source);
+			chunk.add(reading);
+		}
+		List<WaterReading> saved = batchWriter.writeChunk(chunk);
+		publish(saved);
+		return saved.size();
+	}
+
+
+	/**
+	 * Writes one chunk of records with its rollups and logs the error if the chunk could not be saved.
+	 *
+	 * @param chunk the records to be saved in one transaction.
+	 * @return the number of records saved, 0 if the chunk failed.
+	 */
+	private int writeChunk(List<WaterReading> chunk) {
+		try {
+			List<WaterReading> saved = batchWriter.writeChunk(chunk);
+			publish(saved);
+			return saved.size();
+		} catch (Exception e) {
+			logger.error("Error while adding a chunk of {} records: {}", chunk.size(), e.getMessage(), e);
+			return 0;
+		}
+	}
+
+
+	/**
+	 * Counts a record without object ID which is not inserted, the rows are counted instead of logged.
+	 */
+	private void skipInvalid() {
+		logger.debug("Skipping null or invalid record.");
+		ingestMetrics.rejected(IngestMetrics.REASON_MISSING_OBJECT_ID, 1);
+	}
+
+
+	/**
+	 * Waits between two records in simulation mode.
+	 *
+	 * @throws IllegalStateException if the thread was interrupted, to stop reading the file.
+	 */
+	private static void sleep(long delayMillis) {
+		try {
+			TimeUnit.MILLISECONDS.sleep(delayMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Process stopped inserting records", e);
+		}
+	}
+
+
 	/**
 	 * Parses an integer value from a string or returns a null if parsing fails.
 	 *
@@ -167,7 +431,7 @@ public class WaterReadingService {
 		try {
 			return (value == null || value.trim().isEmpty()) ? null : Integer.parseInt(value.trim());
 		} catch (NumberFormatException e) {
-			logger.warn("Invalid value: {}", value);
+			logger.debug("Invalid value: {}", value);
 			return null;
 		}
 	}
@@ -183,19 +447,107 @@ public class WaterReadingService {
 		try {
 			return (value == null || value.trim().isEmpty()) ? null : Double.parseDouble(value.trim());
 		} catch (NumberFormatException e) {
-			logger.warn("Invalid value: {}", value);
+			logger.debug("Invalid value: {}", value);
 			return null;
 		}
 	}
 
 
 	/**
-	 * Retrieves the most recent water quality record from the database.
+	 * Retrieves the most recent water quality record.
+	 *
+	 * <p>The record is served from the in-memory snapshot. The database is only read
+	 * if the snapshot was not loaded yet.</p>
 	 *
 	 * @return the latest {@link WaterReading} record if available or {@code null} if no records exist.
+	 *         The returned record is shared and must not be modified.
 	 */
 	public WaterReading getLatestRecord() {
-		return waterReadingRepository.findTopByOrderByTimestampDesc();
+		Optional<WaterReading> snapshot = latestReading.get();
+		if (snapshot == null) {
+			snapshot = refreshLatestRecord();
+		}
+		return snapshot.orElse(null);
+	}
+
+
+	/**
+	 * Loads the latest record from the database into the snapshot unless an insert
+	 * published a newer record in the meantime.
+	 *
+	 * @return the current snapshot.
+	 */
+	public Optional<WaterReading> refreshLatestRecord() {
+		Optional<WaterReading> loaded = Optional.ofNullable(waterReadingRepository.findTopByOrderByTimestampDesc())
+				.map(WaterReading::new);
+		return latestReading.accumulateAndGet(loaded, WaterReadingService::newest);
+	}
+
+
+	/**
+	 * Publishes the records of a committed chunk: moves the data version and the latest record
+	 * and pushes the records to the open streams. Chunks written by other services through the
+	 * {@link WaterReadingBatchWriter} are published with this method too.
+	 *
+	 * @param saved the records which were committed to the database.
+	 */
+	public void publish(List<WaterReading> saved) {
+		if (saved.isEmpty()) {
+			return;
+		}
+		dataVersion.incrementAndGet();
+		publishLatest(saved.get(saved.size() - 1));
+		readingBroadcaster.publish(saved);
+	}
+
+
+	/**
+	 * Retrieves a strong ETag of the records which changes with every committed write.
+	 *
+	 * <p>The ETag is read from memory. It has to be read before the records are queried,
+	 * so a page never gets the ETag of a newer version than its records.</p>
+	 *
+	 * @return the quoted ETag of the current data version.
+	 */
+	public String getRecordsETag() {
+		return "\"" + dataVersionPrefix + "-" + dataVersion.get() + "\"";
+	}
+
+
+	/**
+	 * Creates the strong ETag of a reading from its id and timestamp.
+	 *
+	 * @param reading the reading, usually the latest record.
+	 * @return the quoted ETag of the reading.
+	 */
+	public static String eTagOf(WaterReading reading) {
+		return "\"" + reading.getId() + "-" + reading.getTimestampMillis() + "\"";
+	}
+
+
+	/**
+	 * Publishes a saved record as the latest one if it is not older than the current snapshot.
+	 *
+	 * @param saved the record which was committed to the database.
+	 */
+	private void publishLatest(WaterReading saved) {
+		if (saved != null && saved.getTimestamp() != null) {
+			latestReading.accumulateAndGet(Optional.of(new WaterReading(saved)), WaterReadingService::newest);
+		}
+	}
+
+
+	/**
+	 * Picks the newer of two snapshots by timestamp, an unloaded or empty snapshot loses.
+	 */
+	private static Optional<WaterReading> newest(Optional<WaterReading> current, Optional<WaterReading> candidate) {
+		if (current == null || current.isEmpty()) {
+			return candidate;
+		}
+		if (candidate.isEmpty()) {
+			return current;
+		}
+		return candidate.get().getTimestamp().isBefore(current.get().getTimestamp()) ? current : candidate;
 	}
 
 
@@ -209,5 +561,97 @@ public class WaterReadingService {
 	}
 
 
+	/**
+	 * Checks the parameters of a records request without reading any records, so an invalid
+	 * request is rejected before its ETag is compared.
+	 *
+	 * @param query the cursor, time range, page size and thresholds.
+	 * @param fields comma separated names of the fields, {@code null} or blank for all fields.
+	 * @throws IllegalArgumentException if a field, the cursor, the time range or a threshold is not valid.
+	 */
+	public void checkRecordsQuery(RecordQuery query, String fields) {
+		PageBounds.of(query);
+		if (fields != null && !fields.isBlank()) {
+			ReadingFields.parse(fields);
+		}
+	}
+
 
-}
\ No newline at end of file
+	/**
+	 * Retrieves one page of water quality records ordered by timestamp and id, optionally
+	 * limited to a time range.
+	 *
+	 * <p>The page starts right after the record the cursor points at and the time range is a
+	 * range on the timestamp index, so the database reads only {@code limit} rows no matter
+	 * how deep the page is or how large the table is.</p>
+	 *
+	 * <p>With {@code breaching} only the records which breach one of the named thresholds are
+	 * read. The names are turned into the list of breach masks which contain one of them, so
+	 * the filter is an {@code IN} on the indexed {@code breach_mask} column.</p>
+	 *
+	 * @param query the cursor, time range, page size and thresholds, the size is capped at {@value #MAX_PAGE_SIZE}.
+	 * @return the {@link RecordPage} with the records and the cursor of the next page.
+	 * @throws IllegalArgumentException if the cursor, the time range or a threshold is not valid.
+	 */
+	public RecordPage<WaterReading> getRecordsPage(RecordQuery query) {
+		PageBounds bounds = PageBounds.of(query);
+		PageRequest pageRequest = PageRequest.of(0, bounds.pageSize());
+		List<WaterReading> records = bounds.masks() == null
+				? waterReadingRepository.findPage(bounds.lower(), bounds.to(), bounds.afterTimestamp(), bounds.afterId(), pageRequest)
+				: waterReadingRepository.findBreachingPage(bounds.masks(), bounds.lower(), bounds.to(), bounds.afterTimestamp(),
+						bounds.afterId(), pageRequest);
+
+		// A full page may have more records after it, a shorter page is the last one.
+		String next = records.size() == bounds.pageSize() ? RecordCursor.of(records.get(records.size() - 1)).toString() : null;
+		return new RecordPage<>(records, next);
+	}
+
+
+	/**
+	 * Retrieves one page of water quality records like {@link #getRecordsPage(RecordQuery)}, but
+	 * only with the id, the timestamp and the selected fields. Only the selected columns are
+	 * read and no entities are loaded into the persistence context.
+	 *
+	 * @param query the cursor, time range, page size and thresholds, the size is capped at {@value #MAX_PAGE_SIZE}.
+	 * @param fields comma separated names of the fields, for example {@code phph,no2nmgl}.
+	 * @return the {@link RecordPage} with the projections and the cursor of the next page.
+	 * @throws IllegalArgumentException if a field, the cursor, the time range or a threshold is not valid.
+	 */
+	public RecordPage<ReadingProjection> getRecordsPage(RecordQuery query, String fields) {
+		ReadingFields selected = ReadingFields.parse(fields);
+		PageBounds bounds = PageBounds.of(query);
+		List<ReadingProjection> records = waterReadingRepository.findPageFields(selected, bounds.masks(), bounds.lower(), bounds.to(),
+				bounds.afterTimestamp(), bounds.afterId(), bounds.pageSize());
+
+		ReadingProjection last = records.isEmpty() ? null : records.get(records.size() - 1);
+		String next = records.size() == bounds.pageSize() ? new RecordCursor(last.getTimestamp(), last.getId()).toString() : null;
+		return new RecordPage<>(records, next);
+	}
+
+
+	/**
+	 * Range of a page in the {@code (timestamp, id)} order: the records in {@code [lower, to)}
+	 * after the cursor {@code (afterTimestamp, afterId)}, with a breach mask in {@code masks}
+	 * unless it is {@code null}.
+	 */
+	private record PageBounds(long lower, long to, long afterTimestamp, String afterId, int pageSize, List<Integer> masks) {
+
+		private static PageBounds of(RecordQuery query) {
+			int pageSize = Math.min(Math.max(query.limit(), 1), MAX_PAGE_SIZE);
+			long from = query.from() == null ? Long.MIN_VALUE : WaterReading.toEpochMillis(query.from());
+			long to = query.to() == null ? Long.MAX_VALUE : WaterReading.toEpochMillis(query.to());
+			if (from > to) {
+				throw new IllegalArgumentException("from must not be after to");
+			}
+			List<Integer> masks = query.breaching() == null || query.breaching().isBlank() ? null
+					: ThresholdBreach.masksMatching(ThresholdBreach.parse(query.breaching()));
+
+			if (query.after() == null || query.after().isBlank()) {
+				return new PageBounds(from, to, Long.MIN_VALUE, "", pageSize, masks);
+			}
+			// The lower bound is max(from, cursor) so the database starts reading at the cursor.
+			RecordCursor cursor = RecordCursor.parse(query.after());
+			return new PageBounds(Math.max(from, cursor.timestampMillis()), to, cursor.timestampMillis(), cursor.id(), pageSize, masks);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.assessment.monitoringmicroservice.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.assessment.monitoringmicroservice.config.StorageProperties;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+
+/**
+ * Runs all writes to the database one after another on a single writer thread.
+ *
+ * <p>
+ * SQLite allows one writer at a time. Instead of letting several threads compete for the
+ * write lock, every write is put as a command in a bounded queue and run by the
+ * {@code sqlite-writer} thread, which holds the only connection of the write pool. When the
+ * queue is full, {@link #execute} waits for space and {@link #trySubmit} is rejected, so a
+ * producer which is faster than the database is slowed down instead of using up the memory.
+ * </p>
+ *
+ * <p>
+ * A command opens its own transaction on the writer thread, so it must not be called from
+ * inside a transaction which already holds the write connection.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+public class WriteCommandQueue {
+
+	private static final Logger logger = LoggerFactory.getLogger(WriteCommandQueue.class); //logger
+
+	private final BlockingQueue<FutureTask<?>> commands;
+	private volatile Thread writer;
+
+
+	/**
+	 * Constructor for WriteCommandQueue.
+	 *
+	 * @param storageProperties Settings with the capacity of the queue.
+	 */
+	public WriteCommandQueue(StorageProperties storageProperties) {
+		this.commands = new ArrayBlockingQueue<>(Math.max(1, storageProperties.getWriteQueueCapacity()));
+	}
+
+
+	/**
+	 * Starts the writer thread.
+	 */
+	@PostConstruct
+	public void start() {
+		writer = new Thread(this::run, "sqlite-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+
+	/**
+	 * Stops the writer thread after the running command and cancels the waiting commands.
+	 */
+	@PreDestroy
+	public void stop() {
+		if (writer != null) {
+			writer.interrupt();
+		}
+		for (FutureTask<?> command = commands.poll(); command != null; command = commands.poll()) {
+			command.cancel(false);
+		}
+	}
+
+
+	/**
+	 * Runs a write on the writer thread and waits for its result. Waits for space if the queue is full.
+	 * A call from the writer thread itself runs the write directly.
+	 *
+	 * @param <T> the type of the result.
+	 * @param command the write.
+	 * @return the result of the write.
+	 */
+	public <T> T execute(Supplier<T> command) {
+		if (Thread.currentThread() == writer) {
+			return command.get();
+		}
+		FutureTask<T> task = new FutureTask<>(command::get);
+		try {
+			commands.put(task);
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			task.cancel(false);
+			throw new IllegalStateException("Interrupted while waiting for the writer", e);
+		} catch (ExecutionException e) {
+			throw rethrow(e.getCause());
+		}
+	}
+
+
+	/**
+	 * Queues a write without waiting.
+	 *
+	 * @param <T> the type of the result.
+	 * @param command the write.
+	 * @return the result of the write once it ran.
+	 * @throws RejectedExecutionException if the queue is full.
+	 */
+	public <T> Future<T> trySubmit(Supplier<T> command) {
+		FutureTask<T> task = new FutureTask<>(command::get);
+		if (!commands.offer(task)) {
+			throw new RejectedExecutionException("The write queue is full");
+		}
+		return task;
+	}
+
+
+	/**
+	 * Retrieves the number of writes waiting for the writer thread.
+	 *
+	 * @return the number of queued writes.
+	 */
+	public int size() {
+		return commands.size();
+	}
+
+
+	private void run() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				commands.take().run(); // FutureTask keeps the exception of a failed write for its caller
+			}
+		} catch (InterruptedException e) {
+			logger.debug("Writer thread stopped.");
+		}
+	}
+
+
+	private static RuntimeException rethrow(Throwable cause) {
+		if (cause instanceof RuntimeException runtimeException) {
+			return runtimeException;
+		}
+		if (cause instanceof Error error) {
+			throw error;
+		}
+		return new IllegalStateException(cause);
+	}
+}
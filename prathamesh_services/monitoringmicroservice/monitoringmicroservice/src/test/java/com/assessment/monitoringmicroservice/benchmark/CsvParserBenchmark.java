@@ -0,0 +1,128 @@
+package com.assessment.monitoringmicroservice.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.service.MappedCsvParser;
+import com.assessment.monitoringmicroservice.service.WaterReadingService;
+
+
+/**
+ * JMH benchmark of parsing a synthetic CSV file the way {@code processFile} used to and
+ * with the {@link MappedCsvParser}. The database is left out, the parsed records are handed to a
+ * {@link Blackhole}, so only reading and parsing the file is measured.
+ *
+ * <p>The file with {@code rows} records is generated in {@code target/} once and kept
+ * between runs. The old {@code processFile} kept all records of the file in a list, so the
+ * benchmark JVM gets a large heap. Run it with {@code mvn test -Pbenchmark}, which starts
+ * {@link CsvParserBenchmarkTest}.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dlogging.level.root=WARN"})
+public class CsvParserBenchmark {
+
+	private static final String FILE_NAME = "River_Water_Quality_Monitoring.csv";
+
+	@Param({"10000000"})
+	public int rows;
+
+	private Path file;
+
+	/**
+	 * Generates the CSV file unless it exists with the same number of rows.
+	 */
+	@Setup
+	public void createFile() throws IOException {
+		file = syntheticFile(rows);
+	}
+
+	/**
+	 * Generates a CSV file with random readings in {@code target/}, or returns the file
+	 * generated by an earlier run.
+	 *
+	 * @param rows the number of records in the file.
+	 * @return the path of the file.
+	 */
+	static Path syntheticFile(int rows) throws IOException {
+		Path directory = Paths.get("target", "csv-benchmark-" + rows);
+		Path file = directory.resolve(FILE_NAME);
+		if (Files.exists(file)) {
+			return file;
+		}
+		Files.createDirectories(directory);
+		Path partial = directory.resolve(FILE_NAME + ".part");
+		Random random = new Random(42);
+		try (BufferedWriter writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+			writer.write("objectId,ph,alkalinity,conductivity,bod,nitrite,copper1,copper2,iron,zinc\n");
+			for (int i = 0; i < rows; i++) {
+				writer.write(i + "," + round(6.5 + random.nextDouble() * 2, 2) + "," + round(random.nextDouble() * 120, 1)
+						+ "," + round(random.nextDouble() * 600, 1) + "," + round(random.nextDouble() * 5, 2)
+						+ "," + round(random.nextDouble() * 0.05, 4) + "," + round(random.nextDouble() * 0.005, 5)
+						+ "," + round(random.nextDouble() * 3, 2) + "," + round(random.nextDouble() * 800, 2)
+						+ "," + round(random.nextDouble() * 10, 2) + "\n");
+			}
+		}
+		Files.move(partial, file);
+		return file;
+	}
+
+	/**
+	 * The previous {@code processFile}: a {@code BufferedReader}, {@code split} and
+	 * {@code Double.parseDouble} per value, collecting every record of the file in one list.
+	 */
+	@Benchmark
+	public void processFile(Blackhole blackhole) throws IOException {
+		WaterReadingService service = new WaterReadingService(null, null, null, null, null, null);
+		List<WaterReading> allParsedRecords = new ArrayList<>();
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			reader.readLine(); // Skip the header
+			for (String row = reader.readLine(); row != null; row = reader.readLine()) {
+				allParsedRecords.add(service.parseRow(row));
+			}
+		}
+		blackhole.consume(allParsedRecords);
+	}
+
+	/**
+	 * The memory-mapped parser handing batches of 500 records to the sink.
+	 */
+	@Benchmark
+	public long mappedParser(Blackhole blackhole) throws IOException {
+		return new MappedCsvParser(500).parseAll(file, (batch, endOffset) -> blackhole.consume(batch));
+	}
+
+	private static double round(double value, int decimals) {
+		double scale = Math.pow(10, decimals);
+		return Math.round(value * scale) / scale;
+	}
+}
@@ -0,0 +1,35 @@
+package com.assessment.monitoringmicroservice.benchmark;
+
+import java.util.Collection;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Runs the {@link CsvParserBenchmark} JMH benchmark from the benchmark test profile.
+ * Run it with {@code mvn test -Pbenchmark}, JMH prints the results at the end.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Tag("benchmark")
+public class CsvParserBenchmarkTest {
+
+	/**
+	 * Compares {@code processFile} with the memory-mapped parser.
+	 */
+	@Test
+	void compareCsvParsers() throws Exception {
+		Collection<RunResult> results = new Runner(new OptionsBuilder()
+				.include(CsvParserBenchmark.class.getName())
+				.build()).run();
+
+		assertThat(results).hasSize(2);
+	}
+}
@@ -0,0 +1,121 @@
+package com.assessment.monitoringmicroservice.benchmark;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+import com.assessment.monitoringmicroservice.service.WaterReadingExportService;
+import com.assessment.monitoringmicroservice.service.WaterReadingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Compares the peak heap of exporting 1M records with the NDJSON stream and with
+ * the previous {@code /records} behaviour, which loaded every record in a list and
+ * serialised it as one JSON array.
+ *
+ * <p>Run it with {@code mvn test -Pbenchmark}. The peak is the sum of the peak
+ * usage of all heap memory pools, reset before each run.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:sqlite:target/export-benchmark.db?busy_timeout=5000&journal_mode=WAL",
+		"monitoring.ingest.enabled=false",
+		"monitoring.ingest.batch-size=1000",
+		"spring.jpa.show-sql=false",
+		"logging.level.org.hibernate.SQL=WARN",
+		"logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+		"logging.level.com.assessment.monitoringmicroservice=WARN"
+})
+public class ExportHeapBenchmarkTest {
+
+	private static final int ROWS = 1_000_000;
+	private static final int INSERT_CHUNK = 50_000;
+
+	@Autowired
+	private WaterReadingService waterReadingService;
+
+	@Autowired
+	private WaterReadingExportService waterReadingExportService;
+
+	@Autowired
+	private WaterReadingRepository waterReadingRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/**
+	 * Loads 1M records and prints the peak heap of both export paths.
+	 */
+	@Test
+	void comparePeakHeapAtOneMillionRows() throws Exception {
+		loadRows();
+
+		long listPeak = peakHeap(() -> objectMapper.writeValue(OutputStream.nullOutputStream(), waterReadingService.getAllRecords()));
+		long streamPeak = peakHeap(() -> waterReadingExportService.exportRecords(OutputStream.nullOutputStream()));
+
+		System.out.printf("list + JSON array: %,d MB peak heap%n", listPeak / (1024 * 1024));
+		System.out.printf("NDJSON stream:     %,d MB peak heap%n", streamPeak / (1024 * 1024));
+
+		assertThat(streamPeak).isLessThan(listPeak);
+	}
+
+	private void loadRows() {
+		if (waterReadingRepository.count() == ROWS) {
+			return; // the database file is kept in target/ between runs
+		}
+		waterReadingRepository.deleteAllInBatch();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int loaded = 0; loaded < ROWS; loaded += INSERT_CHUNK) {
+			List<WaterReading> records = new ArrayList<>(INSERT_CHUNK);
+			for (int i = 0; i < INSERT_CHUNK; i++) {
+				WaterReading reading = new WaterReading();
+				reading.setObjectId(loaded + i);
+				reading.setPhph(6.5 + random.nextDouble(2.0));
+				reading.setAlkmgl(random.nextDouble(120.0));
+				reading.setConduscm(random.nextDouble(600.0));
+				reading.setBodmgl(random.nextDouble(5.0));
+				reading.setNo2nmgl(random.nextDouble(0.05));
+				reading.setCusol1mgl(random.nextDouble(0.005));
+				reading.setCusol2ugl(random.nextDouble(3.0));
+				reading.setFesol1ugl(random.nextDouble(800.0));
+				reading.setZnsolugl(random.nextDouble(10.0));
+				records.add(reading);
+			}
+			waterReadingService.bulkInsertRecords(records);
+		}
+	}
+
+	private static long peakHeap(Workload workload) throws Exception {
+		List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+				.filter(pool -> pool.getType() == MemoryType.HEAP)
+				.toList();
+		System.gc();
+		heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+		workload.run();
+
+		return heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+	}
+
+	@FunctionalInterface
+	private interface Workload {
+		void run() throws Exception;
+	}
+}
@@ -0,0 +1,114 @@
+package com.assessment.monitoringmicroservice.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.assessment.monitoringmicroservice.config.IngestProperties;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+import com.assessment.monitoringmicroservice.service.WaterReadingService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Compares the insert throughput of the simulation and the bulk ingest mode
+ * against a SQLite database file.
+ *
+ * <p>The simulation mode is measured without its delay so that only the cost of
+ * one commit per record is compared with one commit per chunk. Run it with
+ * {@code mvn test -Pbenchmark}.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:sqlite:target/ingest-benchmark.db?busy_timeout=5000&journal_mode=WAL",
+		"monitoring.ingest.enabled=false",
+		"monitoring.ingest.simulation-delay=0s",
+		"spring.jpa.show-sql=false",
+		"logging.level.org.hibernate.SQL=WARN",
+		"logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+		"logging.level.com.assessment.monitoringmicroservice=WARN"
+})
+public class IngestThroughputBenchmarkTest {
+
+	private static final int SIMULATION_ROWS = 2_000;
+	private static final int BULK_ROWS = 200_000;
+
+	@Autowired
+	private WaterReadingService waterReadingService;
+
+	@Autowired
+	private WaterReadingRepository waterReadingRepository;
+
+	@Autowired
+	private IngestProperties ingestProperties;
+
+	@BeforeEach
+	void setUp() {
+		waterReadingRepository.deleteAllInBatch();
+	}
+
+	/**
+	 * Inserts synthetic readings in both modes and prints rows per second for each.
+	 */
+	@Test
+	void compareSimulationAndBulkThroughput() {
+		double simulationRate = measure(SIMULATION_ROWS, IngestProperties.Mode.SIMULATION);
+
+		waterReadingRepository.deleteAllInBatch();
+
+		double bulkRate = measure(BULK_ROWS, IngestProperties.Mode.BULK);
+
+		System.out.printf("simulation: %,.0f rows/s (%d rows)%n", simulationRate, SIMULATION_ROWS);
+		System.out.printf("bulk:       %,.0f rows/s (%d rows, batch size %d)%n",
+				bulkRate, BULK_ROWS, ingestProperties.getBatchSize());
+		System.out.printf("speed-up:   %.1fx%n", bulkRate / simulationRate);
+
+		assertThat(bulkRate).isGreaterThan(simulationRate);
+	}
+
+	// insertRecords is @Async through the proxy, so the mode specific methods are called directly
+	private double measure(int rows, IngestProperties.Mode mode) {
+		List<WaterReading> records = syntheticReadings(rows);
+		long start = System.nanoTime();
+		if (mode == IngestProperties.Mode.BULK) {
+			waterReadingService.bulkInsertRecords(records);
+		} else {
+			waterReadingService.simulateInsertRecords(records);
+		}
+		long elapsed = System.nanoTime() - start;
+
+		assertThat(waterReadingRepository.count()).isEqualTo(rows);
+		return rows / (elapsed / 1_000_000_000.0);
+	}
+
+	private static List<WaterReading> syntheticReadings(int rows) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		List<WaterReading> records = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			WaterReading reading = new WaterReading();
+			reading.setObjectId(i);
+			reading.setPhph(6.5 + random.nextDouble(2.0));
+			reading.setAlkmgl(random.nextDouble(120.0));
+			reading.setConduscm(random.nextDouble(600.0));
+			reading.setBodmgl(random.nextDouble(5.0));
+			reading.setNo2nmgl(random.nextDouble(0.05));
+			reading.setCusol1mgl(random.nextDouble(0.005));
+			reading.setCusol2ugl(random.nextDouble(3.0));
+			reading.setFesol1ugl(random.nextDouble(800.0));
+			reading.setZnsolugl(random.nextDouble(10.0));
+			records.add(reading);
+		}
+		return records;
+	}
+}
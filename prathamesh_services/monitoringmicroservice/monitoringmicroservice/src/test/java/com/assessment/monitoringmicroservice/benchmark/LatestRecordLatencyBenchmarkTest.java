@@ -0,0 +1,115 @@
+package com.assessment.monitoringmicroservice.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+import com.assessment.monitoringmicroservice.service.WaterReadingService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Reports the p50 and p99 latency of reading the latest record while a writer keeps
+ * inserting records on the single pooled connection.
+ *
+ * <p>"before" queries the repository on every call like {@code getLatestRecord} used to,
+ * "after" reads the in-memory snapshot. Run it with {@code mvn test -Pbenchmark}.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:sqlite:target/latest-benchmark.db?busy_timeout=5000&journal_mode=WAL",
+		"monitoring.ingest.enabled=false",
+		"monitoring.ingest.simulation-delay=0s",
+		"spring.jpa.show-sql=false",
+		"logging.level.org.hibernate.SQL=WARN",
+		"logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+		"logging.level.com.assessment.monitoringmicroservice=WARN"
+})
+public class LatestRecordLatencyBenchmarkTest {
+
+	private static final int CALLS = 20_000;
+
+	@Autowired
+	private WaterReadingService waterReadingService;
+
+	@Autowired
+	private WaterReadingRepository waterReadingRepository;
+
+	/**
+	 * Measures both read paths with the same background insert load.
+	 */
+	@Test
+	void compareLatestRecordLatency() throws Exception {
+		waterReadingService.simulateInsertRecords(readings(1));
+
+		AtomicBoolean running = new AtomicBoolean(true);
+		ExecutorService writer = Executors.newSingleThreadExecutor();
+		writer.submit(() -> {
+			while (running.get()) {
+				waterReadingService.simulateInsertRecords(readings(10));
+			}
+		});
+
+		try {
+			long[] before = measure(waterReadingRepository::findTopByOrderByTimestampDesc);
+			long[] after = measure(waterReadingService::getLatestRecord);
+
+			report("before (repository)", before);
+			report("after (snapshot)   ", after);
+
+			assertThat(percentile(after, 99)).isLessThan(percentile(before, 99));
+		} finally {
+			running.set(false);
+			writer.shutdown();
+			writer.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+
+	private static long[] measure(Supplier<WaterReading> latest) {
+		long[] nanos = new long[CALLS];
+		for (int i = 0; i < CALLS; i++) {
+			long start = System.nanoTime();
+			assertThat(latest.get()).isNotNull();
+			nanos[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(nanos);
+		return nanos;
+	}
+
+	private static long percentile(long[] sorted, int percentile) {
+		return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+	}
+
+	private static void report(String name, long[] sorted) {
+		System.out.printf("%s p50 %,d us, p99 %,d us%n", name,
+				TimeUnit.NANOSECONDS.toMicros(percentile(sorted, 50)),
+				TimeUnit.NANOSECONDS.toMicros(percentile(sorted, 99)));
+	}
+
+	private static List<WaterReading> readings(int count) {
+		List<WaterReading> records = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			WaterReading reading = new WaterReading();
+			reading.setObjectId(i);
+			reading.setPhph(7.5);
+			records.add(reading);
+		}
+		return records;
+	}
+}
@@ -0,0 +1,163 @@
+package com.assessment.monitoringmicroservice.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+import com.assessment.monitoringmicroservice.service.WaterReadingService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Reports the read throughput, the read p99 latency and the write throughput of a mixed
+ * load: one thread keeps inserting chunks through the writer queue while several threads
+ * read pages of {@code /records}.
+ *
+ * <p>"shared" runs the reads in read-write transactions, so they use the single write
+ * connection like before the pools were split. "split" runs them in read-only transactions
+ * on the read-only pool next to the WAL writer. Run it with {@code mvn test -Pbenchmark}.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:sqlite:target/mixed-load-benchmark.db?busy_timeout=5000&journal_mode=WAL&synchronous=NORMAL",
+		"monitoring.storage.read-write-split=true",
+		"monitoring.storage.read-pool-size=4",
+		"monitoring.ingest.enabled=false",
+		"spring.jpa.show-sql=false",
+		"logging.level.org.hibernate.SQL=WARN",
+		"logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+		"logging.level.org.springframework.transaction=WARN",
+		"logging.level.com.assessment.monitoringmicroservice=WARN"
+})
+public class MixedLoadBenchmarkTest {
+
+	private static final int READERS = 4;
+	private static final int SEED_ROWS = 50_000;
+	private static final int CHUNK_SIZE = 500;
+	private static final int PAGE_SIZE = 100;
+	private static final long DURATION_MILLIS = 10_000;
+
+	@Autowired
+	private WaterReadingService waterReadingService;
+
+	@Autowired
+	private WaterReadingRepository waterReadingRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * Runs the same mixed load with the reads on the write connection and on the read-only pool.
+	 */
+	@Test
+	void compareSharedAndSplitPools() throws Exception {
+		waterReadingRepository.deleteAllInBatch();
+		for (int i = 0; i < SEED_ROWS; i += CHUNK_SIZE) {
+			waterReadingService.bulkInsertRecords(readings(CHUNK_SIZE));
+		}
+
+		Result shared = run(false);
+		Result split = run(true);
+
+		shared.report("shared");
+		split.report("split ");
+
+		assertThat(split.reads()).isGreaterThan(shared.reads());
+	}
+
+	private Result run(boolean readOnly) throws Exception {
+		TransactionTemplate readTransaction = new TransactionTemplate(transactionManager);
+		readTransaction.setReadOnly(readOnly);
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicLong written = new AtomicLong();
+
+		ExecutorService threads = Executors.newFixedThreadPool(READERS + 1);
+		Future<?> writer = threads.submit(() -> {
+			while (running.get()) {
+				written.addAndGet(waterReadingService.bulkInsertRecords(readings(CHUNK_SIZE)));
+			}
+		});
+		List<Future<long[]>> readers = new ArrayList<>();
+		for (int i = 0; i < READERS; i++) {
+			readers.add(threads.submit(() -> read(readTransaction, running)));
+		}
+
+		Thread.sleep(DURATION_MILLIS);
+		running.set(false);
+		writer.get();
+		long[] latencies = readers.stream().map(MixedLoadBenchmarkTest::join).flatMapToLong(Arrays::stream).sorted().toArray();
+		threads.shutdown();
+		threads.awaitTermination(1, TimeUnit.MINUTES);
+		return new Result(latencies, written.get());
+	}
+
+	private long[] read(TransactionTemplate readTransaction, AtomicBoolean running) {
+		long[] nanos = new long[1024];
+		int count = 0;
+		while (running.get()) {
+			long lower = System.currentTimeMillis() - ThreadLocalRandom.current().nextLong(60_000);
+			long start = System.nanoTime();
+			readTransaction.execute(status -> waterReadingRepository.findPage(lower, Long.MAX_VALUE, Long.MIN_VALUE, "",
+					PageRequest.of(0, PAGE_SIZE)));
+			if (count == nanos.length) {
+				nanos = Arrays.copyOf(nanos, count * 2);
+			}
+			nanos[count++] = System.nanoTime() - start;
+		}
+		return Arrays.copyOf(nanos, count);
+	}
+
+	private static long[] join(Future<long[]> reader) {
+		try {
+			return reader.get();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static List<WaterReading> readings(int count) {
+		List<WaterReading> records = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			WaterReading reading = new WaterReading();
+			reading.setObjectId(ThreadLocalRandom.current().nextInt(1_000_000));
+			reading.setPhph(7.5);
+			reading.setConduscm(400.0);
+			records.add(reading);
+		}
+		return records;
+	}
+
+	private record Result(long[] latencies, long written) {
+
+		private long reads() {
+			return latencies.length * 1000L / DURATION_MILLIS;
+		}
+
+		private void report(String name) {
+			long p99 = latencies.length == 0 ? 0 : latencies[Math.min(latencies.length - 1, latencies.length * 99 / 100)];
+			System.out.printf("%s %,d reads/s, read p99 %,d us, %,d rows written/s%n", name, reads(),
+					TimeUnit.NANOSECONDS.toMicros(p99), written * 1000L / DURATION_MILLIS);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.assessment.monitoringmicroservice.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.assessment.monitoringmicroservice.service.ParallelCsvParser;
+
+
+/**
+ * JMH benchmark of the {@link ParallelCsvParser} with 1, 2, 4 and 8 parser threads on the
+ * synthetic file of {@link CsvParserBenchmark}. The writer hands the batches to a
+ * {@link Blackhole}, so the scaling of the parsing is measured and not the database.
+ *
+ * <p>Run it with {@code mvn test -Pbenchmark}, which starts {@link ParallelCsvParserBenchmarkTest}.
+ * The throughput in rows per second is the number of rows divided by the reported time.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlogging.level.root=WARN"})
+public class ParallelCsvParserBenchmark {
+
+	@Param({"10000000"})
+	public int rows;
+
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	private Path file;
+
+	@Setup
+	public void createFile() throws IOException {
+		file = CsvParserBenchmark.syntheticFile(rows);
+	}
+
+	/**
+	 * Parses the whole file with the configured number of threads and a queue of 8 batches.
+	 */
+	@Benchmark
+	public long parallelParse(Blackhole blackhole) throws Exception {
+		return new ParallelCsvParser(threads, 500, 8).parse(file, blackhole::consume);
+	}
+}
@@ -0,0 +1,45 @@
+package com.assessment.monitoringmicroservice.benchmark;
+
+import java.util.Collection;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Runs the {@link ParallelCsvParserBenchmark} JMH benchmark from the benchmark test profile
+ * and prints the throughput of every thread count next to the speed-up over one thread.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Tag("benchmark")
+public class ParallelCsvParserBenchmarkTest {
+
+	/**
+	 * Reports the parse throughput at 1, 2, 4 and 8 threads.
+	 */
+	@Test
+	void reportThroughputScaling() throws Exception {
+		Collection<RunResult> results = new Runner(new OptionsBuilder()
+				.include(ParallelCsvParserBenchmark.class.getName())
+				.build()).run();
+
+		assertThat(results).hasSize(4);
+		double singleThreadMillis = results.stream()
+				.filter(result -> "1".equals(result.getParams().getParam("threads")))
+				.mapToDouble(result -> result.getPrimaryResult().getScore())
+				.findFirst().orElseThrow();
+		for (RunResult result : results) {
+			int rows = Integer.parseInt(result.getParams().getParam("rows"));
+			double millis = result.getPrimaryResult().getScore();
+			System.out.printf("%s threads: %,.0f rows/s, %.2fx%n", result.getParams().getParam("threads"),
+					rows / (millis / 1000.0), singleThreadMillis / millis);
+		}
+	}
+}
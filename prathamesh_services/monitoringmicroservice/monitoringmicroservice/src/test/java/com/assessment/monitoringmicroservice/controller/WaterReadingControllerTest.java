@@ -1,14 +1,32 @@
 package com.assessment.monitoringmicroservice.controller;
 
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-
+import java.util.Map;
+
+import com.assessment.monitoringmicroservice.model.AggregateBucket;
+import com.assessment.monitoringmicroservice.model.ParameterStats;
+import com.assessment.monitoringmicroservice.model.ReadingAnomaly;
+import com.assessment.monitoringmicroservice.model.ReadingProjection;
+import com.assessment.monitoringmicroservice.model.RecordPage;
+import com.assessment.monitoringmicroservice.model.RecordQuery;
+import com.assessment.monitoringmicroservice.model.UploadReport;
+import com.assessment.monitoringmicroservice.model.WaterParameter;
 import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.service.AnomalyDetectionService;
+import com.assessment.monitoringmicroservice.service.ReadingBroadcaster;
+import com.assessment.monitoringmicroservice.service.ReadingUploadService;
+import com.assessment.monitoringmicroservice.service.WaterReadingAggregationService;
+import com.assessment.monitoringmicroservice.service.WaterReadingExportService;
 import com.assessment.monitoringmicroservice.service.WaterReadingService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +34,10 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 
 @SpringBootTest
@@ -28,6 +49,21 @@ public class WaterReadingControllerTest {
 
     @MockBean
     private WaterReadingService waterReadingService;
+
+    @MockBean
+    private WaterReadingExportService waterReadingExportService;
+
+    @MockBean
+    private WaterReadingAggregationService waterReadingAggregationService;
+
+    @MockBean
+    private ReadingBroadcaster readingBroadcaster;
+
+    @MockBean
+    private ReadingUploadService readingUploadService;
+
+    @MockBean
+    private AnomalyDetectionService anomalyDetectionService;
     
 	@Test
 	void testGetLatestSuccess() throws Exception {
@@ -65,6 +101,47 @@ public class WaterReadingControllerTest {
 		.andExpect(jsonPath("$.znsolugl").value(5.0)); 
 	}
 	
+	/**
+	 * Test that the latest record has an ETag and the same ETag in If-None-Match returns 304 without a body.
+	 */
+	@Test
+	void testGetLatestNotModified() throws Exception {
+		// Arrange
+		WaterReading reading = new WaterReading();
+		reading.setObjectId(1556);
+		reading.setTimestamp(LocalDateTime.parse("2025-03-16T12:30:00"));
+		when(waterReadingService.getLatestRecord()).thenReturn(reading);
+		String eTag = mockMvc.perform(get("/watermonitoring/records/latest"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Cache-Control", "no-cache"))
+				.andReturn().getResponse().getHeader("ETag");
+
+		// Act
+		mockMvc.perform(get("/watermonitoring/records/latest").header("If-None-Match", eTag))
+
+		// Assert
+		.andExpect(status().isNotModified())
+		.andExpect(header().string("ETag", eTag))
+		.andExpect(content().string(""));
+	}
+
+	/**
+	 * Test that /records returns 304 for the current data version without reading the records.
+	 */
+	@Test
+	void testGetRecordsNotModified() throws Exception {
+		// Arrange
+		when(waterReadingService.getRecordsETag()).thenReturn("\"m8x2k1-42\"");
+
+		// Act
+		mockMvc.perform(get("/watermonitoring/records").header("If-None-Match", "\"m8x2k1-42\""))
+
+		// Assert
+		.andExpect(status().isNotModified())
+		.andExpect(content().string(""));
+		verify(waterReadingService, never()).getRecordsPage(any(RecordQuery.class));
+	}
+
 	@Test
 	void testGetLatestNoData() throws Exception {
 
@@ -162,45 +239,46 @@ public class WaterReadingControllerTest {
 		record2.setTimestamp(LocalDateTime.now());
 
 		List<WaterReading> mockRecords = Arrays.asList(record1, record2);
-		when(waterReadingService.getAllRecords()).thenReturn(mockRecords);
+		when(waterReadingService.getRecordsPage(RecordQuery.firstPage(100))).thenReturn(new RecordPage<>(mockRecords, null));
 
 		// Act
 		mockMvc.perform(get("/watermonitoring/records")) // Send GET request
 
 		// Assert
 		.andExpect(status().isOk())  // Expect 200 OK
-		.andExpect(jsonPath("$.length()").value(2)) // Check array length
+		.andExpect(jsonPath("$.records.length()").value(2)) // Check array length
+		.andExpect(jsonPath("$.next").doesNotExist())
 
 		// Validate first record
-		.andExpect(jsonPath("$[0].objectId").value(1115))
-		.andExpect(jsonPath("$[0].phph").value(7.7))
-		.andExpect(jsonPath("$[0].alkmgl").value(65.0))
-		.andExpect(jsonPath("$[0].conduscm").value(500.0))
-		.andExpect(jsonPath("$[0].bodmgl").value(3.0))
-		.andExpect(jsonPath("$[0].no2nmgl").value(0.009))
-		.andExpect(jsonPath("$[0].cusol1mgl").value(0.012))
-		.andExpect(jsonPath("$[0].cusol2ugl").value(1.49))
-		.andExpect(jsonPath("$[0].fesol1ugl").value(458.88))
-		.andExpect(jsonPath("$[0].znsolugl").value(5.0))
+		.andExpect(jsonPath("$.records[0].objectId").value(1115))
+		.andExpect(jsonPath("$.records[0].phph").value(7.7))
+		.andExpect(jsonPath("$.records[0].alkmgl").value(65.0))
+		.andExpect(jsonPath("$.records[0].conduscm").value(500.0))
+		.andExpect(jsonPath("$.records[0].bodmgl").value(3.0))
+		.andExpect(jsonPath("$.records[0].no2nmgl").value(0.009))
+		.andExpect(jsonPath("$.records[0].cusol1mgl").value(0.012))
+		.andExpect(jsonPath("$.records[0].cusol2ugl").value(1.49))
+		.andExpect(jsonPath("$.records[0].fesol1ugl").value(458.88))
+		.andExpect(jsonPath("$.records[0].znsolugl").value(5.0))
 
 		// Validate second record
-		.andExpect(jsonPath("$[1].objectId").value(1147))
-		.andExpect(jsonPath("$[1].phph").value(6.8))
-		.andExpect(jsonPath("$[1].alkmgl").value(68.0))
-		.andExpect(jsonPath("$[1].conduscm").value(225.0))
-		.andExpect(jsonPath("$[1].bodmgl").value(4.0))
-		.andExpect(jsonPath("$[1].no2nmgl").value(0.005))
-		.andExpect(jsonPath("$[1].cusol1mgl").value(0.022))
-		.andExpect(jsonPath("$[1].cusol2ugl").value(2.32))
-		.andExpect(jsonPath("$[1].fesol1ugl").value(720.88))
-		.andExpect(jsonPath("$[1].znsolugl").value(5.0));
+		.andExpect(jsonPath("$.records[1].objectId").value(1147))
+		.andExpect(jsonPath("$.records[1].phph").value(6.8))
+		.andExpect(jsonPath("$.records[1].alkmgl").value(68.0))
+		.andExpect(jsonPath("$.records[1].conduscm").value(225.0))
+		.andExpect(jsonPath("$.records[1].bodmgl").value(4.0))
+		.andExpect(jsonPath("$.records[1].no2nmgl").value(0.005))
+		.andExpect(jsonPath("$.records[1].cusol1mgl").value(0.022))
+		.andExpect(jsonPath("$.records[1].cusol2ugl").value(2.32))
+		.andExpect(jsonPath("$.records[1].fesol1ugl").value(720.88))
+		.andExpect(jsonPath("$.records[1].znsolugl").value(5.0));
 
 	}
 	
 	@Test 
 	void testGetAllRecordsNoData() throws Exception {
 		// Arrange 
-		when(waterReadingService.getAllRecords()).thenReturn(Collections.emptyList());
+		when(waterReadingService.getRecordsPage(any(RecordQuery.class))).thenReturn(new RecordPage<>(Collections.emptyList(), null));
 
 		// Act
 		mockMvc.perform(get("/watermonitoring/records"))
@@ -215,7 +293,7 @@ public class WaterReadingControllerTest {
 	@Test 
 	void testGetAllRecordsInternalServerError() throws Exception {
 		// Arrange
-		when(waterReadingService.getAllRecords())
+		when(waterReadingService.getRecordsPage(any(RecordQuery.class)))
 		.thenThrow(new RuntimeException("Internal server error"));
 
 		// Act
@@ -225,5 +303,354 @@ public class WaterReadingControllerTest {
 		.andExpect(status().isInternalServerError())
 		.andExpect(jsonPath("$.message").value("Internal server error:Internal server error"));
 	}
-	
+
+	/**
+	 * Test that the cursor and limit are passed to the service and the next cursor is returned.
+	 */
+	@Test
+	void testGetRecordsNextPage() throws Exception {
+		// Arrange
+		WaterReading reading = new WaterReading();
+		reading.setObjectId(1148);
+		reading.setTimestamp(LocalDateTime.parse("2025-03-16T12:31:00"));
+
+		String after = "2025-03-16T12:30:00,3ebb9a40-b706-4792-aefb-48fa9ec4fa40";
+		String next = "2025-03-16T12:31:00,72399005-00e4-4f72-b8d5-e5b2aebb3cb1";
+		when(waterReadingService.getRecordsPage(new RecordQuery(after, null, null, 1))).thenReturn(new RecordPage<>(List.of(reading), next));
+
+		// Act
+		mockMvc.perform(get("/watermonitoring/records").param("after", after).param("limit", "1"))
+
+		// Assert
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.records.length()").value(1))
+		.andExpect(jsonPath("$.records[0].objectId").value(1148))
+		.andExpect(jsonPath("$.next").value(next));
+	}
+
+	/**
+	 * Test that the breaching thresholds are passed to the service and an unknown one returns 400 Bad Request.
+	 */
+	@Test
+	void testGetRecordsBreaching() throws Exception {
+		// Arrange
+		WaterReading reading = new WaterReading();
+		reading.setObjectId(1150);
+		reading.setNo2nmgl(1.2);
+		reading.setTimestamp(LocalDateTime.parse("2025-03-16T12:33:00"));
+		when(waterReadingService.getRecordsPage(new RecordQuery(null, null, null, 100, "nitrite,ph")))
+		.thenReturn(new RecordPage<>(List.of(reading), null));
+		when(waterReadingService.getRecordsPage(new RecordQuery(null, null, null, 100, "lead")))
+		.thenThrow(new IllegalArgumentException("Unknown threshold: lead"));
+
+		// Act & Assert
+		mockMvc.perform(get("/watermonitoring/records").param("breaching", "nitrite,ph"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.records[0].objectId").value(1150))
+		.andExpect(jsonPath("$.records[0].breachMask").doesNotExist());
+
+		mockMvc.perform(get("/watermonitoring/records").param("breaching", "lead"))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value("Unknown threshold: lead"));
+	}
+
+	/**
+	 * Test that the selected fields are passed to the service and only they are returned.
+	 */
+	@Test
+	void testGetRecordsWithFields() throws Exception {
+		// Arrange
+		ReadingProjection projection = new ReadingProjection("72399005-00e4-4f72-b8d5-e5b2aebb3cb1",
+				LocalDateTime.parse("2025-03-16T12:31:00"), Map.of("phph", 7.1));
+		when(waterReadingService.getRecordsPage(RecordQuery.firstPage(100), "phph")).thenReturn(new RecordPage<>(List.of(projection), null));
+
+		// Act
+		mockMvc.perform(get("/watermonitoring/records").param("fields", "phph"))
+
+		// Assert
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.records[0].id").value("72399005-00e4-4f72-b8d5-e5b2aebb3cb1"))
+		.andExpect(jsonPath("$.records[0].timestamp").value("2025-03-16T12:31:00"))
+		.andExpect(jsonPath("$.records[0].phph").value(7.1))
+		.andExpect(jsonPath("$.records[0].alkmgl").doesNotExist());
+		verify(waterReadingService, never()).getRecordsPage(any(RecordQuery.class));
+	}
+
+	/**
+	 * Test that an invalid cursor returns 400 even with the current ETag in If-None-Match.
+	 */
+	@Test
+	void testGetRecordsInvalidCursorNotModified() throws Exception {
+		// Arrange
+		when(waterReadingService.getRecordsETag()).thenReturn("\"m8x2k1-42\"");
+		doThrow(new IllegalArgumentException("Invalid cursor: not-a-cursor"))
+		.when(waterReadingService).checkRecordsQuery(any(RecordQuery.class), isNull());
+
+		// Act
+		mockMvc.perform(get("/watermonitoring/records").param("after", "not-a-cursor").header("If-None-Match", "\"m8x2k1-42\""))
+
+		// Assert
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value("Invalid cursor: not-a-cursor"));
+		verify(waterReadingService, never()).getRecordsETag();
+	}
+
+	/**
+	 * Test for an invalid cursor which returns 400 Bad Request.
+	 */
+	@Test
+	void testGetRecordsInvalidCursor() throws Exception {
+		// Arrange
+		when(waterReadingService.getRecordsPage(any(RecordQuery.class)))
+		.thenThrow(new IllegalArgumentException("Invalid cursor: not-a-cursor"));
+
+		// Act
+		mockMvc.perform(get("/watermonitoring/records").param("after", "not-a-cursor"))
+
+		// Assert
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value("Invalid cursor: not-a-cursor"));
+	}
+
+	/**
+	 * Test that the export endpoint streams the records written by the export service as NDJSON.
+	 */
+	@Test
+	void testExportRecords() throws Exception {
+		// Arrange: The export service writes two lines.
+		String lines = "{\"objectId\":1115}\n{\"objectId\":1147}\n";
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(0);
+			out.write(lines.getBytes(StandardCharsets.UTF_8));
+			return 2L;
+		}).when(waterReadingExportService).exportRecords(any());
+
+		// Act: The body is written asynchronously after the request started.
+		MvcResult result = mockMvc.perform(get("/watermonitoring/records/export"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// Assert
+		mockMvc.perform(asyncDispatch(result))
+		.andExpect(status().isOk())
+		.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+		.andExpect(content().string(lines));
+	}
+
+	/**
+	 * Test that the stream endpoint opens an event stream which writes the events of the emitter.
+	 */
+	@Test
+	void testStreamRecords() throws Exception {
+		// Arrange
+		SseEmitter emitter = new SseEmitter();
+		when(readingBroadcaster.subscribe(ReadingBroadcaster.OverflowPolicy.DISCONNECT)).thenReturn(emitter);
+
+		// Act
+		MvcResult result = mockMvc.perform(get("/watermonitoring/records/stream").param("policy", "disconnect"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		emitter.send(SseEmitter.event().id("2025-03-16T12:30:00,3ebb9a40").name("reading")
+				.data("{\"objectId\":1115}", MediaType.APPLICATION_JSON));
+		emitter.complete();
+
+		// Assert
+		mockMvc.perform(asyncDispatch(result))
+		.andExpect(status().isOk())
+		.andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+		.andExpect(content().string("id:2025-03-16T12:30:00,3ebb9a40\nevent:reading\ndata:{\"objectId\":1115}\n\n"));
+	}
+
+	/**
+	 * Test that an unknown overflow policy returns 400 Bad Request.
+	 */
+	@Test
+	void testStreamRecordsInvalidPolicy() throws Exception {
+		// Act
+		mockMvc.perform(get("/watermonitoring/records/stream").param("policy", "block"))
+
+		// Assert
+		.andExpect(status().isBadRequest());
+		verify(readingBroadcaster, never()).subscribe(any());
+	}
+
+	/**
+	 * Test that an upload returns the acknowledged batches and the rejected rows.
+	 */
+	@Test
+	void testUploadRecords() throws Exception {
+		// Arrange
+		UploadReport report = new UploadReport(3, 1, List.of(new UploadReport.BatchAck(1, 2, 2, 1)), 1,
+				List.of(new UploadReport.RowError(3, "objectId is required")), null, null);
+		when(readingUploadService.upload(any(), eq(ReadingUploadService.Format.CSV), eq("station-7"))).thenReturn(report);
+
+		// Act
+		mockMvc.perform(post("/watermonitoring/records/batch").param("source", "station-7")
+				.contentType("text/csv").content("OBJECTID,PHpH\n1115,7.7,95,275,2.4,0.011,0.0022,0.76,146.51,5\n,7.5\n"))
+
+		// Assert
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.inserted").value(1))
+		.andExpect(jsonPath("$.batches[0].lastLine").value(2))
+		.andExpect(jsonPath("$.errors[0].line").value(3))
+		.andExpect(jsonPath("$.resumeAtLine").doesNotExist());
+	}
+
+	/**
+	 * Test that an upload which stopped at a full write queue returns 429 Too Many Requests.
+	 */
+	@Test
+	void testUploadRecordsQueueFull() throws Exception {
+		// Arrange
+		UploadReport report = new UploadReport(1, 0, List.of(), 0, List.of(), 1L, null);
+		when(readingUploadService.upload(any(), eq(ReadingUploadService.Format.NDJSON), isNull())).thenReturn(report);
+
+		// Act
+		mockMvc.perform(post("/watermonitoring/records/batch")
+				.contentType(MediaType.APPLICATION_NDJSON).content("{\"objectId\":1115}\n"))
+
+		// Assert
+		.andExpect(status().isTooManyRequests())
+		.andExpect(header().string("Retry-After", "1"))
+		.andExpect(jsonPath("$.resumeAtLine").value(1));
+	}
+
+	/**
+	 * Test that an upload which stopped at a failed batch returns 500 with the committed batches.
+	 */
+	@Test
+	void testUploadRecordsWriteFailed() throws Exception {
+		// Arrange
+		UploadReport report = new UploadReport(2, 1, List.of(new UploadReport.BatchAck(1, 1, 1, 1)), 0, List.of(), 2L,
+				new UploadReport.BatchFailure(2, 2, "SQLITE_BUSY"));
+		when(readingUploadService.upload(any(), eq(ReadingUploadService.Format.NDJSON), isNull())).thenReturn(report);
+
+		// Act
+		mockMvc.perform(post("/watermonitoring/records/batch")
+				.contentType(MediaType.APPLICATION_NDJSON).content("{\"objectId\":1115}\n{\"objectId\":1116}\n"))
+
+		// Assert
+		.andExpect(status().isInternalServerError())
+		.andExpect(jsonPath("$.batches[0].lastLine").value(1))
+		.andExpect(jsonPath("$.failedBatch.firstLine").value(2))
+		.andExpect(jsonPath("$.failedBatch.message").value("SQLITE_BUSY"))
+		.andExpect(jsonPath("$.resumeAtLine").value(2));
+	}
+
+	/**
+	 * Test that a body which is not CSV or NDJSON is refused.
+	 */
+	@Test
+	void testUploadRecordsUnsupportedType() throws Exception {
+		// Act
+		mockMvc.perform(post("/watermonitoring/records/batch")
+				.contentType(MediaType.APPLICATION_XML).content("<reading/>"))
+
+		// Assert
+		.andExpect(status().isUnsupportedMediaType());
+		verifyNoInteractions(readingUploadService);
+	}
+
+	/**
+	 * Test that the time range is passed to the service.
+	 */
+	@Test
+	void testGetRecordsInTimeRange() throws Exception {
+		// Arrange
+		WaterReading reading = new WaterReading();
+		reading.setObjectId(1523);
+		reading.setTimestamp(LocalDateTime.parse("2025-03-16T08:00:00"));
+
+		RecordQuery query = new RecordQuery(null, LocalDateTime.parse("2025-03-16T00:00:00"),
+				LocalDateTime.parse("2025-03-17T00:00:00"), 100);
+		when(waterReadingService.getRecordsPage(query)).thenReturn(new RecordPage<>(List.of(reading), null));
+
+		// Act
+		mockMvc.perform(get("/watermonitoring/records")
+				.param("from", "2025-03-16T00:00:00")
+				.param("to", "2025-03-17T00:00:00"))
+
+		// Assert
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.records[0].objectId").value(1523))
+		.andExpect(jsonPath("$.records[0].timestamp").value("2025-03-16T08:00:00"));
+	}
+
+	/**
+	 * Test that the aggregate endpoint returns the buckets of the service.
+	 */
+	@Test
+	void testGetAggregates() throws Exception {
+		// Arrange
+		AggregateBucket bucket = new AggregateBucket(LocalDateTime.parse("2025-03-16T12:00:00"), 3,
+				Map.of("phph", new ParameterStats(3, 7.0, 9.0, 8.0)));
+		when(waterReadingAggregationService.getAggregates(eq("1h"), any(), any())).thenReturn(List.of(bucket));
+
+		// Act
+		mockMvc.perform(get("/watermonitoring/records/aggregate").param("bucket", "1h"))
+
+		// Assert
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$[0].bucketStart").value("2025-03-16T12:00:00"))
+		.andExpect(jsonPath("$[0].count").value(3))
+		.andExpect(jsonPath("$[0].parameters.phph.mean").value(8.0));
+	}
+
+	/**
+	 * Test that an invalid bucket returns 400 Bad Request.
+	 */
+	@Test
+	void testGetAggregatesInvalidBucket() throws Exception {
+		// Arrange
+		when(waterReadingAggregationService.getAggregates(eq("1y"), any(), any()))
+		.thenThrow(new IllegalArgumentException("Invalid bucket: 1y"));
+
+		// Act
+		mockMvc.perform(get("/watermonitoring/records/aggregate").param("bucket", "1y"))
+
+		// Assert
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value("Invalid bucket: 1y"));
+	}
+
+	/**
+	 * Test that the anomalies are returned with their rolling statistics.
+	 */
+	@Test
+	void testGetAnomalies() throws Exception {
+		// Arrange
+		WaterReading reading = new WaterReading();
+		reading.setObjectId(1115);
+		reading.setTimestamp(LocalDateTime.of(2025, 3, 16, 12, 30));
+		ReadingAnomaly anomaly = new ReadingAnomaly(reading, WaterParameter.PHPH, 9.4, 7.6, 0.3);
+		when(anomalyDetectionService.getAnomalies(eq("phph"), isNull(), isNull(), eq(100))).thenReturn(List.of(anomaly));
+
+		// Act
+		mockMvc.perform(get("/watermonitoring/records/anomalies").param("parameter", "phph"))
+
+		// Assert
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$[0].objectId").value(1115))
+		.andExpect(jsonPath("$[0].timestamp").value("2025-03-16T12:30:00"))
+		.andExpect(jsonPath("$[0].parameter").value("phph"))
+		.andExpect(jsonPath("$[0].zScore").value(org.hamcrest.Matchers.closeTo(6.0, 1e-9)));
+	}
+
+	/**
+	 * Test that an unknown parameter returns 400 Bad Request.
+	 */
+	@Test
+	void testGetAnomaliesInvalidParameter() throws Exception {
+		// Arrange
+		when(anomalyDetectionService.getAnomalies(eq("ph"), any(), any(), anyInt()))
+		.thenThrow(new IllegalArgumentException("Unknown water parameter: ph"));
+
+		// Act
+		mockMvc.perform(get("/watermonitoring/records/anomalies").param("parameter", "ph"))
+
+		// Assert
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value("Unknown water parameter: ph"));
+	}
+
 }
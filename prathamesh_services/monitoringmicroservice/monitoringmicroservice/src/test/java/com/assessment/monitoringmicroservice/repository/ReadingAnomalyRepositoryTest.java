@@ -0,0 +1,72 @@
+package com.assessment.monitoringmicroservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import com.assessment.monitoringmicroservice.model.ReadingAnomaly;
+import com.assessment.monitoringmicroservice.model.WaterParameter;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+
+/**
+ * This class contains unit tests for reading the anomalies of the water quality records.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@ExtendWith(SpringExtension.class) // Enables spring support in JUnit 5
+@DataJpaTest
+@ActiveProfiles("test")  // Specifies the profile "test" should be used for configurations
+public class ReadingAnomalyRepositoryTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2025, 3, 16, 12, 0);
+
+	@Autowired
+	private WaterReadingRepository waterReadingRepository;
+
+	@Autowired
+	private ReadingAnomalyRepository readingAnomalyRepository;
+
+	/**
+	 * Tests that the most recent anomalies are returned first and can be limited to a parameter and a time range.
+	 */
+	@Test
+	public void testFindRecentNewestFirst() {
+
+		// Arrange: anomalies at 12:00 (pH), 12:10 (pH and nitrite) and 12:20 (pH).
+		for (int minute = 0; minute <= 20; minute += 10) {
+			WaterReading reading = new WaterReading();
+			reading.setObjectId(minute);
+			reading.setTimestamp(START.plusMinutes(minute));
+			reading = waterReadingRepository.save(reading);
+			readingAnomalyRepository.save(new ReadingAnomaly(reading, WaterParameter.PHPH, 9.5, 7.5, 0.5));
+			if (minute == 10) {
+				readingAnomalyRepository.save(new ReadingAnomaly(reading, WaterParameter.NO2NMGL, 0.5, 0.01, 0.01));
+			}
+		}
+
+		// Act
+		List<ReadingAnomaly> all = readingAnomalyRepository.findRecent(Long.MIN_VALUE, Long.MAX_VALUE, null, PageRequest.of(0, 10));
+		List<ReadingAnomaly> nitrite = readingAnomalyRepository.findRecent(Long.MIN_VALUE, Long.MAX_VALUE, WaterParameter.NO2NMGL, PageRequest.of(0, 10));
+		List<ReadingAnomaly> range = readingAnomalyRepository.findRecent(WaterReading.toEpochMillis(START),
+				WaterReading.toEpochMillis(START.plusMinutes(20)), WaterParameter.PHPH, PageRequest.of(0, 1));
+
+		// Assert
+		assertThat(all).hasSize(4);
+		assertThat(all.get(0).getTimestamp()).isEqualTo(START.plusMinutes(20));
+		assertThat(all.get(3).getTimestamp()).isEqualTo(START);
+		assertThat(nitrite).extracting(ReadingAnomaly::getParameter).containsExactly("no2nmgl");
+		assertThat(nitrite.get(0).getZScore()).isEqualTo(49.0, org.assertj.core.data.Offset.offset(1e-9));
+		assertThat(range).extracting(ReadingAnomaly::getTimestamp).containsExactly(START.plusMinutes(10));
+	}
+}
@@ -0,0 +1,127 @@
+package com.assessment.monitoringmicroservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import com.assessment.monitoringmicroservice.model.AggregateBucket;
+import com.assessment.monitoringmicroservice.model.RollupGranularity;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.service.ReadingRollupService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+
+/**
+ * This class contains unit tests for checking the rollups of the water quality records.
+ * It makes sure that the rollups maintained on insert and the rollups rebuilt from the
+ * raw records give the same aggregates as grouping the raw records.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@ExtendWith(SpringExtension.class) // Enables spring support in JUnit 5
+@DataJpaTest
+@Import(ReadingRollupService.class)
+@ActiveProfiles("test")  // Specifies the profile "test" should be used for configurations
+public class ReadingRollupRepositoryTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2025, 3, 16, 12, 0);
+
+	@Autowired
+	private WaterReadingRepository waterReadingRepository;
+
+	@Autowired
+	private ReadingRollupRepository readingRollupRepository;
+
+	@Autowired
+	private ReadingRollupService readingRollupService;
+
+	/**
+	 * Tests that the rollups updated on insert give the same hourly buckets as the raw records.
+	 */
+	@Test
+	public void testAppliedRollupsMatchRawAggregate() {
+
+		// Arrange: pH 7.0, 8.0 and 9.0 between 12:00 and 13:00, pH 6.0 at 13:10.
+		List<WaterReading> readings = saveReadings();
+
+		// Act: add the first reading on its own and the others as one chunk.
+		readingRollupService.apply(readings.subList(0, 1));
+		readingRollupService.apply(readings.subList(1, readings.size()));
+		List<AggregateBucket> buckets = readingRollupRepository.aggregate(RollupGranularity.HOUR, 3_600_000L, Long.MIN_VALUE, Long.MAX_VALUE);
+
+		// Assert
+		assertThat(buckets).isEqualTo(waterReadingRepository.aggregate(3_600_000L, Long.MIN_VALUE, Long.MAX_VALUE));
+		assertThat(buckets).hasSize(2);
+		assertThat(buckets.get(0).count()).isEqualTo(3);
+		assertThat(buckets.get(0).parameters().get("phph").mean()).isEqualTo(8.0);
+		assertThat(buckets.get(0).parameters().get("no2nmgl").count()).isZero();
+	}
+
+	/**
+	 * Tests that minute rollups can be merged into larger buckets and into a time range.
+	 */
+	@Test
+	public void testMergeMinuteRollups() {
+
+		// Arrange
+		readingRollupService.apply(saveReadings());
+		long from = WaterReading.toEpochMillis(START.plusMinutes(15));
+		long to = WaterReading.toEpochMillis(START.plusMinutes(75));
+
+		// Act: 30 minute buckets between 12:15 and 13:15.
+		List<AggregateBucket> buckets = readingRollupRepository.aggregate(RollupGranularity.MINUTE, 1_800_000L, from, to);
+
+		// Assert
+		assertThat(buckets).isEqualTo(waterReadingRepository.aggregate(1_800_000L, from, to));
+		assertThat(buckets).extracting(AggregateBucket::count).containsExactly(1L, 1L, 1L);
+	}
+
+	/**
+	 * Tests that rebuilding the rollups from the raw records gives the same rollups as
+	 * maintaining them on insert, for every granularity.
+	 */
+	@Test
+	public void testRebuildMatchesAppliedRollups() {
+
+		// Arrange
+		readingRollupService.apply(saveReadings());
+		List<List<AggregateBucket>> applied = new ArrayList<>();
+		for (RollupGranularity granularity : RollupGranularity.values()) {
+			applied.add(readingRollupRepository.aggregate(granularity, granularity.millis(), Long.MIN_VALUE, Long.MAX_VALUE));
+		}
+
+		// Act
+		readingRollupService.rebuild();
+
+		// Assert
+		for (RollupGranularity granularity : RollupGranularity.values()) {
+			assertThat(readingRollupRepository.aggregate(granularity, granularity.millis(), Long.MIN_VALUE, Long.MAX_VALUE))
+				.isEqualTo(applied.get(granularity.ordinal()));
+		}
+		assertThat(readingRollupService.isEmpty()).isFalse();
+	}
+
+	private List<WaterReading> saveReadings() {
+		double[] ph = {7.0, 8.0, 9.0, 6.0};
+		int[] minutes = {0, 20, 59, 70};
+		List<WaterReading> readings = new ArrayList<>();
+		for (int i = 0; i < ph.length; i++) {
+			WaterReading reading = new WaterReading();
+			reading.setObjectId(5000 + i);
+			reading.setPhph(ph[i]);
+			reading.setTimestamp(START.plusMinutes(minutes[i]));
+			readings.add(waterReadingRepository.saveAndFlush(reading));
+		}
+		return readings;
+	}
+}
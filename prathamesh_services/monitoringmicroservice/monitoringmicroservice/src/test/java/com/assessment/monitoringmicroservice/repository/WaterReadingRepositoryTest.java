@@ -1,16 +1,26 @@
 package com.assessment.monitoringmicroservice.repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import com.assessment.monitoringmicroservice.model.AggregateBucket;
+import com.assessment.monitoringmicroservice.model.ReadingFields;
+import com.assessment.monitoringmicroservice.model.ReadingProjection;
+import com.assessment.monitoringmicroservice.model.ThresholdBreach;
 import com.assessment.monitoringmicroservice.model.WaterReading;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 
 
@@ -141,4 +151,224 @@ public class WaterReadingRepositoryTest {
 		assertThat(latestRecord).isNull(); 
 	}
 
+
+	/**
+	 * Tests the keyset paging queries. It inserts five records, two of them with the same
+	 * timestamp, and checks that following the last record of each page returns every
+	 * record exactly once in timestamp order.
+	 */
+	@Test
+	public void testKeysetPaging() {
+
+		// Arrange: Five records, the third and fourth have the same timestamp.
+		LocalDateTime start = LocalDateTime.of(2025, 3, 16, 12, 30);
+		int[] minutes = {0, 1, 2, 2, 3};
+		for (int i = 0; i < minutes.length; i++) {
+			WaterReading reading = new WaterReading();
+			reading.setObjectId(1000 + i);
+			reading.setTimestamp(start.plusMinutes(minutes[i]));
+			waterReadingRepository.save(reading);
+		}
+
+		// Act: Read the first page and follow the last record to the next pages.
+		List<WaterReading> first = waterReadingRepository.findPage(Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, "", PageRequest.of(0, 2));
+		WaterReading last = first.get(first.size() - 1);
+		List<WaterReading> second = waterReadingRepository.findPage(last.getTimestampMillis(), Long.MAX_VALUE,
+				last.getTimestampMillis(), last.getId(), PageRequest.of(0, 2));
+		last = second.get(second.size() - 1);
+		List<WaterReading> third = waterReadingRepository.findPage(last.getTimestampMillis(), Long.MAX_VALUE,
+				last.getTimestampMillis(), last.getId(), PageRequest.of(0, 2));
+
+		// Assert: Every record is returned once and in timestamp order.
+		assertThat(first).extracting(WaterReading::getObjectId).containsExactly(1000, 1001);
+		assertThat(second).hasSize(2);
+		assertThat(second).extracting(WaterReading::getObjectId).containsExactlyInAnyOrder(1002, 1003);
+		assertThat(third).extracting(WaterReading::getObjectId).containsExactly(1004);
+	}
+
+
+	/**
+	 * Tests that the stream query returns every record in timestamp order.
+	 * The test runs inside the transaction of {@link DataJpaTest} which the stream needs.
+	 */
+	@Test
+	public void testStreamAllOrderedByTimestamp() {
+
+		// Arrange: Three records inserted out of timestamp order.
+		LocalDateTime start = LocalDateTime.of(2025, 3, 16, 12, 30);
+		int[] minutes = {2, 0, 1};
+		for (int i = 0; i < minutes.length; i++) {
+			WaterReading reading = new WaterReading();
+			reading.setObjectId(2000 + minutes[i]);
+			reading.setTimestamp(start.plusMinutes(minutes[i]));
+			waterReadingRepository.save(reading);
+		}
+
+		// Act
+		List<Integer> objectIds;
+		try (Stream<WaterReading> records = waterReadingRepository.streamAllOrderedByTimestamp()) {
+			objectIds = records.map(WaterReading::getObjectId).toList();
+		}
+
+		// Assert
+		assertThat(objectIds).containsExactly(2000, 2001, 2002);
+	}
+
+
+	/**
+	 * Tests that the page query only returns records inside the [from, to) time range.
+	 */
+	@Test
+	public void testFindPageInTimeRange() {
+
+		// Arrange: One record per hour from 00:00 to 05:00.
+		LocalDateTime start = LocalDateTime.of(2025, 3, 16, 0, 0);
+		for (int hour = 0; hour < 6; hour++) {
+			WaterReading reading = new WaterReading();
+			reading.setObjectId(3000 + hour);
+			reading.setTimestamp(start.plusHours(hour));
+			waterReadingRepository.save(reading);
+		}
+
+		// Act: Records from 01:00 (inclusive) to 04:00 (exclusive).
+		long from = WaterReading.toEpochMillis(start.plusHours(1));
+		long to = WaterReading.toEpochMillis(start.plusHours(4));
+		List<WaterReading> records = waterReadingRepository.findPage(from, to, Long.MIN_VALUE, "", PageRequest.of(0, 10));
+
+		// Assert
+		assertThat(records).extracting(WaterReading::getObjectId).containsExactly(3001, 3002, 3003);
+	}
+
+
+	/**
+	 * Tests that the field projection returns only the selected fields of the page, with the
+	 * id and the timestamp of the records for the next cursor.
+	 */
+	@Test
+	public void testFindPageFieldsSelectsOnlyFields() {
+
+		// Arrange
+		LocalDateTime start = LocalDateTime.of(2025, 3, 16, 0, 0);
+		for (int minute = 0; minute < 3; minute++) {
+			WaterReading reading = new WaterReading();
+			reading.setObjectId(3500 + minute);
+			reading.setPhph(7.0 + minute);
+			reading.setAlkmgl(90.0);
+			reading.setNo2nmgl(0.01);
+			reading.setTimestamp(start.plusMinutes(minute));
+			waterReadingRepository.save(reading);
+		}
+
+		// Act
+		List<ReadingProjection> records = waterReadingRepository.findPageFields(ReadingFields.parse("phph,no2nmgl"), null,
+				Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, "", 2);
+
+		// Assert
+		assertThat(records).hasSize(2);
+		assertThat(records.get(0).getId()).isNotNull();
+		assertThat(records.get(0).getTimestamp()).isEqualTo(start);
+		assertThat(records.get(0).getFields()).containsExactly(entry("phph", 7.0), entry("no2nmgl", 0.01));
+		assertThat(records.get(1).getFields()).containsEntry("phph", 8.0).doesNotContainKey("alkmgl");
+	}
+
+
+	/**
+	 * Tests that the breach mask is computed when a record is saved and that the breaching
+	 * queries return only the records which breach one of the selected thresholds.
+	 */
+	@Test
+	public void testFindBreachingPage() {
+
+		// Arrange: a safe record, a record with high nitrite, one with a low pH and one with high alkalinity.
+		LocalDateTime start = LocalDateTime.of(2025, 3, 16, 0, 0);
+		double[][] values = {{7.5, 0.01, 90}, {7.5, 1.0, 90}, {6.4, 0.01, 90}, {7.5, 0.01, 600}};
+		for (int i = 0; i < values.length; i++) {
+			WaterReading reading = new WaterReading();
+			reading.setObjectId(3700 + i);
+			reading.setPhph(values[i][0]);
+			reading.setNo2nmgl(values[i][1]);
+			reading.setAlkmgl(values[i][2]);
+			reading.setTimestamp(start.plusMinutes(i));
+			waterReadingRepository.save(reading);
+		}
+		List<Integer> masks = ThresholdBreach.masksMatching(ThresholdBreach.parse("nitrite,ph"));
+
+		// Act
+		List<WaterReading> records = waterReadingRepository.findBreachingPage(masks, Long.MIN_VALUE, Long.MAX_VALUE,
+				Long.MIN_VALUE, "", PageRequest.of(0, 10));
+		List<ReadingProjection> projections = waterReadingRepository.findPageFields(ReadingFields.parse("objectId"),
+				ThresholdBreach.masksMatching(ThresholdBreach.ALKALINITY.bit()), Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, "", 10);
+
+		// Assert
+		assertThat(records).extracting(WaterReading::getObjectId).containsExactly(3701, 3702);
+		assertThat(records).extracting(WaterReading::getBreachMask)
+			.containsExactly(ThresholdBreach.NITRITE.bit(), ThresholdBreach.PH.bit());
+		assertThat(projections).hasSize(1);
+		assertThat(projections.get(0).getFields()).containsEntry("objectId", 3703);
+	}
+
+
+	/**
+	 * Tests the hourly aggregation. Three readings in the first hour and one in the
+	 * second hour must give two buckets with the right count, min, max and mean.
+	 */
+	@Test
+	public void testAggregatePerHour() {
+
+		// Arrange: pH 7.0, 8.0 and 9.0 between 12:00 and 13:00, pH 6.0 at 13:10.
+		LocalDateTime start = LocalDateTime.of(2025, 3, 16, 12, 0);
+		double[] ph = {7.0, 8.0, 9.0, 6.0};
+		int[] minutes = {0, 20, 59, 70};
+		for (int i = 0; i < ph.length; i++) {
+			WaterReading reading = new WaterReading();
+			reading.setObjectId(4000 + i);
+			reading.setPhph(ph[i]);
+			reading.setTimestamp(start.plusMinutes(minutes[i]));
+			waterReadingRepository.save(reading);
+		}
+
+		// Act
+		List<AggregateBucket> buckets = waterReadingRepository.aggregate(3_600_000L, Long.MIN_VALUE, Long.MAX_VALUE);
+
+		// Assert
+		assertThat(buckets).hasSize(2);
+		AggregateBucket first = buckets.get(0);
+		assertThat(first.bucketStart()).isEqualTo(start);
+		assertThat(first.count()).isEqualTo(3);
+		assertThat(first.parameters().get("phph").min()).isEqualTo(7.0);
+		assertThat(first.parameters().get("phph").max()).isEqualTo(9.0);
+		assertThat(first.parameters().get("phph").mean()).isEqualTo(8.0);
+		assertThat(first.parameters().get("no2nmgl").count()).isZero();
+		assertThat(first.parameters().get("no2nmgl").mean()).isNull();
+		assertThat(buckets.get(1).bucketStart()).isEqualTo(start.plusHours(1));
+		assertThat(buckets.get(1).count()).isEqualTo(1);
+	}
+
+	/**
+	 * Tests the unique index on source file and object ID. A row of a file can only be
+	 * stored once, the same object ID from another file or without a file is allowed.
+	 */
+	@Test
+	public void testSourceFileAndObjectIdAreUnique() {
+
+		// Arrange
+		waterReadingRepository.saveAndFlush(reading(1115, "a.csv"));
+		waterReadingRepository.saveAndFlush(reading(1115, "b.csv"));
+		waterReadingRepository.saveAndFlush(reading(1116, "a.csv"));
+		waterReadingRepository.saveAndFlush(reading(1115, null));
+
+		// Act and Assert
+		assertThat(waterReadingRepository.findStoredObjectIds("a.csv", List.of(1115, 1116, 1117)))
+			.containsExactlyInAnyOrder(1115, 1116);
+		assertThatThrownBy(() -> waterReadingRepository.saveAndFlush(reading(1115, "a.csv")))
+			.isInstanceOf(DataIntegrityViolationException.class);
+	}
+
+	private static WaterReading reading(int objectId, String sourceFile) {
+		WaterReading reading = new WaterReading();
+		reading.setObjectId(objectId);
+		reading.setSourceFile(sourceFile);
+		reading.setTimestamp(LocalDateTime.now());
+		return reading;
+	}
 }
@@ -0,0 +1,106 @@
+package com.assessment.monitoringmicroservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.assessment.monitoringmicroservice.config.AnomalyProperties;
+import com.assessment.monitoringmicroservice.model.ReadingAnomaly;
+import com.assessment.monitoringmicroservice.model.WaterParameter;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.ReadingAnomalyRepository;
+import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AnomalyDetectionServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 16, 12, 0);
+
+    @Mock
+    private ReadingAnomalyRepository readingAnomalyRepository;
+
+    @Mock
+    private WaterReadingRepository waterReadingRepository;
+
+    private final AnomalyProperties anomalyProperties = new AnomalyProperties();
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        anomalyProperties.setWindow(20);
+        anomalyProperties.setMinSamples(10);
+        anomalyProperties.setThreshold(3.0);
+        when(readingAnomalyRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        anomalyDetectionService = new AnomalyDetectionService(readingAnomalyRepository, waterReadingRepository, anomalyProperties);
+    }
+
+    @Test
+    void testValueFarFromTheRollingMeanIsAnAnomaly() {
+        List<WaterReading> usual = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            usual.add(reading(i, i % 2 == 0 ? 7.0 : 7.2, 0.01));
+        }
+        assertTrue(anomalyDetectionService.apply(usual).isEmpty());
+
+        List<ReadingAnomaly> anomalies = anomalyDetectionService.apply(List.of(reading(30, 9.0, 0.01), reading(31, 7.1, null)));
+
+        assertEquals(1, anomalies.size());
+        assertEquals("phph", anomalies.get(0).getParameter());
+        assertEquals(30, anomalies.get(0).getObjectId());
+        assertEquals(7.1, anomalies.get(0).getMean(), 0.05);
+        assertTrue(anomalies.get(0).getZScore() > 3.0);
+        verify(readingAnomalyRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void testNoAnomaliesBeforeTheMinimumSamples() {
+        List<WaterReading> readings = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            readings.add(reading(i, 7.0 + i * 0.01, null));
+        }
+        readings.add(reading(5, 12.0, null));
+
+        assertTrue(anomalyDetectionService.apply(readings).isEmpty());
+        verify(readingAnomalyRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testStatisticsAreWarmedUpFromTheLastReadings() {
+        List<WaterReading> newestFirst = new ArrayList<>();
+        for (int i = 19; i >= 0; i--) {
+            newestFirst.add(reading(i, i % 2 == 0 ? 7.0 : 7.2, null));
+        }
+        when(waterReadingRepository.findByOrderByTimestampDesc(any(Pageable.class))).thenReturn(newestFirst);
+
+        anomalyDetectionService.init();
+
+        assertEquals(1, anomalyDetectionService.apply(List.of(reading(20, 5.0, null))).size());
+    }
+
+    @Test
+    void testGetAnomaliesValidatesTheRequest() {
+        assertThrows(IllegalArgumentException.class, () -> anomalyDetectionService.getAnomalies("ph", null, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> anomalyDetectionService.getAnomalies(null, START, START.minusDays(1), 10));
+
+        anomalyDetectionService.getAnomalies("no2nmgl", null, null, 5000);
+
+        verify(readingAnomalyRepository).findRecent(eq(Long.MIN_VALUE), eq(Long.MAX_VALUE), eq(WaterParameter.NO2NMGL),
+                argThat(page -> page.getPageSize() == WaterReadingService.MAX_PAGE_SIZE));
+    }
+
+    private static WaterReading reading(int objectId, Double phph, Double no2nmgl) {
+        WaterReading reading = new WaterReading();
+        reading.setObjectId(objectId);
+        reading.setPhph(phph);
+        reading.setNo2nmgl(no2nmgl);
+        reading.setTimestamp(START.plusMinutes(objectId));
+        return reading;
+    }
+}
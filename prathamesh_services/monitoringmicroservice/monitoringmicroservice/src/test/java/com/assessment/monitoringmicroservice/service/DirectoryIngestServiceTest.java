@@ -0,0 +1,128 @@
+package com.assessment.monitoringmicroservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.assessment.monitoringmicroservice.config.IngestProperties;
+import com.assessment.monitoringmicroservice.model.IngestCheckpoint;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.IngestCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class DirectoryIngestServiceTest {
+
+    private static final String HEADER = "objectId,ph,alk,cond,bod,no2,cu1,cu2,fe,zn\n";
+
+    @Mock
+    private WaterReadingBatchWriter batchWriter;
+
+    @Mock
+    private IngestCheckpointRepository ingestCheckpointRepository;
+
+    @Mock
+    private ReadingBroadcaster readingBroadcaster;
+
+    @TempDir
+    Path directory;
+
+    private final IngestProperties ingestProperties = new IngestProperties();
+    private final Map<String, Long> savedOffsets = new HashMap<>();
+    private final List<WaterReading> savedReadings = new ArrayList<>();
+    private DirectoryIngestService directoryIngestService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // The mocks keep the committed readings and offsets like the database would.
+        when(batchWriter.writeChunk(anyList(), any(IngestCheckpoint.class))).thenAnswer(invocation -> {
+            List<WaterReading> chunk = invocation.getArgument(0);
+            IngestCheckpoint checkpoint = invocation.getArgument(1);
+            savedReadings.addAll(chunk);
+            savedOffsets.put(checkpoint.getFilePath(), checkpoint.getByteOffset());
+            return chunk;
+        });
+        when(ingestCheckpointRepository.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(savedOffsets.get(invocation.<String>getArgument(0)))
+                        .map(offset -> new IngestCheckpoint(invocation.getArgument(0), offset)));
+
+        IngestMetrics ingestMetrics = new IngestMetrics(new SimpleMeterRegistry());
+        WaterReadingService waterReadingService = new WaterReadingService(null, ingestProperties, batchWriter, ingestCheckpointRepository,
+                readingBroadcaster, ingestMetrics);
+        directoryIngestService = new DirectoryIngestService(waterReadingService, ingestCheckpointRepository, ingestProperties, ingestMetrics);
+    }
+
+    @Test
+    void testTailReadsOnlyCompleteLines() throws Exception {
+        Path file = directory.resolve("sensor.csv");
+        Files.writeString(file, HEADER + "1,7.1,,,,,,,,\n2,7.2,,,,,,,,\n3,7.3");
+
+        int inserted = directoryIngestService.tail(file);
+
+        assertEquals(2, inserted);
+        assertEquals(List.of(1, 2), savedReadings.stream().map(WaterReading::getObjectId).toList());
+        assertEquals(Files.size(file) - "3,7.3".length(), savedOffsets.get(file.toAbsolutePath().normalize().toString()));
+    }
+
+    @Test
+    void testTailContinuesAfterSavedOffset() throws Exception {
+        Path file = directory.resolve("sensor.csv");
+        Files.writeString(file, HEADER + "1,7.1,,,,,,,,\n3,7.3");
+        directoryIngestService.tail(file);
+
+        Files.writeString(file, ",,,,,,,,\n4,7.4,,,,,,,,\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        int inserted = directoryIngestService.tail(file);
+
+        assertEquals(2, inserted);
+        assertEquals(List.of(1, 3, 4), savedReadings.stream().map(WaterReading::getObjectId).toList());
+        assertEquals(7.3, savedReadings.get(1).getPhph());
+        assertEquals(0, directoryIngestService.tail(file)); // nothing new, nothing parsed
+    }
+
+    @Test
+    void testTailWritesChunksWithOffsets() throws Exception {
+        ingestProperties.setBatchSize(2);
+        Path file = directory.resolve("sensor.csv");
+        Files.writeString(file, HEADER + "1,7.1\n2,7.2\nnot-a-number,7.0\n4,7.4\n");
+
+        int inserted = directoryIngestService.tail(file);
+
+        assertEquals(3, inserted);
+        verify(batchWriter, times(2)).writeChunk(anyList(), any(IngestCheckpoint.class));
+        assertEquals(Files.size(file), savedOffsets.get(file.toAbsolutePath().normalize().toString()));
+    }
+
+    @Test
+    void testFailedChunkDoesNotMoveOffset() throws Exception {
+        Path file = directory.resolve("sensor.csv");
+        Files.writeString(file, HEADER + "1,7.1\n");
+        doThrow(new RuntimeException("SQLITE_BUSY")).when(batchWriter).writeChunk(anyList(), any(IngestCheckpoint.class));
+
+        assertThrows(RuntimeException.class, () -> directoryIngestService.tail(file));
+        assertTrue(savedOffsets.isEmpty());
+    }
+
+    @Test
+    void testTailAllIgnoresOtherFiles() throws Exception {
+        Files.writeString(directory.resolve("a.csv"), HEADER + "1,7.1\n");
+        Files.writeString(directory.resolve("notes.txt"), HEADER + "2,7.2\n");
+
+        directoryIngestService.tailAll(directory);
+
+        assertEquals(1, savedReadings.size());
+    }
+}
@@ -0,0 +1,70 @@
+package com.assessment.monitoringmicroservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class IngestMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IngestMetrics ingestMetrics = new IngestMetrics(registry);
+
+    @Test
+    void testTimeParsingCountsRowsAndTimesEveryBatch() {
+        int[] written = {0};
+        MappedCsvParser.BatchSink sink = ingestMetrics.timeParsing((batch, endOffset) -> written[0] += batch.size());
+
+        sink.accept(List.of(new WaterReading(), new WaterReading()), 10);
+        sink.accept(List.of(new WaterReading()), 20);
+
+        assertEquals(3, written[0]);
+        assertEquals(3, registry.get("monitoring.ingest.rows.parsed").counter().count());
+        assertEquals(2, registry.get("monitoring.ingest.parse").timer().count());
+    }
+
+    @Test
+    void testTimeParsingRejectsSkippedLines() {
+        int[] skipped = {0};
+        MappedCsvParser.BatchSink sink = ingestMetrics.timeParsing(new MappedCsvParser.BatchSink() {
+            @Override
+            public void accept(List<WaterReading> batch, long endOffset) {
+            }
+
+            @Override
+            public void skipped(int lines) {
+                skipped[0] += lines;
+            }
+        });
+
+        sink.skipped(3);
+
+        assertEquals(3, skipped[0]);
+        assertEquals(3, registry.get("monitoring.ingest.rows.rejected").tag("reason", IngestMetrics.REASON_MISSING_OBJECT_ID).counter().count());
+    }
+
+    @Test
+    void testInsertedRowsAndTimeSinceLastInsert() {
+        assertTrue(Double.isNaN(registry.get("monitoring.ingest.last.insert.age").timeGauge().value(TimeUnit.SECONDS)));
+
+        ingestMetrics.inserted(5, TimeUnit.MILLISECONDS.toNanos(3));
+
+        assertEquals(5, registry.get("monitoring.ingest.rows.inserted").counter().count());
+        assertEquals(1, registry.get("monitoring.ingest.insert").timer().count());
+        assertTrue(registry.get("monitoring.ingest.last.insert.age").timeGauge().value(TimeUnit.SECONDS) < 60);
+    }
+
+    @Test
+    void testRejectedRowsAreCountedByReason() {
+        ingestMetrics.rejected(IngestMetrics.REASON_DUPLICATE, 4);
+        ingestMetrics.rejected(IngestMetrics.REASON_MISSING_OBJECT_ID, 1);
+        ingestMetrics.rejected(IngestMetrics.REASON_WRITE_FAILED, 0);
+
+        assertEquals(4, registry.get("monitoring.ingest.rows.rejected").tag("reason", IngestMetrics.REASON_DUPLICATE).counter().count());
+        assertEquals(1, registry.get("monitoring.ingest.rows.rejected").tag("reason", IngestMetrics.REASON_MISSING_OBJECT_ID).counter().count());
+        assertNull(registry.find("monitoring.ingest.rows.rejected").tag("reason", IngestMetrics.REASON_WRITE_FAILED).counter());
+    }
+}
@@ -0,0 +1,90 @@
+package com.assessment.monitoringmicroservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.assessment.monitoringmicroservice.model.WaterParameter;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedCsvParserTest {
+
+    private static final String HEADER = "objectId,ph,alk,cond,bod,no2,cu1,cu2,fe,zn\n";
+
+    @TempDir
+    Path directory;
+
+    private final List<WaterReading> parsed = new ArrayList<>();
+    private final List<Long> offsets = new ArrayList<>();
+
+    private final MappedCsvParser.BatchSink sink = (batch, endOffset) -> {
+        parsed.addAll(batch);
+        offsets.add(endOffset);
+    };
+
+    @Test
+    void testParsesSameValuesAsParseRow() throws Exception {
+        String[] rows = {
+            "1115,7.7,95,300.5,275.0,0.011,0.0012,1.49,458.88,5",
+            " 1116 , -0.5 ,,1e3,0.1,0.123456789012345,9007199254740993,.5,7.,NaN",
+            "1117,7.8"
+        };
+        Path file = directory.resolve("readings.csv");
+        Files.writeString(file, HEADER + String.join("\r\n", rows));
+
+        long count = new MappedCsvParser(500).parseAll(file, sink);
+
+        assertEquals(3, count);
+        WaterReadingService waterReadingService = new WaterReadingService(null, null, null, null, null, null);
+        for (int i = 0; i < rows.length; i++) {
+            WaterReading expected = waterReadingService.parseRow(rows[i]);
+            assertEquals(expected.getObjectId(), parsed.get(i).getObjectId());
+            for (WaterParameter parameter : WaterParameter.values()) {
+                assertEquals(parameter.get(expected), parameter.get(parsed.get(i)), rows[i] + " " + parameter.field());
+            }
+        }
+    }
+
+    @Test
+    void testSkipsRowsWithoutObjectId() throws Exception {
+        Path file = directory.resolve("readings.csv");
+        Files.writeString(file, HEADER + "abc,7.1\n,7.2\n\n2147483648,7.3\r\n\r\n4,x\n");
+        int[] skipped = {0};
+
+        new MappedCsvParser(500).parseAll(file, new MappedCsvParser.BatchSink() {
+            @Override
+            public void accept(List<WaterReading> batch, long endOffset) {
+                sink.accept(batch, endOffset);
+            }
+
+            @Override
+            public void skipped(int lines) {
+                skipped[0] += lines;
+            }
+        });
+
+        assertEquals(3, skipped[0]); // the empty lines are not counted
+        assertEquals(1, parsed.size());
+        assertEquals(4, parsed.get(0).getObjectId());
+        assertNull(parsed.get(0).getPhph());
+    }
+
+    @Test
+    void testBatchesCarryLineOffsets() throws Exception {
+        Path file = directory.resolve("readings.csv");
+        Files.writeString(file, HEADER + "1,7.1\n2,7.2\n3,7.3\n4,7.4");
+
+        new MappedCsvParser(2).parseAppended(file, 0, sink);
+
+        assertEquals(3, parsed.size()); // the last line is not terminated yet
+        assertEquals(List.of((long) HEADER.length() + 12, (long) HEADER.length() + 18), offsets);
+
+        parsed.clear();
+        new MappedCsvParser(2).parseAppended(file, offsets.get(1), sink);
+        assertTrue(parsed.isEmpty());
+    }
+}
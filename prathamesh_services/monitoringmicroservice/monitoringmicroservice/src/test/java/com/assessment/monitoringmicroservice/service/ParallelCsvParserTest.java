@@ -0,0 +1,76 @@
+package com.assessment.monitoringmicroservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ParallelCsvParserTest {
+
+    private static final int ROWS = 200_000; // about 6 MB, split into several ranges
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testParsesEveryRowOnceWithOneWriterThread() throws Exception {
+        Path file = writeFile(ROWS);
+        Set<Integer> objectIds = new HashSet<>();
+        Set<Thread> writerThreads = ConcurrentHashMap.newKeySet();
+
+        long parsed = new ParallelCsvParser(4, 500, 2).parse(file, batch -> {
+            writerThreads.add(Thread.currentThread());
+            batch.forEach(reading -> assertTrue(objectIds.add(reading.getObjectId())));
+        });
+
+        assertEquals(ROWS, parsed);
+        assertEquals(ROWS, objectIds.size());
+        assertEquals(1, writerThreads.size());
+    }
+
+    @Test
+    void testParsesSameRowsAsSingleThread() throws Exception {
+        Path file = writeFile(ROWS);
+        long[] sums = new long[2];
+
+        new MappedCsvParser(500).parseAll(file, (batch, endOffset) -> sums[0] += sumOfIds(batch));
+        new ParallelCsvParser(3, 700, 4).parse(file, batch -> sums[1] += sumOfIds(batch));
+
+        assertEquals(sums[0], sums[1]);
+    }
+
+    @Test
+    void testWriterErrorIsThrown() throws Exception {
+        Path file = writeFile(ROWS);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () ->
+                new ParallelCsvParser(2, 500, 1).parse(file, batch -> {
+                    throw new RuntimeException("SQLITE_BUSY");
+                }));
+        assertEquals("SQLITE_BUSY", error.getMessage());
+    }
+
+    private static long sumOfIds(List<WaterReading> batch) {
+        return batch.stream().mapToLong(WaterReading::getObjectId).sum();
+    }
+
+    private Path writeFile(int rows) throws Exception {
+        Path file = directory.resolve("readings.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("objectId,ph,alk,cond,bod,no2,cu1,cu2,fe,zn\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write(i + ",7.5,95.0,300.5,2.75,0.011,0.0012,1.49,458.88,5.0\n");
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,271 @@
+package com.assessment.monitoringmicroservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.assessment.monitoringmicroservice.config.StreamProperties;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReadingBroadcasterTest {
+
+    private final StreamProperties streamProperties = new StreamProperties();
+    private ReadingBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        streamProperties.setBufferSize(2);
+        start();
+    }
+
+    private void start() {
+        broadcaster = new ReadingBroadcaster(streamProperties, new ObjectMapper().registerModule(new JavaTimeModule()));
+        broadcaster.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.stop();
+    }
+
+    @Test
+    void testEveryReadingIsSentInOrder() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        broadcaster.register(emitter, ReadingBroadcaster.OverflowPolicy.DROP_OLDEST);
+
+        broadcaster.publish(List.of(reading(1)));
+        broadcaster.publish(List.of(reading(2)));
+
+        assertTrue(emitter.awaitEvents(2));
+        assertTrue(emitter.events.get(0).contains("\"objectId\":1"));
+        assertTrue(emitter.events.get(1).contains("\"objectId\":2"));
+        assertTrue(emitter.events.get(0).contains("event:reading"));
+    }
+
+    @Test
+    void testSlowSubscriberDropsOldestWithoutBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        broadcaster.register(slow, ReadingBroadcaster.OverflowPolicy.DROP_OLDEST);
+
+        broadcaster.publish(List.of(reading(1)));
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS)); // reading 1 is being sent and blocks
+        for (int objectId = 2; objectId <= 5; objectId++) {
+            broadcaster.publish(List.of(reading(objectId))); // returns although the buffer is full
+        }
+        release.countDown();
+
+        assertTrue(slow.awaitEvents(3));
+        assertTrue(slow.events.get(1).contains("\"objectId\":4"));
+        assertTrue(slow.events.get(2).contains("\"objectId\":5"));
+        assertEquals(2, broadcaster.getDroppedCount());
+    }
+
+    @Test
+    void testDisconnectPolicyClosesSlowSubscriber() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        broadcaster.register(slow, ReadingBroadcaster.OverflowPolicy.DISCONNECT);
+
+        broadcaster.publish(List.of(reading(1)));
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        broadcaster.publish(List.of(reading(2), reading(3), reading(4)));
+        release.countDown();
+
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void testDisconnectDoesNotWaitForTheSendInProgress() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        LockingEmitter slow = new LockingEmitter(release);
+        broadcaster.register(slow, ReadingBroadcaster.OverflowPolicy.DISCONNECT);
+
+        broadcaster.publish(List.of(reading(1)));
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS)); // the send holds the lock of the emitter
+        ExecutorService ingest = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> publish = ingest.submit(() -> broadcaster.publish(List.of(reading(2), reading(3), reading(4))));
+
+            // The publishing thread returns while the send is still in progress
+            publish.get(1, TimeUnit.SECONDS);
+            assertEquals(0, broadcaster.getSubscriberCount());
+            assertEquals(1, slow.completed.getCount());
+        } finally {
+            release.countDown();
+            ingest.shutdownNow();
+        }
+
+        // The sender thread completes the stream once its write returned
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testDisconnectedStalledSendIsInterrupted() throws Exception {
+        broadcaster.stop();
+        streamProperties.setSendTimeout(Duration.ofMillis(100));
+        start();
+        LockingEmitter stalled = new LockingEmitter(new CountDownLatch(1)); // never released
+        broadcaster.register(stalled, ReadingBroadcaster.OverflowPolicy.DISCONNECT);
+
+        broadcaster.publish(List.of(reading(1)));
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+        broadcaster.publish(List.of(reading(2), reading(3), reading(4)));
+
+        assertTrue(stalled.completed.await(2, TimeUnit.SECONDS));
+        assertEquals(1, broadcaster.getStalledCount());
+    }
+
+    @Test
+    void testTooManySubscribersAreRefused() {
+        streamProperties.setMaxSubscribers(1);
+        broadcaster.register(new RecordingEmitter(null), ReadingBroadcaster.OverflowPolicy.DROP_NEWEST);
+
+        assertThrows(IllegalStateException.class, () -> broadcaster.subscribe(ReadingBroadcaster.OverflowPolicy.DROP_NEWEST));
+        assertThrows(IllegalArgumentException.class, () -> ReadingBroadcaster.OverflowPolicy.parse("block"));
+        assertEquals(ReadingBroadcaster.OverflowPolicy.DROP_NEWEST, ReadingBroadcaster.OverflowPolicy.parse("drop-newest"));
+    }
+
+    @Test
+    void testConcurrentSubscribersDoNotExceedTheLimit() throws Exception {
+        streamProperties.setMaxSubscribers(10);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger refused = new AtomicInteger();
+        List<Callable<Void>> clients = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            clients.add(() -> {
+                start.await();
+                try {
+                    broadcaster.register(new RecordingEmitter(null), ReadingBroadcaster.OverflowPolicy.DROP_NEWEST);
+                } catch (IllegalStateException e) {
+                    refused.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> connects = new ArrayList<>();
+            clients.forEach(client -> connects.add(executor.submit(client)));
+            start.countDown();
+            for (Future<Void> connect : connects) {
+                connect.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(10, broadcaster.getSubscriberCount());
+        assertEquals(90, refused.get());
+    }
+
+    @Test
+    void testStalledSubscriberIsClosedWithoutBlockingOthers() throws Exception {
+        broadcaster.stop();
+        streamProperties.setSenderThreads(1);
+        streamProperties.setSendTimeout(Duration.ofMillis(100));
+        start();
+        RecordingEmitter stalled = new RecordingEmitter(new CountDownLatch(1)); // never released
+        RecordingEmitter other = new RecordingEmitter(null);
+        broadcaster.register(stalled, ReadingBroadcaster.OverflowPolicy.DROP_OLDEST);
+
+        broadcaster.publish(List.of(reading(1)));
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS)); // the only sender thread is blocked
+        broadcaster.register(other, ReadingBroadcaster.OverflowPolicy.DROP_OLDEST);
+        broadcaster.publish(List.of(reading(2)));
+
+        assertTrue(other.awaitEvents(1));
+        assertTrue(other.events.get(0).contains("\"objectId\":2"));
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertEquals(1, broadcaster.getStalledCount());
+    }
+
+    private static WaterReading reading(int objectId) {
+        WaterReading reading = new WaterReading();
+        reading.setObjectId(objectId);
+        reading.setTimestamp(LocalDateTime.parse("2025-03-16T12:30:00").plusSeconds(objectId));
+        return reading;
+    }
+
+    /**
+     * Keeps the sent events as text, the first send waits for the release latch if there is one.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            events.add(text.toString());
+        }
+
+        boolean awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return events.size() >= count;
+        }
+    }
+
+    /**
+     * Holds a lock while it sends and while it completes, like the emitter of a real response,
+     * so completing it waits for the send in progress.
+     */
+    private static class LockingEmitter extends RecordingEmitter {
+
+        private final Object lock = new Object();
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        LockingEmitter(CountDownLatch release) {
+            super(release);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            synchronized (lock) {
+                super.send(builder);
+            }
+        }
+
+        @Override
+        public void complete() {
+            synchronized (lock) {
+                super.complete();
+                completed.countDown();
+            }
+        }
+    }
+}
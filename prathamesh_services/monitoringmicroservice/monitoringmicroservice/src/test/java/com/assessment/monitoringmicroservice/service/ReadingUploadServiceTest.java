@@ -0,0 +1,157 @@
+package com.assessment.monitoringmicroservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.assessment.monitoringmicroservice.config.IngestProperties;
+import com.assessment.monitoringmicroservice.model.UploadReport;
+import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+public class ReadingUploadServiceTest {
+
+    @Mock
+    private WaterReadingBatchWriter batchWriter;
+
+    @Mock
+    private WaterReadingService waterReadingService;
+
+    @Spy
+    private IngestProperties ingestProperties = new IngestProperties();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Spy
+    private IngestMetrics ingestMetrics = new IngestMetrics(registry);
+
+    @InjectMocks
+    private ReadingUploadService readingUploadService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ingestProperties.setBatchSize(2);
+        when(batchWriter.trySubmitChunk(anyList()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new ArrayList<>(invocation.<List<WaterReading>>getArgument(0))));
+    }
+
+    @Test
+    void testCsvRowsAreWrittenInBatchesAndInvalidRowsReported() throws Exception {
+        String body = "OBJECTID,PHpH,ALK_MGL,COND_USCM,BOD_MGL,NO2_N_MGL,CUSOL1_MGL,CUSOL2_UGL,FESOL1_UGL,ZN_SOL_UGL\n"
+                + "1115,7.7,95,275,2.4,0.011,0.0022,0.76,146.51,5\n"
+                + "1147,abc,68,225,2,0.005,0.0011,1.36,720.25,5\n"
+                + "1148,7.5,,225,2,0.005,0.0011,1.36,720.25,5\n"
+                + "\n"
+                + "1149,7.1,70,230,2,0.004,0.0011,1.2,700,5,2025-03-16T12:30:00\n";
+
+        UploadReport report = readingUploadService.upload(stream(body), ReadingUploadService.Format.CSV, null);
+
+        assertEquals(6, report.lines());
+        assertEquals(3, report.inserted());
+        assertEquals(List.of(new UploadReport.BatchAck(1, 2, 4, 2), new UploadReport.BatchAck(2, 6, 6, 1)), report.batches());
+        assertEquals(1, report.errorCount());
+        assertEquals(3, report.errors().get(0).line());
+        assertEquals("Invalid value for phph: abc", report.errors().get(0).message());
+        assertNull(report.resumeAtLine());
+        assertNull(report.failedBatch());
+        assertEquals(3, registry.get("monitoring.ingest.rows.parsed").counter().count());
+        assertEquals(1, registry.get("monitoring.ingest.rows.rejected").tag("reason", IngestMetrics.REASON_INVALID_ROW).counter().count());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WaterReading>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter, times(2)).trySubmitChunk(captor.capture());
+        WaterReading last = captor.getAllValues().get(1).get(0);
+        assertEquals(LocalDateTime.parse("2025-03-16T12:30:00"), last.getTimestamp());
+        assertNull(captor.getAllValues().get(0).get(1).getAlkmgl());
+        verify(waterReadingService, times(2)).publish(anyList());
+    }
+
+    @Test
+    void testNdjsonRowsAreStoredWithTheSource() throws Exception {
+        String body = "{\"objectId\":1115,\"phph\":7.7,\"no2nmgl\":0.011}\n"
+                + "{\"phph\":7.7}\n"
+                + "[1,2]\n";
+
+        UploadReport report = readingUploadService.upload(stream(body), ReadingUploadService.Format.NDJSON, "station-7");
+
+        assertEquals(1, report.inserted());
+        assertEquals(2, report.errorCount());
+        assertEquals("objectId is required", report.errors().get(0).message());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WaterReading>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter).trySubmitChunk(captor.capture());
+        WaterReading reading = captor.getValue().get(0);
+        assertEquals(1115, reading.getObjectId());
+        assertEquals(0.011, reading.getNo2nmgl());
+        assertEquals("upload:station-7", reading.getSourceFile());
+        assertNotNull(reading.getTimestamp());
+    }
+
+    @Test
+    void testUploadStopsWhenTheWriteQueueIsFull() throws Exception {
+        when(batchWriter.trySubmitChunk(anyList()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new ArrayList<>(invocation.<List<WaterReading>>getArgument(0))))
+                .thenThrow(new RejectedExecutionException("The write queue is full"));
+        String body = "1,7,1,1,1,1,1,1,1,1\n2,7,1,1,1,1,1,1,1,1\n3,7,1,1,1,1,1,1,1,1\n4,7,1,1,1,1,1,1,1,1\n5,7,1,1,1,1,1,1,1,1\n";
+
+        UploadReport report = readingUploadService.upload(stream(body), ReadingUploadService.Format.CSV, null);
+
+        assertEquals(3L, report.resumeAtLine());
+        assertEquals(2, report.inserted());
+        assertEquals(1, report.batches().size());
+        assertEquals(2, registry.get("monitoring.ingest.rows.rejected").tag("reason", IngestMetrics.REASON_QUEUE_FULL).counter().count());
+        verify(batchWriter, times(2)).trySubmitChunk(anyList());
+    }
+
+    @Test
+    void testUploadReportsCommittedBatchesWhenAWriteFails() throws Exception {
+        FutureTask<List<WaterReading>> queued = new FutureTask<>(List::of); // never run by the writer
+        when(batchWriter.trySubmitChunk(anyList()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new ArrayList<>(invocation.<List<WaterReading>>getArgument(0))))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("SQLITE_BUSY")))
+                .thenReturn(queued);
+        String body = "1,7,1,1,1,1,1,1,1,1\n2,7,1,1,1,1,1,1,1,1\n3,7,1,1,1,1,1,1,1,1\n4,7,1,1,1,1,1,1,1,1\n"
+                + "5,7,1,1,1,1,1,1,1,1\n6,7,1,1,1,1,1,1,1,1\n7,7,1,1,1,1,1,1,1,1\n";
+
+        UploadReport report = readingUploadService.upload(stream(body), ReadingUploadService.Format.CSV, null);
+
+        assertEquals(List.of(new UploadReport.BatchAck(1, 1, 2, 2)), report.batches());
+        assertEquals(2, report.inserted());
+        assertEquals(new UploadReport.BatchFailure(3, 4, "SQLITE_BUSY"), report.failedBatch());
+        assertEquals(3L, report.resumeAtLine());
+        assertTrue(queued.isCancelled()); // the batch after the failed one is not written
+        verify(batchWriter, times(3)).trySubmitChunk(anyList());
+        verify(waterReadingService, times(1)).publish(anyList());
+    }
+
+    @Test
+    void testFormatOfContentType() {
+        assertEquals(ReadingUploadService.Format.CSV, ReadingUploadService.Format.of("text/csv;charset=UTF-8"));
+        assertEquals(ReadingUploadService.Format.NDJSON, ReadingUploadService.Format.of("application/x-ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> ReadingUploadService.Format.of("application/xml"));
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,96 @@
+package com.assessment.monitoringmicroservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.assessment.monitoringmicroservice.model.RollupGranularity;
+import com.assessment.monitoringmicroservice.repository.ReadingRollupRepository;
+import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class WaterReadingAggregationServiceTest {
+
+    @Mock
+    private WaterReadingRepository waterReadingRepository;
+
+    @Mock
+    private ReadingRollupRepository readingRollupRepository;
+
+    @InjectMocks
+    private WaterReadingAggregationService waterReadingAggregationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testParseBucket() {
+        assertEquals(Duration.ofMinutes(15), WaterReadingAggregationService.parseBucket("15m"));
+        assertEquals(Duration.ofHours(1), WaterReadingAggregationService.parseBucket("1h"));
+        assertEquals(Duration.ofDays(1), WaterReadingAggregationService.parseBucket("1d"));
+    }
+
+    @Test
+    void testParseInvalidBucket() {
+        assertThrows(IllegalArgumentException.class, () -> WaterReadingAggregationService.parseBucket("1y"));
+        assertThrows(IllegalArgumentException.class, () -> WaterReadingAggregationService.parseBucket("0m"));
+        assertThrows(IllegalArgumentException.class, () -> WaterReadingAggregationService.parseBucket(null));
+    }
+
+    @Test
+    void testParseTooLargeBucket() {
+        assertEquals(Duration.ofDays(366), WaterReadingAggregationService.parseBucket("366d"));
+        assertEquals(Duration.ofDays(366), WaterReadingAggregationService.parseBucket("0527040m"));
+        assertThrows(IllegalArgumentException.class, () -> WaterReadingAggregationService.parseBucket("367d"));
+        assertThrows(IllegalArgumentException.class, () -> WaterReadingAggregationService.parseBucket("106751991167301d"));
+        assertThrows(IllegalArgumentException.class, () -> WaterReadingAggregationService.parseBucket("99999999999999999999999m"));
+    }
+
+    @Test
+    void testGetAggregatesReadsRollupsForAlignedRange() {
+        LocalDateTime from = LocalDateTime.parse("2025-03-16T00:00:00");
+        LocalDateTime to = LocalDateTime.parse("2025-03-17T00:00:00");
+
+        waterReadingAggregationService.getAggregates("1h", from, to);
+        waterReadingAggregationService.getAggregates("2d", null, null);
+        waterReadingAggregationService.getAggregates("90m", null, null);
+
+        verify(readingRollupRepository).aggregate(RollupGranularity.HOUR, 3_600_000L, 1_742_083_200_000L, 1_742_169_600_000L);
+        verify(readingRollupRepository).aggregate(RollupGranularity.DAY, 172_800_000L, Long.MIN_VALUE, Long.MAX_VALUE);
+        verify(readingRollupRepository).aggregate(RollupGranularity.MINUTE, 5_400_000L, Long.MIN_VALUE, Long.MAX_VALUE);
+        verifyNoInteractions(waterReadingRepository);
+    }
+
+    @Test
+    void testGetAggregatesReadsRawReadingsForUnalignedRange() {
+        LocalDateTime from = LocalDateTime.parse("2025-03-16T00:00:30");
+        LocalDateTime to = LocalDateTime.parse("2025-03-17T00:00:00");
+
+        waterReadingAggregationService.getAggregates("1h", from, to);
+
+        verify(waterReadingRepository).aggregate(3_600_000L, 1_742_083_230_000L, 1_742_169_600_000L);
+        verifyNoInteractions(readingRollupRepository);
+    }
+
+    @Test
+    void testGetAggregatesRejectsReversedRange() {
+        assertThrows(IllegalArgumentException.class, () -> waterReadingAggregationService.getAggregates("1h",
+                LocalDateTime.parse("2025-03-17T00:00:00"), LocalDateTime.parse("2025-03-16T00:00:00")));
+    }
+
+    @Test
+    void testGetAggregatesRejectsBucketLongerThanRange() {
+        assertThrows(IllegalArgumentException.class, () -> waterReadingAggregationService.getAggregates("2d",
+                LocalDateTime.parse("2025-03-16T00:00:00"), LocalDateTime.parse("2025-03-17T00:00:00")));
+        assertThrows(IllegalArgumentException.class, () -> waterReadingAggregationService.getAggregates("1h",
+                LocalDateTime.MIN, LocalDateTime.parse("2025-03-17T00:00:00")));
+        verifyNoInteractions(waterReadingRepository, readingRollupRepository);
+    }
+}
@@ -3,23 +3,61 @@ package com.assessment.monitoringmicroservice.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.assessment.monitoringmicroservice.config.IngestProperties;
+import com.assessment.monitoringmicroservice.model.IngestCheckpoint;
+import com.assessment.monitoringmicroservice.model.ReadingFields;
+import com.assessment.monitoringmicroservice.model.ReadingProjection;
+import com.assessment.monitoringmicroservice.model.RecordPage;
+import com.assessment.monitoringmicroservice.model.RecordQuery;
+import com.assessment.monitoringmicroservice.model.WaterParameter;
 import com.assessment.monitoringmicroservice.model.WaterReading;
+import com.assessment.monitoringmicroservice.repository.IngestCheckpointRepository;
 import com.assessment.monitoringmicroservice.repository.WaterReadingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.io.ClassPathResource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public class WaterReadingServiceTest {
 
     @Mock
     private WaterReadingRepository waterReadingRepository;
 
+    @Mock
+    private WaterReadingBatchWriter batchWriter;
+
+    @Mock
+    private IngestCheckpointRepository ingestCheckpointRepository;
+
+    @Mock
+    private ReadingBroadcaster readingBroadcaster;
+
+    @TempDir
+    Path directory;
+
+    @Spy
+    private IngestProperties ingestProperties = new IngestProperties();
+
+    @Spy
+    private IngestMetrics ingestMetrics = new IngestMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private WaterReadingService waterReadingService;
 
@@ -102,4 +140,291 @@ public class WaterReadingServiceTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void testBulkInsertWritesChunks() {
+        ingestProperties.setBatchSize(2);
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<WaterReading> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            WaterReading reading = new WaterReading();
+            reading.setObjectId(1000 + i);
+            records.add(reading);
+        }
+        records.add(new WaterReading()); // invalid record without objectId
+
+        int inserted = waterReadingService.bulkInsertRecords(records);
+
+        assertEquals(5, inserted);
+        verify(batchWriter, times(3)).writeChunk(anyList());
+        verify(waterReadingRepository, never()).saveAndFlush(any());
+        assertNotNull(records.get(0).getTimestamp());
+    }
+
+    @Test
+    void testBulkInsertContinuesAfterFailedChunk() {
+        ingestProperties.setBatchSize(2);
+        when(batchWriter.writeChunk(anyList()))
+                .thenThrow(new RuntimeException("SQLITE_BUSY"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<WaterReading> records = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            WaterReading reading = new WaterReading();
+            reading.setObjectId(2000 + i);
+            records.add(reading);
+        }
+
+        int inserted = waterReadingService.bulkInsertRecords(records);
+
+        assertEquals(2, inserted);
+        verify(batchWriter, times(2)).writeChunk(anyList());
+    }
+
+    @Test
+    void testInsertRecordsUsesConfiguredMode() {
+        WaterReading reading = new WaterReading();
+        reading.setObjectId(1115);
+
+        ingestProperties.setMode(IngestProperties.Mode.BULK);
+        ingestProperties.setBatchSize(10);
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        waterReadingService.insertRecords(List.of(reading, reading));
+        verify(batchWriter, times(1)).writeChunk(anyList());
+
+        ingestProperties.setMode(IngestProperties.Mode.SIMULATION);
+        ingestProperties.setSimulationDelay(Duration.ZERO);
+        waterReadingService.insertRecords(List.of(reading, reading));
+        verify(batchWriter, times(2)).writeChunk(List.of(reading)); // one transaction per record
+        verify(waterReadingRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testGetLatestReadingServedFromSnapshot() {
+        WaterReading waterReading = new WaterReading();
+        waterReading.setObjectId(1556);
+        waterReading.setTimestamp(LocalDateTime.now());
+        when(waterReadingRepository.findTopByOrderByTimestampDesc()).thenReturn(waterReading);
+
+        waterReadingService.getLatestRecord();
+        WaterReading result = waterReadingService.getLatestRecord();
+
+        assertEquals(1556, result.getObjectId());
+        verify(waterReadingRepository, times(1)).findTopByOrderByTimestampDesc();
+    }
+
+    @Test
+    void testInsertPublishesLatestReading() {
+        ingestProperties.setSimulationDelay(Duration.ZERO);
+        when(waterReadingRepository.findTopByOrderByTimestampDesc()).thenReturn(null);
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        assertNull(waterReadingService.getLatestRecord());
+
+        WaterReading reading = new WaterReading();
+        reading.setObjectId(1147);
+        waterReadingService.simulateInsertRecords(List.of(reading));
+
+        WaterReading result = waterReadingService.getLatestRecord();
+        assertNotNull(result);
+        assertEquals(1147, result.getObjectId());
+        verify(waterReadingRepository, times(1)).findTopByOrderByTimestampDesc();
+    }
+
+    @Test
+    void testOlderReadingDoesNotReplaceSnapshot() {
+        WaterReading latest = new WaterReading();
+        latest.setObjectId(1556);
+        latest.setTimestamp(LocalDateTime.now().plusDays(1));
+        when(waterReadingRepository.findTopByOrderByTimestampDesc()).thenReturn(latest);
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        waterReadingService.refreshLatestRecord();
+
+        WaterReading older = new WaterReading();
+        older.setObjectId(1115);
+        waterReadingService.bulkInsertRecords(List.of(older));
+
+        assertEquals(1556, waterReadingService.getLatestRecord().getObjectId());
+    }
+
+    @Test
+    void testRecordsETagChangesOnlyWhenRecordsAreSaved() {
+        String before = waterReadingService.getRecordsETag();
+        when(batchWriter.writeChunk(anyList())).thenReturn(List.of());
+        WaterReading duplicate = new WaterReading();
+        duplicate.setObjectId(1115);
+        waterReadingService.bulkInsertRecords(List.of(duplicate));
+        assertEquals(before, waterReadingService.getRecordsETag());
+
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        waterReadingService.bulkInsertRecords(List.of(duplicate));
+        assertNotEquals(before, waterReadingService.getRecordsETag());
+        assertEquals("\"" + duplicate.getId() + "-" + duplicate.getTimestampMillis() + "\"",
+                WaterReadingService.eTagOf(waterReadingService.getLatestRecord()));
+    }
+
+    @Test
+    void testSavedRecordsArePushedToStreams() {
+        WaterReading reading = new WaterReading();
+        reading.setObjectId(1115);
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        waterReadingService.bulkInsertRecords(List.of(reading));
+
+        verify(readingBroadcaster).publish(List.of(reading));
+    }
+
+    @Test
+    void testGetRecordsPageUsesCursorAndRange() {
+        LocalDateTime from = LocalDateTime.parse("2025-03-16T00:00:00");
+        LocalDateTime to = LocalDateTime.parse("2025-03-17T00:00:00");
+        LocalDateTime cursorTime = LocalDateTime.parse("2025-03-16T12:30:00");
+        WaterReading reading = new WaterReading();
+        reading.setObjectId(1115);
+        reading.setTimestamp(cursorTime.plusMinutes(1));
+        when(waterReadingRepository.findPage(anyLong(), anyLong(), anyLong(), anyString(), any())).thenReturn(List.of(reading));
+
+        RecordPage<WaterReading> page = waterReadingService.getRecordsPage(
+                new RecordQuery("2025-03-16T12:30:00,3ebb9a40-b706-4792-aefb-48fa9ec4fa40", from, to, 1));
+
+        long cursorMillis = WaterReading.toEpochMillis(cursorTime);
+        verify(waterReadingRepository).findPage(eq(cursorMillis), eq(WaterReading.toEpochMillis(to)),
+                eq(cursorMillis), eq("3ebb9a40-b706-4792-aefb-48fa9ec4fa40"), any());
+        assertEquals(1, page.records().size());
+        assertNotNull(page.next()); // a full page has a next cursor
+    }
+
+    @Test
+    void testGetRecordsPageRejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> waterReadingService.getRecordsPage(new RecordQuery("not-a-cursor", null, null, 10)));
+        assertThrows(IllegalArgumentException.class,
+                () -> waterReadingService.getRecordsPage(new RecordQuery(null,
+                        LocalDateTime.parse("2025-03-17T00:00:00"), LocalDateTime.parse("2025-03-16T00:00:00"), 10)));
+    }
+
+    @Test
+    void testCheckRecordsQueryReadsNoRecords() {
+        waterReadingService.checkRecordsQuery(new RecordQuery(null, null, null, 10, "nitrite"), "phph");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> waterReadingService.checkRecordsQuery(new RecordQuery("not-a-cursor", null, null, 10), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> waterReadingService.checkRecordsQuery(new RecordQuery(null, null, null, 10, "lead"), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> waterReadingService.checkRecordsQuery(RecordQuery.firstPage(10), "sourceFile"));
+        verifyNoInteractions(waterReadingRepository);
+    }
+
+    @Test
+    void testGetRecordsPageWithFields() {
+        LocalDateTime timestamp = LocalDateTime.parse("2025-03-16T12:31:00");
+        ReadingProjection projection = new ReadingProjection("72399005-00e4-4f72-b8d5-e5b2aebb3cb1", timestamp, Map.of("phph", 7.1));
+        when(waterReadingRepository.findPageFields(any(), any(), anyLong(), anyLong(), anyLong(), anyString(), anyInt()))
+                .thenReturn(List.of(projection));
+
+        RecordPage<ReadingProjection> page = waterReadingService.getRecordsPage(RecordQuery.firstPage(1), "phph,NO2NMGL");
+
+        verify(waterReadingRepository).findPageFields(eq(new ReadingFields(false, EnumSet.of(WaterParameter.PHPH, WaterParameter.NO2NMGL))),
+                isNull(), eq(Long.MIN_VALUE), eq(Long.MAX_VALUE), eq(Long.MIN_VALUE), eq(""), eq(1));
+        assertEquals("2025-03-16T12:31:00,72399005-00e4-4f72-b8d5-e5b2aebb3cb1", page.next());
+        assertThrows(IllegalArgumentException.class,
+                () -> waterReadingService.getRecordsPage(RecordQuery.firstPage(10), "phph,sourceFile"));
+    }
+
+    @Test
+    void testGetRecordsPageBreaching() {
+        when(waterReadingRepository.findBreachingPage(anyList(), anyLong(), anyLong(), anyLong(), anyString(), any())).thenReturn(List.of());
+
+        waterReadingService.getRecordsPage(new RecordQuery(null, null, null, 10, "nitrite, PH"));
+
+        // Masks with the pH bit (2) or the nitrite bit (16)
+        verify(waterReadingRepository).findBreachingPage(eq(List.of(2, 3, 6, 7, 10, 11, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23,
+                24, 25, 26, 27, 28, 29, 30, 31)), eq(Long.MIN_VALUE), eq(Long.MAX_VALUE), eq(Long.MIN_VALUE), eq(""), any());
+        verify(waterReadingRepository, never()).findPage(anyLong(), anyLong(), anyLong(), anyString(), any());
+        assertThrows(IllegalArgumentException.class,
+                () -> waterReadingService.getRecordsPage(new RecordQuery(null, null, null, 10, "nitrite,lead")));
+    }
+
+    @Test
+    void testProcessFileSkipsIngestedFile() throws Exception {
+        ClassPathResource csvFile = new ClassPathResource("data/River_Water_Quality_Monitoring.csv");
+        when(ingestCheckpointRepository.findById("classpath:data/River_Water_Quality_Monitoring.csv"))
+                .thenReturn(Optional.of(new IngestCheckpoint("classpath:data/River_Water_Quality_Monitoring.csv", csvFile.contentLength())));
+
+        waterReadingService.processFile(csvFile);
+
+        verifyNoInteractions(batchWriter);
+    }
+
+    @Test
+    void testIngestFileContinuesAtCursor() throws Exception {
+        String header = "objectId,ph,alk,cond,bod,no2,cu1,cu2,fe,zn\n";
+        Path file = directory.resolve("readings.csv");
+        Files.writeString(file, header + "1,7.1\n2,7.2\n3,7.3\n");
+        ingestProperties.setMode(IngestProperties.Mode.BULK);
+        when(batchWriter.writeChunk(anyList(), any(IngestCheckpoint.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        int inserted = waterReadingService.ingestFile(file, "sensor.csv", header.length() + 6);
+
+        ArgumentCaptor<List<WaterReading>> chunk = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<IngestCheckpoint> checkpoint = ArgumentCaptor.forClass(IngestCheckpoint.class);
+        verify(batchWriter).writeChunk(chunk.capture(), checkpoint.capture());
+        assertEquals(2, inserted);
+        assertEquals(List.of(2, 3), chunk.getValue().stream().map(WaterReading::getObjectId).toList());
+        assertEquals("sensor.csv", chunk.getValue().get(0).getSourceFile());
+        assertEquals("sensor.csv", checkpoint.getValue().getFilePath());
+        assertEquals(Files.size(file), checkpoint.getValue().getByteOffset());
+    }
+
+    @Test
+    void testIngestFileCountsRowsWithoutObjectId() throws Exception {
+        Path file = directory.resolve("readings.csv");
+        Files.writeString(file, "header\n1,7.1\nabc,7.2\n\n,7.3\n2,7.4\n");
+        ingestProperties.setMode(IngestProperties.Mode.BULK);
+        when(batchWriter.writeChunk(anyList(), any(IngestCheckpoint.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        waterReadingService.ingestFile(file, "sensor.csv", 0);
+        ingestProperties.setParseThreads(2);
+        waterReadingService.ingestFile(file, "sensor.csv", 0);
+
+        // The empty line is not a rejected row, on both parser paths
+        verify(ingestMetrics, times(2)).rejected(IngestMetrics.REASON_MISSING_OBJECT_ID, 2);
+    }
+
+    @Test
+    void testSimulationCommitsCursorPerRecord() throws Exception {
+        Path file = directory.resolve("readings.csv");
+        Files.writeString(file, "header\n1,7.1\n2,7.2");
+        ingestProperties.setSimulationDelay(Duration.ZERO);
+        when(batchWriter.writeChunk(anyList(), any(IngestCheckpoint.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        waterReadingService.ingestFile(file, "sensor.csv", 0);
+
+        ArgumentCaptor<IngestCheckpoint> checkpoints = ArgumentCaptor.forClass(IngestCheckpoint.class);
+        verify(batchWriter, times(2)).writeChunk(anyList(), checkpoints.capture());
+        assertEquals(List.of(13L, Files.size(file)), checkpoints.getAllValues().stream().map(IngestCheckpoint::getByteOffset).toList());
+    }
+
+    @Test
+    void testParallelIngestKeepsCursorWhenChunkFails() throws Exception {
+        Path file = directory.resolve("readings.csv");
+        Files.writeString(file, "header\n1,7.1\n2,7.2\n3,7.3\n");
+        ingestProperties.setMode(IngestProperties.Mode.BULK);
+        ingestProperties.setParseThreads(2);
+        ingestProperties.setBatchSize(1);
+        when(batchWriter.writeChunk(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new RuntimeException("SQLITE_BUSY"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> waterReadingService.ingestFile(file, "sensor.csv", 0));
+
+        assertEquals("SQLITE_BUSY", error.getMessage());
+        verify(batchWriter, times(2)).writeChunk(anyList()); // the batches after the failure are not written
+        verify(batchWriter, never()).writeChunk(anyList(), any(IngestCheckpoint.class));
+        verifyNoInteractions(ingestCheckpointRepository);
+    }
 }
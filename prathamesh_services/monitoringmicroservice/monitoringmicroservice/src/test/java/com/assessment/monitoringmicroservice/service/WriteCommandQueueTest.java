@@ -0,0 +1,99 @@
+package com.assessment.monitoringmicroservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.assessment.monitoringmicroservice.config.StorageProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class WriteCommandQueueTest {
+
+    private WriteCommandQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void testWritesRunOnOneWriterThread() throws Exception {
+        queue = start(4);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        for (int i = 0; i < 100; i++) {
+            callers.submit(() -> queue.execute(() -> threads.add(Thread.currentThread().getName())));
+        }
+        callers.shutdown();
+        assertTrue(callers.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(Set.of("sqlite-writer"), threads);
+    }
+
+    @Test
+    void testExecuteReturnsResultAndRethrowsError() {
+        queue = start(1);
+
+        assertEquals(42, queue.execute(() -> 42));
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> queue.execute(() -> {
+                    throw new IllegalArgumentException("constraint failed");
+                }));
+        assertEquals("constraint failed", error.getMessage());
+    }
+
+    @Test
+    void testNestedWriteRunsOnWriterThread() {
+        queue = start(1);
+
+        assertEquals("sqlite-writer", queue.execute(() -> queue.execute(() -> Thread.currentThread().getName())));
+    }
+
+    @Test
+    void testTrySubmitIsRejectedWhenQueueIsFull() throws Exception {
+        queue = start(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Boolean> blocking = queue.trySubmit(() -> {
+            running.countDown();
+            return awaitQuietly(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        Future<Integer> queued = queue.trySubmit(() -> 1);
+
+        assertThrows(RejectedExecutionException.class, () -> queue.trySubmit(() -> 2));
+        assertEquals(1, queue.size());
+
+        release.countDown();
+        assertTrue(blocking.get(5, TimeUnit.SECONDS));
+        assertEquals(1, queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private static WriteCommandQueue start(int capacity) {
+        StorageProperties properties = new StorageProperties();
+        properties.setWriteQueueCapacity(capacity);
+        WriteCommandQueue queue = new WriteCommandQueue(properties);
+        queue.start();
+        return queue;
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
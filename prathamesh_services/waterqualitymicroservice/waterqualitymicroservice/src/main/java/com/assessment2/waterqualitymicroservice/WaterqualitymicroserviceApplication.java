@@ -2,19 +2,14 @@ package com.assessment2.waterqualitymicroservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 
 @SpringBootApplication(scanBasePackages = "com.assessment2.waterqualitymicroservice")
+@ConfigurationPropertiesScan
 public class WaterqualitymicroserviceApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(WaterqualitymicroserviceApplication.class, args);
 	}
-	
-	@Bean
-	public RestTemplate restTemplate() {
-		return new RestTemplate();
-	}
 }
@@ -0,0 +1,70 @@
+package com.assessment2.waterqualitymicroservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+
+/**
+ * Configuration properties for the cache of the latest flagged water quality record.
+ *
+ * <p>The properties are bound from the {@code waterquality.latest} prefix in
+ * {@code application.properties}. A result is fresh for {@code ttl}; after that it is
+ * still returned for {@code stale-while-revalidate} while one background call to the
+ * monitoring service refreshes it. An older result is not returned, the request waits for
+ * the monitoring service. A TTL and a stale time of 0 turn the cache off, concurrent
+ * requests still share one call.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "waterquality.latest")
+public class LatestCacheProperties {
+
+	/**
+	 * Time a result is returned without calling the monitoring service.
+	 */
+	private Duration ttl = Duration.ofSeconds(5);
+
+	/**
+	 * Time after the TTL a result is still returned while it is refreshed in the background.
+	 */
+	private Duration staleWhileRevalidate = Duration.ofSeconds(30);
+
+
+	/**
+	 * Retrieves the time a result is fresh.
+	 *
+	 * @return The {@code ttl} value.
+	 */
+	public Duration getTtl() {
+		return ttl;
+	}
+
+	/**
+	 * Sets the time a result is fresh.
+	 *
+	 * @param ttl The {@code ttl} to set.
+	 */
+	public void setTtl(Duration ttl) {
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Retrieves the time a result is returned stale while it is refreshed.
+	 *
+	 * @return The {@code staleWhileRevalidate} value.
+	 */
+	public Duration getStaleWhileRevalidate() {
+		return staleWhileRevalidate;
+	}
+
+	/**
+	 * Sets the time a result is returned stale while it is refreshed.
+	 *
+	 * @param staleWhileRevalidate The {@code staleWhileRevalidate} to set.
+	 */
+	public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+		this.staleWhileRevalidate = staleWhileRevalidate;
+	}
+}
@@ -0,0 +1,79 @@
+package com.assessment2.waterqualitymicroservice.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+
+/**
+ * Configuration of the {@link WebClient} for the water monitoring service.
+ *
+ * <p>The client runs on reactor-netty: the requests do not hold a thread while they wait
+ * for the monitoring service, the connections are pooled and kept alive, and the connect,
+ * read and response timeouts of {@link MonitoringClientProperties} apply to every request. An
+ * event stream, which is idle between the events, sets its own response timeout instead.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Configuration
+public class MonitoringClientConfiguration {
+
+	private static final String READ_TIMEOUT_HANDLER = "monitoringReadTimeout";
+
+
+	/**
+	 * Creates the pool of keep-alive connections to the monitoring service.
+	 *
+	 * @param properties Settings of the pool.
+	 * @return the connection pool, closed with the application context.
+	 */
+	@Bean(destroyMethod = "dispose")
+	public ConnectionProvider monitoringConnectionProvider(MonitoringClientProperties properties) {
+		return ConnectionProvider.builder("monitoring")
+				.maxConnections(properties.getMaxConnections())
+				.maxIdleTime(properties.getMaxIdleTime())
+				.pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+				.evictInBackground(properties.getMaxIdleTime())
+				.build();
+	}
+
+	/**
+	 * Creates the client for the monitoring service.
+	 *
+	 * @param builder Builder with the codecs of the application.
+	 * @param connectionProvider Pool of connections to the monitoring service.
+	 * @param properties Settings with the base URL and the timeouts.
+	 * @return the client, with the base URL of the monitoring service.
+	 */
+	@Bean
+	public WebClient monitoringWebClient(WebClient.Builder builder, ConnectionProvider connectionProvider,
+			MonitoringClientProperties properties) {
+		long readTimeoutMillis = properties.getReadTimeout().toMillis();
+		HttpClient httpClient = HttpClient.create(connectionProvider)
+				.keepAlive(true)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(properties.getConnectTimeout().toMillis()))
+				.responseTimeout(properties.getResponseTimeout())
+				// Added per request, the handlers of a pooled connection are removed when it is released
+				.doOnRequest((request, connection) -> {
+					if (!request.requestHeaders().containsValue(HttpHeaderNames.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE, true)) {
+						connection.addHandlerLast(READ_TIMEOUT_HANDLER, new ReadTimeoutHandler(readTimeoutMillis, TimeUnit.MILLISECONDS));
+					}
+				});
+
+		return builder
+				.baseUrl(properties.getBaseUrl())
+				.clientConnector(new ReactorClientHttpConnector(httpClient))
+				.build();
+	}
+}
@@ -0,0 +1,184 @@
+package com.assessment2.waterqualitymicroservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+
+/**
+ * Configuration properties for the client of the water monitoring service.
+ *
+ * <p>The properties are bound from the {@code waterquality.monitoring} prefix in
+ * {@code application.properties}. The connections are pooled and kept alive, a connection
+ * idle for {@code max-idle-time} is closed, which should be shorter than the keep-alive
+ * timeout of the monitoring service. A request waits at most {@code pending-acquire-timeout}
+ * for a free connection when all {@code max-connections} are in use.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "waterquality.monitoring")
+public class MonitoringClientProperties {
+
+	/**
+	 * Base URL of the water monitoring service.
+	 */
+	private String baseUrl = "http://localhost:8081/watermonitoring";
+
+	/**
+	 * Time to open a connection.
+	 */
+	private Duration connectTimeout = Duration.ofSeconds(2);
+
+	/**
+	 * Longest time without data while the response is read.
+	 */
+	private Duration readTimeout = Duration.ofSeconds(5);
+
+	/**
+	 * Time from sending the request to receiving the response headers.
+	 */
+	private Duration responseTimeout = Duration.ofSeconds(5);
+
+	/**
+	 * Size of the connection pool.
+	 */
+	private int maxConnections = 500;
+
+	/**
+	 * Time an idle connection is kept in the pool.
+	 */
+	private Duration maxIdleTime = Duration.ofSeconds(15);
+
+	/**
+	 * Time a request waits for a connection from the pool.
+	 */
+	private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+
+	/**
+	 * Retrieves the base URL of the monitoring service.
+	 *
+	 * @return The {@code baseUrl} value.
+	 */
+	public String getBaseUrl() {
+		return baseUrl;
+	}
+
+	/**
+	 * Sets the base URL of the monitoring service.
+	 *
+	 * @param baseUrl The {@code baseUrl} to set.
+	 */
+	public void setBaseUrl(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	/**
+	 * Retrieves the connect timeout.
+	 *
+	 * @return The {@code connectTimeout} value.
+	 */
+	public Duration getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * Sets the connect timeout.
+	 *
+	 * @param connectTimeout The {@code connectTimeout} to set.
+	 */
+	public void setConnectTimeout(Duration connectTimeout) {
+		this.connectTimeout = connectTimeout;
+	}
+
+	/**
+	 * Retrieves the read timeout.
+	 *
+	 * @return The {@code readTimeout} value.
+	 */
+	public Duration getReadTimeout() {
+		return readTimeout;
+	}
+
+	/**
+	 * Sets the read timeout.
+	 *
+	 * @param readTimeout The {@code readTimeout} to set.
+	 */
+	public void setReadTimeout(Duration readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * Retrieves the response timeout.
+	 *
+	 * @return The {@code responseTimeout} value.
+	 */
+	public Duration getResponseTimeout() {
+		return responseTimeout;
+	}
+
+	/**
+	 * Sets the response timeout.
+	 *
+	 * @param responseTimeout The {@code responseTimeout} to set.
+	 */
+	public void setResponseTimeout(Duration responseTimeout) {
+		this.responseTimeout = responseTimeout;
+	}
+
+	/**
+	 * Retrieves the size of the connection pool.
+	 *
+	 * @return The {@code maxConnections} value.
+	 */
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	/**
+	 * Sets the size of the connection pool.
+	 *
+	 * @param maxConnections The {@code maxConnections} to set.
+	 */
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	/**
+	 * Retrieves the time an idle connection is kept.
+	 *
+	 * @return The {@code maxIdleTime} value.
+	 */
+	public Duration getMaxIdleTime() {
+		return maxIdleTime;
+	}
+
+	/**
+	 * Sets the time an idle connection is kept.
+	 *
+	 * @param maxIdleTime The {@code maxIdleTime} to set.
+	 */
+	public void setMaxIdleTime(Duration maxIdleTime) {
+		this.maxIdleTime = maxIdleTime;
+	}
+
+	/**
+	 * Retrieves the time a request waits for a connection.
+	 *
+	 * @return The {@code pendingAcquireTimeout} value.
+	 */
+	public Duration getPendingAcquireTimeout() {
+		return pendingAcquireTimeout;
+	}
+
+	/**
+	 * Sets the time a request waits for a connection.
+	 *
+	 * @param pendingAcquireTimeout The {@code pendingAcquireTimeout} to set.
+	 */
+	public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+		this.pendingAcquireTimeout = pendingAcquireTimeout;
+	}
+}
@@ -0,0 +1,140 @@
+package com.assessment2.waterqualitymicroservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+
+/**
+ * Configuration properties for the source of new water readings.
+ *
+ * <p>The properties are bound from the {@code waterquality.source} prefix in
+ * {@code application.properties}. With {@code stream} the service subscribes to the
+ * Server-Sent Events of {@code /records/stream} of the monitoring service and reconnects
+ * after {@code reconnect-delay} when the stream ends or no heartbeat arrives within
+ * {@code idle-timeout}; with {@code poll} it asks for {@code /records/latest} every
+ * {@code poll-interval}. With {@code none} every request calls the monitoring service. When
+ * the stream or the polling keeps failing for longer than {@code idle-timeout}, the latest
+ * reading is no longer returned from memory.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "waterquality.source")
+public class ReadingSourceProperties {
+
+	/**
+	 * How new readings are received.
+	 */
+	public enum Type {
+
+		/**
+		 * Subscribes to the stream of new readings.
+		 */
+		STREAM,
+
+		/**
+		 * Polls the latest reading.
+		 */
+		POLL,
+
+		/**
+		 * Receives no readings, the requests call the monitoring service.
+		 */
+		NONE
+	}
+
+	/**
+	 * How new readings are received.
+	 */
+	private Type type = Type.STREAM;
+
+	/**
+	 * Interval of the calls for the latest reading when polling.
+	 */
+	private Duration pollInterval = Duration.ofSeconds(1);
+
+	/**
+	 * Time to wait before the stream is opened again.
+	 */
+	private Duration reconnectDelay = Duration.ofSeconds(2);
+
+	/**
+	 * Longest time without data on the stream, several heartbeats of the monitoring service,
+	 * and longest time the source may fail before the latest reading is no longer returned.
+	 */
+	private Duration idleTimeout = Duration.ofSeconds(45);
+
+
+	/**
+	 * Retrieves how new readings are received.
+	 *
+	 * @return The {@code type} value.
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Sets how new readings are received.
+	 *
+	 * @param type The {@code type} to set.
+	 */
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	/**
+	 * Retrieves the poll interval.
+	 *
+	 * @return The {@code pollInterval} value.
+	 */
+	public Duration getPollInterval() {
+		return pollInterval;
+	}
+
+	/**
+	 * Sets the poll interval.
+	 *
+	 * @param pollInterval The {@code pollInterval} to set.
+	 */
+	public void setPollInterval(Duration pollInterval) {
+		this.pollInterval = pollInterval;
+	}
+
+	/**
+	 * Retrieves the time to wait before the stream is opened again.
+	 *
+	 * @return The {@code reconnectDelay} value.
+	 */
+	public Duration getReconnectDelay() {
+		return reconnectDelay;
+	}
+
+	/**
+	 * Sets the time to wait before the stream is opened again.
+	 *
+	 * @param reconnectDelay The {@code reconnectDelay} to set.
+	 */
+	public void setReconnectDelay(Duration reconnectDelay) {
+		this.reconnectDelay = reconnectDelay;
+	}
+
+	/**
+	 * Retrieves the longest time without data on the stream.
+	 *
+	 * @return The {@code idleTimeout} value.
+	 */
+	public Duration getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * Sets the longest time without data on the stream.
+	 *
+	 * @param idleTimeout The {@code idleTimeout} to set.
+	 */
+	public void setIdleTimeout(Duration idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+}
@@ -0,0 +1,72 @@
+package com.assessment2.waterqualitymicroservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+
+/**
+ * Configuration properties for the threshold rules of the safety evaluation.
+ *
+ * <p>The properties are bound from the {@code waterquality.rules} prefix in
+ * {@code application.properties}. {@code location} is a Spring resource, such as
+ * {@code file:config/threshold-profiles.json}, with the JSON of a
+ * {@link com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable}; it is read at startup
+ * and again on {@code POST /waterquality/rules/reload}. Without a location the built-in WHO
+ * profile is used.</p>
+ *
+ * <p>{@code update-enabled} allows {@code PUT /waterquality/rules} and
+ * {@code POST /waterquality/rules/reload}. The rules decide the safety flags, so they are
+ * disabled by default and the rules can only be changed by restarting with a new file.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "waterquality.rules")
+public class ThresholdRulesProperties {
+
+	/**
+	 * Resource with the threshold rule profiles, none for the built-in WHO profile.
+	 */
+	private String location;
+
+	/**
+	 * Whether the rules can be replaced or reloaded through the rules endpoint.
+	 */
+	private boolean updateEnabled = false;
+
+
+	/**
+	 * Retrieves the resource with the rule profiles.
+	 *
+	 * @return The {@code location} value.
+	 */
+	public String getLocation() {
+		return location;
+	}
+
+	/**
+	 * Sets the resource with the rule profiles.
+	 *
+	 * @param location The {@code location} to set.
+	 */
+	public void setLocation(String location) {
+		this.location = location;
+	}
+
+	/**
+	 * Retrieves whether the rules can be replaced through the rules endpoint.
+	 *
+	 * @return The {@code updateEnabled} value.
+	 */
+	public boolean isUpdateEnabled() {
+		return updateEnabled;
+	}
+
+	/**
+	 * Sets whether the rules can be replaced through the rules endpoint.
+	 *
+	 * @param updateEnabled The {@code updateEnabled} to set.
+	 */
+	public void setUpdateEnabled(boolean updateEnabled) {
+		this.updateEnabled = updateEnabled;
+	}
+}
@@ -0,0 +1,66 @@
+package com.assessment2.waterqualitymicroservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+
+/**
+ * Configuration properties for the flagged readings of a time range.
+ *
+ * <p>The properties are bound from the {@code waterquality.timeline} prefix in
+ * {@code application.properties}. The readings are requested from the monitoring service
+ * {@code page-size} at a time, at most 1000, and up to {@code parallelism} pages are
+ * evaluated at the same time while the next pages are requested.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "waterquality.timeline")
+public class TimelineProperties {
+
+	/**
+	 * Number of readings requested from the monitoring service per page.
+	 */
+	private int pageSize = 1000;
+
+	/**
+	 * Number of pages evaluated at the same time.
+	 */
+	private int parallelism = 4;
+
+
+	/**
+	 * Retrieves the number of readings per page.
+	 *
+	 * @return The {@code pageSize} value.
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Sets the number of readings per page.
+	 *
+	 * @param pageSize The {@code pageSize} to set.
+	 */
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Retrieves the number of pages evaluated at the same time.
+	 *
+	 * @return The {@code parallelism} value.
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of pages evaluated at the same time.
+	 *
+	 * @param parallelism The {@code parallelism} to set.
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+}
@@ -0,0 +1,149 @@
+package com.assessment2.waterqualitymicroservice.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.assessment2.waterqualitymicroservice.config.ThresholdRulesProperties;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import com.assessment2.waterqualitymicroservice.service.ThresholdRules;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.media.Content;
+
+
+/**
+ * Controller for the threshold rule profiles of the safety flag.
+ * It returns the current profiles, replaces them with new ones, or reads the rules file again.
+ * New rules are compiled and swapped in by {@link ThresholdRules} without pausing the requests
+ * in flight; invalid rules are rejected and the current ones are kept. Replacing and reloading
+ * the rules is refused unless {@code waterquality.rules.update-enabled} is set.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/waterquality/rules")
+public class ThresholdRulesController {
+
+	private static final Logger logger = LoggerFactory.getLogger(ThresholdRulesController.class); // logger
+
+	private final ThresholdRules thresholdRules;
+	private final ThresholdRulesProperties properties;
+
+	/**
+	 * Constructs a ThresholdRulesController with the ThresholdRules.
+	 *
+	 * @param thresholdRules the holder of the compiled rules.
+	 * @param properties Settings which allow the rules to be updated.
+	 */
+	public ThresholdRulesController(ThresholdRules thresholdRules, ThresholdRulesProperties properties) {
+		this.thresholdRules = thresholdRules;
+		this.properties = properties;
+	}
+
+	/**
+	 * Retrieves the current threshold rule profiles.
+	 *
+	 * @return a {@link ResponseEntity} with the profiles.
+	 */
+	@Operation(
+			summary = "Get the threshold rule profiles",
+			description = "Returns the profiles the safety flags are evaluated with and the default profile.",
+			responses = {
+					@ApiResponse(responseCode = "200", description = "The current profiles",
+					content = @Content(mediaType = "application/json"))
+			}
+			)
+	@GetMapping
+	public ResponseEntity<ThresholdRuleTable> getRules() {
+		return ResponseEntity.ok(thresholdRules.current().table());
+	}
+
+	/**
+	 * Replaces the threshold rule profiles.
+	 *
+	 * 200 OK - The new profiles are used.
+	 * 400 Bad Request - The profiles are not valid, the current ones are kept.
+	 * 403 Forbidden - Updates of the rules are disabled.
+	 *
+	 * @param table the new profiles and their rules.
+	 * @return a {@link ResponseEntity} with the new profiles, or an error message.
+	 */
+	@Operation(
+			summary = "Replace the threshold rule profiles",
+			description = "Compiles the profiles and uses them for the next evaluations, the current profiles are kept if they are not valid.",
+			responses = {
+					@ApiResponse(responseCode = "200", description = "The new profiles are used",
+					content = @Content(mediaType = "application/json")),
+					@ApiResponse(responseCode = "400", description = "Invalid profiles",
+					content = @Content(mediaType = "application/json")),
+					@ApiResponse(responseCode = "403", description = "Updates of the rules are disabled",
+					content = @Content(mediaType = "application/json"))
+			}
+			)
+	@PutMapping
+	public ResponseEntity<Object> replaceRules(@RequestBody ThresholdRuleTable table) {
+		return update(() -> thresholdRules.replace(table).table());
+	}
+
+	/**
+	 * Reads the rules file again and replaces the threshold rule profiles.
+	 *
+	 * 200 OK - The profiles of the file are used.
+	 * 400 Bad Request - The file has invalid profiles, the current ones are kept.
+	 * 403 Forbidden - Updates of the rules are disabled.
+	 * 500 Internal Server Error - The file cannot be read.
+	 *
+	 * @return a {@link ResponseEntity} with the new profiles, or an error message.
+	 */
+	@Operation(
+			summary = "Reload the threshold rule profiles",
+			description = "Reads the rules file again, or the built-in WHO profile if there is no file, and uses it for the next evaluations.",
+			responses = {
+					@ApiResponse(responseCode = "200", description = "The profiles of the file are used",
+					content = @Content(mediaType = "application/json")),
+					@ApiResponse(responseCode = "400", description = "Invalid profiles in the file",
+					content = @Content(mediaType = "application/json")),
+					@ApiResponse(responseCode = "403", description = "Updates of the rules are disabled",
+					content = @Content(mediaType = "application/json")),
+					@ApiResponse(responseCode = "500", description = "The file cannot be read.",
+					content = @Content(mediaType = "application/json"))
+			}
+			)
+	@PostMapping("reload")
+	public ResponseEntity<Object> reloadRules() {
+		return update(() -> thresholdRules.reload().table());
+	}
+
+	/**
+	 * Runs an update of the rules if updates are enabled and maps its errors to responses.
+	 */
+	private ResponseEntity<Object> update(Supplier<ThresholdRuleTable> update) {
+		if (!properties.isUpdateEnabled()) {
+			logger.warn("Refused an update of the threshold rules, waterquality.rules.update-enabled is not set");
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Rule updates are disabled"));
+		}
+		try {
+			return ResponseEntity.ok(update.get());
+		} catch (IllegalArgumentException ie) {
+			logger.warn("Rejected threshold rules: {}", ie.getMessage());
+			return ResponseEntity.badRequest().body(Map.of("error", "Invalid rules", "message", ie.getMessage()));
+		} catch (UncheckedIOException ue) {
+			logger.error("Could not read the threshold rules", ue);
+			return ResponseEntity.internalServerError().body(Map.of("error", "Internal server error"));
+		}
+	}
+}
@@ -2,14 +2,28 @@ package com.assessment2.waterqualitymicroservice.controller;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.assessment2.waterqualitymicroservice.service.FlaggedTimelineService;
 import com.assessment2.waterqualitymicroservice.service.WaterQualityService;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -19,7 +33,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
  * Controller for handling the water quality related requests.
  * It provides an endpoint for fetching the latest water quality data,
  * which includes the  total dissolved solids (TDS) and a safety flag is added based on WHO standards.
- * It interacts with the {@link WaterQualityService} to process the data.
+ * It interacts with the {@link WaterQualityService} to process the data, and with the
+ * {@link FlaggedTimelineService} for the flagged readings of a time range.
  * 
  * @author Prathamesh Belnekar
  * @version 1.0
@@ -29,21 +44,26 @@ import io.swagger.v3.oas.annotations.media.Schema;
 public class WaterQualityController {
 
 	private final WaterQualityService waterQualityService;
+	private final FlaggedTimelineService flaggedTimelineService;
 
 	/**
 	 * Constructs a WaterQualityController with a WaterQualityService.
 	 *
 	 * @param waterQualityService the service handling water quality calculations.
+	 * @param flaggedTimelineService the service evaluating the readings of a time range.
 	 */
-	public WaterQualityController(WaterQualityService waterQualityService) {
+	public WaterQualityController(WaterQualityService waterQualityService, FlaggedTimelineService flaggedTimelineService) {
 		this.waterQualityService = waterQualityService;
+		this.flaggedTimelineService = flaggedTimelineService;
 	}
 
     /**
      * Fetches the latest water quality record from the monitoring service, calculates total dissolved solids (TDS),
      * and assigns a safety flag based on predefined water quality parameters.
+     * The request thread is released while the monitoring service is called.
      * 
-     * @return a {@link ResponseEntity} containing the water quality data
+     * @param profile the threshold profile of the safety flag, the default profile if it is not given.
+     * @return a {@link Mono} of the {@link ResponseEntity} containing the water quality data
      */
 	@Operation(
 			summary = "Get latest water quality data with safety assessment",
@@ -73,14 +93,104 @@ public class WaterQualityController {
 									))
 							),
 					@ApiResponse(responseCode = "204", description = "No records found response is empty",content = @Content(mediaType = "application/json", schema = @Schema(implementation = Object.class))),
+					@ApiResponse(responseCode = "400", description = "Unknown threshold profile.",
+					content = @Content(mediaType = "application/json")),
 					@ApiResponse(responseCode = "500", description = "Internal server error.",
+					content = @Content(mediaType = "application/json")),
+					@ApiResponse(responseCode = "503", description = "The monitoring service timed out or is not reachable.",
 					content = @Content(mediaType = "application/json"))
 			}
 			)
 	@GetMapping("records/latestflagged")
-	public ResponseEntity<Map<String, Object>> getlatestWaterQuality() {
-		return waterQualityService.getLatestWaterQuality();
+	public Mono<ResponseEntity<Map<String, Object>>> getlatestWaterQuality(
+			@Parameter(description = "Threshold profile of the safety flag", example = "who")
+			@RequestParam(required = false) String profile) {
+		try {
+			return waterQualityService.getLatestWaterQuality(profile);
+		} catch (IllegalArgumentException ie) {
+			return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Unknown profile", "message", ie.getMessage())));
+		}
+	}
+
+	/**
+	 * Retrieves every water quality record of a time range with its total dissolved solids (TDS)
+	 * and safety flag, for compliance reports.
+	 * 
+	 * <p>The records are requested from the monitoring service page by page and evaluated in
+	 * parallel batches. They are streamed as newline-delimited JSON in timestamp order while the
+	 * later pages are still requested, or returned as one JSON array if only JSON is accepted.
+	 * The first page is received before the response starts. If a later page fails the records
+	 * end with an error record, the range is continued by sending its {@code after} again.</p>
+	 * 
+	 * 200 OK - The flagged records, none if the range has no records.
+	 * 400 Bad Request - The time range, the profile or the cursor is not valid.
+	 * 500 Internal Server Error - The records could not be requested.
+	 * 502 Bad Gateway - The monitoring service answered with an error.
+	 * 503 Service Unavailable - The monitoring service did not answer.
+	 * 
+	 * @param from start of the time range (inclusive).
+	 * @param to end of the time range (exclusive).
+	 * @param profile the threshold profile of the safety flags, the default profile if it is not given.
+	 * @param after cursor of an error record to continue the range at.
+	 * @return a {@link Mono} with the {@link ResponseEntity} of the {@link Flux} of the flagged records.
+	 */
+	@Operation(
+			summary = "Get the water quality data of a time range with safety assessment",
+			description = "Fetches the water quality records of a time range from the monitoring service and calculates the total dissolved solids and the safety flag of each record.",
+			responses = {
+					@ApiResponse(
+							responseCode = "200",
+							description = "The flagged records ordered by timestamp, one JSON object per line",
+							content = @Content(mediaType = "application/x-ndjson", schema = @Schema(
+									example = """
+											{"id":"72399005-00e4-4f72-b8d5-e5b2aebb3cb1","timestamp":"2025-03-16T21:30:31","phph":7.7,"alkmgl":95,"conduscm":270.8,"no2nmgl":0.011,"cusol1mgl":0.002,"cusol2ugl":0.76,"fesol1ugl":146.5,"znsolugl":5,"totalDissolvedSolids":0.15426,"safetyFlag":"Green"}
+											"""
+									))
+							),
+					@ApiResponse(responseCode = "400", description = "Missing or invalid time range, unknown threshold profile or cursor rejected by the monitoring service",
+					content = @Content(mediaType = "application/json")),
+					@ApiResponse(responseCode = "502", description = "The monitoring service answered with an error",
+					content = @Content(mediaType = "application/json")),
+					@ApiResponse(responseCode = "503", description = "The monitoring service did not answer",
+					content = @Content(mediaType = "application/json"))
+			}
+			)
+	@GetMapping(value = "records/flagged", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+	public Mono<ResponseEntity<Flux<Map<String, Object>>>> getFlaggedWaterQuality(
+			@Parameter(description = "Start of the time range (inclusive)", example = "2025-03-01T00:00:00")
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@Parameter(description = "End of the time range (exclusive)", example = "2025-04-01T00:00:00")
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@Parameter(description = "Threshold profile of the safety flags", example = "who")
+			@RequestParam(required = false) String profile,
+			@Parameter(description = "Cursor of an error record to continue the range at")
+			@RequestParam(required = false) String after) {
+		if (!from.isBefore(to)) {
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+		try {
+			return flaggedTimelineService.getFlaggedRecords(from, to, profile, after)
+					.map(ResponseEntity::ok)
+					.onErrorResume(e -> e instanceof WebClientRequestException || e instanceof TimeoutException,
+							e -> Mono.just(error(HttpStatus.SERVICE_UNAVAILABLE, "Service timeout", String.valueOf(e.getMessage()))))
+					// The range and the profile are checked here, a request the monitoring service rejects has a bad cursor
+					.onErrorResume(e -> e instanceof WebClientResponseException re && re.getStatusCode().is4xxClientError(),
+							e -> Mono.just(error(HttpStatus.BAD_REQUEST, "Invalid request",
+									after == null ? "The monitoring service rejected the request" : "Invalid cursor: " + after)))
+					.onErrorResume(WebClientResponseException.class,
+							e -> Mono.just(error(HttpStatus.BAD_GATEWAY, "Monitoring service error", String.valueOf(e.getMessage()))))
+					.onErrorResume(e -> Mono.just(error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error", String.valueOf(e.getMessage()))));
+		} catch (IllegalArgumentException ie) {
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+	}
 
+	/**
+	 * Answers a request for flagged records which failed before the first record with one error record.
+	 */
+	private static ResponseEntity<Flux<Map<String, Object>>> error(HttpStatus status, String error, String message) {
+		Map<String, Object> record = Map.of("error", error, "message", message);
+		return ResponseEntity.status(status).body(Flux.just(record));
 	}
 
 }
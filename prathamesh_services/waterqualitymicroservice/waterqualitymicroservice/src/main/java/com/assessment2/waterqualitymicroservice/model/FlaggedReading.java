@@ -0,0 +1,38 @@
+package com.assessment2.waterqualitymicroservice.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A water reading of the monitoring service with its total dissolved solids and safety flag.
+ *
+ * <p>The values are computed once when the reading arrives, the record cannot be changed
+ * afterwards, so it can be shared by any number of requests without copying it.</p>
+ *
+ * @param data the fields of the reading with {@code totalDissolvedSolids} and {@code safetyFlag} added.
+ * @param totalDissolvedSolids the total dissolved solids of the reading.
+ * @param safetyFlag {@code Green} if the reading is safe, otherwise {@code Red}.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public record FlaggedReading(Map<String, Object> data, double totalDissolvedSolids, String safetyFlag) {
+
+	/**
+	 * Keeps an unmodifiable copy of the data, the readings may contain {@code null} values.
+	 */
+	public FlaggedReading {
+		data = Collections.unmodifiableMap(new LinkedHashMap<>(data));
+	}
+
+	/**
+	 * Retrieves the id of the reading.
+	 *
+	 * @return the {@code id} of the monitoring service, or {@code null} if it has none.
+	 */
+	public Object id() {
+		return data.get("id");
+	}
+}
@@ -0,0 +1,27 @@
+package com.assessment2.waterqualitymicroservice.model;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+
+/**
+ * One page of water readings returned by {@code /watermonitoring/records}.
+ *
+ * @param records the readings of the page ordered by timestamp.
+ * @param next cursor to pass as {@code after} to get the next page, or {@code null} on the last page.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RecordPage(List<Map<String, Object>> records, String next) {
+
+	/**
+	 * Replaces missing records with an empty list.
+	 */
+	public RecordPage {
+		records = records == null ? List.of() : records;
+	}
+}
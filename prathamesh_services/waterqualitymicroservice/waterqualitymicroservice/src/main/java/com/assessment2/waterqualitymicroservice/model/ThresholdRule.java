@@ -0,0 +1,21 @@
+package com.assessment2.waterqualitymicroservice.model;
+
+
+/**
+ * One threshold of a regulatory profile: the water is unsafe when the value of
+ * {@code parameter} compared with {@code operator} to {@code limit} is true.
+ *
+ * <p>For example {@code {"parameter": "no2nmgl", "operator": ">=", "limit": 1}} makes a
+ * reading with 1 mg/L nitrite or more unsafe. A value which was not measured never breaches
+ * a threshold.</p>
+ *
+ * @param parameter the name of the value, {@code totalDissolvedSolids} or one of
+ *        {@link WaterQualityReading#FIELDS}.
+ * @param operator one of {@code <}, {@code <=}, {@code >} or {@code >=}.
+ * @param limit the limit the value is compared with.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public record ThresholdRule(String parameter, String operator, Double limit) {
+}
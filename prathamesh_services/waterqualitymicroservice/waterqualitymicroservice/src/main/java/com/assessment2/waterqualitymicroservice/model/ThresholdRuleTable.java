@@ -0,0 +1,65 @@
+package com.assessment2.waterqualitymicroservice.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The regulatory profiles the water readings can be evaluated with.
+ *
+ * <p>It is read from the JSON file of
+ * {@link com.assessment2.waterqualitymicroservice.config.ThresholdRulesProperties} or sent to
+ * {@code PUT /waterquality/rules}, for example:</p>
+ *
+ * <pre>
+ * {
+ *   "defaultProfile": "who",
+ *   "profiles": {
+ *     "who": [
+ *       {"parameter": "phph", "operator": "&lt;", "limit": 6.5},
+ *       {"parameter": "phph", "operator": "&gt;", "limit": 8.5}
+ *     ]
+ *   }
+ * }
+ * </pre>
+ *
+ * @param defaultProfile the profile used when a request does not name one, the first
+ *        profile if it is {@code null}.
+ * @param profiles the thresholds of every profile by name.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public record ThresholdRuleTable(String defaultProfile, Map<String, List<ThresholdRule>> profiles) {
+
+	/**
+	 * The name of the built-in profile.
+	 */
+	public static final String WHO = "who";
+
+	/**
+	 * Keeps the order of the profiles and replaces missing profiles with an empty map.
+	 */
+	public ThresholdRuleTable {
+		profiles = profiles == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(profiles));
+	}
+
+	/**
+	 * The built-in WHO profile, used when no rules file is configured: the water is unsafe if the
+	 * total dissolved solids are above 1000 mg/L, the pH is outside 6.5 to 8.5, the alkalinity is
+	 * above 500 mg/L, the conductivity is above 2000 or the nitrite is 1 mg/L or more.
+	 *
+	 * @return the table with the single profile {@value #WHO}.
+	 */
+	public static ThresholdRuleTable who() {
+		return new ThresholdRuleTable(WHO, Map.of(WHO, List.of(
+				new ThresholdRule("totalDissolvedSolids", ">", 1000.0),
+				new ThresholdRule("phph", "<", 6.5),
+				new ThresholdRule("phph", ">", 8.5),
+				new ThresholdRule("alkmgl", ">", 500.0),
+				new ThresholdRule("conduscm", ">", 2000.0),
+				new ThresholdRule("no2nmgl", ">=", 1.0))));
+	}
+}
@@ -0,0 +1,49 @@
+package com.assessment2.waterqualitymicroservice.model;
+
+import java.util.Map;
+
+
+/**
+ * The values of a water quality reading which are needed for the safety evaluation.
+ *
+ * <p>The values are primitive doubles and a value which was not measured is {@code NaN},
+ * so the kernel reads fields instead of looking up and unboxing map entries. The reading is
+ * converted from the map of the monitoring service once per record, before it is evaluated.</p>
+ *
+ * @param phph pH of the water sample.
+ * @param alkmgl alkalinity of the water in mg/L.
+ * @param conduscm conductivity of the water.
+ * @param no2nmgl nitrite in the water in mg/L.
+ * @param cusol1mgl copper (CUSOL1) in the water in mg/L.
+ * @param cusol2ugl copper (CUSOL2) in the water in µg/L.
+ * @param fesol1ugl iron in the water in µg/L.
+ * @param znsolugl zinc in the water in µg/L.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public record WaterQualityReading(double phph, double alkmgl, double conduscm, double no2nmgl,
+		double cusol1mgl, double cusol2ugl, double fesol1ugl, double znsolugl) {
+
+	/**
+	 * The names of the values, as {@code fields} of the records requested from the monitoring service.
+	 */
+	public static final String FIELDS = "phph,alkmgl,conduscm,no2nmgl,cusol1mgl,cusol2ugl,fesol1ugl,znsolugl";
+
+	/**
+	 * Creates a reading from the data of the monitoring service read as a map.
+	 *
+	 * @param data the water quality data, the values are numbers or {@code null}.
+	 * @return the reading, with {@code NaN} for the values which are missing.
+	 */
+	public static WaterQualityReading fromMap(Map<String, Object> data) {
+		return new WaterQualityReading(valueOf(data, "phph"), valueOf(data, "alkmgl"), valueOf(data, "conduscm"),
+				valueOf(data, "no2nmgl"), valueOf(data, "cusol1mgl"), valueOf(data, "cusol2ugl"),
+				valueOf(data, "fesol1ugl"), valueOf(data, "znsolugl"));
+	}
+
+	private static double valueOf(Map<String, Object> data, String key) {
+		Object value = data.get(key);
+		return value == null ? Double.NaN : ((Number) value).doubleValue();
+	}
+}
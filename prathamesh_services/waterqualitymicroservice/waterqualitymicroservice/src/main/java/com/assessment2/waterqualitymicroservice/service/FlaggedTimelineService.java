@@ -0,0 +1,127 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.assessment2.waterqualitymicroservice.config.TimelineProperties;
+import com.assessment2.waterqualitymicroservice.model.RecordPage;
+import com.assessment2.waterqualitymicroservice.model.WaterQualityReading;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+
+/**
+ * Service class for the total dissolved solids and safety flags of all readings of a time range.
+ *
+ * <p>The readings are requested from the monitoring service page by page with the cursor of
+ * the previous page; only the id, the timestamp and the values of {@link WaterQualityReading}
+ * are transferred. Every page is evaluated as one batch by {@link WaterSafetyEvaluator}, with the
+ * same rules as the latest record, on the parallel scheduler while the next page is requested.
+ * The whole range is evaluated with the {@link ThresholdRules} current when it was requested,
+ * even if they are replaced while it is streamed.
+ * The readings are emitted in timestamp order as soon as their page is evaluated, the range is
+ * never held in memory.</p>
+ *
+ * <p>The first page is requested before the readings are returned, so a failure of the monitoring
+ * service can still be answered with an error status. If a later page fails the records end with
+ * an error record, which has the cursor to continue the range at as {@code after}.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Service
+public class FlaggedTimelineService {
+
+	private static final Logger logger = LoggerFactory.getLogger(FlaggedTimelineService.class); // logger
+
+	private final MonitoringClient monitoringClient;
+	private final TimelineProperties properties;
+	private final ThresholdRules thresholdRules;
+
+	/**
+	 * Constructor for FlaggedTimelineService.
+	 *
+	 * @param monitoringClient the client used for communicating with the monitoring service.
+	 * @param properties Settings with the page size and the parallelism.
+	 * @param thresholdRules the rules the readings are evaluated with.
+	 */
+	public FlaggedTimelineService(MonitoringClient monitoringClient, TimelineProperties properties,
+			ThresholdRules thresholdRules) {
+		this.monitoringClient = monitoringClient;
+		this.properties = properties;
+		this.thresholdRules = thresholdRules;
+	}
+
+	/**
+	 * Retrieves the readings of a time range with the total dissolved solids and the safety flag.
+	 *
+	 * @param from start of the time range (inclusive).
+	 * @param to end of the time range (exclusive).
+	 * @param profile the name of the threshold profile, {@code null} for the default profile.
+	 * @param after cursor to continue the range at, {@code null} to start at {@code from}.
+	 * @return the first page once it is received, with the id, timestamp and values of every
+	 *         reading with {@code totalDissolvedSolids} and {@code safetyFlag} added, ordered by
+	 *         timestamp. If a later page fails the last record has {@code error}, {@code message}
+	 *         and {@code after} instead. Fails if the first page can not be requested.
+	 * @throws IllegalArgumentException if there is no profile with that name.
+	 */
+	public Mono<Flux<Map<String, Object>>> getFlaggedRecords(LocalDateTime from, LocalDateTime to, String profile, String after) {
+		ThresholdKernel kernel = thresholdRules.current();
+		int index = kernel.profile(profile);
+		logger.info("Fetching flagged water quality records from {} to {}", from, to);
+		return page(after, from, to)
+				.doOnError(e -> logger.error("Could not fetch the flagged water quality records: {}", e.getMessage()))
+				.defaultIfEmpty(new RecordPage(List.of(), null))
+				.map(first -> Flux.just(new Page(first.records(), first.next(), null))
+						.expand(page -> page.next() == null ? Mono.empty() : nextPage(page.next(), from, to))
+						.flatMapSequential(page -> page.error() != null ? Mono.just(List.of(page.error()))
+								: Mono.fromCallable(() -> flagAll(page.records(), kernel, index)).subscribeOn(Schedulers.parallel()),
+								Math.max(1, properties.getParallelism()))
+						.flatMapIterable(records -> records));
+	}
+
+	/**
+	 * Requests one page of the time range.
+	 */
+	private Mono<RecordPage> page(String after, LocalDateTime from, LocalDateTime to) {
+		return monitoringClient.getRecordsPage(after, from, to, properties.getPageSize(), WaterQualityReading.FIELDS);
+	}
+
+	/**
+	 * Requests a page after the first one, a failure becomes the error record which ends the records.
+	 */
+	private Mono<Page> nextPage(String after, LocalDateTime from, LocalDateTime to) {
+		return page(after, from, to)
+				.map(page -> new Page(page.records(), page.next(), null))
+				.onErrorResume(e -> {
+					logger.error("Flagged water quality records stopped at cursor {}: {}", after, e.getMessage());
+					return Mono.just(new Page(List.of(), null,
+							Map.of("error", "Incomplete range", "message", String.valueOf(e.getMessage()), "after", after)));
+				});
+	}
+
+	/**
+	 * A page of readings, or the error record of a page which could not be requested.
+	 */
+	private record Page(List<Map<String, Object>> records, String next, Map<String, Object> error) {
+	}
+
+	/**
+	 * Evaluates one page of readings.
+	 */
+	private static List<Map<String, Object>> flagAll(List<Map<String, Object>> records, ThresholdKernel kernel, int profile) {
+		List<Map<String, Object>> flagged = new ArrayList<>(records.size());
+		for (Map<String, Object> record : records) {
+			flagged.add(WaterSafetyEvaluator.flag(record, kernel, profile).data());
+		}
+		return flagged;
+	}
+}
@@ -0,0 +1,217 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.assessment2.waterqualitymicroservice.config.LatestCacheProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Single-flight cache of the latest flagged water quality record.
+ *
+ * <p>
+ * Only one call to the monitoring service runs at a time: a request which finds a call in
+ * flight waits for its result instead of starting another one, so any number of concurrent
+ * requests cost one upstream call. A successful result is kept for the TTL of
+ * {@link LatestCacheProperties}; after it, the result is returned stale while one background
+ * call refreshes it, until the stale time is over too. Errors and empty responses are shared
+ * by the waiting requests but not kept. The calls do not block: a waiting request holds no
+ * thread and a cancelled request does not cancel the call the others wait for.
+ * </p>
+ *
+ * <p>
+ * Every call and result is tagged with the {@link ThresholdKernel} which was current when the
+ * call started. A result is only cached and only returned from the cache while that kernel is
+ * still current, so a call which was in flight when the rules were replaced is not cached.
+ * </p>
+ *
+ * <p>
+ * The requests are counted in {@code waterquality.latest.requests} with a {@code result} tag
+ * ({@code hit}, {@code stale} or {@code miss}), {@code waterquality.latest.cache.hit.ratio}
+ * is the share of requests answered from the cache and {@code waterquality.upstream.calls}
+ * counts the calls to the monitoring service.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+public class LatestFlaggedCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(LatestFlaggedCache.class); // logger
+	private static final String REQUESTS = "waterquality.latest.requests";
+
+	private final long ttlNanos;
+	private final long staleNanos;
+	private final ThresholdRules thresholdRules;
+	private final AtomicReference<Entry> entry = new AtomicReference<>();
+	private final AtomicReference<Call> inFlight = new AtomicReference<>();
+
+	private final Counter hits;
+	private final Counter staleHits;
+	private final Counter misses;
+	private final Counter upstreamCalls;
+
+
+	/**
+	 * Constructor for LatestFlaggedCache.
+	 *
+	 * @param properties Settings with the TTL and the stale time.
+	 * @param thresholdRules the rules the cached results are flagged with.
+	 * @param registry Registry the meters are added to.
+	 */
+	public LatestFlaggedCache(LatestCacheProperties properties, ThresholdRules thresholdRules, MeterRegistry registry) {
+		this.ttlNanos = properties.getTtl().toNanos();
+		this.staleNanos = properties.getStaleWhileRevalidate().toNanos();
+		this.thresholdRules = thresholdRules;
+		this.hits = Counter.builder(REQUESTS).tag("result", "hit")
+				.description("Requests for the latest flagged record").register(registry);
+		this.staleHits = Counter.builder(REQUESTS).tag("result", "stale")
+				.description("Requests for the latest flagged record").register(registry);
+		this.misses = Counter.builder(REQUESTS).tag("result", "miss")
+				.description("Requests for the latest flagged record").register(registry);
+		this.upstreamCalls = Counter.builder("waterquality.upstream.calls")
+				.description("Calls to the monitoring service for the latest record").register(registry);
+		Gauge.builder("waterquality.latest.cache.hit.ratio", this, LatestFlaggedCache::hitRatio)
+				.description("Share of the requests answered from the cache").register(registry);
+	}
+
+
+	/**
+	 * Returns the cached result, or loads it with one shared call of {@code loader}.
+	 *
+	 * @param loader calls the monitoring service and computes the flagged result, it is
+	 *        subscribed once per shared call, in the background on a stale hit.
+	 * @return the fresh or stale result, or the result of the shared call, looked up when the
+	 *         returned {@link Mono} is subscribed.
+	 */
+	public Mono<ResponseEntity<Map<String, Object>>> get(Supplier<Mono<ResponseEntity<Map<String, Object>>>> loader) {
+		return Mono.defer(() -> {
+			Entry cached = entry.get();
+			if (cached != null && cached.kernel() == thresholdRules.current()) {
+				long age = System.nanoTime() - cached.loadedAt();
+				if (age < ttlNanos) {
+					hits.increment();
+					return Mono.just(cached.response());
+				}
+				if (age < ttlNanos + staleNanos) {
+					staleHits.increment();
+					load(loader); // joins the call in flight, if there is one
+					return Mono.just(cached.response());
+				}
+			}
+			misses.increment();
+			// Cancelling one request must not cancel the call the other requests wait for
+			return Mono.fromFuture(load(loader), true);
+		});
+	}
+
+	/**
+	 * Removes the cached result, the next request calls the monitoring service.
+	 */
+	public void invalidate() {
+		entry.set(null);
+	}
+
+	/**
+	 * Removes the cached result when the threshold rules are replaced, it was flagged with the old rules.
+	 * A result stored afterwards by a call started with the old rules is ignored because of its kernel.
+	 *
+	 * @param changed the event with the new rules.
+	 */
+	@EventListener
+	public void onRulesChanged(ThresholdRules.Changed changed) {
+		invalidate();
+	}
+
+	/**
+	 * Joins the call in flight or starts a new one. A call started with older rules is not
+	 * joined, its waiting requests still get its result.
+	 */
+	private CompletableFuture<ResponseEntity<Map<String, Object>>> load(Supplier<Mono<ResponseEntity<Map<String, Object>>>> loader) {
+		ThresholdKernel kernel = thresholdRules.current();
+		while (true) {
+			Call running = inFlight.get();
+			if (running != null && running.kernel() == kernel) {
+				return running.result();
+			}
+			Call call = new Call(new CompletableFuture<>(), kernel);
+			if (inFlight.compareAndSet(running, call)) {
+				// A call which finished just before may have loaded a fresh result already
+				Entry cached = entry.get();
+				if (cached != null && cached.kernel() == kernel && System.nanoTime() - cached.loadedAt() < ttlNanos) {
+					inFlight.compareAndSet(call, null);
+					call.result().complete(cached.response());
+					return call.result();
+				}
+				upstreamCalls.increment();
+				Mono.defer(loader)
+						.defaultIfEmpty(ResponseEntity.noContent().build())
+						.subscribe(response -> complete(call, response), error -> fail(call, error));
+				return call.result();
+			}
+		}
+	}
+
+	/**
+	 * Completes the shared call. The result is cached and the call removed before the waiting
+	 * requests get it, so a later request finds the new result. If the rules were replaced
+	 * while the call was in flight the result may be flagged with the old rules and is not cached.
+	 */
+	private void complete(Call call, ResponseEntity<Map<String, Object>> response) {
+		if (response.getStatusCode().is2xxSuccessful() && response.hasBody()) {
+			if (call.kernel() == thresholdRules.current()) {
+				entry.set(new Entry(response, System.nanoTime(), call.kernel()));
+			} else {
+				logger.debug("Not caching the latest flagged record, the threshold rules were replaced.");
+			}
+		}
+		inFlight.compareAndSet(call, null);
+		call.result().complete(response);
+	}
+
+	/**
+	 * Fails the shared call, nothing is cached.
+	 */
+	private void fail(Call call, Throwable error) {
+		logger.warn("Loading the latest flagged record failed: {}", error.getMessage());
+		inFlight.compareAndSet(call, null);
+		call.result().completeExceptionally(error);
+	}
+
+	/**
+	 * Computes the share of the requests answered from the cache.
+	 *
+	 * @return the ratio from 0 to 1, {@code NaN} before the first request.
+	 */
+	double hitRatio() {
+		double cached = hits.count() + staleHits.count();
+		double total = cached + misses.count();
+		return total == 0 ? Double.NaN : cached / total;
+	}
+
+	/**
+	 * A cached result, the {@link System#nanoTime()} it was loaded at and the rules it was flagged with.
+	 */
+	private record Entry(ResponseEntity<Map<String, Object>> response, long loadedAt, ThresholdKernel kernel) {
+	}
+
+	/**
+	 * A shared call and the rules which were current when it started.
+	 */
+	private record Call(CompletableFuture<ResponseEntity<Map<String, Object>>> result, ThresholdKernel kernel) {
+	}
+}
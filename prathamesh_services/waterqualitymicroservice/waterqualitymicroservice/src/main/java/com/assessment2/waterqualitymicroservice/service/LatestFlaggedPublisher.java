@@ -0,0 +1,108 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.assessment2.waterqualitymicroservice.model.FlaggedReading;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+
+/**
+ * Holds the latest water reading with its total dissolved solids and safety flag.
+ *
+ * <p>
+ * The {@link ReadingSubscription} publishes every new reading, which is evaluated once by
+ * {@link WaterSafetyEvaluator} and replaces the previous {@link FlaggedReading}. A request
+ * only reads the reference, it never waits for the monitoring service or computes anything.
+ * A reading with the same id as the latest one, which polling returns until a new reading
+ * arrives, is not evaluated again. When the {@link ThresholdRules} are replaced, the latest
+ * reading is evaluated again with the new rules; the two updates are serialized, the requests
+ * still only read the reference. The {@link ReadingSubscription} clears the reading when its
+ * source has been failing for too long, the requests then call the monitoring service again
+ * and report its errors instead of an old reading.
+ * </p>
+ *
+ * <p>
+ * The evaluated readings are counted in {@code waterquality.latest.published}.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+public class LatestFlaggedPublisher {
+
+	private final AtomicReference<FlaggedReading> latest = new AtomicReference<>();
+	private final ThresholdRules thresholdRules;
+	private final Counter published;
+
+
+	/**
+	 * Constructor for LatestFlaggedPublisher.
+	 *
+	 * @param thresholdRules the rules the readings are evaluated with.
+	 * @param registry Registry the meters are added to.
+	 */
+	public LatestFlaggedPublisher(ThresholdRules thresholdRules, MeterRegistry registry) {
+		this.thresholdRules = thresholdRules;
+		this.published = Counter.builder("waterquality.latest.published")
+				.description("New readings evaluated and published").register(registry);
+	}
+
+
+	/**
+	 * Retrieves the latest published reading.
+	 *
+	 * @return the reading, or {@code null} if none has been published yet.
+	 */
+	public FlaggedReading getLatest() {
+		return latest.get();
+	}
+
+	/**
+	 * Evaluates a new reading and publishes it.
+	 *
+	 * @param record the fields of the reading as returned by the monitoring service.
+	 * @return {@code true} if the reading was published, {@code false} if it is empty or already the latest one.
+	 */
+	public synchronized boolean publish(Map<String, Object> record) {
+		if (record == null || record.isEmpty()) {
+			return false;
+		}
+		FlaggedReading current = latest.get();
+		if (current != null && current.id() != null && Objects.equals(current.id(), record.get("id"))) {
+			return false;
+		}
+		latest.set(WaterSafetyEvaluator.flag(record, thresholdRules.current()));
+		published.increment();
+		return true;
+	}
+
+	/**
+	 * Removes the latest reading, it is no longer known to be the latest one.
+	 *
+	 * @return {@code true} if a reading was removed.
+	 */
+	public synchronized boolean clear() {
+		return latest.getAndSet(null) != null;
+	}
+
+	/**
+	 * Evaluates the latest reading again with the new rules.
+	 *
+	 * @param changed the event with the new rules.
+	 */
+	@EventListener
+	public synchronized void onRulesChanged(ThresholdRules.Changed changed) {
+		FlaggedReading current = latest.get();
+		if (current != null) {
+			latest.set(WaterSafetyEvaluator.flag(current.data(), changed.kernel()));
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.assessment2.waterqualitymicroservice.model.RecordPage;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+
+/**
+ * Client for the water monitoring service.
+ *
+ * <p>The calls are made with the pooled {@link WebClient} of
+ * {@link com.assessment2.waterqualitymicroservice.config.MonitoringClientConfiguration} and do
+ * not block the calling thread. An error status of the monitoring service is signalled as a
+ * {@link org.springframework.web.reactive.function.client.WebClientResponseException}, a
+ * connection failure or a timeout as a
+ * {@link org.springframework.web.reactive.function.client.WebClientRequestException}.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+public class MonitoringClient {
+
+	private static final ParameterizedTypeReference<Map<String, Object>> RECORD = new ParameterizedTypeReference<>() {
+	};
+	private static final ParameterizedTypeReference<ServerSentEvent<Map<String, Object>>> RECORD_EVENT = new ParameterizedTypeReference<>() {
+	};
+	private static final String READING_EVENT = "reading"; // name of the events with a reading
+
+	private final WebClient monitoringWebClient;
+
+	/**
+	 * Constructor for MonitoringClient.
+	 *
+	 * @param monitoringWebClient the client with the base URL of the monitoring service.
+	 */
+	public MonitoringClient(WebClient monitoringWebClient) {
+		this.monitoringWebClient = monitoringWebClient;
+	}
+
+	/**
+	 * Requests the latest water reading.
+	 *
+	 * @return the response of the monitoring service, without a body when there are no records.
+	 */
+	public Mono<ResponseEntity<Map<String, Object>>> getLatestRecord() {
+		return monitoringWebClient.get()
+				.uri("/records/latest")
+				.retrieve()
+				.toEntity(RECORD);
+	}
+
+	/**
+	 * Requests one page of the water readings of a time range, ordered by timestamp.
+	 *
+	 * @param after cursor of the previous page, {@code null} for the first page.
+	 * @param from start of the time range (inclusive).
+	 * @param to end of the time range (exclusive).
+	 * @param limit maximum number of readings in the page.
+	 * @param fields comma separated fields returned next to id and timestamp.
+	 * @return the page, empty when there are no more readings.
+	 */
+	public Mono<RecordPage> getRecordsPage(String after, LocalDateTime from, LocalDateTime to, int limit, String fields) {
+		return monitoringWebClient.get()
+				.uri(uriBuilder -> uriBuilder.path("/records")
+						.queryParamIfPresent("after", Optional.ofNullable(after))
+						.queryParam("from", from)
+						.queryParam("to", to)
+						.queryParam("limit", limit)
+						.queryParam("fields", fields)
+						.build())
+				.retrieve()
+				.bodyToMono(RecordPage.class);
+	}
+
+	/**
+	 * Subscribes to the new water readings of {@code /records/stream}.
+	 *
+	 * <p>The stream is idle between the readings, so the read timeout of the other calls does
+	 * not apply; it fails when no data, not even a heartbeat, arrives within {@code idleTimeout}.
+	 * The heartbeats are not emitted.</p>
+	 *
+	 * @param idleTimeout the longest time without data on the stream.
+	 * @return the readings in the order they were committed, completes when the monitoring
+	 *         service closes the stream.
+	 */
+	public Flux<Map<String, Object>> streamRecords(Duration idleTimeout) {
+		return monitoringWebClient.get()
+				.uri("/records/stream")
+				.accept(MediaType.TEXT_EVENT_STREAM)
+				.httpRequest(request -> request.<HttpClientRequest>getNativeRequest().responseTimeout(idleTimeout))
+				.retrieve()
+				.bodyToFlux(RECORD_EVENT)
+				.filter(event -> READING_EVENT.equals(event.event()) && event.data() != null)
+				.map(ServerSentEvent::data);
+	}
+}
@@ -0,0 +1,160 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.assessment2.waterqualitymicroservice.config.ReadingSourceProperties;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+
+/**
+ * Receives the new water readings from the monitoring service and publishes them to the
+ * {@link LatestFlaggedPublisher}.
+ *
+ * <p>
+ * The source is set by {@link ReadingSourceProperties}. The stream first asks for the latest
+ * reading, so a result is published before the next reading is committed, and then receives
+ * every new reading; it is opened again when the monitoring service closes it or it fails.
+ * Polling asks for the latest reading at a fixed interval, a tick is skipped while the
+ * previous call is still running. Nothing blocks a thread, and the requests do not wait for
+ * any of it.
+ * </p>
+ *
+ * <p>
+ * When the source keeps failing for longer than the idle timeout, the published reading is
+ * cleared, so the requests call the monitoring service themselves and report its errors
+ * instead of returning a reading which may be hours old. The next reading received is
+ * published again.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+public class ReadingSubscription {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReadingSubscription.class); // logger
+
+	private final MonitoringClient monitoringClient;
+	private final LatestFlaggedPublisher latestFlaggedPublisher;
+	private final ReadingSourceProperties properties;
+	private volatile Disposable subscription;
+	private volatile boolean failing; // the source failed since it last worked
+	private volatile long failingSince; // System.nanoTime() of the first failure
+
+
+	/**
+	 * Constructor for ReadingSubscription.
+	 *
+	 * @param monitoringClient the client of the monitoring service.
+	 * @param latestFlaggedPublisher the publisher of the evaluated readings.
+	 * @param properties Settings of the source.
+	 */
+	public ReadingSubscription(MonitoringClient monitoringClient, LatestFlaggedPublisher latestFlaggedPublisher,
+			ReadingSourceProperties properties) {
+		this.monitoringClient = monitoringClient;
+		this.latestFlaggedPublisher = latestFlaggedPublisher;
+		this.properties = properties;
+	}
+
+
+	/**
+	 * Subscribes to the configured source, the readings arrive in the background.
+	 */
+	@PostConstruct
+	public void start() {
+		if (properties.getType() == ReadingSourceProperties.Type.NONE) {
+			logger.info("No source of new readings, the latest reading is fetched per request");
+			return;
+		}
+		Flux<Map<String, Object>> readings = properties.getType() == ReadingSourceProperties.Type.POLL ? polled() : streamed();
+		logger.info("Receiving new readings from the monitoring service by {}", properties.getType());
+		subscription = readings.subscribe(this::publish,
+				error -> logger.error("Receiving new readings stopped", error));
+	}
+
+	/**
+	 * Stops receiving readings when the application shuts down.
+	 */
+	@PreDestroy
+	public void stop() {
+		Disposable current = subscription;
+		if (current != null) {
+			current.dispose();
+		}
+	}
+
+	/**
+	 * The latest reading, then every new reading of the stream, opened again when it ends.
+	 */
+	private Flux<Map<String, Object>> streamed() {
+		return Flux.defer(() -> latest().concatWith(monitoringClient.streamRecords(properties.getIdleTimeout())))
+				.doOnError(error -> {
+					logger.warn("Stream of new readings failed: {}", error.getMessage());
+					failed();
+				})
+				.retryWhen(Retry.fixedDelay(Long.MAX_VALUE, properties.getReconnectDelay()))
+				.repeatWhen(completed -> completed.delayElements(properties.getReconnectDelay()));
+	}
+
+	/**
+	 * The latest reading at every poll interval, failed calls are skipped.
+	 */
+	private Flux<Map<String, Object>> polled() {
+		return Flux.interval(Duration.ZERO, properties.getPollInterval())
+				.onBackpressureDrop()
+				.concatMap(tick -> latest()
+						.doOnSuccess(record -> failing = false)
+						.onErrorResume(error -> {
+							logger.warn("Polling the latest reading failed: {}", error.getMessage());
+							failed();
+							return Mono.empty();
+						}), 1);
+	}
+
+	/**
+	 * Publishes a reading, a reading which cannot be evaluated is skipped so the source is kept.
+	 */
+	private void publish(Map<String, Object> record) {
+		failing = false;
+		try {
+			latestFlaggedPublisher.publish(record);
+		} catch (RuntimeException e) {
+			logger.warn("Skipped a reading which could not be evaluated: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Records a failure of the source and clears the published reading once the source has
+	 * been failing for longer than the idle timeout.
+	 */
+	private void failed() {
+		long now = System.nanoTime();
+		if (!failing) {
+			failingSince = now;
+			failing = true;
+		} else if (now - failingSince > properties.getIdleTimeout().toNanos() && latestFlaggedPublisher.clear()) {
+			logger.warn("Receiving new readings has been failing for longer than {}, the latest reading is requested per request",
+					properties.getIdleTimeout());
+		}
+	}
+
+	/**
+	 * The latest reading, empty when there are no records.
+	 */
+	private Mono<Map<String, Object>> latest() {
+		return Mono.defer(monitoringClient::getLatestRecord)
+				.mapNotNull(ResponseEntity::getBody);
+	}
+}
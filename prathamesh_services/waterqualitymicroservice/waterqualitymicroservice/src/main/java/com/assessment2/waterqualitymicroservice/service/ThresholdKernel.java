@@ -0,0 +1,173 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.assessment2.waterqualitymicroservice.model.ThresholdRule;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import com.assessment2.waterqualitymicroservice.model.WaterQualityReading;
+
+
+/**
+ * The threshold rules of a {@link ThresholdRuleTable} compiled to one flat array of bounds.
+ *
+ * <p>Every profile is a block of 18 doubles, the lowest and the highest safe value
+ * of each of the {@link #PARAMETERS}. The rules of a parameter are merged into its two bounds
+ * when the table is compiled, {@code >=} and {@code <=} become {@code >} and {@code <} of the next
+ * double, and a parameter without rules has infinite bounds. An evaluation is then the same nine
+ * pairs of comparisons for any number of rules and profiles, without lookups, branches per rule
+ * or allocation; a value which was not measured is {@code NaN} and never breaches its bounds.</p>
+ *
+ * <p>A kernel is immutable, {@link ThresholdRules} replaces it as a whole when the rules are
+ * reloaded. The index returned by {@link #profile(String)} is only valid for the kernel which
+ * returned it.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public final class ThresholdKernel {
+
+	/**
+	 * The names of the values a rule can limit, in the order of the bounds of a profile.
+	 */
+	public static final List<String> PARAMETERS = List.of("totalDissolvedSolids", "phph", "alkmgl", "conduscm",
+			"no2nmgl", "cusol1mgl", "cusol2ugl", "fesol1ugl", "znsolugl");
+
+	private static final int STRIDE = 18; // a lower and an upper bound per parameter
+
+	private final ThresholdRuleTable table;
+	private final double[] bounds;
+	private final Map<String, Integer> profiles;
+	private final int defaultProfile;
+
+	private ThresholdKernel(ThresholdRuleTable table, double[] bounds, Map<String, Integer> profiles, int defaultProfile) {
+		this.table = table;
+		this.bounds = bounds;
+		this.profiles = profiles;
+		this.defaultProfile = defaultProfile;
+	}
+
+	/**
+	 * Compiles the rules of every profile of a table.
+	 *
+	 * @param table the profiles and their rules.
+	 * @return the kernel.
+	 * @throws IllegalArgumentException if the table has no profiles, the default profile does not
+	 *         exist or a rule has an unknown parameter, an unknown operator or no limit.
+	 */
+	public static ThresholdKernel compile(ThresholdRuleTable table) {
+		if (table == null || table.profiles().isEmpty()) {
+			throw new IllegalArgumentException("At least one profile is required");
+		}
+		double[] bounds = new double[table.profiles().size() * STRIDE];
+		Map<String, Integer> profiles = new HashMap<>();
+		int offset = 0;
+		for (Map.Entry<String, List<ThresholdRule>> profile : table.profiles().entrySet()) {
+			for (int i = 0; i < STRIDE; i += 2) {
+				bounds[offset + i] = Double.NEGATIVE_INFINITY;
+				bounds[offset + i + 1] = Double.POSITIVE_INFINITY;
+			}
+			if (profile.getValue() != null) {
+				for (ThresholdRule rule : profile.getValue()) {
+					merge(bounds, offset, profile.getKey(), rule);
+				}
+			}
+			profiles.put(profile.getKey(), offset);
+			offset += STRIDE;
+		}
+
+		String defaultName = table.defaultProfile() == null ? table.profiles().keySet().iterator().next() : table.defaultProfile();
+		Integer defaultProfile = profiles.get(defaultName);
+		if (defaultProfile == null) {
+			throw new IllegalArgumentException("Unknown default profile: " + defaultName);
+		}
+		return new ThresholdKernel(table, bounds, Map.copyOf(profiles), defaultProfile);
+	}
+
+	/**
+	 * Narrows the bounds of the parameter of a rule.
+	 */
+	private static void merge(double[] bounds, int offset, String profile, ThresholdRule rule) {
+		int parameter = rule == null || rule.parameter() == null ? -1 : PARAMETERS.indexOf(rule.parameter());
+		if (parameter < 0) {
+			throw new IllegalArgumentException("Unknown parameter in profile " + profile + ": " + (rule == null ? null : rule.parameter()));
+		}
+		if (rule.limit() == null || rule.limit().isNaN()) {
+			throw new IllegalArgumentException("Missing limit of " + rule.parameter() + " in profile " + profile);
+		}
+		int lower = offset + 2 * parameter;
+		int upper = lower + 1;
+		double limit = rule.limit();
+		switch (String.valueOf(rule.operator())) {
+			case ">" -> bounds[upper] = Math.min(bounds[upper], limit);
+			case ">=" -> bounds[upper] = Math.min(bounds[upper], Math.nextDown(limit));
+			case "<" -> bounds[lower] = Math.max(bounds[lower], limit);
+			case "<=" -> bounds[lower] = Math.max(bounds[lower], Math.nextUp(limit));
+			default -> throw new IllegalArgumentException("Unknown operator of " + rule.parameter() + " in profile " + profile
+					+ ": " + rule.operator());
+		}
+	}
+
+	/**
+	 * Looks up a profile.
+	 *
+	 * @param name the name of the profile, {@code null} for the default profile.
+	 * @return the index of the profile in this kernel.
+	 * @throws IllegalArgumentException if there is no profile with that name.
+	 */
+	public int profile(String name) {
+		if (name == null) {
+			return defaultProfile;
+		}
+		Integer profile = profiles.get(name);
+		if (profile == null) {
+			throw new IllegalArgumentException("Unknown profile: " + name);
+		}
+		return profile;
+	}
+
+	/**
+	 * Retrieves the index of the default profile.
+	 *
+	 * @return the index of the profile used when a request does not name one.
+	 */
+	public int defaultProfile() {
+		return defaultProfile;
+	}
+
+	/**
+	 * Retrieves the table this kernel was compiled from.
+	 *
+	 * @return the profiles and their rules.
+	 */
+	public ThresholdRuleTable table() {
+		return table;
+	}
+
+	/**
+	 * Checks the values of a reading against the bounds of a profile.
+	 *
+	 * @param profile the index of the profile, from {@link #profile(String)}.
+	 * @param reading the water quality reading.
+	 * @param totalDissolvedSolids the total dissolved solids of the reading.
+	 * @return {@code true} if no threshold is breached.
+	 */
+	public boolean isSafe(int profile, WaterQualityReading reading, double totalDissolvedSolids) {
+		final double[] b = bounds;
+		final int o = profile;
+		return !(breaches(totalDissolvedSolids, b[o], b[o + 1])
+				|| breaches(reading.phph(), b[o + 2], b[o + 3])
+				|| breaches(reading.alkmgl(), b[o + 4], b[o + 5])
+				|| breaches(reading.conduscm(), b[o + 6], b[o + 7])
+				|| breaches(reading.no2nmgl(), b[o + 8], b[o + 9])
+				|| breaches(reading.cusol1mgl(), b[o + 10], b[o + 11])
+				|| breaches(reading.cusol2ugl(), b[o + 12], b[o + 13])
+				|| breaches(reading.fesol1ugl(), b[o + 14], b[o + 15])
+				|| breaches(reading.znsolugl(), b[o + 16], b[o + 17]));
+	}
+
+	private static boolean breaches(double value, double lower, double upper) {
+		return value < lower || value > upper;
+	}
+}
@@ -0,0 +1,134 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.assessment2.waterqualitymicroservice.config.ThresholdRulesProperties;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+
+/**
+ * Holds the compiled threshold rules the water readings are evaluated with.
+ *
+ * <p>
+ * The rules are read from the file of {@link ThresholdRulesProperties}, or are the built-in WHO
+ * profile, and compiled to a {@link ThresholdKernel} at startup. {@link #reload()} reads the file
+ * again and {@link #replace(ThresholdRuleTable)} takes new rules from the rules endpoint; the new
+ * kernel is compiled first and then swapped in with one reference update. Invalid rules are
+ * rejected and the current ones are kept. An evaluation takes the kernel once and uses it to the
+ * end, so a reload never waits for the requests in flight, and they never see a mix of old and
+ * new rules.
+ * </p>
+ *
+ * <p>
+ * Every new kernel is published as a {@link Changed} event, so the results which were computed
+ * with the old rules are evaluated again.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Component
+public class ThresholdRules {
+
+	private static final Logger logger = LoggerFactory.getLogger(ThresholdRules.class); // logger
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final ThresholdRulesProperties properties;
+	private final ResourceLoader resourceLoader;
+	private final ApplicationEventPublisher eventPublisher;
+	private final AtomicReference<ThresholdKernel> kernel;
+
+
+	/**
+	 * Constructor for ThresholdRules, reads and compiles the rules.
+	 *
+	 * @param properties Settings with the location of the rules.
+	 * @param resourceLoader the loader of the rules file.
+	 * @param eventPublisher the publisher of the {@link Changed} events.
+	 * @throws IllegalArgumentException if the rules are not valid.
+	 */
+	public ThresholdRules(ThresholdRulesProperties properties, ResourceLoader resourceLoader,
+			ApplicationEventPublisher eventPublisher) {
+		this.properties = properties;
+		this.resourceLoader = resourceLoader;
+		this.eventPublisher = eventPublisher;
+		this.kernel = new AtomicReference<>(ThresholdKernel.compile(read()));
+		logger.info("Threshold rules with the profiles {}", kernel.get().table().profiles().keySet());
+	}
+
+
+	/**
+	 * Retrieves the current rules, to be used for a whole evaluation.
+	 *
+	 * @return the compiled rules.
+	 */
+	public ThresholdKernel current() {
+		return kernel.get();
+	}
+
+	/**
+	 * Reads the rules file again and replaces the current rules.
+	 *
+	 * @return the new compiled rules.
+	 * @throws IllegalArgumentException if the file does not contain valid rules.
+	 * @throws UncheckedIOException if the file cannot be read.
+	 */
+	public ThresholdKernel reload() {
+		return replace(read());
+	}
+
+	/**
+	 * Compiles new rules and replaces the current rules with them.
+	 *
+	 * @param table the profiles and their rules.
+	 * @return the new compiled rules.
+	 * @throws IllegalArgumentException if the rules are not valid, the current rules are kept.
+	 */
+	public synchronized ThresholdKernel replace(ThresholdRuleTable table) {
+		ThresholdKernel compiled = ThresholdKernel.compile(table);
+		ThresholdRuleTable old = kernel.getAndSet(compiled).table();
+		// The rules decide the safety flags, every change is logged for the audit
+		logger.warn("Threshold rules replaced, profiles {} with default {} by profiles {} with default {}",
+				old.profiles().keySet(), old.defaultProfile(), compiled.table().profiles().keySet(), compiled.table().defaultProfile());
+		eventPublisher.publishEvent(new Changed(compiled));
+		return compiled;
+	}
+
+	/**
+	 * Reads the rules file, or returns the built-in WHO profile if no file is configured.
+	 */
+	private ThresholdRuleTable read() {
+		String location = properties.getLocation();
+		if (!StringUtils.hasText(location)) {
+			return ThresholdRuleTable.who();
+		}
+		try (InputStream in = resourceLoader.getResource(location).getInputStream()) {
+			return objectMapper.readValue(in, ThresholdRuleTable.class);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Invalid threshold rules in " + location + ": " + e.getOriginalMessage());
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read the threshold rules of " + location, e);
+		}
+	}
+
+
+	/**
+	 * Published when the rules were replaced.
+	 *
+	 * @param kernel the new compiled rules.
+	 */
+	public record Changed(ThresholdKernel kernel) {
+	}
+}
@@ -1,26 +1,37 @@
 package com.assessment2.waterqualitymicroservice.service;
 
-import org.springframework.web.client.RestTemplate;
-
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.ResourceAccessException;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.Map;
 
+import com.assessment2.waterqualitymicroservice.model.FlaggedReading;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import reactor.core.publisher.Mono;
+
 
 /**
  * Service class for handling water quality calculations.
  * 
  * <p>This service interacts with the water monitoring service to retrieve the latest water quality data,
  * calculates the total dissolved solids and other water quality values and 
- * sets the safety flag based on WHO parameters.</p>
+ * sets the safety flag based on WHO parameters, or on another profile of the {@link ThresholdRules}.</p>
+ * 
+ * <p>The calculations are done by {@link WaterSafetyEvaluator} on a typed
+ * {@link com.assessment2.waterqualitymicroservice.model.WaterQualityReading},
+ * the response is the data of the monitoring service with the two values added. The results are
+ * cached for a short time by {@link LatestFlaggedCache}. The monitoring service is called with the
+ * non-blocking {@link MonitoringClient}, no thread waits for its response.</p>
+ * 
+ * <p>When new readings are received in the background, each one is evaluated once and published by
+ * {@link LatestFlaggedPublisher}; the latest record is then read from memory and the monitoring
+ * service is only called per request until the first reading is published, or again while the
+ * source of the readings has been failing for longer than its idle timeout.</p>
  * 
  * @author Prathamesh Belnekar
  * @version 1.0
@@ -28,161 +39,126 @@ import org.slf4j.LoggerFactory;
 @Service
 public class WaterQualityService {
 
-	private final RestTemplate restTemplate;
+	private final MonitoringClient monitoringClient;
+	private final LatestFlaggedCache latestFlaggedCache;
+	private final LatestFlaggedPublisher latestFlaggedPublisher;
+	private final ThresholdRules thresholdRules;
 	private static final Logger logger = LoggerFactory.getLogger(WaterQualityService.class); // logger
-	private static final String MONITORING_SERVICE_URL = "http://localhost:8081/watermonitoring/records/latest"; // water data url
 
 	/**
-	 * Constructs a WaterQualityService with a RestTemplate for external API calls.
+	 * Constructs a WaterQualityService with a MonitoringClient for external API calls.
 	 *
-	 * @param restTemplate the RestTemplate used for communicating with the monitoring service.
+	 * @param monitoringClient the client used for communicating with the monitoring service.
+	 * @param latestFlaggedCache the cache which shares the calls for the latest record.
+	 * @param latestFlaggedPublisher the publisher of the readings received in the background.
+	 * @param thresholdRules the rules the readings are evaluated with.
 	 */
-	public WaterQualityService(RestTemplate restTemplate) {
-		this.restTemplate = restTemplate;
-	}
-
-    /**
-     * Fetches the latest water quality record from the monitoring service and processes the data.
-     * 
-     * <p>This method makes an HTTP GET request to the water monitoring service to retrieve the latest water quality data.
-     * and then calculates the total dissolved solids (TDS), evaluates the water safety flag based on the WHO parameters.</p>
-     * 
-     * @return a ResponseEntity containing the water quality data with TDS and safety flag, or an error message.
-     */
-	public ResponseEntity<Map<String, Object>> getLatestWaterQuality() {
-		try {
-			logger.info("Fetching latest water quality data from monitoring service...");
-
-
-			// Fetch the data from the water monitoring service
-			ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-					MONITORING_SERVICE_URL,
-					HttpMethod.GET, null, new ParameterizedTypeReference<Map<String, Object>>() {
-
-					});
-
-			// checks if response was successful and valid data is present
-			if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null && !response.getBody().isEmpty()) {
-				Map<String, Object> waterReadings = response.getBody();
-
-				// Calculates total dissolved solids
-				double totalDissolvedSolids = calculateDisolvedSolids(waterReadings);
-				logger.debug("Calculated total Disolved solids: {}", totalDissolvedSolids);
-
-				// Calculates water safety and adds a flag
-				String safetyFlag = waterSafetyCheck(waterReadings, totalDissolvedSolids);
-				logger.debug("Water safety flag: {}", safetyFlag);
-
-				// Adds total dissolved solids to the response
-				waterReadings.put("totalDissolvedSolids", totalDissolvedSolids);
-
-				// Adds a safety flag to the response
-				waterReadings.put("safetyFlag", safetyFlag);
-
-				logger.info("Successfully processed water quality data.");
-				return ResponseEntity.ok(waterReadings);
-			}
-
-			logger.warn("No water quality data found.");
-			return ResponseEntity.noContent().build();
-
-		} catch (ResourceAccessException ex) {
-			logger.error("Service timeout while fetching water quality data", ex.getMessage());
-			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-					.body(Map.of("error", "Service timeout", "message", ex.getMessage()));
-
-		} catch(RuntimeException re) {
-			logger.error("Other errors fetching water quality data", re.getMessage());
-			return ResponseEntity.internalServerError().body(Map.of("error","Internal server error"));
-
-		} catch (Exception e) {
-			logger.error("Other errors fetching water quality data", e);
-			return ResponseEntity.internalServerError().body(Map.of("error", "failed to fetch water data"));
-		}
+	public WaterQualityService(MonitoringClient monitoringClient, LatestFlaggedCache latestFlaggedCache,
+			LatestFlaggedPublisher latestFlaggedPublisher, ThresholdRules thresholdRules) {
+		this.monitoringClient = monitoringClient;
+		this.latestFlaggedCache = latestFlaggedCache;
+		this.latestFlaggedPublisher = latestFlaggedPublisher;
+		this.thresholdRules = thresholdRules;
 	}
 
-	
 	/**
-	 * Calculates the total dissolved solids from the water quality data.
+	 * Retrieves the latest water quality record with the total dissolved solids and the safety flag.
 	 * 
-	 * <p>Total dissolved solids is the sum of Cusol1, Cusol2, Fesol1, and Znsol </p>
+	 * <p>The reading published by {@link LatestFlaggedPublisher} is returned as it is, without any
+	 * call or computation. Before the first reading is published, without a source of new readings,
+	 * or when the source has been failing for too long, the result is served from the
+	 * {@link LatestFlaggedCache}: concurrent requests share one call of {@link #fetchLatestWaterQuality()}
+	 * and a recent result is returned without calling the monitoring service at all.</p>
 	 * 
-	 * @param data the water quality data of all dissolved substances.
-	 * @return the calculated total dissolved solids.
+	 * @return a Mono of the ResponseEntity containing the water quality data with TDS and safety flag, or an error message.
 	 */
-	private double calculateDisolvedSolids(Map<String, Object> data) {
-
-		logger.debug("Calculating total dissolved solids...");
-
-		double totalDissolvedSolids = 0.0;
-
-		if (data.containsKey("cusol1mgl") && data.get("cusol1mgl") != null) {
-
-			totalDissolvedSolids += ((Number) data.get("cusol1mgl")).doubleValue();
+	public Mono<ResponseEntity<Map<String, Object>>> getLatestWaterQuality() {
+		FlaggedReading latest = latestFlaggedPublisher.getLatest();
+		if (latest != null) {
+			return Mono.just(ResponseEntity.ok(latest.data()));
 		}
-
-		if (data.containsKey("cusol2ugl") && data.get("cusol2ugl") != null) {
-			totalDissolvedSolids += convertUglToMgL(((Number) data.get("cusol2ugl")).doubleValue());
-		}
-
-		if (data.containsKey("fesol1ugl") && data.get("fesol1ugl") != null) {
-			totalDissolvedSolids += convertUglToMgL(((Number) data.get("fesol1ugl")).doubleValue());
-		}
-
-		if (data.containsKey("znsolugl") && data.get("znsolugl") != null) {
-			totalDissolvedSolids += convertUglToMgL(((Number) data.get("znsolugl")).doubleValue());
-		}
-		return totalDissolvedSolids;
+		return latestFlaggedCache.get(this::fetchLatestWaterQuality);
 	}
 
 	/**
-	 * Converts the values from micrograms per liter(ug/L) to milligrams per liter(mg/L).
+	 * Retrieves the latest water quality record flagged with the thresholds of a profile.
 	 * 
-	 * @param value is the value to be converted in ug/L.
-	 * @return the converted value in mg/L.
+	 * <p>The record of the default profile is returned by {@link #getLatestWaterQuality()}; for
+	 * another profile that record is evaluated again, which does not call the monitoring service.</p>
+	 * 
+	 * @param profile the name of the profile, {@code null} for the default profile.
+	 * @return a Mono of the ResponseEntity containing the water quality data with TDS and safety flag, or an error message.
+	 * @throws IllegalArgumentException if there is no profile with that name.
 	 */
-	private double convertUglToMgL(double value) {
-		return value / 1000; // Converts ug/L to mg/L
+	public Mono<ResponseEntity<Map<String, Object>>> getLatestWaterQuality(String profile) {
+		ThresholdKernel kernel = thresholdRules.current();
+		int index = kernel.profile(profile);
+		if (index == kernel.defaultProfile()) {
+			return getLatestWaterQuality();
+		}
+		return getLatestWaterQuality().map(response -> hasData(response)
+				? ResponseEntity.ok(WaterSafetyEvaluator.flag(response.getBody(), kernel, index).data())
+				: response);
+	}
+
+    /**
+     * Fetches the latest water quality record from the monitoring service and processes the data.
+     * 
+     * <p>This method makes an HTTP GET request to the water monitoring service to retrieve the latest water quality data.
+     * and then calculates the total dissolved solids (TDS), evaluates the water safety flag based on the WHO parameters.
+     * Errors of the monitoring service are returned as error responses, the Mono does not fail.</p>
+     * 
+     * @return a Mono of the ResponseEntity containing the water quality data with TDS and safety flag, or an error message.
+     */
+	public Mono<ResponseEntity<Map<String, Object>>> fetchLatestWaterQuality() {
+		logger.info("Fetching latest water quality data from monitoring service...");
+
+		// Fetch the data from the water monitoring service
+		return monitoringClient.getLatestRecord()
+				.map(this::flagWaterQuality)
+				.defaultIfEmpty(ResponseEntity.noContent().build())
+				.onErrorResume(WebClientRequestException.class, ex -> {
+					logger.error("Service timeout while fetching water quality data", ex.getMessage());
+					return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+							.body(Map.of("error", "Service timeout", "message", String.valueOf(ex.getMessage()))));
+				})
+				.onErrorResume(RuntimeException.class, re -> {
+					logger.error("Other errors fetching water quality data", re.getMessage());
+					return Mono.just(ResponseEntity.internalServerError().body(Map.of("error", "Internal server error")));
+				})
+				.onErrorResume(e -> {
+					logger.error("Other errors fetching water quality data", e);
+					return Mono.just(ResponseEntity.internalServerError().body(Map.of("error", "failed to fetch water data")));
+				});
 	}
 
 	/**
-	 * Checks if the water quality data is safe based on predefined conditions for ph, alkalinity, conductivity,
-	 * nitrite and total dissolved solids.
-	 * 
-	 * @param data has the water quality data.
-	 * @param totalDissolvedSolidsValue the calculated total dissolved solids.
-	 * @return a string indicating that if the water is safe ("Green") or unsafe ("Red").
+	 * Adds the total dissolved solids and the safety flag to the response of the monitoring service.
+	 *
+	 * @param response the response of the monitoring service.
+	 * @return the water quality data with TDS and safety flag, or no content when there is no data.
 	 */
-	private String waterSafetyCheck(Map<String, Object> data, double totalDissolvedSolidsValue) {
-		Double ph = checkNullValue(data, "phph");
-		Double alkalinity = checkNullValue(data, "alkmgl");
-		Double conductivity = checkNullValue(data, "conduscm");
-		Double nitrite = checkNullValue(data, "no2nmgl");
-
-		if (totalDissolvedSolidsValue > 1000 ||
-				(ph != null && (ph < 6.5 || ph > 8.5)) ||
-				(alkalinity != null && alkalinity > 500) ||
-				(conductivity != null && conductivity > 2000) ||
-				(nitrite != null && nitrite >= 1)) {
-
-			return "Red";	
+	private ResponseEntity<Map<String, Object>> flagWaterQuality(ResponseEntity<Map<String, Object>> response) {
+		// checks if response was successful and valid data is present
+		if (hasData(response)) {
+			// Reads the values once, the evaluation then works on primitive fields and
+			// adds total dissolved solids and the safety flag to a copy of the response
+			FlaggedReading flagged = WaterSafetyEvaluator.flag(response.getBody(), thresholdRules.current());
+			logger.debug("Calculated total Disolved solids: {}", flagged.totalDissolvedSolids());
+			logger.debug("Water safety flag: {}", flagged.safetyFlag());
+
+			logger.info("Successfully processed water quality data.");
+			return ResponseEntity.ok(flagged.data());
 		}
-		return "Green";
+
+		logger.warn("No water quality data found.");
+		return ResponseEntity.noContent().build();
 	}
 
 	/**
-	 * Checks if the data contains the required key and returns its value
-	 * if not than returns null
-	 * 
-	 * @param data is the water quality data.
-	 * @param key is the key to check in the data parameter.
-	 * @return the value associated with the key or null.
+	 * Checks if a response was successful and has water quality data.
 	 */
-	private Double checkNullValue(Map<String, Object> data, String key) {
-		if (!data.containsKey(key) || data.get(key) == null) {
-			return null;
-		}
-
-		return ((Number) data.get(key)).doubleValue();
+	private static boolean hasData(ResponseEntity<Map<String, Object>> response) {
+		return response.getStatusCode().is2xxSuccessful() && response.getBody() != null && !response.getBody().isEmpty();
 	}
 }
@@ -0,0 +1,102 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.assessment2.waterqualitymicroservice.model.FlaggedReading;
+import com.assessment2.waterqualitymicroservice.model.WaterQualityReading;
+
+
+/**
+ * Calculates the total dissolved solids and the safety flag of a {@link WaterQualityReading}.
+ *
+ * <p>{@link #totalDissolvedSolids} and {@link #safetyFlag} work on primitive doubles only, so
+ * they do no map lookups, no boxing and no allocation. {@link #flag} is not free of them: it
+ * reads the values from the map of the monitoring service and copies the map to add the
+ * results. A value which was not measured is {@code NaN}: it adds nothing to the total
+ * dissolved solids, and every comparison with {@code NaN} is false, so it never breaches its
+ * threshold.</p>
+ *
+ * <p>The water is unsafe ("Red") if a value breaches a threshold of the regulatory profile,
+ * otherwise it is safe ("Green"). The thresholds are the compiled rules of a
+ * {@link ThresholdKernel}, by default the WHO profile of
+ * {@link com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable#who()}.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+public final class WaterSafetyEvaluator {
+
+	public static final String SAFE = "Green";
+	public static final String UNSAFE = "Red";
+
+	private WaterSafetyEvaluator() {
+	}
+
+	/**
+	 * Calculates the total dissolved solids, the sum of Cusol1, Cusol2, Fesol1 and Znsol in mg/L.
+	 *
+	 * @param reading the water quality reading.
+	 * @return the total dissolved solids, 0 if none of the values was measured.
+	 */
+	public static double totalDissolvedSolids(WaterQualityReading reading) {
+		return orZero(reading.cusol1mgl())
+				+ convertUglToMgL(orZero(reading.cusol2ugl()))
+				+ convertUglToMgL(orZero(reading.fesol1ugl()))
+				+ convertUglToMgL(orZero(reading.znsolugl()));
+	}
+
+	/**
+	 * Retrieves the safety flag of a reading.
+	 *
+	 * @param kernel the compiled threshold rules.
+	 * @param profile the index of the profile in {@code kernel}.
+	 * @param reading the water quality reading.
+	 * @param totalDissolvedSolids the total dissolved solids of the reading.
+	 * @return "Green" if the water is safe, "Red" if it is not.
+	 */
+	public static String safetyFlag(ThresholdKernel kernel, int profile, WaterQualityReading reading, double totalDissolvedSolids) {
+		return kernel.isSafe(profile, reading, totalDissolvedSolids) ? SAFE : UNSAFE;
+	}
+
+	/**
+	 * Evaluates a reading of the monitoring service once with the default profile.
+	 *
+	 * @param record the fields of the reading as returned by the monitoring service.
+	 * @param kernel the compiled threshold rules.
+	 * @return the reading with {@code totalDissolvedSolids} and {@code safetyFlag} added.
+	 */
+	public static FlaggedReading flag(Map<String, Object> record, ThresholdKernel kernel) {
+		return flag(record, kernel, kernel.defaultProfile());
+	}
+
+	/**
+	 * Evaluates a reading of the monitoring service once.
+	 *
+	 * @param record the fields of the reading as returned by the monitoring service.
+	 * @param kernel the compiled threshold rules.
+	 * @param profile the index of the profile in {@code kernel}.
+	 * @return the reading with {@code totalDissolvedSolids} and {@code safetyFlag} added.
+	 */
+	public static FlaggedReading flag(Map<String, Object> record, ThresholdKernel kernel, int profile) {
+		WaterQualityReading reading = WaterQualityReading.fromMap(record);
+		double totalDissolvedSolids = totalDissolvedSolids(reading);
+		String safetyFlag = safetyFlag(kernel, profile, reading, totalDissolvedSolids);
+
+		Map<String, Object> data = new LinkedHashMap<>(record);
+		data.put("totalDissolvedSolids", totalDissolvedSolids);
+		data.put("safetyFlag", safetyFlag);
+		return new FlaggedReading(data, totalDissolvedSolids, safetyFlag);
+	}
+
+	/**
+	 * Converts the values from micrograms per liter(ug/L) to milligrams per liter(mg/L).
+	 */
+	private static double convertUglToMgL(double value) {
+		return value / 1000; // Converts ug/L to mg/L
+	}
+
+	private static double orZero(double value) {
+		return Double.isNaN(value) ? 0.0 : value;
+	}
+}
@@ -3,7 +3,7 @@ package com.assessment2.waterqualitymicroservice;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "waterquality.source.type=none") // no background subscription to the monitoring service
 class WaterqualitymicroserviceApplicationTests {
 
 	@Test
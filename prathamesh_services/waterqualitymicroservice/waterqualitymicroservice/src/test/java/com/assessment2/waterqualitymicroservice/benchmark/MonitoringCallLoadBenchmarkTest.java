@@ -0,0 +1,217 @@
+package com.assessment2.waterqualitymicroservice.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.assessment2.waterqualitymicroservice.config.LatestCacheProperties;
+import com.assessment2.waterqualitymicroservice.service.LatestFlaggedCache;
+import com.assessment2.waterqualitymicroservice.service.ThresholdRules;
+import com.assessment2.waterqualitymicroservice.service.WaterSafetyEvaluator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Reports the throughput and the peak number of threads of 1000 concurrent HTTP clients asking
+ * for the flagged latest record while the monitoring service takes {@value #UPSTREAM_DELAY_MILLIS} ms
+ * to answer.
+ *
+ * <p>Both variants are requested over HTTP from the application on a random port, so the
+ * requests go through Tomcat with its {@value #TOMCAT_THREADS} request threads. "after" is
+ * {@code /waterquality/records/latestflagged}, the {@link Mono} of the controller is completed by
+ * an async dispatch. "before" is a test endpoint which calls a plain {@link RestTemplate} on
+ * the request thread, like {@code WaterQualityService} used to. The cache is replaced by one
+ * which does not cache or share calls, every request calls the stub monitoring service.</p>
+ *
+ * <p>The clients are one non-blocking WebClient with {@value #CLIENTS} connections, its few
+ * event loop threads are counted in both variants. "after" runs first, the request threads
+ * Tomcat starts for "before" would otherwise still be alive. Run it with
+ * {@code mvn test -Pbenchmark}.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"waterquality.monitoring.max-connections=1000",
+		"waterquality.source.type=none",
+		"server.tomcat.threads.max=" + MonitoringCallLoadBenchmarkTest.TOMCAT_THREADS,
+		"logging.level.com.assessment2.waterqualitymicroservice=WARN"
+})
+public class MonitoringCallLoadBenchmarkTest {
+
+	static final int TOMCAT_THREADS = 200;
+	private static final int CLIENTS = 1000;
+	private static final int REQUESTS = 10_000;
+	private static final long UPSTREAM_DELAY_MILLIS = 50;
+	private static final String BLOCKING_PATH = "/benchmark/blocking/latestflagged";
+	private static final String RECORD = """
+			{"id":"72399005","phph":7.7,"alkmgl":95,"conduscm":270.8,"no2nmgl":0.011,\
+			"cusol1mgl":0.002,"cusol2ugl":0.76,"fesol1ugl":146.5,"znsolugl":5}""";
+
+	private static DisposableServer monitoring;
+
+	@LocalServerPort
+	private int port;
+
+	/**
+	 * Starts the stub monitoring service and points the client at it.
+	 */
+	@DynamicPropertySource
+	static void monitoringProperties(DynamicPropertyRegistry registry) {
+		monitoring = HttpServer.create()
+				.port(0)
+				.route(routes -> routes.get("/watermonitoring/records/latest", (request, response) -> response
+						.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+						.sendString(Mono.just(RECORD).delayElement(Duration.ofMillis(UPSTREAM_DELAY_MILLIS)))))
+				.bindNow();
+		registry.add("waterquality.monitoring.base-url", () -> "http://localhost:" + monitoring.port() + "/watermonitoring");
+	}
+
+	@AfterAll
+	static void stopMonitoring() {
+		monitoring.disposeNow();
+	}
+
+	/**
+	 * Measures both endpoints with the same number of clients and requests.
+	 */
+	@Test
+	void compareMonitoringCalls() throws Exception {
+		ConnectionProvider connections = ConnectionProvider.builder("benchmark-clients")
+				.maxConnections(CLIENTS)
+				.pendingAcquireMaxCount(-1)
+				.build();
+		WebClient clients = WebClient.builder()
+				.clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+				.baseUrl("http://localhost:" + port)
+				.build();
+		try {
+			Result after = measure("after (WebClient)    ", requests -> run(clients, "/waterquality/records/latestflagged", requests));
+			Result before = measure("before (RestTemplate)", requests -> run(clients, BLOCKING_PATH, requests));
+
+			assertThat(after.requestsPerSecond()).isGreaterThan(before.requestsPerSecond());
+			assertThat(after.peakThreads()).isLessThan(before.peakThreads());
+		} finally {
+			connections.disposeLater().block();
+		}
+	}
+
+	/**
+	 * Sends the requests to an endpoint with {@value #CLIENTS} in flight.
+	 */
+	private static void run(WebClient clients, String path, int requests) {
+		long flagged = Flux.range(0, requests)
+				.flatMap(i -> clients.get().uri(path).retrieve().toBodilessEntity(), CLIENTS)
+				.filter(response -> response.getStatusCode().is2xxSuccessful())
+				.count()
+				.block();
+		assertThat(flagged).isEqualTo(requests);
+	}
+
+	private static Result measure(String name, Load load) throws Exception {
+		load.run(CLIENTS); // warm up, opens the connections and starts the event loops
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		threads.resetPeakThreadCount();
+
+		long start = System.nanoTime();
+		load.run(REQUESTS);
+		long nanos = System.nanoTime() - start;
+
+		Result result = new Result(REQUESTS * TimeUnit.SECONDS.toNanos(1) / nanos, threads.getPeakThreadCount());
+		System.out.printf("%s %,d requests/s, peak %d threads%n", name, result.requestsPerSecond(), result.peakThreads());
+		return result;
+	}
+
+
+	/**
+	 * Runs the given number of requests.
+	 */
+	@FunctionalInterface
+	private interface Load {
+		void run(int requests) throws Exception;
+	}
+
+	/**
+	 * Throughput and peak number of live threads of one run.
+	 */
+	private record Result(long requestsPerSecond, int peakThreads) {
+	}
+
+
+	/**
+	 * Adds the blocking endpoint and a cache which calls the monitoring service for every request.
+	 */
+	@TestConfiguration
+	@Import(BlockingLatestController.class)
+	static class Endpoints {
+
+		@Bean
+		@Primary
+		LatestFlaggedCache uncachedLatestFlaggedCache(LatestCacheProperties properties, ThresholdRules thresholdRules) {
+			return new LatestFlaggedCache(properties, thresholdRules, new SimpleMeterRegistry()) {
+				@Override
+				public Mono<ResponseEntity<Map<String, Object>>> get(Supplier<Mono<ResponseEntity<Map<String, Object>>>> loader) {
+					return Mono.defer(loader);
+				}
+			};
+		}
+	}
+
+	/**
+	 * The latest flagged record as it was served before, the request thread waits for the call.
+	 */
+	@RestController
+	static class BlockingLatestController {
+
+		private static final ParameterizedTypeReference<Map<String, Object>> TYPE = new ParameterizedTypeReference<>() {
+		};
+
+		private final RestTemplate restTemplate = new RestTemplate();
+		private final ThresholdRules thresholdRules;
+
+		BlockingLatestController(ThresholdRules thresholdRules) {
+			this.thresholdRules = thresholdRules;
+		}
+
+		@GetMapping(BLOCKING_PATH)
+		public Map<String, Object> latestFlagged() {
+			String url = "http://localhost:" + monitoring.port() + "/watermonitoring/records/latest";
+			ResponseEntity<Map<String, Object>> response = restTemplate.exchange(url, HttpMethod.GET, null, TYPE);
+			return WaterSafetyEvaluator.flag(response.getBody(), thresholdRules.current()).data();
+		}
+	}
+}
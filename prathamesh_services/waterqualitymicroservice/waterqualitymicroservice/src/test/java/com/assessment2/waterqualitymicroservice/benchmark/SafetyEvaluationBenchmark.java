@@ -0,0 +1,168 @@
+package com.assessment2.waterqualitymicroservice.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import com.assessment2.waterqualitymicroservice.model.WaterQualityReading;
+import com.assessment2.waterqualitymicroservice.service.ThresholdKernel;
+import com.assessment2.waterqualitymicroservice.service.WaterSafetyEvaluator;
+
+
+/**
+ * JMH benchmark of the safety evaluation of a reading the way {@code WaterQualityService} used
+ * to do it on the map of the JSON response, and with the {@link WaterSafetyEvaluator} on a typed
+ * {@link WaterQualityReading}.
+ *
+ * <p>{@code mapBased} is a copy of the old {@code calculateDisolvedSolids} and {@code waterSafetyCheck},
+ * the kernels use the compiled WHO profile, which has the same thresholds.
+ * {@code typedKernel} evaluates readings which were already converted, {@code mapToTypedKernel}
+ * also converts the map first, which is what the service does per request. The readings cycle
+ * through a few samples, some with missing values, so the JIT can not fold the result.
+ * Run it with {@code mvn test -Pbenchmark}, which starts {@link SafetyEvaluationBenchmarkTest}
+ * with the GC profiler; {@code gc.alloc.rate.norm} is the number of bytes allocated per evaluation.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SafetyEvaluationBenchmark {
+
+	private static final int SAMPLES = 8;
+
+	private final Map<String, Object>[] maps = newMapArray();
+	private final WaterQualityReading[] readings = new WaterQualityReading[SAMPLES];
+	private final ThresholdKernel kernel = ThresholdKernel.compile(ThresholdRuleTable.who());
+	private int next;
+
+	/**
+	 * Creates the sample readings, as Jackson would read them into a map and as typed readings.
+	 */
+	@Setup
+	public void createReadings() {
+		for (int i = 0; i < SAMPLES; i++) {
+			Map<String, Object> data = new LinkedHashMap<>();
+			data.put("id", "72399005-00e4-4f72-b8d5-e5b2aebb3cb" + i);
+			data.put("objectId", 1115 + i);
+			data.put("phph", 6.0 + i * 0.4);
+			data.put("alkmgl", i % 3 == 0 ? null : 95.0 + i * 80);
+			data.put("conduscm", 270.8 + i * 300);
+			data.put("bodmgl", 2.4);
+			data.put("no2nmgl", i % 4 == 0 ? null : 0.011 * i);
+			data.put("cusol1mgl", 0.002);
+			data.put("cusol2ugl", 0.76);
+			data.put("fesol1ugl", 146.5 + i);
+			if (i % 2 == 0) {
+				data.put("znsolugl", 5); // an integer, like Jackson reads 5 instead of 5.0
+			}
+			data.put("timestamp", "2025-03-16T21:30:31");
+			maps[i] = data;
+			readings[i] = WaterQualityReading.fromMap(data);
+		}
+	}
+
+	/**
+	 * Evaluates the map the way the service used to.
+	 */
+	@Benchmark
+	public void mapBased(Blackhole blackhole) {
+		Map<String, Object> data = maps[nextIndex()];
+		double totalDissolvedSolids = calculateDisolvedSolids(data);
+		blackhole.consume(totalDissolvedSolids);
+		blackhole.consume(waterSafetyCheck(data, totalDissolvedSolids));
+	}
+
+	/**
+	 * Evaluates a typed reading with the primitive kernel.
+	 */
+	@Benchmark
+	public void typedKernel(Blackhole blackhole) {
+		WaterQualityReading reading = readings[nextIndex()];
+		double totalDissolvedSolids = WaterSafetyEvaluator.totalDissolvedSolids(reading);
+		blackhole.consume(totalDissolvedSolids);
+		blackhole.consume(WaterSafetyEvaluator.safetyFlag(kernel, kernel.defaultProfile(), reading, totalDissolvedSolids));
+	}
+
+	/**
+	 * Converts the map to a typed reading and evaluates it, as the service does now.
+	 */
+	@Benchmark
+	public void mapToTypedKernel(Blackhole blackhole) {
+		WaterQualityReading reading = WaterQualityReading.fromMap(maps[nextIndex()]);
+		double totalDissolvedSolids = WaterSafetyEvaluator.totalDissolvedSolids(reading);
+		blackhole.consume(totalDissolvedSolids);
+		blackhole.consume(WaterSafetyEvaluator.safetyFlag(kernel, kernel.defaultProfile(), reading, totalDissolvedSolids));
+	}
+
+	private int nextIndex() {
+		int index = next;
+		next = (index + 1) & (SAMPLES - 1);
+		return index;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object>[] newMapArray() {
+		return new Map[SAMPLES];
+	}
+
+
+	// The map based evaluation of WaterQualityService before the WaterSafetyEvaluator.
+
+	private static double calculateDisolvedSolids(Map<String, Object> data) {
+		double totalDissolvedSolids = 0.0;
+		if (data.containsKey("cusol1mgl") && data.get("cusol1mgl") != null) {
+			totalDissolvedSolids += ((Number) data.get("cusol1mgl")).doubleValue();
+		}
+		if (data.containsKey("cusol2ugl") && data.get("cusol2ugl") != null) {
+			totalDissolvedSolids += ((Number) data.get("cusol2ugl")).doubleValue() / 1000;
+		}
+		if (data.containsKey("fesol1ugl") && data.get("fesol1ugl") != null) {
+			totalDissolvedSolids += ((Number) data.get("fesol1ugl")).doubleValue() / 1000;
+		}
+		if (data.containsKey("znsolugl") && data.get("znsolugl") != null) {
+			totalDissolvedSolids += ((Number) data.get("znsolugl")).doubleValue() / 1000;
+		}
+		return totalDissolvedSolids;
+	}
+
+	private static String waterSafetyCheck(Map<String, Object> data, double totalDissolvedSolidsValue) {
+		Double ph = checkNullValue(data, "phph");
+		Double alkalinity = checkNullValue(data, "alkmgl");
+		Double conductivity = checkNullValue(data, "conduscm");
+		Double nitrite = checkNullValue(data, "no2nmgl");
+
+		if (totalDissolvedSolidsValue > 1000 ||
+				(ph != null && (ph < 6.5 || ph > 8.5)) ||
+				(alkalinity != null && alkalinity > 500) ||
+				(conductivity != null && conductivity > 2000) ||
+				(nitrite != null && nitrite >= 1)) {
+			return "Red";
+		}
+		return "Green";
+	}
+
+	private static Double checkNullValue(Map<String, Object> data, String key) {
+		if (!data.containsKey(key) || data.get(key) == null) {
+			return null;
+		}
+		return ((Number) data.get(key)).doubleValue();
+	}
+}
@@ -0,0 +1,38 @@
+package com.assessment2.waterqualitymicroservice.benchmark;
+
+import java.util.Collection;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Runs the {@link SafetyEvaluationBenchmark} JMH benchmark from the benchmark test profile.
+ * Run it with {@code mvn test -Pbenchmark}, JMH prints the operations per second and, from the
+ * GC profiler, the bytes allocated per operation ({@code gc.alloc.rate.norm}) at the end.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Tag("benchmark")
+public class SafetyEvaluationBenchmarkTest {
+
+	/**
+	 * Compares the map based evaluation with the typed kernel.
+	 */
+	@Test
+	void compareSafetyEvaluations() throws Exception {
+		Collection<RunResult> results = new Runner(new OptionsBuilder()
+				.include(SafetyEvaluationBenchmark.class.getName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+
+		assertThat(results).hasSize(3);
+	}
+}
@@ -0,0 +1,171 @@
+package com.assessment2.waterqualitymicroservice.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.assessment2.waterqualitymicroservice.model.ThresholdRule;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import com.assessment2.waterqualitymicroservice.model.WaterQualityReading;
+import com.assessment2.waterqualitymicroservice.service.ThresholdKernel;
+import com.assessment2.waterqualitymicroservice.service.WaterSafetyEvaluator;
+
+
+/**
+ * JMH benchmark of the safety evaluation with a growing number of threshold rules per profile
+ * and of profiles.
+ *
+ * <p>{@code kernel} evaluates a reading with the {@link ThresholdKernel} and a profile index,
+ * {@code kernelByName} also looks the profile up by its name, as a request with a
+ * {@code profile} parameter does. {@code interpreted} checks every rule of the profile in a
+ * loop, which is what evaluating the rule table without compiling it costs. The readings and
+ * the profiles cycle through random samples, so the JIT can not fold the result and the bounds
+ * of many profiles are read. Run it with {@code mvn test -Pbenchmark}, which starts
+ * {@link ThresholdKernelBenchmarkTest}.</p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThresholdKernelBenchmark {
+
+	private static final int SAMPLES = 1024;
+	private static final String[] OPERATORS = {"<", "<=", ">", ">="};
+
+	@Param({"6", "60", "600"})
+	public int rulesPerProfile;
+
+	@Param({"1", "100", "1000"})
+	public int profiles;
+
+	private ThresholdKernel kernel;
+	private final List<List<ThresholdRule>> tables = new ArrayList<>();
+	private final WaterQualityReading[] readings = new WaterQualityReading[SAMPLES];
+	private final double[] totalDissolvedSolids = new double[SAMPLES];
+	private final String[] names = new String[SAMPLES];
+	private final int[] indexes = new int[SAMPLES];
+	private final int[] positions = new int[SAMPLES];
+	private int next;
+
+	/**
+	 * Creates the random profiles and readings.
+	 */
+	@Setup
+	public void createRules() {
+		Random random = new Random(42);
+		Map<String, List<ThresholdRule>> table = new LinkedHashMap<>();
+		for (int p = 0; p < profiles; p++) {
+			List<ThresholdRule> rules = new ArrayList<>(rulesPerProfile);
+			for (int r = 0; r < rulesPerProfile; r++) {
+				String operator = OPERATORS[random.nextInt(OPERATORS.length)];
+				// Lower limits below, upper limits above the values, so most readings are safe
+				double limit = operator.startsWith("<") ? random.nextDouble() * 10 : 990 + random.nextDouble() * 20;
+				rules.add(new ThresholdRule(ThresholdKernel.PARAMETERS.get(r % ThresholdKernel.PARAMETERS.size()), operator, limit));
+			}
+			table.put("station-" + p, rules);
+			tables.add(rules);
+		}
+		kernel = ThresholdKernel.compile(new ThresholdRuleTable(null, table));
+
+		for (int i = 0; i < SAMPLES; i++) {
+			readings[i] = new WaterQualityReading(value(random), value(random), value(random), value(random),
+					value(random), value(random), value(random), value(random));
+			totalDissolvedSolids[i] = WaterSafetyEvaluator.totalDissolvedSolids(readings[i]);
+			positions[i] = random.nextInt(profiles);
+			names[i] = "station-" + positions[i];
+			indexes[i] = kernel.profile(names[i]);
+		}
+	}
+
+	/**
+	 * Evaluates a reading with the compiled bounds of a profile.
+	 */
+	@Benchmark
+	public void kernel(Blackhole blackhole) {
+		int i = nextIndex();
+		blackhole.consume(kernel.isSafe(indexes[i], readings[i], totalDissolvedSolids[i]));
+	}
+
+	/**
+	 * Looks the profile up by name and evaluates a reading with its compiled bounds.
+	 */
+	@Benchmark
+	public void kernelByName(Blackhole blackhole) {
+		int i = nextIndex();
+		blackhole.consume(kernel.isSafe(kernel.profile(names[i]), readings[i], totalDissolvedSolids[i]));
+	}
+
+	/**
+	 * Checks every rule of the profile, without compiling them.
+	 */
+	@Benchmark
+	public void interpreted(Blackhole blackhole) {
+		int i = nextIndex();
+		blackhole.consume(isSafe(tables.get(positions[i]), readings[i], totalDissolvedSolids[i]));
+	}
+
+	private int nextIndex() {
+		int index = next;
+		next = (index + 1) & (SAMPLES - 1);
+		return index;
+	}
+
+	private static double value(Random random) {
+		return random.nextInt(8) == 0 ? Double.NaN : 5 + random.nextDouble() * 990;
+	}
+
+
+	// Evaluation of the rule list, one comparison per rule.
+
+	private static boolean isSafe(List<ThresholdRule> rules, WaterQualityReading reading, double totalDissolvedSolids) {
+		for (ThresholdRule rule : rules) {
+			double value = valueOf(rule.parameter(), reading, totalDissolvedSolids);
+			double limit = rule.limit();
+			boolean breached = switch (rule.operator()) {
+				case "<" -> value < limit;
+				case "<=" -> value <= limit;
+				case ">" -> value > limit;
+				default -> value >= limit;
+			};
+			if (breached) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static double valueOf(String parameter, WaterQualityReading reading, double totalDissolvedSolids) {
+		return switch (parameter) {
+			case "phph" -> reading.phph();
+			case "alkmgl" -> reading.alkmgl();
+			case "conduscm" -> reading.conduscm();
+			case "no2nmgl" -> reading.no2nmgl();
+			case "cusol1mgl" -> reading.cusol1mgl();
+			case "cusol2ugl" -> reading.cusol2ugl();
+			case "fesol1ugl" -> reading.fesol1ugl();
+			case "znsolugl" -> reading.znsolugl();
+			default -> totalDissolvedSolids;
+		};
+	}
+}
@@ -0,0 +1,51 @@
+package com.assessment2.waterqualitymicroservice.benchmark;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Runs the {@link ThresholdKernelBenchmark} JMH benchmark from the benchmark test profile.
+ * Run it with {@code mvn test -Pbenchmark}, JMH prints the operations per second of every
+ * number of rules and profiles at the end.
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@Tag("benchmark")
+public class ThresholdKernelBenchmarkTest {
+
+	/**
+	 * Checks that the kernel costs the same for any number of rules, and about the same for any
+	 * number of profiles, while checking the rules one by one gets slower.
+	 */
+	@Test
+	void compareRuleTableSizes() throws Exception {
+		Collection<RunResult> results = new Runner(new OptionsBuilder()
+				.include(ThresholdKernelBenchmark.class.getName())
+				.build()).run();
+
+		assertThat(results).hasSize(27);
+		Map<String, Double> scores = new HashMap<>();
+		for (RunResult result : results) {
+			String benchmark = result.getParams().getBenchmark();
+			scores.put(benchmark.substring(benchmark.lastIndexOf('.') + 1)
+					+ "/" + result.getParams().getParam("rulesPerProfile")
+					+ "/" + result.getParams().getParam("profiles"), result.getPrimaryResult().getScore());
+		}
+		for (String profiles : new String[] {"1", "100", "1000"}) {
+			assertThat(scores.get("kernel/600/" + profiles)).isGreaterThan(0.75 * scores.get("kernel/6/" + profiles));
+			assertThat(scores.get("kernel/600/" + profiles)).isGreaterThan(scores.get("interpreted/600/" + profiles));
+		}
+		assertThat(scores.get("kernel/6/1000")).isGreaterThan(0.5 * scores.get("kernel/6/1"));
+	}
+}
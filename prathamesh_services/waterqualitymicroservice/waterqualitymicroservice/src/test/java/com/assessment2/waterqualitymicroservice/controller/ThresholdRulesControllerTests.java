@@ -0,0 +1,184 @@
+package com.assessment2.waterqualitymicroservice.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.assessment2.waterqualitymicroservice.config.ThresholdRulesProperties;
+import com.assessment2.waterqualitymicroservice.service.MonitoringClient;
+import com.assessment2.waterqualitymicroservice.service.ThresholdRules;
+
+import reactor.core.publisher.Mono;
+
+
+
+/**
+ * Tests for {@link ThresholdRulesController}.
+ *
+ * <p>
+ * The test covers Retrieving the current rule profiles.
+ * Replacing the profiles, which changes the safety flag of the next request.
+ * Rejecting invalid profiles and keeping the current ones.
+ * Reloading the built-in WHO profile.
+ * Refusing updates when they are not enabled.
+ * </p>
+ *
+ * @author Prathamesh Belnekar
+ * @version 1.0
+ */
+@SpringBootTest(properties = {"waterquality.latest.ttl=0s", "waterquality.latest.stale-while-revalidate=0s",
+		"waterquality.source.type=none", // every test calls the mocked service
+		"waterquality.rules.update-enabled=true"})
+@AutoConfigureMockMvc
+public class ThresholdRulesControllerTests {
+
+	private static final String STRICT = """
+			{"defaultProfile": "strict", "profiles": {
+			  "strict": [{"parameter": "phph", "operator": ">", "limit": 7.0}]
+			}}""";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ThresholdRules thresholdRules;
+
+	@Autowired
+	private ThresholdRulesProperties thresholdRulesProperties;
+
+	@MockBean
+	private MonitoringClient monitoringClient;
+
+	/**
+	 * Restores the built-in WHO profile, the application context is shared by the tests.
+	 */
+	@AfterEach
+	void restoreRules() {
+		thresholdRulesProperties.setUpdateEnabled(true);
+		thresholdRules.reload();
+	}
+
+
+	/**
+	 * Test case for the built-in WHO profile.
+	 *
+	 * @throws Exception If there is an error during the test.
+	 */
+	@Test
+	void testGetRules() throws Exception {
+
+		// Act & Assert: Verify the WHO profile and its nitrite threshold
+		mockMvc.perform(get("/waterquality/rules"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.defaultProfile").value("who"))
+		.andExpect(jsonPath("$.profiles.who.length()").value(6))
+		.andExpect(jsonPath("$.profiles.who[5].parameter").value("no2nmgl"))
+		.andExpect(jsonPath("$.profiles.who[5].operator").value(">="))
+		.andExpect(jsonPath("$.profiles.who[5].limit").value(1.0));
+	}
+
+	/**
+	 * Test case for new rules, which flag the next request.
+	 *
+	 * @throws Exception If there is an error during the test.
+	 */
+	@Test
+	void testReplaceRules() throws Exception {
+
+		// Arrange: a reading which is safe by WHO, but not by the strict profile
+		Map<String, Object> mockData = new HashMap<>();
+		mockData.put("phph", 7.5);
+		when(monitoringClient.getLatestRecord()).thenReturn(Mono.just(ResponseEntity.ok(mockData)));
+
+		// Act: Send the PUT request
+		mockMvc.perform(put("/waterquality/rules").contentType(MediaType.APPLICATION_JSON).content(STRICT))
+
+		// Assert: Verify the new profile is returned and used
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.defaultProfile").value("strict"));
+		MvcResult result = mockMvc.perform(get("/waterquality/records/latestflagged"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(result))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.safetyFlag").value("Red"));
+	}
+
+	/**
+	 * Test case for invalid rules (400), the current rules are kept.
+	 *
+	 * @throws Exception If there is an error during the test.
+	 */
+	@Test
+	void testReplaceInvalidRules() throws Exception {
+
+		// Act: Send the PUT request with an unknown parameter
+		mockMvc.perform(put("/waterquality/rules").contentType(MediaType.APPLICATION_JSON).content(STRICT.replace("phph", "ph")))
+
+		// Assert: Verify if the response is 400 and the WHO profile is still used
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.error").value("Invalid rules"))
+		.andExpect(jsonPath("$.message").value("Unknown parameter in profile strict: ph"));
+		mockMvc.perform(get("/waterquality/rules"))
+		.andExpect(jsonPath("$.defaultProfile").value("who"));
+	}
+
+	/**
+	 * Test case for reloading the rules, without a rules file the WHO profile is used again.
+	 *
+	 * @throws Exception If there is an error during the test.
+	 */
+	@Test
+	void testReloadRules() throws Exception {
+
+		// Arrange
+		mockMvc.perform(put("/waterquality/rules").contentType(MediaType.APPLICATION_JSON).content(STRICT))
+		.andExpect(status().isOk());
+
+		// Act & Assert: Send the POST request and verify the WHO profile is back
+		mockMvc.perform(post("/waterquality/rules/reload"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.defaultProfile").value("who"));
+	}
+
+	/**
+	 * Test case for updates which are not enabled (403), the current rules are kept.
+	 *
+	 * @throws Exception If there is an error during the test.
+	 */
+	@Test
+	void testUpdatesDisabled() throws Exception {
+
+		// Arrange: the default of waterquality.rules.update-enabled
+		thresholdRulesProperties.setUpdateEnabled(false);
+
+		// Act & Assert: Verify if both updates are refused and the WHO profile is still used
+		mockMvc.perform(put("/waterquality/rules").contentType(MediaType.APPLICATION_JSON).content(STRICT))
+		.andExpect(status().isForbidden())
+		.andExpect(jsonPath("$.error").value("Rule updates are disabled"));
+		mockMvc.perform(post("/waterquality/rules/reload"))
+		.andExpect(status().isForbidden());
+		mockMvc.perform(get("/waterquality/rules"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.defaultProfile").value("who"));
+	}
+}
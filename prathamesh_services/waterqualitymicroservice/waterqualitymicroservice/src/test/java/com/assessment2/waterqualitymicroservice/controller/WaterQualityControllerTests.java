@@ -1,14 +1,22 @@
 package com.assessment2.waterqualitymicroservice.controller;
 
-import static org.mockito.ArgumentMatchers.any;	
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
@@ -16,14 +24,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.assessment2.waterqualitymicroservice.model.RecordPage;
+import com.assessment2.waterqualitymicroservice.service.MonitoringClient;
+
+import reactor.core.publisher.Mono;
 
 
 
@@ -38,14 +54,16 @@ import org.springframework.web.client.RestTemplate;
  * </p>
  * 
  * <p>
- * The class uses {@link MockMvc} for simulating HTTP requests and {@link RestTemplate} 
- * for mocking the interactions with the water monitoring service.
+ * The class uses {@link MockMvc} for simulating HTTP requests and {@link MonitoringClient} 
+ * for mocking the interactions with the water monitoring service. The endpoint returns a
+ * {@link Mono}, so the response is read with an async dispatch.
  * </p>
  * 
  * @author Prathamesh Belnekar
  * @version 1.0
  */
-@SpringBootTest
+@SpringBootTest(properties = {"waterquality.latest.ttl=0s", "waterquality.latest.stale-while-revalidate=0s",
+		"waterquality.source.type=none"}) // every test calls the mocked service
 @AutoConfigureMockMvc
 public class WaterQualityControllerTests {
 
@@ -53,7 +71,7 @@ public class WaterQualityControllerTests {
 	private MockMvc mockMvc;
 
 	@MockBean
-	private RestTemplate restTemplate;
+	private MonitoringClient monitoringClient;
 	
 	
 	/**
@@ -99,16 +117,11 @@ public class WaterQualityControllerTests {
 		// Creating a ResponseEntity with the mock data and status is OK
 		ResponseEntity<Map<String, Object>> responseEntity = new ResponseEntity<>(mockData, HttpStatus.OK);
 
-		// Mocking the exchange method of RestTemplate
-		when(restTemplate.exchange(
-				anyString(),
-				eq(HttpMethod.GET),
-				any(),
-				eq(new ParameterizedTypeReference<Map<String, Object>>() {})
-				)).thenReturn(responseEntity);
+		// Mocking the latest record of the monitoring client
+		when(monitoringClient.getLatestRecord()).thenReturn(Mono.just(responseEntity));
 
 		// Act: sending GET request 
-		mockMvc.perform(get("/waterquality/records/latestflagged")) 
+		getLatestFlagged()
 
 		// Assert: verifying the response
 		.andExpect(status().isOk()) 
@@ -137,15 +150,10 @@ public class WaterQualityControllerTests {
 
 		// Arrange
 		ResponseEntity<Map<String, Object>> responseEntity = new ResponseEntity<>(HttpStatus.NO_CONTENT);
-		when(restTemplate.exchange(
-				anyString(),
-				any(),
-				any(),
-				eq(new ParameterizedTypeReference<Map<String, Object>>() {})
-				)).thenReturn(responseEntity);
+		when(monitoringClient.getLatestRecord()).thenReturn(Mono.just(responseEntity));
 
 		// Act: Send the GET request.
-		mockMvc.perform(get("/waterquality/records/latestflagged"))
+		getLatestFlagged()
 
 		// Assert: Verify if the response is 204 or No Content
 		.andExpect(status().isNoContent());
@@ -161,16 +169,12 @@ public class WaterQualityControllerTests {
 	@Test
 	void testGetInternalServerError() throws Exception {
 		// Arrange
-		when(restTemplate.exchange(
-				anyString(),
-				any(),
-				any(),
-				eq(new ParameterizedTypeReference<Map<String, Object>>() {})
-				)).thenThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR,"Internal server error"));
+		when(monitoringClient.getLatestRecord()).thenReturn(Mono.error(
+				WebClientResponseException.create(500, "Internal server error", HttpHeaders.EMPTY, new byte[0], null)));
 
 
 		// Act: Send the GET request
-		mockMvc.perform(get("/waterquality/records/latestflagged"))
+		getLatestFlagged()
 
 		// Assert: Verify if the response is 500
 		.andExpect(status().isInternalServerError())
@@ -186,15 +190,11 @@ public class WaterQualityControllerTests {
 	void testGetServiceTimeout() throws Exception {
 
 		// Arrange
-		when(restTemplate.exchange(
-				anyString(),
-				any(),
-				any(),
-				eq(new ParameterizedTypeReference<Map<String, Object>>() {}))
-				).thenThrow(new ResourceAccessException("Service timeout"));
+		when(monitoringClient.getLatestRecord()).thenReturn(Mono.error(new WebClientRequestException(new IOException("Service timeout"),
+				HttpMethod.GET, URI.create("http://localhost:8081/watermonitoring/records/latest"), HttpHeaders.EMPTY)));
 
 		// Act: Send the GET request.
-		mockMvc.perform(get("/waterquality/records/latestflagged"))
+		getLatestFlagged()
 
 		// Assert: Verify if the response is 503 Service Unavailable.
 		.andExpect(status().isServiceUnavailable()) 
@@ -202,5 +202,186 @@ public class WaterQualityControllerTests {
 		.andExpect(jsonPath("$.message").value("Service timeout"));
 	}
 
-}
+	/**
+	 * Test case for the flagged records of a time range, streamed one JSON object per line.
+	 * 
+	 * @throws Exception If there is an error during the test.
+	 */
+	@Test
+	void testGetFlaggedRecords() throws Exception {
+
+		// Arrange: one page with a safe and an unsafe reading
+		Map<String, Object> safe = new HashMap<>();
+		safe.put("id", "1");
+		safe.put("phph", 7.5);
+		Map<String, Object> unsafe = new HashMap<>();
+		unsafe.put("id", "2");
+		unsafe.put("no2nmgl", 1.5);
+		when(monitoringClient.getRecordsPage(isNull(), any(), any(), eq(1000), any()))
+				.thenReturn(Mono.just(new RecordPage(List.of(safe, unsafe), null)));
+
+		// Act: Send the GET request
+		getFlagged()
+
+		// Assert: Verify the records in order, each on its own line
+		.andExpect(status().isOk())
+		.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+		.andExpect(content().string(containsString("\"id\":\"1\"")))
+		.andExpect(content().string(containsString("\"safetyFlag\":\"Green\"}\n{")))
+		.andExpect(content().string(containsString("\"id\":\"2\"")))
+		.andExpect(content().string(containsString("\"safetyFlag\":\"Red\"")));
+	}
+
+	/**
+	 * Test case for a monitoring service which fails before the first record (502).
+	 * 
+	 * @throws Exception If there is an error during the test.
+	 */
+	@Test
+	void testGetFlaggedRecordsMonitoringServiceError() throws Exception {
+
+		// Arrange
+		when(monitoringClient.getRecordsPage(isNull(), any(), any(), eq(1000), any())).thenReturn(Mono.error(
+				WebClientResponseException.create(500, "Internal server error", HttpHeaders.EMPTY, new byte[0], null)));
+
+		// Act & Assert: Verify if the response is 502 with the error
+		getFlagged()
+		.andExpect(status().isBadGateway())
+		.andExpect(content().string(containsString("\"error\":\"Monitoring service error\"")));
+	}
+
+	/**
+	 * Test case for a cursor the monitoring service rejects, which is a client error (400).
+	 * 
+	 * @throws Exception If there is an error during the test.
+	 */
+	@Test
+	void testGetFlaggedRecordsInvalidCursor() throws Exception {
+
+		// Arrange
+		when(monitoringClient.getRecordsPage(eq("not-a-cursor"), any(), any(), eq(1000), any())).thenReturn(Mono.error(
+				WebClientResponseException.create(400, "Bad Request", HttpHeaders.EMPTY, new byte[0], null)));
+
+		// Act & Assert: Verify if the response is 400 with the cursor
+		getFlagged("not-a-cursor")
+		.andExpect(status().isBadRequest())
+		.andExpect(content().string(containsString("\"error\":\"Invalid request\"")))
+		.andExpect(content().string(containsString("\"message\":\"Invalid cursor: not-a-cursor\"")));
+	}
+
+	/**
+	 * Test case for a monitoring service which fails in the middle of the range, the records
+	 * end with an error record with the cursor to continue at.
+	 * 
+	 * @throws Exception If there is an error during the test.
+	 */
+	@Test
+	void testGetFlaggedRecordsFailingLaterPage() throws Exception {
+
+		// Arrange: the first page is returned, the second one times out
+		Map<String, Object> record = new HashMap<>();
+		record.put("id", "1");
+		record.put("phph", 7.5);
+		when(monitoringClient.getRecordsPage(isNull(), any(), any(), eq(1000), any()))
+				.thenReturn(Mono.just(new RecordPage(List.of(record), "c1")));
+		when(monitoringClient.getRecordsPage(eq("c1"), any(), any(), eq(1000), any()))
+				.thenReturn(Mono.error(new WebClientRequestException(new IOException("Service timeout"),
+						HttpMethod.GET, URI.create("http://localhost:8081/watermonitoring/records"), HttpHeaders.EMPTY)));
 
+		// Act
+		getFlagged()
+
+		// Assert: Verify the record of the first page followed by the error record
+		.andExpect(status().isOk())
+		.andExpect(content().string(containsString("\"safetyFlag\":\"Green\"}\n{")))
+		.andExpect(content().string(containsString("\"error\":\"Incomplete range\"")))
+		.andExpect(content().string(containsString("\"after\":\"c1\"")));
+	}
+
+	/**
+	 * Test case for an empty time range (400).
+	 * 
+	 * @throws Exception If there is an error during the test.
+	 */
+	@Test
+	void testGetFlaggedRecordsInvalidRange() throws Exception {
+
+		// Act: Send the GET request, the range ends before it starts
+		MvcResult result = mockMvc.perform(get("/waterquality/records/flagged")
+				.param("from", "2025-04-01T00:00:00")
+				.param("to", "2025-03-01T00:00:00"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(result))
+
+		// Assert: Verify if the response is 400 and the monitoring service was not called
+		.andExpect(status().isBadRequest());
+		verifyNoInteractions(monitoringClient);
+	}
+
+	/**
+	 * Test case for a threshold profile which does not exist (400).
+	 *
+	 * @throws Exception If there is an error during the test.
+	 */
+	@Test
+	void testGetUnknownProfile() throws Exception {
+
+		// Act: Send the GET requests with a profile which is not configured
+		MvcResult result = mockMvc.perform(get("/waterquality/records/latestflagged").param("profile", "lake"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// Assert: Verify if the responses are 400 and the monitoring service was not called
+		mockMvc.perform(asyncDispatch(result))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.error").value("Unknown profile"));
+		result = mockMvc.perform(get("/waterquality/records/flagged")
+				.param("from", "2025-03-01T00:00:00")
+				.param("to", "2025-04-01T00:00:00")
+				.param("profile", "lake"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(result))
+		.andExpect(status().isBadRequest());
+		verifyNoInteractions(monitoringClient);
+	}
+
+	/**
+	 * Sends the GET request and dispatches the result of the returned {@link Mono}.
+	 */
+	private ResultActions getLatestFlagged() throws Exception {
+		MvcResult result = mockMvc.perform(get("/waterquality/records/latestflagged"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return mockMvc.perform(asyncDispatch(result));
+	}
+
+	/**
+	 * Sends the GET request for the flagged records of March 2025. The first page is awaited
+	 * with one async dispatch, the streamed records with the second one.
+	 */
+	private ResultActions getFlagged() throws Exception {
+		return getFlagged(null);
+	}
+
+	/**
+	 * Sends the GET request for the flagged records of March 2025 after a cursor, if it is not {@code null}.
+	 */
+	private ResultActions getFlagged(String after) throws Exception {
+		MockHttpServletRequestBuilder flagged = get("/waterquality/records/flagged")
+				.param("from", "2025-03-01T00:00:00")
+				.param("to", "2025-04-01T00:00:00")
+				.accept(MediaType.APPLICATION_NDJSON);
+		if (after != null) {
+			flagged.param("after", after);
+		}
+		MvcResult result = mockMvc.perform(flagged)
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		MvcResult records = mockMvc.perform(asyncDispatch(result))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return mockMvc.perform(asyncDispatch(records));
+	}
+}
@@ -0,0 +1,157 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import com.assessment2.waterqualitymicroservice.config.ThresholdRulesProperties;
+import com.assessment2.waterqualitymicroservice.config.TimelineProperties;
+import com.assessment2.waterqualitymicroservice.model.RecordPage;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRule;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import com.assessment2.waterqualitymicroservice.model.WaterQualityReading;
+
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+
+public class FlaggedTimelineServiceTests {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 4, 1, 0, 0);
+
+    @InjectMocks
+    private FlaggedTimelineService flaggedTimelineService;
+
+    @Mock
+    private MonitoringClient monitoringClient;
+
+    @Spy
+    private TimelineProperties properties = new TimelineProperties();
+
+    @Spy
+    private ThresholdRules thresholdRules = new ThresholdRules(new ThresholdRulesProperties(), new DefaultResourceLoader(), event -> { });
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties.setPageSize(3);
+    }
+
+    @Test
+    void testGetFlaggedRecordsFollowsThePagesInOrder() {
+        // Arrange: 3 pages of 3 readings, the second reading of every page is unsafe
+        when(monitoringClient.getRecordsPage(null, FROM, TO, 3, WaterQualityReading.FIELDS)).thenReturn(Mono.just(page(0, "c1")));
+        when(monitoringClient.getRecordsPage("c1", FROM, TO, 3, WaterQualityReading.FIELDS)).thenReturn(Mono.just(page(3, "c2")));
+        when(monitoringClient.getRecordsPage("c2", FROM, TO, 3, WaterQualityReading.FIELDS)).thenReturn(Mono.just(page(6, null)));
+
+        // Act
+        List<Map<String, Object>> flagged = flagged(null);
+
+        // Assert
+        assertEquals(9, flagged.size());
+        for (int i = 0; i < 9; i++) {
+            assertEquals(String.valueOf(i), flagged.get(i).get("id"));
+            assertEquals(i % 3 == 1 ? "Red" : "Green", flagged.get(i).get("safetyFlag"));
+            assertEquals(0.5, flagged.get(i).get("totalDissolvedSolids"));
+        }
+        verify(monitoringClient, times(3)).getRecordsPage(any(), eq(FROM), eq(TO), eq(3), eq(WaterQualityReading.FIELDS));
+    }
+
+    @Test
+    void testGetFlaggedRecordsWithTheProfileOfTheRequest() {
+        // Arrange: the river profile allows the pH of the unsafe readings
+        Map<String, List<ThresholdRule>> profiles = new LinkedHashMap<>();
+        profiles.put("who", ThresholdRuleTable.who().profiles().get("who"));
+        profiles.put("river", List.of(new ThresholdRule("phph", ">", 9.5)));
+        thresholdRules.replace(new ThresholdRuleTable("who", profiles));
+        when(monitoringClient.getRecordsPage(null, FROM, TO, 3, WaterQualityReading.FIELDS)).thenReturn(Mono.just(page(0, null)));
+
+        // Act
+        List<Map<String, Object>> flagged = flagged("river");
+
+        // Assert
+        assertEquals(List.of("Green", "Green", "Green"), flagged.stream().map(record -> record.get("safetyFlag")).toList());
+        assertThrows(IllegalArgumentException.class, () -> flaggedTimelineService.getFlaggedRecords(FROM, TO, "lake", null));
+    }
+
+    @Test
+    void testGetFlaggedRecordsOfAnEmptyRange() {
+        // Arrange: the monitoring service answers 204 No Content
+        when(monitoringClient.getRecordsPage(null, FROM, TO, 3, WaterQualityReading.FIELDS)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        assertTrue(flagged(null).isEmpty());
+    }
+
+    @Test
+    void testGetFlaggedRecordsFailsWithTheFirstPage() {
+        // Arrange
+        when(monitoringClient.getRecordsPage(null, FROM, TO, 3, WaterQualityReading.FIELDS))
+                .thenReturn(Mono.error(new IllegalStateException("Service timeout")));
+
+        // Act & Assert: nothing is emitted, the request fails
+        assertThrows(IllegalStateException.class, () -> flaggedTimelineService.getFlaggedRecords(FROM, TO, null, null).block());
+    }
+
+    @Test
+    void testGetFlaggedRecordsEndWithAnErrorRecordIfALaterPageFails() {
+        // Arrange
+        when(monitoringClient.getRecordsPage(null, FROM, TO, 3, WaterQualityReading.FIELDS)).thenReturn(Mono.just(page(0, "c1")));
+        when(monitoringClient.getRecordsPage("c1", FROM, TO, 3, WaterQualityReading.FIELDS)).thenReturn(Mono.just(page(3, "c2")));
+        when(monitoringClient.getRecordsPage("c2", FROM, TO, 3, WaterQualityReading.FIELDS))
+                .thenReturn(Mono.error(new IllegalStateException("Service timeout")));
+
+        // Act
+        List<Map<String, Object>> flagged = flagged(null);
+
+        // Assert: the records of the first pages, then the cursor of the failed page
+        assertEquals(7, flagged.size());
+        assertEquals("5", flagged.get(5).get("id"));
+        assertEquals(Map.of("error", "Incomplete range", "message", "Service timeout", "after", "c2"), flagged.get(6));
+    }
+
+    @Test
+    void testGetFlaggedRecordsContinuesAtTheCursor() {
+        // Arrange
+        when(monitoringClient.getRecordsPage("c2", FROM, TO, 3, WaterQualityReading.FIELDS)).thenReturn(Mono.just(page(6, null)));
+
+        // Act
+        List<Map<String, Object>> flagged = flaggedTimelineService.getFlaggedRecords(FROM, TO, null, "c2")
+                .flatMapMany(records -> records).collectList().block();
+
+        // Assert
+        assertEquals(List.of("6", "7", "8"), flagged.stream().map(record -> record.get("id")).toList());
+    }
+
+    private List<Map<String, Object>> flagged(String profile) {
+        return flaggedTimelineService.getFlaggedRecords(FROM, TO, profile, null).flatMapMany(records -> records).collectList().block();
+    }
+
+    private static RecordPage page(int first, String next) {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = first; i < first + 3; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("id", String.valueOf(i));
+            record.put("timestamp", "2025-03-16T21:30:31");
+            record.put("phph", i % 3 == 1 ? 9.1 : 7.5);
+            record.put("fesol1ugl", 500);
+            records.add(record);
+        }
+        return new RecordPage(records, next);
+    }
+}
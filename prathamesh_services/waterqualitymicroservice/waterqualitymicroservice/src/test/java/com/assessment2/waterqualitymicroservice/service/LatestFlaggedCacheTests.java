@@ -0,0 +1,148 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.assessment2.waterqualitymicroservice.config.LatestCacheProperties;
+import com.assessment2.waterqualitymicroservice.config.ThresholdRulesProperties;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+
+public class LatestFlaggedCacheTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final ThresholdRules thresholdRules = new ThresholdRules(new ThresholdRulesProperties(), new DefaultResourceLoader(), event -> { });
+    private LatestFlaggedCache cache;
+
+    @Test
+    void testConcurrentMissesShareOneCall() throws Exception {
+        cache = newCache(Duration.ofMinutes(1), Duration.ZERO);
+        CompletableFuture<ResponseEntity<Map<String, Object>>> upstream = new CompletableFuture<>();
+        Supplier<Mono<ResponseEntity<Map<String, Object>>>> loader = () -> {
+            calls.incrementAndGet();
+            return Mono.fromFuture(upstream);
+        };
+
+        // Every request waits for the same call, none of them holds a thread
+        List<CompletableFuture<ResponseEntity<Map<String, Object>>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(cache.get(loader).toFuture());
+        }
+        upstream.complete(ok(1));
+
+        for (CompletableFuture<ResponseEntity<Map<String, Object>>> result : results) {
+            assertEquals(1, result.get(5, TimeUnit.SECONDS).getBody().get("version"));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(8.0, registry.get("waterquality.latest.requests").tag("result", "miss").counter().count());
+        assertEquals(1.0, registry.get("waterquality.upstream.calls").counter().count());
+    }
+
+    @Test
+    void testCancelledRequestDoesNotCancelTheSharedCall() throws Exception {
+        cache = newCache(Duration.ofMinutes(1), Duration.ZERO);
+        CompletableFuture<ResponseEntity<Map<String, Object>>> upstream = new CompletableFuture<>();
+        Supplier<Mono<ResponseEntity<Map<String, Object>>>> loader = () -> Mono.fromFuture(upstream);
+
+        Disposable cancelled = cache.get(loader).subscribe();
+        CompletableFuture<ResponseEntity<Map<String, Object>>> waiting = cache.get(loader).toFuture();
+        cancelled.dispose();
+        upstream.complete(ok(1));
+
+        assertEquals(1, waiting.get(5, TimeUnit.SECONDS).getBody().get("version"));
+    }
+
+    @Test
+    void testFreshResultIsReturnedFromTheCache() {
+        cache = newCache(Duration.ofMinutes(1), Duration.ZERO);
+
+        cache.get(() -> Mono.just(ok(calls.incrementAndGet()))).block();
+        ResponseEntity<Map<String, Object>> second = cache.get(() -> Mono.just(ok(calls.incrementAndGet()))).block();
+
+        assertEquals(1, second.getBody().get("version"));
+        assertEquals(1, calls.get());
+        assertEquals(1.0, registry.get("waterquality.latest.requests").tag("result", "hit").counter().count());
+        assertEquals(0.5, registry.get("waterquality.latest.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void testStaleResultIsReturnedWhileItIsRefreshed() {
+        cache = newCache(Duration.ZERO, Duration.ofMinutes(1));
+        cache.get(() -> Mono.just(ok(calls.incrementAndGet()))).block();
+
+        ResponseEntity<Map<String, Object>> stale = cache.get(() -> Mono.just(ok(calls.incrementAndGet()))).block();
+
+        assertEquals(1, stale.getBody().get("version"));
+        assertEquals(2, calls.get());
+        // The refreshed result replaces the stale one
+        assertEquals(2, cache.get(() -> Mono.just(ok(calls.get()))).block().getBody().get("version"));
+    }
+
+    @Test
+    void testErrorsAreNotCached() {
+        cache = newCache(Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        ResponseEntity<Map<String, Object>> error = cache.get(() -> {
+            calls.incrementAndGet();
+            return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.<String, Object>of("error", "Service timeout")));
+        }).block();
+        ResponseEntity<Map<String, Object>> next = cache.get(() -> Mono.just(ok(calls.incrementAndGet()))).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, error.getStatusCode());
+        assertEquals(2, next.getBody().get("version"));
+        cache.invalidate();
+        assertThrows(IllegalStateException.class,
+                () -> cache.get(() -> Mono.error(new IllegalStateException("failed"))).block());
+    }
+
+    @Test
+    void testResultOfACallInFlightDuringARulesChangeIsNotCached() throws Exception {
+        cache = newCache(Duration.ofMinutes(1), Duration.ofMinutes(1));
+        CompletableFuture<ResponseEntity<Map<String, Object>>> upstream = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Map<String, Object>>> waiting = cache.get(() -> {
+            calls.incrementAndGet();
+            return Mono.fromFuture(upstream);
+        }).toFuture();
+
+        // Act: the rules are replaced while the call is in flight
+        ThresholdRules.Changed changed = new ThresholdRules.Changed(thresholdRules.replace(ThresholdRuleTable.who()));
+        cache.onRulesChanged(changed);
+        ResponseEntity<Map<String, Object>> next = cache.get(() -> Mono.just(ok(calls.incrementAndGet()))).block();
+        upstream.complete(ok(1));
+
+        // Assert: the old call answers its own request, a new one is not joined to it and its result is not kept
+        assertEquals(1, waiting.get(5, TimeUnit.SECONDS).getBody().get("version"));
+        assertEquals(2, next.getBody().get("version"));
+        assertEquals(2, cache.get(() -> Mono.just(ok(calls.incrementAndGet()))).block().getBody().get("version"));
+        assertEquals(2, calls.get());
+    }
+
+    private LatestFlaggedCache newCache(Duration ttl, Duration stale) {
+        LatestCacheProperties properties = new LatestCacheProperties();
+        properties.setTtl(ttl);
+        properties.setStaleWhileRevalidate(stale);
+        return new LatestFlaggedCache(properties, thresholdRules, registry);
+    }
+
+    private static ResponseEntity<Map<String, Object>> ok(int version) {
+        return ResponseEntity.ok(Map.of("version", version));
+    }
+}
@@ -0,0 +1,88 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import com.assessment2.waterqualitymicroservice.config.ThresholdRulesProperties;
+import com.assessment2.waterqualitymicroservice.model.FlaggedReading;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRule;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+
+public class LatestFlaggedPublisherTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ThresholdRules thresholdRules = new ThresholdRules(new ThresholdRulesProperties(), new DefaultResourceLoader(), event -> { });
+    private final LatestFlaggedPublisher publisher = new LatestFlaggedPublisher(thresholdRules, registry);
+
+    @Test
+    void testPublishedReadingIsEvaluatedOnce() {
+        Map<String, Object> record = reading("1", 7.5);
+        record.put("fesol1ugl", 500);
+        record.put("alkmgl", null);
+
+        assertTrue(publisher.publish(record));
+        FlaggedReading latest = publisher.getLatest();
+
+        assertEquals("1", latest.id());
+        assertEquals(0.5, latest.totalDissolvedSolids());
+        assertEquals("Green", latest.safetyFlag());
+        assertEquals(0.5, latest.data().get("totalDissolvedSolids"));
+        assertEquals("Green", latest.data().get("safetyFlag"));
+        assertTrue(latest.data().containsKey("alkmgl"));
+        assertEquals(1.0, registry.get("waterquality.latest.published").counter().count());
+    }
+
+    @Test
+    void testPublishedReadingCannotBeChanged() {
+        Map<String, Object> record = reading("1", 7.5);
+        publisher.publish(record);
+
+        // Changing the received map does not change the published reading
+        record.put("phph", 4.0);
+
+        assertEquals(7.5, publisher.getLatest().data().get("phph"));
+        assertThrows(UnsupportedOperationException.class, () -> publisher.getLatest().data().put("phph", 4.0));
+    }
+
+    @Test
+    void testSameReadingIsNotPublishedAgain() {
+        publisher.publish(reading("1", 7.5));
+
+        assertFalse(publisher.publish(reading("1", 7.5)));
+        assertFalse(publisher.publish(new HashMap<>()));
+        assertFalse(publisher.publish(null));
+        assertTrue(publisher.publish(reading("2", 9.0)));
+
+        assertEquals("Red", publisher.getLatest().safetyFlag());
+        assertEquals(2.0, registry.get("waterquality.latest.published").counter().count());
+    }
+
+    @Test
+    void testLatestReadingIsEvaluatedAgainWithNewRules() {
+        publisher.publish(reading("1", 7.5));
+        ThresholdRuleTable strict = new ThresholdRuleTable("strict", Map.of("strict", List.of(new ThresholdRule("phph", ">", 7.0))));
+
+        publisher.onRulesChanged(new ThresholdRules.Changed(thresholdRules.replace(strict)));
+
+        assertEquals("1", publisher.getLatest().id());
+        assertEquals("Red", publisher.getLatest().safetyFlag());
+        assertEquals("Red", publisher.getLatest().data().get("safetyFlag"));
+        assertEquals(1.0, registry.get("waterquality.latest.published").counter().count());
+    }
+
+    private static Map<String, Object> reading(String id, double ph) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("id", id);
+        record.put("phph", ph);
+        return record;
+    }
+}
@@ -0,0 +1,161 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import com.assessment2.waterqualitymicroservice.config.LatestCacheProperties;
+import com.assessment2.waterqualitymicroservice.config.ReadingSourceProperties;
+import com.assessment2.waterqualitymicroservice.config.ThresholdRulesProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+
+public class ReadingSubscriptionTests {
+
+    private final MonitoringClient monitoringClient = mock(MonitoringClient.class);
+    private final ThresholdRules thresholdRules = new ThresholdRules(new ThresholdRulesProperties(), new DefaultResourceLoader(), event -> { });
+    private final LatestFlaggedPublisher publisher = new LatestFlaggedPublisher(thresholdRules, new SimpleMeterRegistry());
+    private final ReadingSourceProperties properties = new ReadingSourceProperties();
+    private ReadingSubscription subscription;
+
+    @AfterEach
+    void tearDown() {
+        subscription.stop();
+    }
+
+    @Test
+    void testStreamPublishesLatestThenNewReadings() {
+        Sinks.Many<Map<String, Object>> stream = Sinks.many().unicast().onBackpressureBuffer();
+        when(monitoringClient.getLatestRecord()).thenReturn(Mono.just(ResponseEntity.ok(reading("1", 7.5))));
+        when(monitoringClient.streamRecords(any(Duration.class))).thenReturn(stream.asFlux());
+
+        start(ReadingSourceProperties.Type.STREAM);
+
+        assertEquals("1", publisher.getLatest().id());
+        stream.tryEmitNext(reading("2", 9.0));
+        assertEquals("2", publisher.getLatest().id());
+        assertEquals("Red", publisher.getLatest().safetyFlag());
+    }
+
+    @Test
+    void testStreamIsOpenedAgainAfterAFailure() throws Exception {
+        properties.setReconnectDelay(Duration.ofMillis(10));
+        when(monitoringClient.getLatestRecord())
+                .thenReturn(Mono.error(new IllegalStateException("refused")))
+                .thenReturn(Mono.just(ResponseEntity.ok(reading("1", 7.5))));
+        when(monitoringClient.streamRecords(any(Duration.class))).thenReturn(Flux.never());
+
+        start(ReadingSourceProperties.Type.STREAM);
+
+        // The second attempt publishes the latest reading
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (publisher.getLatest() == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("1", publisher.getLatest().id());
+        verify(monitoringClient, times(2)).getLatestRecord();
+    }
+
+    @Test
+    void testPollPublishesEachReadingOnce() {
+        properties.setPollInterval(Duration.ofMillis(10));
+        when(monitoringClient.getLatestRecord())
+                .thenReturn(Mono.just(ResponseEntity.ok(reading("1", 7.5))))
+                .thenReturn(Mono.just(ResponseEntity.noContent().build()))
+                .thenReturn(Mono.just(ResponseEntity.ok(reading("2", 7.0))));
+
+        start(ReadingSourceProperties.Type.POLL);
+
+        verify(monitoringClient, timeout(5000).atLeast(4)).getLatestRecord();
+        assertEquals("2", publisher.getLatest().id());
+        verify(monitoringClient, never()).streamRecords(any());
+    }
+
+    @Test
+    void testReadingIsClearedWhenPollingFailsLongerThanTheIdleTimeout() throws Exception {
+        properties.setPollInterval(Duration.ofMillis(10));
+        properties.setIdleTimeout(Duration.ofMillis(50));
+        publisher.publish(reading("1", 7.5));
+        when(monitoringClient.getLatestRecord()).thenReturn(Mono.error(new WebClientRequestException(new IOException("refused"),
+                HttpMethod.GET, URI.create("http://localhost:8081/watermonitoring/records/latest"), HttpHeaders.EMPTY)));
+
+        start(ReadingSourceProperties.Type.POLL);
+        awaitCleared();
+
+        // The requests call the monitoring service again and report that it is not reachable
+        WaterQualityService waterQualityService = new WaterQualityService(monitoringClient,
+                new LatestFlaggedCache(new LatestCacheProperties(), thresholdRules, new SimpleMeterRegistry()), publisher, thresholdRules);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, waterQualityService.getLatestWaterQuality().block().getStatusCode());
+    }
+
+    @Test
+    void testReadingIsClearedWhenTheStreamFailsLongerThanTheIdleTimeout() throws Exception {
+        properties.setReconnectDelay(Duration.ofMillis(10));
+        properties.setIdleTimeout(Duration.ofMillis(50));
+        publisher.publish(reading("1", 7.5));
+        AtomicBoolean down = new AtomicBoolean(true);
+        when(monitoringClient.getLatestRecord()).thenAnswer(invocation -> down.get()
+                ? Mono.error(new IllegalStateException("refused")) : Mono.just(ResponseEntity.ok(reading("1", 7.5))));
+        when(monitoringClient.streamRecords(any(Duration.class))).thenReturn(Flux.never());
+
+        start(ReadingSourceProperties.Type.STREAM);
+        awaitCleared();
+
+        // A reading received later is published again
+        down.set(false);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (publisher.getLatest() == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("1", publisher.getLatest().id());
+    }
+
+    @Test
+    void testNoSourceReceivesNothing() {
+        start(ReadingSourceProperties.Type.NONE);
+
+        assertNull(publisher.getLatest());
+        verifyNoInteractions(monitoringClient);
+    }
+
+    private void awaitCleared() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (publisher.getLatest() != null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertNull(publisher.getLatest());
+    }
+
+    private void start(ReadingSourceProperties.Type type) {
+        properties.setType(type);
+        subscription = new ReadingSubscription(monitoringClient, publisher, properties);
+        subscription.start();
+    }
+
+    private static Map<String, Object> reading(String id, double ph) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("id", id);
+        record.put("phph", ph);
+        return record;
+    }
+}
@@ -0,0 +1,107 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.assessment2.waterqualitymicroservice.model.ThresholdRule;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import com.assessment2.waterqualitymicroservice.model.WaterQualityReading;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+
+public class ThresholdKernelTests {
+
+    private static final double NaN = Double.NaN;
+
+    @Test
+    void testOperatorsKeepTheirBoundaries() {
+        ThresholdKernel kernel = compile(List.of(
+                new ThresholdRule("phph", "<", 6.5),
+                new ThresholdRule("phph", ">", 8.5),
+                new ThresholdRule("alkmgl", "<=", 10.0),
+                new ThresholdRule("no2nmgl", ">=", 1.0)));
+        int profile = kernel.defaultProfile();
+
+        assertFalse(kernel.isSafe(profile, reading(6.49, NaN, NaN), 0.0));
+        assertTrue(kernel.isSafe(profile, reading(6.5, NaN, NaN), 0.0));
+        assertTrue(kernel.isSafe(profile, reading(8.5, NaN, NaN), 0.0));
+        assertFalse(kernel.isSafe(profile, reading(8.51, NaN, NaN), 0.0));
+        assertFalse(kernel.isSafe(profile, reading(NaN, 10.0, NaN), 0.0));
+        assertTrue(kernel.isSafe(profile, reading(NaN, 10.01, NaN), 0.0));
+        assertFalse(kernel.isSafe(profile, reading(NaN, NaN, 1.0), 0.0));
+        assertTrue(kernel.isSafe(profile, reading(NaN, NaN, 0.99), 0.0));
+    }
+
+    @Test
+    void testRulesOfAParameterAreMerged() {
+        // Arrange: the tighter limit of each side wins
+        ThresholdKernel kernel = compile(List.of(
+                new ThresholdRule("conduscm", ">", 2000.0),
+                new ThresholdRule("conduscm", ">", 1500.0),
+                new ThresholdRule("conduscm", ">", 1800.0),
+                new ThresholdRule("totalDissolvedSolids", ">", 1000.0)));
+
+        // Act & Assert
+        assertTrue(kernel.isSafe(0, reading(7.0, NaN, NaN, 1500), 1000));
+        assertFalse(kernel.isSafe(0, reading(7.0, NaN, NaN, 1600), 10));
+        assertFalse(kernel.isSafe(0, reading(7.0, NaN, NaN, 100), 1000.1));
+    }
+
+    @Test
+    void testParametersWithoutRulesAreNeverBreached() {
+        ThresholdKernel kernel = compile(List.of());
+
+        assertTrue(kernel.isSafe(0, new WaterQualityReading(-1, 1e9, 1e9, 1e9, 1e9, 1e9, 1e9, 1e9), Double.MAX_VALUE));
+    }
+
+    @Test
+    void testProfilesAreSeparate() {
+        Map<String, List<ThresholdRule>> profiles = new LinkedHashMap<>();
+        profiles.put("who", ThresholdRuleTable.who().profiles().get("who"));
+        profiles.put("river", List.of(new ThresholdRule("phph", "<", 5.0), new ThresholdRule("phph", ">", 9.5)));
+        ThresholdKernel kernel = ThresholdKernel.compile(new ThresholdRuleTable("river", profiles));
+        WaterQualityReading reading = reading(9.1, NaN, NaN);
+
+        assertEquals(kernel.profile("river"), kernel.defaultProfile());
+        assertEquals(kernel.defaultProfile(), kernel.profile(null));
+        assertTrue(kernel.isSafe(kernel.profile("river"), reading, 0.0));
+        assertFalse(kernel.isSafe(kernel.profile("who"), reading, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> kernel.profile("lake"));
+    }
+
+    @Test
+    void testFirstProfileIsTheDefault() {
+        Map<String, List<ThresholdRule>> profiles = new LinkedHashMap<>();
+        profiles.put("river", List.of());
+        profiles.put("who", List.of());
+
+        assertEquals(0, ThresholdKernel.compile(new ThresholdRuleTable(null, profiles)).defaultProfile());
+    }
+
+    @Test
+    void testInvalidRulesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ThresholdKernel.compile(new ThresholdRuleTable(null, Map.of())));
+        assertThrows(IllegalArgumentException.class, () -> ThresholdKernel.compile(new ThresholdRuleTable("lake", Map.of("who", List.of()))));
+        assertThrows(IllegalArgumentException.class, () -> compile(List.of(new ThresholdRule("bodmgl", ">", 5.0))));
+        assertThrows(IllegalArgumentException.class, () -> compile(List.of(new ThresholdRule("phph", "!=", 7.0))));
+        assertThrows(IllegalArgumentException.class, () -> compile(List.of(new ThresholdRule("phph", ">", null))));
+        assertThrows(IllegalArgumentException.class, () -> compile(List.of(new ThresholdRule(null, ">", 7.0))));
+    }
+
+    private static ThresholdKernel compile(List<ThresholdRule> rules) {
+        return ThresholdKernel.compile(new ThresholdRuleTable("test", Map.of("test", rules)));
+    }
+
+    private static WaterQualityReading reading(double ph, double alkalinity, double nitrite) {
+        return new WaterQualityReading(ph, alkalinity, NaN, nitrite, NaN, NaN, NaN, NaN);
+    }
+
+    private static WaterQualityReading reading(double ph, double alkalinity, double nitrite, double conductivity) {
+        return new WaterQualityReading(ph, alkalinity, conductivity, nitrite, NaN, NaN, NaN, NaN);
+    }
+}
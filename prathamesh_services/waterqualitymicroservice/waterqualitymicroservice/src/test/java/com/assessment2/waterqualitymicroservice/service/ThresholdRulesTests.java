@@ -0,0 +1,109 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import com.assessment2.waterqualitymicroservice.config.ThresholdRulesProperties;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRule;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import com.assessment2.waterqualitymicroservice.model.WaterQualityReading;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+
+public class ThresholdRulesTests {
+
+    private static final String RIVER = """
+            {"defaultProfile": "river", "profiles": {
+              "who": [{"parameter": "phph", "operator": ">", "limit": 8.5}],
+              "river": [{"parameter": "phph", "operator": ">", "limit": 9.5}]
+            }}""";
+
+    @TempDir
+    Path directory;
+
+    private final ThresholdRulesProperties properties = new ThresholdRulesProperties();
+    private final List<Object> events = new ArrayList<>();
+
+    @Test
+    void testBuiltInWhoProfileWithoutAFile() {
+        ThresholdRules rules = new ThresholdRules(properties, new DefaultResourceLoader(), events::add);
+
+        assertEquals(ThresholdRuleTable.who(), rules.current().table());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testRulesAreReadFromTheFile() throws Exception {
+        Path file = Files.writeString(directory.resolve("rules.json"), RIVER);
+        properties.setLocation(file.toUri().toString());
+
+        ThresholdKernel kernel = new ThresholdRules(properties, new DefaultResourceLoader(), events::add).current();
+
+        assertEquals(kernel.profile("river"), kernel.defaultProfile());
+        assertTrue(kernel.isSafe(kernel.defaultProfile(), ph(9.1), 0.0));
+        assertFalse(kernel.isSafe(kernel.profile("who"), ph(9.1), 0.0));
+    }
+
+    @Test
+    void testReloadSwapsTheRulesAndKeepsTheTakenOnes() throws Exception {
+        Path file = Files.writeString(directory.resolve("rules.json"), RIVER);
+        properties.setLocation(file.toUri().toString());
+        ThresholdRules rules = new ThresholdRules(properties, new DefaultResourceLoader(), events::add);
+        ThresholdKernel inFlight = rules.current();
+
+        // Act: the file is changed and read again
+        Files.writeString(file, RIVER.replace("9.5", "9.0"));
+        ThresholdKernel reloaded = rules.reload();
+
+        // Assert: new evaluations use the new rules, the one in flight still has the old ones
+        assertSame(reloaded, rules.current());
+        assertFalse(reloaded.isSafe(reloaded.defaultProfile(), ph(9.1), 0.0));
+        assertTrue(inFlight.isSafe(inFlight.defaultProfile(), ph(9.1), 0.0));
+        assertEquals(List.of(new ThresholdRules.Changed(reloaded)), events);
+    }
+
+    @Test
+    void testInvalidRulesKeepTheCurrentOnes() throws Exception {
+        Path file = Files.writeString(directory.resolve("rules.json"), RIVER);
+        properties.setLocation(file.toUri().toString());
+        ThresholdRules rules = new ThresholdRules(properties, new DefaultResourceLoader(), events::add);
+        ThresholdKernel current = rules.current();
+
+        Files.writeString(file, RIVER.replace("\"phph\"", "\"ph\""));
+        assertThrows(IllegalArgumentException.class, rules::reload);
+        Files.writeString(file, "{\"profiles\": [");
+        assertThrows(IllegalArgumentException.class, rules::reload);
+        Files.delete(file);
+        assertThrows(UncheckedIOException.class, rules::reload);
+        assertThrows(IllegalArgumentException.class, () -> rules.replace(new ThresholdRuleTable("lake", Map.of("who", List.of()))));
+
+        assertSame(current, rules.current());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testReplaceWithNewRules() {
+        ThresholdRules rules = new ThresholdRules(properties, new DefaultResourceLoader(), events::add);
+        ThresholdRuleTable table = new ThresholdRuleTable("strict", Map.of("strict", List.of(new ThresholdRule("phph", ">", 7.0))));
+
+        ThresholdKernel replaced = rules.replace(table);
+
+        assertEquals(table, rules.current().table());
+        assertFalse(replaced.isSafe(replaced.defaultProfile(), ph(7.5), 0.0));
+        assertEquals(1, events.size());
+    }
+
+    private static WaterQualityReading ph(double ph) {
+        return WaterQualityReading.fromMap(Map.of("phph", ph));
+    }
+}
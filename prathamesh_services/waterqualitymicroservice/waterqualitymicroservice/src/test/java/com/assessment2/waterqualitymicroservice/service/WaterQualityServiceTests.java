@@ -5,14 +5,27 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 
-import org.springframework.web.client.ResourceAccessException;
-import org.springframework.core.ParameterizedTypeReference;
+import reactor.core.publisher.Mono;
 
+import com.assessment2.waterqualitymicroservice.config.LatestCacheProperties;
+import com.assessment2.waterqualitymicroservice.config.ThresholdRulesProperties;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRule;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.net.URI;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.mockito.Mockito.*;
@@ -26,7 +39,16 @@ public class WaterQualityServiceTests {
     private WaterQualityService waterQualityService;
 
     @Mock
-    private RestTemplate restTemplate;
+    private MonitoringClient monitoringClient;
+
+    @Spy
+    private ThresholdRules thresholdRules = new ThresholdRules(new ThresholdRulesProperties(), new DefaultResourceLoader(), event -> { });
+
+    @Spy
+    private LatestFlaggedCache latestFlaggedCache = new LatestFlaggedCache(new LatestCacheProperties(), thresholdRules, new SimpleMeterRegistry());
+
+    @Spy
+    private LatestFlaggedPublisher latestFlaggedPublisher = new LatestFlaggedPublisher(thresholdRules, new SimpleMeterRegistry());
 
     @BeforeEach
     void setUp() {
@@ -48,19 +70,11 @@ public class WaterQualityServiceTests {
 
         ResponseEntity<Map<String, Object>> responseEntity = new ResponseEntity<>(mockData, HttpStatus.OK);
 
-        // Mock RestTemplate to return the data
-        when(restTemplate.exchange(
-                eq("http://localhost:8081/watermonitoring/records/latest"),
-                eq(org.springframework.http.HttpMethod.GET),
-                isNull(),
-                eq(new ParameterizedTypeReference<Map<String, Object>>() {
-                	
-                })
-                )
-        ).thenReturn(responseEntity);
+        // Mock the monitoring client to return the data
+        when(monitoringClient.getLatestRecord()).thenReturn(Mono.just(responseEntity));
 
         // Act
-        ResponseEntity<Map<String, Object>> result = waterQualityService.getLatestWaterQuality();
+        ResponseEntity<Map<String, Object>> result = waterQualityService.getLatestWaterQuality().block();
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
@@ -69,22 +83,92 @@ public class WaterQualityServiceTests {
         assertTrue(result.getBody().containsKey("safetyFlag"));
     }
 
+    @Test
+    void testGetLatestWaterQualityRedFlagWithMissingValues() {
+        // Arrange: only pH and nitrite were measured, nitrite breaches its threshold
+        Map<String, Object> mockData = new HashMap<>();
+        mockData.put("phph", 7);
+        mockData.put("alkmgl", null);
+        mockData.put("no2nmgl", 1.5);
+        mockData.put("fesol1ugl", 500);
+        when(monitoringClient.getLatestRecord()).thenReturn(Mono.just(new ResponseEntity<>(mockData, HttpStatus.OK)));
+
+        // Act
+        ResponseEntity<Map<String, Object>> result = waterQualityService.getLatestWaterQuality().block();
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(0.5, result.getBody().get("totalDissolvedSolids"));
+        assertEquals("Red", result.getBody().get("safetyFlag"));
+        assertEquals(1.5, result.getBody().get("no2nmgl"));
+    }
+
+    @Test
+    void testGetLatestWaterQualityIsCached() {
+        // Arrange
+        Map<String, Object> mockData = new HashMap<>();
+        mockData.put("phph", 7.5);
+        when(monitoringClient.getLatestRecord()).thenReturn(Mono.just(new ResponseEntity<>(mockData, HttpStatus.OK)));
+
+        // Act
+        ResponseEntity<Map<String, Object>> first = waterQualityService.getLatestWaterQuality().block();
+        ResponseEntity<Map<String, Object>> second = waterQualityService.getLatestWaterQuality().block();
+
+        // Assert: the second request is answered from the cache
+        assertSame(first, second);
+        verify(monitoringClient, times(1)).getLatestRecord();
+    }
+
+    @Test
+    void testGetLatestWaterQualityReturnsPublishedReading() {
+        // Arrange: a reading was received in the background
+        Map<String, Object> reading = new HashMap<>();
+        reading.put("id", "72399005");
+        reading.put("phph", 9.1);
+        latestFlaggedPublisher.publish(reading);
+
+        // Act
+        ResponseEntity<Map<String, Object>> result = waterQualityService.getLatestWaterQuality().block();
+
+        // Assert: the precomputed result is returned without calling the monitoring service
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("Red", result.getBody().get("safetyFlag"));
+        assertEquals(0.0, result.getBody().get("totalDissolvedSolids"));
+        verifyNoInteractions(monitoringClient);
+    }
+
+    @Test
+    void testGetLatestWaterQualityWithAnotherProfile() {
+        // Arrange: a river profile which allows a higher pH than WHO
+        Map<String, List<ThresholdRule>> profiles = new LinkedHashMap<>();
+        profiles.put("who", ThresholdRuleTable.who().profiles().get("who"));
+        profiles.put("river", List.of(new ThresholdRule("phph", ">", 9.5)));
+        thresholdRules.replace(new ThresholdRuleTable("who", profiles));
+        Map<String, Object> reading = new HashMap<>();
+        reading.put("id", "72399005");
+        reading.put("phph", 9.1);
+        latestFlaggedPublisher.publish(reading);
+
+        // Act
+        ResponseEntity<Map<String, Object>> who = waterQualityService.getLatestWaterQuality(null).block();
+        ResponseEntity<Map<String, Object>> river = waterQualityService.getLatestWaterQuality("river").block();
+
+        // Assert: the same reading is flagged by each profile, without calling the monitoring service
+        assertEquals("Red", who.getBody().get("safetyFlag"));
+        assertEquals("Green", river.getBody().get("safetyFlag"));
+        assertEquals(9.1, river.getBody().get("phph"));
+        assertThrows(IllegalArgumentException.class, () -> waterQualityService.getLatestWaterQuality("lake"));
+        verifyNoInteractions(monitoringClient);
+    }
+
     @Test
     void testGetLatestWaterQualityNoContent() {
         // Arrange
         ResponseEntity<Map<String, Object>> responseEntity = new ResponseEntity<>(HttpStatus.NO_CONTENT);
-        when(restTemplate.exchange(
-                eq("http://localhost:8081/watermonitoring/records/latest"),
-                eq(org.springframework.http.HttpMethod.GET),
-                isNull(),
-                eq(new ParameterizedTypeReference<Map<String, Object>>() {
-                	
-                }
-                ))
-        ).thenReturn(responseEntity);
+        when(monitoringClient.getLatestRecord()).thenReturn(Mono.just(responseEntity));
 
         // Act
-        ResponseEntity<Map<String, Object>> result = waterQualityService.getLatestWaterQuality();
+        ResponseEntity<Map<String, Object>> result = waterQualityService.getLatestWaterQuality().block();
 
         // Assert
         assertEquals(HttpStatus.NO_CONTENT, result.getStatusCode());
@@ -93,18 +177,11 @@ public class WaterQualityServiceTests {
     @Test
     void testGetLatestWaterQualityServiceUnavailable() {
         // Arrange
-        when(restTemplate.exchange(
-                eq("http://localhost:8081/watermonitoring/records/latest"),
-                eq(org.springframework.http.HttpMethod.GET),
-                isNull(),
-                eq(new ParameterizedTypeReference<Map<String, Object>>() {
-                	
-                }
-                ))
-        ).thenThrow(new ResourceAccessException("Service timeout"));
+        when(monitoringClient.getLatestRecord()).thenReturn(Mono.error(new WebClientRequestException(new IOException("Service timeout"), HttpMethod.GET,
+                URI.create("http://localhost:8081/watermonitoring/records/latest"), HttpHeaders.EMPTY)));
 
         // Act
-        ResponseEntity<Map<String, Object>> result = waterQualityService.getLatestWaterQuality();
+        ResponseEntity<Map<String, Object>> result = waterQualityService.getLatestWaterQuality().block();
 
         // Assert
         assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
@@ -114,18 +191,10 @@ public class WaterQualityServiceTests {
     @Test
     void testGetLatestWaterQualityInternalServerError() {
         // Arrange
-        when(restTemplate.exchange(
-                eq("http://localhost:8081/watermonitoring/records/latest"),
-                eq(org.springframework.http.HttpMethod.GET),
-                isNull(),
-                eq(new ParameterizedTypeReference<Map<String, Object>>() {
-                	
-                }
-                ))
-        ).thenThrow(new RuntimeException("Internal error"));
+        when(monitoringClient.getLatestRecord()).thenReturn(Mono.error(new RuntimeException("Internal error")));
 
         // Act
-        ResponseEntity<Map<String, Object>> result = waterQualityService.getLatestWaterQuality();
+        ResponseEntity<Map<String, Object>> result = waterQualityService.getLatestWaterQuality().block();
 
         // Assert
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, result.getStatusCode());
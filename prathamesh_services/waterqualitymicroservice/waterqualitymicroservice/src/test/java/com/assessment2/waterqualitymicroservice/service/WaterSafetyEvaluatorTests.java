@@ -0,0 +1,85 @@
+package com.assessment2.waterqualitymicroservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.assessment2.waterqualitymicroservice.model.ThresholdRule;
+import com.assessment2.waterqualitymicroservice.model.ThresholdRuleTable;
+import com.assessment2.waterqualitymicroservice.model.WaterQualityReading;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+
+public class WaterSafetyEvaluatorTests {
+
+    private static final double NaN = Double.NaN;
+    private static final ThresholdKernel WHO = ThresholdKernel.compile(ThresholdRuleTable.who());
+
+    @Test
+    void testTotalDissolvedSolidsConvertsMicrograms() {
+        WaterQualityReading reading = new WaterQualityReading(7.5, 45, 204, 0.024, 0.0019, 2.76, 383.29, 8.84);
+
+        assertEquals(0.0019 + 2.76 / 1000 + 383.29 / 1000 + 8.84 / 1000, WaterSafetyEvaluator.totalDissolvedSolids(reading));
+        assertEquals(WaterSafetyEvaluator.SAFE, WaterSafetyEvaluator.safetyFlag(WHO, WHO.defaultProfile(), reading, WaterSafetyEvaluator.totalDissolvedSolids(reading)));
+    }
+
+    @Test
+    void testMissingValuesNeverBreachThresholds() {
+        WaterQualityReading reading = new WaterQualityReading(NaN, NaN, NaN, NaN, NaN, NaN, NaN, NaN);
+
+        assertEquals(0.0, WaterSafetyEvaluator.totalDissolvedSolids(reading));
+        assertTrue(WHO.isSafe(WHO.defaultProfile(), reading, 0.0));
+    }
+
+    @Test
+    void testEachThresholdIsUnsafe() {
+        assertFalse(isSafe(1000.1, 7.0, 100, 500, 0.1));
+        assertFalse(isSafe(10, 6.4, 100, 500, 0.1));
+        assertFalse(isSafe(10, 8.6, 100, 500, 0.1));
+        assertFalse(isSafe(10, 7.0, 501, 500, 0.1));
+        assertFalse(isSafe(10, 7.0, 100, 2001, 0.1));
+        assertFalse(isSafe(10, 7.0, 100, 500, 1.0));
+        assertTrue(isSafe(1000, 6.5, 500, 2000, 0.99));
+        assertEquals(WaterSafetyEvaluator.UNSAFE,
+                WaterSafetyEvaluator.safetyFlag(WHO, WHO.defaultProfile(), new WaterQualityReading(NaN, NaN, NaN, 1.2, NaN, NaN, NaN, NaN), 0.0));
+    }
+
+    @Test
+    void testFromMapReadsNumbersAndMissingValues() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("phph", 7);
+        data.put("alkmgl", null);
+        data.put("no2nmgl", 0.011);
+
+        WaterQualityReading reading = WaterQualityReading.fromMap(data);
+
+        assertEquals(7.0, reading.phph());
+        assertTrue(Double.isNaN(reading.alkmgl()));
+        assertTrue(Double.isNaN(reading.conduscm()));
+        assertEquals(0.011, reading.no2nmgl());
+    }
+
+    @Test
+    void testFlagUsesTheGivenProfile() {
+        ThresholdKernel kernel = ThresholdKernel.compile(new ThresholdRuleTable("who", Map.of(
+                "who", ThresholdRuleTable.who().profiles().get("who"),
+                "strict", List.of(new ThresholdRule("phph", ">", 8.0)))));
+        Map<String, Object> data = new HashMap<>();
+        data.put("phph", 8.2);
+
+        assertEquals(WaterSafetyEvaluator.SAFE, WaterSafetyEvaluator.flag(data, kernel).safetyFlag());
+        assertEquals(WaterSafetyEvaluator.UNSAFE, WaterSafetyEvaluator.flag(data, kernel, kernel.profile("strict")).data().get("safetyFlag"));
+    }
+
+    /**
+     * Checks the values against the WHO profile.
+     */
+    private static boolean isSafe(double totalDissolvedSolids, double ph, double alkalinity, double conductivity, double nitrite) {
+        return WHO.isSafe(WHO.defaultProfile(), new WaterQualityReading(ph, alkalinity, conductivity, nitrite, NaN, NaN, NaN, NaN),
+                totalDissolvedSolids);
+    }
+}